@@ -0,0 +1,323 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * The class AccountingEntry resembles an account with value. Some fields adhere to the contracts specified
+ * in the functions isCorrectXXX() where XXX is equal to the fields' name. The name and balance are read-only for
+ * everyone but the Ledger that holds this AccountingEntity, which adjusts the balance in place when Transactions are
+ * posted and renames through {@link Ledger#renameAccountingEntity(int, String)}. Observers are notified through the
+ * listeners of that Ledger. The balance is kept in whole cents, see {@link Money}.
+ *
+ * @version v0.2-pre-alpha
+ * @author Aron Hoogeveen
+ */
+public class AccountingEntity {
+    protected final int id;
+    protected  @NotNull String name;
+    protected  @NotNull final AccountType accountType;
+    // the balance in cents
+    protected long balance;
+    /**
+     * Constructs a new AccountingEntry with {@code id} and {@code name}.
+     * <br />
+     * For the constraints of {@code id} and {@code name} see {@link AccountingEntity#isCorrectId(int)} and
+     * {@link AccountingEntity#isCorrectName(String)} respectively.
+     *
+     * @param id a unique identifier
+     * @param name the name of this AccountingEntry
+     * @param accountType the AccountType of this AccountingEntity
+     * @param balance the current balance
+     * @see AccountingEntity#isCorrectId(int)
+     * @see AccountingEntity#isCorrectName(String)
+     */
+    public AccountingEntity(int id, @NotNull String name, @NotNull AccountType accountType, @NotNull Money balance) {
+        Objects.requireNonNull(name, "Parameter name cannot be null");
+        Objects.requireNonNull(accountType, "Parameter accountType cannot be null");
+        Objects.requireNonNull(balance, "Parameter balance cannot be null");
+
+        if (!isCorrectId(id)) {
+            throw new IllegalArgumentException("Illegal id");
+        }
+        if (!isCorrectName(name)) {
+            throw new IllegalArgumentException("Illegal name");
+        }
+
+        // Strip the string of the whitespaces before setting
+        this.id = id;
+        this.name = name.strip();
+        this.accountType = accountType;
+        this.balance = balance.getCents();
+    }
+
+    /**
+     * Constructs a new AccountingEntry with {@code id} and {@code name}. The {@code balance} is rounded to whole cents.
+     *
+     * @see AccountingEntity#AccountingEntity(int, String, AccountType, Money)
+     * @see Money#of(double)
+     */
+    public AccountingEntity(int id, @NotNull String name, @NotNull AccountType accountType, double balance) {
+        this(id, name, accountType, Money.of(balance));
+    }
+
+    /**
+     * Constructs a copy of {@code other}, so changing the name or balance of the copy does not change {@code other}.
+     * The fields of {@code other} are not validated again.
+     *
+     * @param other the AccountingEntity to copy
+     */
+    protected AccountingEntity(@NotNull AccountingEntity other) {
+        Objects.requireNonNull(other, "Parameter other cannot be null");
+
+        this.id = other.id;
+        this.name = other.name;
+        this.accountType = other.accountType;
+        this.balance = other.balance;
+    }
+
+    /**
+     * Returns a copy of this AccountingEntity of the same class.
+     *
+     * @return copy of this AccountingEntity
+     * @see AccountingEntity#AccountingEntity(AccountingEntity)
+     */
+    public @NotNull AccountingEntity copy() {
+        return new AccountingEntity(this);
+    }
+
+    public int getId() {
+        assert isCorrectId(id);
+
+        return id;
+    }
+
+    public @NotNull String getName() { return name; }
+
+    /**
+     * Sets the name of this AccountingEntity in place. Only to be used by the Ledger that holds this AccountingEntity,
+     * which validates {@code name} and keeps its name index up to date.
+     *
+     * @param name the new name
+     */
+    void setName(@NotNull String name) {
+        this.name = name.strip();
+    }
+
+    public @NotNull Money getBalance() { return Money.ofCents(balance); }
+
+    /**
+     * Returns the balance of this AccountingEntity in cents, without creating a Money.
+     *
+     * @return the balance in cents
+     */
+    public long getBalanceCents() { return balance; }
+
+    @NotNull
+    public AccountType getAccountType() {
+        return accountType;
+    }
+
+    /**
+     * Returns a new AccountingEntity with {@code amount} added to the balance of this AccountingEntity.
+     *
+     * @deprecated use {@link AccountingEntity#debit(Money)} and {@link AccountingEntity#credit(Money)} instead
+     * @param amount the amount to add to balance. Could be negative
+     * @return new AccountingEntity with the added balance
+     */
+    @NotNull
+    @Deprecated
+    public AccountingEntity addBalance(double amount) {
+
+        return new AccountingEntity(id, name, accountType, getBalance().plus(Money.of(amount)));
+    }
+
+    /**
+     * Returns a duplicate of this AccountingEntity after debiting {@code amount}.
+     *
+     * @param amount the amount to debit
+     * @return duplicate of AccountingEntity
+     */
+    public @NotNull AccountingEntity debit(@NotNull Money amount) {
+        return new AccountingEntity(id, name, accountType, debitedBalance(amount));
+    }
+
+    /**
+     * Returns a duplicate of this AccountingEntity after crediting {@code amount}.
+     *
+     * @param amount the amount to credit
+     * @return duplicate of AccountingEntity
+     */
+    public @NotNull AccountingEntity credit(@NotNull Money amount) {
+        return new AccountingEntity(id, name, accountType, creditedBalance(amount));
+    }
+
+    /**
+     * Returns the balance of this AccountingEntity after debiting {@code amount}.
+     */
+    protected @NotNull Money debitedBalance(@NotNull Money amount) {
+        Objects.requireNonNull(amount, "Parameter amount cannot be null");
+        if (amount.isNegative()) { throw new IllegalArgumentException("You should not debit a negative amount, credit instead"); }
+
+        return Money.ofCents(Math.addExact(balance, debitBalanceChange(amount.getCents())));
+    }
+
+    /**
+     * Returns the balance of this AccountingEntity after crediting {@code amount}.
+     */
+    protected @NotNull Money creditedBalance(@NotNull Money amount) {
+        Objects.requireNonNull(amount, "Parameter amount cannot be null");
+        if (amount.isNegative()) { throw new IllegalArgumentException("You should not credit a negative amount, debit instead"); }
+
+        return Money.ofCents(Math.addExact(balance, creditBalanceChange(amount.getCents())));
+    }
+
+    /**
+     * Debits {@code amount} on this AccountingEntity in place. In contrast to {@link AccountingEntity#debit(Money)} no
+     * new AccountingEntity is created. Only to be used by the Ledger that holds this AccountingEntity.
+     *
+     * @param amount the amount to debit in cents
+     */
+    void applyDebit(long amount) {
+        applyBalanceChange(debitBalanceChange(amount));
+    }
+
+    /**
+     * Credits {@code amount} on this AccountingEntity in place. In contrast to {@link AccountingEntity#credit(Money)}
+     * no new AccountingEntity is created. Only to be used by the Ledger that holds this AccountingEntity.
+     *
+     * @param amount the amount to credit in cents
+     */
+    void applyCredit(long amount) {
+        applyBalanceChange(creditBalanceChange(amount));
+    }
+
+    /**
+     * Adds {@code balanceChange} to the balance of this AccountingEntity in place. Used by the Ledger that holds this
+     * AccountingEntity to apply the summed balance changes of many Transactions with a single update.
+     *
+     * @param balanceChange the change in balance in cents as returned by {@link AccountingEntity#debitBalanceChange(long)}
+     *                      and {@link AccountingEntity#creditBalanceChange(long)}
+     */
+    void applyBalanceChange(long balanceChange) {
+        if (balanceChange == 0) { return; }
+        balance = Math.addExact(balance, balanceChange);
+    }
+
+    /**
+     * Calculate the change in balance when {@code amount} is debited on this AccountingEntity.
+     *
+     * @param amount the amount to debit in cents
+     * @return the balance change in cents
+     */
+    public long debitBalanceChange(long amount) {
+        if (amount < 0) { throw new IllegalArgumentException("You should not debit a negative amount"); }
+        return (accountType.isDebit() ? amount : -1 * amount);
+    }
+
+    /**
+     * Calculate the change in balance when {@code amount} is credited on this AccountingEntity.
+     *
+     * @param amount the amount to credit in cents
+     * @return the balance change in cents
+     */
+    public long creditBalanceChange(long amount) {
+        if (amount < 0) { throw new IllegalArgumentException("You should not credit a negative amount"); }
+        return (accountType.isDebit() ? -1 * amount : amount);
+    }
+
+    /**
+     * Returns whether {@code o} is an AccountingEntity of the same class with the same id and AccountType. The name and
+     * balance are left out, because the Ledger that holds this AccountingEntity changes them in place, which must not
+     * move it to another bucket of a hash based collection. Use
+     * {@link AccountingEntity#hasSameState(AccountingEntity)} to compare the name and balance as well.
+     *
+     * @param o the Object to compare to
+     * @return if this and o are equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        AccountingEntity that = (AccountingEntity) o;
+
+        if (id != that.id) return false;
+        return accountType == that.accountType;
+    }
+
+    @Override
+    public int hashCode() {
+        int result;
+        result = id;
+        result = 31 * result + accountType.hashCode();
+        return result;
+    }
+
+    /**
+     * Returns whether {@code other} is equal to this AccountingEntity and also has the same name and balance.
+     *
+     * @param other the AccountingEntity to compare to
+     * @return if this and other are equal and have the same name and balance
+     */
+    public boolean hasSameState(@NotNull AccountingEntity other) {
+        Objects.requireNonNull(other, "Parameter other cannot be null");
+
+        if (!equals(other)) return false;
+        if (balance != other.balance) return false;
+        return name.equals(other.name);
+    }
+
+    /**
+     * Returns whether the provided id is a correct id for constructing a new AccountingEntity. Id constraints are:
+     * - positive number (greater than or equal to zero).
+     *
+     * @param id the id to check
+     * @return {@code true} if this is a correct id, {@code false} otherwise
+     */
+    public static boolean isCorrectId(int id) {
+        return true;
+    }
+
+    /**
+     * Returns whether the provided name is a correct name for constructing a new AccountingEntity. Name constraints are:<br />
+     * - Not null;<br />
+     * - Not empty;<br />
+     * - Not whitespace only;<br />
+     * - Max length of 256 characters;<br />
+     * - Does not contain newline characters.<br />
+     * - Is all alphabetical.<br />
+     *
+     * @param name the name to check
+     * @return true if this is a correct name, false otherwise
+     */
+    public static boolean isCorrectName(String name) {
+        return (name != null) && (!name.isBlank()) && (name.strip().length() <= 256) && (!name.contains("\n"))
+                && (!name.contains("\r")) && (name.strip().matches("[a-zA-Z ]*"));
+    }
+
+    /**
+     * Returns the name of this AccountingEntity.
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,619 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.core;
+
+import ch.bolkhuis.kasboek.eventlisteners.EntryChangeListener;
+import ch.bolkhuis.kasboek.exceptions.IllegalTemplateFormatException;
+import ch.bolkhuis.kasboek.exceptions.UnsupportedVersionException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Class HuischLedger is a Ledger that has extra functionality to meet the demands of the Bolkhuisch. AccountingEntities
+ * with negative ids are reserved by this class. It is possible to create AccountingEntities with negative ids, but if
+ * that id collides with one of the reserved ids of this class that AccountingEntity will be overwritten at some point
+ * without giving feedback.
+ *
+ * @author Aron Hoogeveen
+ * @version 0.2-pre-alpha
+ */
+public final class HuischLedger extends Ledger {
+    private final static String introText = "Please replace this string with some info text";
+
+    private final static int placeholderEntityId = -1;
+
+    private final ListenableIntMap<Receipt> receipts;
+    /**
+     * The map that backs {@code receipts}. Lookups by id read from it directly, changes go through {@code receipts} so
+     * its listeners are notified.
+     */
+    private final IntObjectMap<Receipt> receiptStore;
+    private int nextReceiptId = 0;
+    /**
+     * Secondary index that maps the id of a Receipt to the ids of the Transactions that refer to it through
+     * {@link Transaction#getReceiptId()}. The index is kept up to date when Transactions are added or removed.
+     */
+    private final @NotNull IntObjectMap<SortedSet<Integer>> receiptTransactionIndex = new IntObjectMap<>();
+
+    public HuischLedger() {
+        this.receiptStore = new IntObjectMap<>();
+        this.receipts = new ListenableIntMap<>(receiptStore);
+    }
+
+    public HuischLedger(@NotNull Ledger old) {
+        super(old);
+        this.receiptStore = new IntObjectMap<>();
+        this.receipts = new ListenableIntMap<>(receiptStore);
+        indexReceiptTransactions();
+    }
+
+    /**
+     * Creates a copy of {@code old} including its Receipts, optionally skipping the validation of {@code old}.
+     *
+     * @param old the HuischLedger to copy
+     * @param validate whether {@code old} needs to be validated
+     * @see Ledger#Ledger(Ledger, boolean)
+     */
+    private HuischLedger(@NotNull HuischLedger old, boolean validate) {
+        super(old, validate);
+        this.receiptStore = new IntObjectMap<>(old.receiptStore.size());
+        for (Map.Entry<Integer, Receipt> receiptEntry : old.receiptStore.entrySet()) {
+            receiptStore.put((int) receiptEntry.getKey(), receiptEntry.getValue().copy());
+        }
+        this.receipts = new ListenableIntMap<>(receiptStore);
+        this.nextReceiptId = old.nextReceiptId;
+        indexReceiptTransactions();
+    }
+
+    public HuischLedger(@NotNull Map<Integer, AccountingEntity> accountingEntities) {
+        super(accountingEntities);
+        this.receiptStore = new IntObjectMap<>();
+        this.receipts = new ListenableIntMap<>(receiptStore);
+    }
+
+    public HuischLedger(@NotNull Map<Integer, AccountingEntity> accountingEntities,
+                        @NotNull Map<Integer, Transaction> transactions) {
+        super(accountingEntities, transactions);
+        this.receiptStore = new IntObjectMap<>();
+        this.receipts = new ListenableIntMap<>(receiptStore);
+        indexReceiptTransactions();
+    }
+
+    public HuischLedger(@NotNull Map<Integer, AccountingEntity> accountingEntities,
+                        @NotNull Map<Integer, Transaction> transactions,
+                        @NotNull Map<Integer, Receipt> receipts) {
+        super(accountingEntities, transactions);
+        this.receiptStore = new IntObjectMap<>(Objects.requireNonNull(receipts, "Parameter receipts cannot be null"));
+        this.receipts = new ListenableIntMap<>(receiptStore);
+        for (int key : receipts.keySet()) {
+            nextReceiptId = Math.max(nextReceiptId, key + 1);
+        }
+        indexReceiptTransactions();
+    }
+
+    /**
+     * Creates a HuischLedger from stored state without copying maps that are an {@link IntObjectMap}.
+     *
+     * @see HuischLedger#load(Map, Map, Map, int, int, int)
+     */
+    private HuischLedger(@NotNull Map<Integer, AccountingEntity> accountingEntities,
+                         @NotNull Map<Integer, Transaction> transactions,
+                         @NotNull Map<Integer, Receipt> receipts,
+                         int nextTransactionId,
+                         int nextAccountingEntityId,
+                         int nextReceiptId) {
+        super(accountingEntities, transactions, nextTransactionId, nextAccountingEntityId);
+        Objects.requireNonNull(receipts, "Parameter receipts cannot be null");
+        IntObjectMap<Receipt> receiptStore = IntObjectMap.of(receipts);
+
+        for (Map.Entry<Integer, Receipt> receiptEntry : receiptStore.entrySet()) {
+            Receipt receipt = receiptEntry.getValue();
+            if (receipt == null || receiptEntry.getKey() != receipt.getId()) {
+                throw new IllegalArgumentException("id has to match the key");
+            }
+            nextReceiptId = Math.max(nextReceiptId, receipt.getId() + 1);
+        }
+        for (Transaction transaction : this.transactions.values()) {
+            Integer receiptId = transaction.getReceiptId();
+            if (receiptId == null) { continue; }
+
+            Receipt receipt = receiptStore.get((int) receiptId);
+            if (receipt == null) {
+                throw new IllegalArgumentException("Transaction " + transaction.getId() + " has a non-existent receiptId");
+            }
+            receipt.registerTransaction(transaction.getId());
+            indexReceiptTransaction(transaction);
+        }
+        this.receiptStore = receiptStore;
+        this.receipts = new ListenableIntMap<>(receiptStore);
+        this.nextReceiptId = nextReceiptId;
+    }
+
+    /**
+     * Creates a HuischLedger from stored state, as done by the readers of HuischLedger files. Next to the checks of
+     * {@link Ledger#load(Map, Map, int, int)} all Receipts that are referred to by Transactions must exist.
+     *
+     * @param accountingEntities the AccountingEntities mapped by their id
+     * @param transactions the Transactions mapped by their id
+     * @param receipts the Receipts mapped by their id
+     * @param nextTransactionId the stored {@code nextTransactionId}
+     * @param nextAccountingEntityId the stored {@code nextAccountingEntityId}
+     * @param nextReceiptId the stored {@code nextReceiptId}
+     * @return the new HuischLedger
+     * @throws IllegalArgumentException when the stored state is not a valid HuischLedger
+     * @see Ledger#load(Map, Map, int, int)
+     */
+    public static @NotNull HuischLedger load(@NotNull Map<Integer, AccountingEntity> accountingEntities,
+                                             @NotNull Map<Integer, Transaction> transactions,
+                                             @NotNull Map<Integer, Receipt> receipts,
+                                             int nextTransactionId,
+                                             int nextAccountingEntityId,
+                                             int nextReceiptId) {
+        return new HuischLedger(accountingEntities, transactions, receipts, nextTransactionId, nextAccountingEntityId,
+                nextReceiptId);
+    }
+
+    /**
+     * Builds the receipt index from all Transactions. Used by the constructors that receive existing Transactions.
+     */
+    private void indexReceiptTransactions() {
+        for (Transaction transaction : transactions.values()) {
+            indexReceiptTransaction(transaction);
+        }
+    }
+
+    private void indexReceiptTransaction(@NotNull Transaction transaction) {
+        if (transaction.getReceiptId() == null) { return; }
+        int receiptId = transaction.getReceiptId();
+        SortedSet<Integer> ids = receiptTransactionIndex.get(receiptId);
+        if (ids == null) {
+            ids = new TreeSet<>();
+            receiptTransactionIndex.put(receiptId, ids);
+        }
+        ids.add(transaction.getId());
+    }
+
+    private void unindexReceiptTransaction(@NotNull Transaction transaction) {
+        Integer receiptId = transaction.getReceiptId();
+        if (receiptId == null) { return; }
+
+        SortedSet<Integer> ids = receiptTransactionIndex.get((int) receiptId);
+        if (ids != null) {
+            ids.remove(transaction.getId());
+            if (ids.isEmpty()) {
+                receiptTransactionIndex.remove((int) receiptId);
+            }
+        }
+        Receipt receipt = receiptStore.get((int) receiptId);
+        if (receipt != null) {
+            receipt.unregisterTransaction(transaction.getId());
+        }
+    }
+
+    /**
+     * Returns whether the Transaction with id {@code transactionId} refers to the Receipt with id {@code receiptId}.
+     * This is a constant time lookup in the receipt index. Archived Transactions are not in the receipt index, for
+     * those the Receipt itself is asked.
+     */
+    private boolean isRegisteredWithReceipt(int receiptId, int transactionId) {
+        SortedSet<Integer> ids = receiptTransactionIndex.get(receiptId);
+        if (ids != null && ids.contains(transactionId)) { return true; }
+
+        Receipt receipt = receiptStore.get(receiptId);
+        return receipt != null && receipt.getTransactionIdSet().contains(transactionId);
+    }
+
+    /**
+     * Adds the loaded Transactions to the receipt index. The Receipts already know the ids of their archived
+     * Transactions.
+     *
+     * @param loaded the loaded Transactions
+     */
+    @Override
+    protected void indexLoadedTransactions(@NotNull List<Transaction> loaded) {
+        for (Transaction transaction : loaded) {
+            indexReceiptTransaction(transaction);
+        }
+    }
+
+    /**
+     * Returns all Transactions that refer to the Receipt with id {@code receiptId}, ordered by their id. The
+     * Transactions are looked up through the receipt index, so this method does not visit any other Transactions.
+     * Archived Transactions of the Receipt are loaded first.
+     *
+     * @param receiptId the id of the Receipt
+     * @return a new List of Transactions
+     */
+    public @NotNull List<Transaction> transactionsOfReceipt(int receiptId) {
+        Receipt receipt = receiptStore.get(receiptId);
+        if (receipt != null && getLoadedFrom() != null) {
+            for (int transactionId : receipt.getTransactionIdSet()) {
+                loadTransaction(transactionId);
+            }
+        }
+
+        SortedSet<Integer> ids = receiptTransactionIndex.get(receiptId);
+        if (ids == null) { return new ArrayList<>(); }
+
+        List<Transaction> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            result.add(loadedTransactionById(id));
+        }
+        return result;
+    }
+
+    /**
+     * Returns an independent copy of this HuischLedger, including copies of its Receipts.
+     *
+     * @return a copy of this HuischLedger
+     * @see Ledger#snapshot()
+     */
+    @Override
+    public @NotNull HuischLedger snapshot() {
+        return new HuischLedger(this, false);
+    }
+
+    /**
+     * Generates an invoice for an InmateEntity with id {@code inmateEntityId} and writes it to the file {@code out}.
+     * Transactions that belong to a Receipt are grouped together and shown as one on the Invoice. The counter-entity
+     * for the Receipts will the denoted as "various" (or the locale different version from the provided resource file)
+     * <br />
+     * <br />
+     * This method uses template version 1.
+     *
+     * @param out the output file
+     * @param template the template for the invoice
+     * @param huischLedger the huischLedger containing the AccountingEntity
+     * @param inmateEntityId the id of the AccountingEntity to generate an invoice for
+     * @param resourceBundle the ResourceBundle for supplying Locale specific Strings
+     * @throws IOException when there are problems reading/writing the Files
+     * @throws UnsupportedVersionException when the template version is not supported
+     */
+    private static void generateInmateInvoice(@NotNull File out, @NotNull File template, @NotNull HuischLedger huischLedger,
+                                              int inmateEntityId, @NotNull LocalDate from,
+                                              @NotNull LocalDate to, @NotNull ResourceBundle resourceBundle)
+            throws IOException {
+        Objects.requireNonNull(out, "Parameter out cannot be null");
+        Objects.requireNonNull(template, "Parameter template cannot be null");
+        Objects.requireNonNull(huischLedger, "Parameter huischLedger cannot be null");
+        Objects.requireNonNull(from, "Parameter from cannot be null");
+        Objects.requireNonNull(to, "Parameter to cannot be null");
+        Objects.requireNonNull(resourceBundle, "Parameter resourceBundle cannot be null");
+
+        // Check that the provided inmateEntityId matches an AccountingEntity in the Ledger
+        AccountingEntity accountingEntity = huischLedger.getAccountingEntityById(inmateEntityId);
+        if (accountingEntity == null) {
+            throw new IllegalArgumentException("The provided inmateEntityId has not corresponding AccountingEntity in the provided Ledger");
+        }
+
+        // Check that the provided Entity is an InmateEntity
+        if (!(accountingEntity instanceof InmateEntity)) {
+            throw new IllegalArgumentException("The provided inmateEntityId does not belong to an inmate");
+        }
+        InmateEntity inmateEntity = (InmateEntity) accountingEntity;
+
+        // Update the string for the placeholderEntity
+        huischLedger.putAccountingEntity(placeholderEntityId, new PlaceholderEntity(resourceBundle.getString("various")));
+
+
+        // TODO change the used currency based on the provided Locale
+        Currency currency = Currency.getInstance("EUR");
+        NumberFormat numberFormat = NumberFormat.getCurrencyInstance(Locale.GERMAN);
+        numberFormat.setCurrency(currency);
+
+        // Compatible template version(s)
+        String templateVersionString = "<!-- version:1 -->";
+
+        String templateString;
+        // Read in the template
+        try (BufferedReader reader = new BufferedReader(new FileReader(template))) {
+            // make sure compatible versions are being provided
+            String fileVersion = reader.readLine();
+            if (!fileVersion.equals(templateVersionString)) {
+                throw new UnsupportedVersionException("Version \"" + fileVersion + "\" is not supported");
+            }
+
+            StringBuilder templateStringBuilder = new StringBuilder();
+            reader.lines().forEach((s) -> templateStringBuilder.append(s).append("\n"));
+            templateString = templateStringBuilder.toString();
+
+            // Make sure all fields are in the template
+            List<String> fields = List.of(
+                    "${NAME}",
+                    "${INTRO_TEXT}",
+                    "${START_BALANCE}",
+                    "${END_BALANCE}",
+                    "${TABLE_DATA}"
+            );
+            String finalTemplateString = templateString;
+            fields.forEach(e -> {
+                if (!finalTemplateString.contains(e)) {
+                    throw new IllegalTemplateFormatException("Field '" + e + "' is missing from the provided template file");
+                }
+                if (finalTemplateString.indexOf(e) != finalTemplateString.lastIndexOf(e)) {
+                    throw new IllegalTemplateFormatException("Field '" + e + "' is declared too many times");
+                }
+            });
+
+            // Scan the invoice period in the transaction columns, which also covers archived Transactions without
+            // loading them. Only the stand-alone Transactions are created, the Transactions that belong to a Receipt
+            // are only added up. The receipt index tells in constant time whether a Transaction is part of a Receipt.
+            TransactionColumns columns = huischLedger.transactionColumns();
+            List<Transaction> standAloneTransactions = new ArrayList<>();
+            TreeMap<Integer, long[]> receiptIdToBalanceChange = new TreeMap<>();
+            int end = columns.firstRowOnOrAfter(to.plusDays(1));
+            for (int row = columns.firstRowOnOrAfter(from); row < end; row++) {
+                boolean isDebtor = columns.debtorIdAt(row) == inmateEntityId;
+                if (!isDebtor && columns.creditorIdAt(row) != inmateEntityId) { continue; }
+
+                Integer r_id = columns.receiptIdAt(row);
+                if (r_id == null || !huischLedger.isRegisteredWithReceipt(r_id, columns.idAt(row))) {
+                    standAloneTransactions.add(columns.transactionAt(row));
+                    continue;
+                }
+                // Calculate the resulting balance change of the receipt
+                long amount = columns.amountCentsAt(row);
+                receiptIdToBalanceChange.computeIfAbsent(r_id, k -> new long[1])[0] += isDebtor
+                        ? accountingEntity.debitBalanceChange(amount)
+                        : accountingEntity.creditBalanceChange(amount);
+            }
+
+            // Create stand-alone transactions for the grouped transactions per receipt
+            receiptIdToBalanceChange.forEach((r_id, change) -> {
+                Receipt receipt = huischLedger.receiptStore.get((int) r_id);
+                // Only create the representing transaction if the current accountingEntity is the payer
+                if (receipt.getPayer() == accountingEntity.getId()) {
+                    // create a stand-alone Transaction that resembles the result of all the transactions
+                    long balanceChange = change[0];
+
+                    // The amount of a Transaction cannot be negative, so a decrease in balance is shown by swapping
+                    // the sides. The amountString below shows a debit on a debit account and a credit on a credit
+                    // account as positive.
+                    boolean isDebtor = (balanceChange >= 0) == accountingEntity.accountType.isDebit();
+                    int debtorId = isDebtor ? accountingEntity.getId() : placeholderEntityId;
+                    int creditorId = isDebtor ? placeholderEntityId : accountingEntity.getId();
+
+
+                    // Create the transaction representing the receipt and add it to the stand-alone transactions
+                    standAloneTransactions.add(
+                            new Transaction(
+                                    -666,
+                                    debtorId,
+                                    creditorId,
+                                    Money.ofCents(Math.abs(balanceChange)),
+                                    receipt.getDate(),
+                                    receipt.getName()));
+                }
+            });
+
+            // Generate the TABLE_DATA from the transactions
+            StringBuilder tableDateStringBuilder = new StringBuilder();
+            standAloneTransactions.forEach((t) -> {
+                if (t == null) { return; }
+                // Get the counter-entity.
+                int counterEntityId = (t.getDebtorId() == inmateEntityId) ? t.getCreditorId() : t.getDebtorId();
+                AccountingEntity counterEntity = huischLedger.getAccountingEntityById(counterEntityId);
+
+                // Use an empty string if the counterEntity is not available
+                String counterEntityName = (counterEntity == null) ? "" : counterEntity.getName();
+
+                // Format the amount (amount is larger than or equal to zero)
+                Money amount = t.getAmount();
+                String amountString;
+
+                if ((inmateEntity.getAccountType().isDebit() && t.getDebtorId() == inmateEntityId)
+                        || (!inmateEntity.getAccountType().isDebit() && t.getCreditorId() == inmateEntityId)) {
+                    amountString = numberFormat.format(amount.toBigDecimal());
+                } else {
+                    amountString = numberFormat.format(amount.negate().toBigDecimal());
+                }
+
+                // FIXME implement the rest of this function
+
+                // Add a table row for this transaction
+                tableDateStringBuilder
+                        .append("\t\t<tr>\n")
+                        .append("\t\t\t<td>\n")
+                        .append("\t\t\t\t")
+                        .append(t.getDateString())
+                        .append("\n\t\t\t</td>\n")
+                        .append("\t\t\t<td>\n")
+                        .append("\t\t\t\t")
+                        .append(counterEntityName)
+                        .append("\n\t\t\t</td>\n")
+                        .append("\t\t\t<td>\n")
+                        .append("\t\t\t\t")
+                        .append(t.getDescription())
+                        .append("\n\t\t\t</td>\n")
+                        .append("\t\t\t<td>\n")
+                        .append("\t\t\t\t")
+                        .append(amountString)
+                        .append("\n\t\t\t</td>\n")
+                        .append("\t\t</tr>\n");
+            });
+
+            // Populate field ${NAME}
+            templateString = templateString.replace("${NAME}", inmateEntity.getName());
+            templateString = templateString.replace("${INTRO_TEXT}", introText);
+            templateString = templateString.replace("${START_BALANCE}", numberFormat.format(inmateEntity.getPreviousBalance().toBigDecimal()));
+            templateString = templateString.replace("${END_BALANCE}", numberFormat.format(inmateEntity.getBalance().toBigDecimal()));
+            templateString = templateString.replace("${TABLE_DATA}", tableDateStringBuilder.toString());
+        }
+
+        // Write to the out file
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(out))) {
+            writer.write(templateString);
+        }
+    }
+
+    /**
+     * Creates an invoice using the default ResourceBundle of this class ( ).
+     *
+     * @param out the output file
+     * @param template the template for the invoice
+     * @param ledger the ledger containing the AccountingEntity
+     * @param inmateEntityId the id of the AccountingEntity to generate an invoice for
+     * @throws IOException when there are problems reading/writing the Files
+     * @throws UnsupportedVersionException when the template version is not supported
+     */
+    public static void generateInmateInvoice(@NotNull File out, @NotNull File template, @NotNull HuischLedger ledger,
+                                             int inmateEntityId, @NotNull LocalDate from, @NotNull LocalDate to) throws IOException {
+        ResourceBundle defaultInvoiceResourceBundle = ResourceBundle.getBundle("HuischInvoiceStrings");
+        generateInmateInvoice(out, template, ledger, inmateEntityId, from, to, defaultInvoiceResourceBundle);
+    }
+
+    /**
+     * Creates an invoice using the supplied {@code locale} to select the appropriate ResourceBundle
+     * @param out the output file
+     * @param template the template for the invoice
+     * @param ledger the ledger containing the AccountingEntity
+     * @param inmateEntityId the id of the AccountingEntity to generate an invoice for
+     * @param locale the Locale to use
+     * @throws IOException when there are problems reading/writing the Files
+     * @throws UnsupportedVersionException when the template version is not supported
+     * @throws MissingResourceException when no resource if found for the requested Locale
+     */
+    public static void generateInmateInvoice(@NotNull File out, @NotNull File template, @NotNull HuischLedger ledger,
+                                             int inmateEntityId, @NotNull LocalDate from,
+                                             @NotNull LocalDate to, @NotNull Locale locale) throws IOException {
+        ResourceBundle resourceBundle = ResourceBundle.getBundle("HuischInvoiceStrings", locale);
+        generateInmateInvoice(out, template, ledger, inmateEntityId, from, to, resourceBundle);
+    }
+
+    public @Deprecated TreeMap<Integer, Receipt> copyOfReceipts() {
+        return new TreeMap<>(receipts);
+    }
+
+    /**
+     * Returns an unmodifiable view of the map of Receipts. Use
+     * {@link HuischLedger#addReceiptListener(EntryChangeListener)} to observe it.
+     *
+     * @return unmodifiable map of Receipts
+     */
+    public Map<Integer, Receipt> getReceipts() {
+        return Collections.unmodifiableMap(receipts);
+    }
+
+    /**
+     * Returns the id that should be used for the next Receipt.
+     *
+     * @return Receipt id
+     */
+    public int getNextReceiptId() {
+        return nextReceiptId;
+    }
+
+    public int getAndIncrementNextReceiptId() {
+        return nextReceiptId++;
+    }
+
+    public void addReceipt(@NotNull Receipt receipt) {
+        Objects.requireNonNull(receipt, "Parameter receipt cannot be null");
+
+        if (receiptStore.containsKey(receipt.getId())) {
+            throw new IllegalArgumentException("Duplicate key for new receipt");
+        }
+        // TODO should we register the receipt with the transactions that do not have the correct receiptId?
+        receipts.put(receipt.getId(), receipt);
+
+        // if the user supplied a Receipt with id equal to or greater than nextReceiptId, then increment it
+        if (receipt.getId() >= nextReceiptId) {
+            nextReceiptId = receipt.getId() + 1;
+        }
+    }
+
+    /**
+     * Adds {@code listener} to the listeners that are notified of every change to the Receipts.
+     *
+     * @param listener the listener to add
+     */
+    public void addReceiptListener(@NotNull EntryChangeListener<? super Receipt> listener) {
+        receipts.addListener(listener);
+    }
+
+    /**
+     * Removes the listener from the listeners of the Receipts.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeReceiptListener(EntryChangeListener<? super Receipt> listener) {
+        receipts.removeListener(listener);
+    }
+
+    @Override
+    public void addTransaction(@NotNull Transaction transaction) {
+        // Check that the receipt exists
+        if (transaction.getReceiptId() != null && !receiptStore.containsKey((int) transaction.getReceiptId())) {
+            throw new IllegalArgumentException("The transaction has a non-existent receiptId: (T.Id:" + transaction.getId() + ",T.rId:" + transaction.getReceiptId() + ")");
+        }
+        super.addTransaction(transaction);
+    }
+
+    /**
+     * Adds all {@code transactions} at once and registers them with their Receipts. Next to the checks of
+     * {@link Ledger#addTransactions(Collection)}, all Receipts are checked to exist before anything is added.
+     *
+     * @param transactions the Transactions to add
+     * @throws IllegalArgumentException when one of the transactions does not adhere to the contract of this class
+     */
+    @Override
+    public void addTransactions(@NotNull Collection<Transaction> transactions) {
+        Objects.requireNonNull(transactions, "Parameter transactions cannot be null");
+
+        for (Transaction transaction : transactions) {
+            Objects.requireNonNull(transaction, "Parameter transactions cannot contain null");
+            if (transaction.getReceiptId() != null && !receiptStore.containsKey((int) transaction.getReceiptId())) {
+                throw new IllegalArgumentException("The transaction has a non-existent receiptId: (T.Id:" + transaction.getId() + ",T.rId:" + transaction.getReceiptId() + ")");
+            }
+        }
+
+        super.addTransactions(transactions);
+    }
+
+    /**
+     * Registers the added Transactions with their Receipts and adds them to the receipt index, before the listeners
+     * of the Ledger are notified.
+     *
+     * @param added the added Transactions
+     */
+    @Override
+    protected void indexAddedTransactions(@NotNull List<Transaction> added) {
+        for (Transaction transaction : added) {
+            if (transaction.getReceiptId() != null) {
+                receiptStore.get((int) transaction.getReceiptId()).registerTransaction(transaction.getId());
+                indexReceiptTransaction(transaction);
+            }
+        }
+    }
+
+    /**
+     * Unregisters the removed Transactions from their Receipts and the receipt index, before the listeners of the
+     * Ledger are notified.
+     *
+     * @param removed the removed Transactions
+     */
+    @Override
+    protected void unindexRemovedTransactions(@NotNull List<Transaction> removed) {
+        for (Transaction transaction : removed) {
+            unindexReceiptTransaction(transaction);
+        }
+    }
+}
@@ -18,11 +18,13 @@ package ch.bolkhuis.kasboek.core;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Objects;
+
 public class InmateEntity extends AccountingEntity {
     /**
-     * The vale of {@code balance} at the time the last invoice was generated for this InmateEntity
+     * The vale of {@code balance} at the time the last invoice was generated for this InmateEntity, in cents
      */
-    private final double previousBalance;
+    private final long previousBalance;
     /**
      * Constructs a new AccountingEntry with {@code id} and {@code name}.
      * <br />
@@ -36,30 +38,52 @@ public class InmateEntity extends AccountingEntity {
      * @see AccountingEntity#isCorrectId(int)
      * @see AccountingEntity#isCorrectName(String)
      */
-    public InmateEntity(int id, @NotNull String name, double previousBalance, double balance) {
+    public InmateEntity(int id, @NotNull String name, @NotNull Money previousBalance, @NotNull Money balance) {
         super(id, name, AccountType.LIABILITY, balance);
 
-        this.previousBalance = previousBalance;
+        this.previousBalance = Objects.requireNonNull(previousBalance, "Parameter previousBalance cannot be null")
+                .getCents();
     }
 
-    public double getPreviousBalance() {
-        return previousBalance;
+    /**
+     * Constructs a new InmateEntity. The {@code previousBalance} and {@code balance} are rounded to whole cents.
+     *
+     * @see InmateEntity#InmateEntity(int, String, Money, Money)
+     * @see Money#of(double)
+     */
+    public InmateEntity(int id, @NotNull String name, double previousBalance, double balance) {
+        this(id, name, Money.of(previousBalance), Money.of(balance));
+    }
+
+    /**
+     * Constructs a copy of {@code other}.
+     *
+     * @param other the InmateEntity to copy
+     * @see AccountingEntity#AccountingEntity(AccountingEntity)
+     */
+    protected InmateEntity(@NotNull InmateEntity other) {
+        super(other);
+
+        this.previousBalance = other.previousBalance;
     }
 
     @Override
-    public @NotNull InmateEntity debit(double amount) {
-        if (amount < 0) { throw new IllegalArgumentException("You should not debit a negative amount, credit instead"); }
+    public @NotNull InmateEntity copy() {
+        return new InmateEntity(this);
+    }
 
-        double balance = (accountType.isDebit()) ? this.balance.get() + amount : this.balance.get() - amount;
-        return new InmateEntity(id, name.get(), previousBalance, balance);
+    public @NotNull Money getPreviousBalance() {
+        return Money.ofCents(previousBalance);
     }
 
     @Override
-    public @NotNull InmateEntity credit(double amount) {
-        if (amount < 0) { throw new IllegalArgumentException("You should not credit a negative amount, debit instead"); }
+    public @NotNull InmateEntity debit(@NotNull Money amount) {
+        return new InmateEntity(id, name, getPreviousBalance(), debitedBalance(amount));
+    }
 
-        double balance = (accountType.isDebit()) ? this.balance.get() - amount : this.balance.get() + amount;
-        return new InmateEntity(id, name.get(), previousBalance, balance);
+    @Override
+    public @NotNull InmateEntity credit(@NotNull Money amount) {
+        return new InmateEntity(id, name, getPreviousBalance(), creditedBalance(amount));
     }
 
     @Override
@@ -70,15 +94,13 @@ public class InmateEntity extends AccountingEntity {
 
         InmateEntity that = (InmateEntity) o;
 
-        return Double.compare(that.previousBalance, previousBalance) == 0;
+        return previousBalance == that.previousBalance;
     }
 
     @Override
     public int hashCode() {
         int result = super.hashCode();
-        long temp;
-        temp = Double.doubleToLongBits(previousBalance);
-        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + Long.hashCode(previousBalance);
         return result;
     }
 }
@@ -0,0 +1,396 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * IntObjectMap is a map from primitive {@code int} keys to non-null values, stored in two parallel arrays with open
+ * addressing and linear probing. Lookups by an {@code int} neither box the key nor follow a node per mapping, and a
+ * mapping costs two array slots instead of a {@code HashMap.Node} and an {@code Integer}.<br />
+ * <br />
+ * IntObjectMap is also a {@code Map<Integer, V>}, so it can back a {@link ListenableIntMap}. The Ledger classes read
+ * from the IntObjectMap directly and change it through the listenable facade, so the listeners of the facade see every
+ * change. Removed mappings are cleared by shifting the following mappings of their cluster back, so no tombstones are
+ * left behind.<br />
+ * <br />
+ * {@code null} values are not allowed. An IntObjectMap is not thread safe.
+ *
+ * @param <V> the type of the values
+ * @author Aron Hoogeveen
+ */
+public final class IntObjectMap<V> extends AbstractMap<Integer, V> {
+    private final static int MIN_CAPACITY = 8;
+    // a table is grown once it is more than two thirds full, which keeps the probe sequences short
+    private final static int MAX_LOAD_NUMERATOR = 2;
+    private final static int MAX_LOAD_DENOMINATOR = 3;
+
+    private int[] keys;
+    private Object[] values;
+    private int size = 0;
+    private int mask;
+    private int modCount = 0;
+    private EntrySet entrySet;
+    private ValueCollection valueCollection;
+
+    /**
+     * Creates an empty IntObjectMap.
+     */
+    public IntObjectMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty IntObjectMap that holds {@code expectedSize} mappings without growing.
+     *
+     * @param expectedSize the expected number of mappings
+     * @throws IllegalArgumentException when {@code expectedSize} is negative
+     */
+    public IntObjectMap(int expectedSize) {
+        if (expectedSize < 0) { throw new IllegalArgumentException("expectedSize cannot be negative"); }
+
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Creates an IntObjectMap with the mappings of {@code map}.
+     *
+     * @param map the mappings to copy
+     * @throws NullPointerException when {@code map} contains a {@code null} key or value
+     */
+    public IntObjectMap(@NotNull Map<Integer, ? extends V> map) {
+        this(Objects.requireNonNull(map, "Parameter map cannot be null").size());
+        putAll(map);
+    }
+
+    /**
+     * Returns {@code map} itself if it is an IntObjectMap, otherwise an IntObjectMap with its mappings.
+     *
+     * @param map the map
+     * @param <V> the type of the values
+     * @return an IntObjectMap with the mappings of {@code map}
+     */
+    public static <V> @NotNull IntObjectMap<V> of(@NotNull Map<Integer, V> map) {
+        Objects.requireNonNull(map, "Parameter map cannot be null");
+
+        return (map instanceof IntObjectMap) ? (IntObjectMap<V>) map : new IntObjectMap<>(map);
+    }
+
+    private static int capacityFor(int size) {
+        long needed = (long) size * MAX_LOAD_DENOMINATOR / MAX_LOAD_NUMERATOR + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed) {
+            if (capacity == 1 << 30) { throw new IllegalStateException("IntObjectMap cannot grow any further"); }
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Spreads the bits of {@code key}, so consecutive ids do not fill consecutive slots.
+     */
+    private int slotOf(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the slot of {@code key}, or the negative of one more than the empty slot where it would be put.
+     */
+    private int find(int key) {
+        int slot = slotOf(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) { return slot; }
+            slot = (slot + 1) & mask;
+        }
+        return -(slot + 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value for {@code key}, or {@code null} if there is none.
+     *
+     * @param key the key
+     * @return the value or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = find(key);
+        return (slot >= 0) ? (V) values[slot] : null;
+    }
+
+    /**
+     * Returns whether there is a value for {@code key}.
+     *
+     * @param key the key
+     * @return {@code true} if there is a value for {@code key}
+     */
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Maps {@code key} to {@code value}.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value for {@code key}, or {@code null} if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, @NotNull V value) {
+        Objects.requireNonNull(value, "Parameter value cannot be null");
+
+        int slot = find(key);
+        if (slot >= 0) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+
+        modCount++;
+        if ((size + 1) * MAX_LOAD_DENOMINATOR > values.length * MAX_LOAD_NUMERATOR) {
+            grow();
+            slot = find(key);
+        }
+        slot = -slot - 1;
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes the value for {@code key}.
+     *
+     * @param key the key
+     * @return the removed value, or {@code null} if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = find(key);
+        if (slot < 0) { return null; }
+
+        V previous = (V) values[slot];
+        removeSlot(slot);
+        return previous;
+    }
+
+    private void removeSlot(int slot) {
+        modCount++;
+        size--;
+        // shift back the following mappings of the cluster that would no longer be found after the hole
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != null) {
+            int home = slotOf(keys[next]);
+            // the mapping can move to the hole if its home slot is not between the hole and its current slot
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = null;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldValues.length << 1);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = -find(oldKeys[i]) - 1;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public V get(Object key) {
+        return (key instanceof Integer) ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return (key instanceof Integer) && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public V put(@NotNull Integer key, @NotNull V value) {
+        Objects.requireNonNull(key, "Parameter key cannot be null");
+        return put((int) key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return (key instanceof Integer) ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) { return; }
+
+        modCount++;
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public @NotNull Set<Entry<Integer, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * Returns a view of the values. In contrast to the values of an {@link AbstractMap} iterating over it does not
+     * create an entry per mapping.
+     */
+    @Override
+    public @NotNull Collection<V> values() {
+        if (valueCollection == null) {
+            valueCollection = new ValueCollection();
+        }
+        return valueCollection;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<Integer, V>> {
+        @Override
+        public @NotNull Iterator<Entry<Integer, V>> iterator() {
+            return new SlotIterator<>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                Entry<Integer, V> at(int slot) {
+                    return new AbstractMap.SimpleImmutableEntry<>(keys[slot], (V) values[slot]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            IntObjectMap.this.clear();
+        }
+    }
+
+    private final class ValueCollection extends AbstractCollection<V> {
+        @Override
+        public @NotNull Iterator<V> iterator() {
+            return new SlotIterator<>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                V at(int slot) {
+                    return (V) values[slot];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            IntObjectMap.this.clear();
+        }
+    }
+
+    /**
+     * Iterates over the slots once around the table, starting after an empty slot. Removing a mapping only shifts
+     * mappings of the same cluster back, and no cluster crosses the empty start slot, so a shifted mapping always
+     * ends up at or after the removed slot and is visited exactly once.
+     *
+     * @param <T> the type of the elements made from the slots
+     */
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        private final int start;
+        // the number of slots visited so far
+        private int visited = 0;
+        private int remaining = size;
+        private int current = -1;
+        private int expectedModCount = modCount;
+
+        private SlotIterator() {
+            int slot = 0;
+            while (values[slot] != null) {
+                slot++;
+            }
+            start = slot;
+        }
+
+        /**
+         * Returns the element for the occupied {@code slot}.
+         */
+        abstract T at(int slot);
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) { throw new ConcurrentModificationException(); }
+            if (remaining == 0) { throw new NoSuchElementException(); }
+
+            int slot;
+            do {
+                slot = (start + ++visited) & mask;
+            } while (values[slot] == null);
+            current = slot;
+            remaining--;
+            return at(slot);
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) { throw new IllegalStateException(); }
+            if (modCount != expectedModCount) { throw new ConcurrentModificationException(); }
+
+            removeSlot(current);
+            // a mapping shifted into the removed slot has not been visited yet
+            visited--;
+            current = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
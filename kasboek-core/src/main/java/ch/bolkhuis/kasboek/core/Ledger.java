@@ -0,0 +1,1362 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.core;
+
+import ch.bolkhuis.kasboek.eventlisteners.AccountingEntityEvent;
+import ch.bolkhuis.kasboek.eventlisteners.AccountingEntityEventListener;
+import ch.bolkhuis.kasboek.eventlisteners.EntryChangeListener;
+import ch.bolkhuis.kasboek.eventlisteners.TransactionEvent;
+import ch.bolkhuis.kasboek.eventlisteners.TransactionEventListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * The immutable class Ledger contains a collection of processed and unprocessed Transactions as well as a collection
+ * of {@code AccountingEntities}. This class enforces that for all transactions the debtor as well as the creditor
+ * are present in the collection of {@code AccountingEntities}.
+ * The keys for the processed- and unprocessed Transactions and the AccountingEntities are equal to their getId() result.
+ * This logically results in that no two AccountingEntities, processed- or unprocessed Transactions can have the same id.
+ *
+ *
+ * Note: versions v0.2-pre-alpha and higher are not compatible with earlier versions.
+ *
+ * @version v0.2-pre-alpha
+ * @author Aron Hoogeveen
+ */
+public class Ledger {
+    protected  @NotNull final ListenableIntMap<Transaction> transactions;
+    protected  @NotNull final ListenableIntMap<AccountingEntity> accountingEntities;
+    protected int nextTransactionId;
+    protected int nextAccountingEntityId;
+    /**
+     * The map that backs {@code transactions}. Writing to it directly bypasses the EntryChangeListeners of
+     * {@code transactions}, which is used by the bulk operations to publish a single {@link TransactionEvent} instead of
+     * one change per Transaction. Lookups by id read from it directly, so the id is not boxed.
+     */
+    private final @NotNull IntObjectMap<Transaction> transactionStore;
+    /**
+     * The map that backs {@code accountingEntities}. Lookups by id read from it directly, changes go through
+     * {@code accountingEntities} so its listeners are notified.
+     */
+    protected final @NotNull IntObjectMap<AccountingEntity> accountingEntityStore;
+    /**
+     * The listeners that are notified of bulk changes to the Transactions.
+     */
+    private final @NotNull List<TransactionEventListener> transactionEventListeners = new ArrayList<>();
+    /**
+     * The listeners that are notified when the balances of AccountingEntities are changed in place.
+     */
+    private final @NotNull List<AccountingEntityEventListener> accountingEntityEventListeners = new ArrayList<>();
+    /**
+     * Secondary index that maps the id of an AccountingEntity to the ids of all Transactions in which it is the debtor
+     * or the creditor, ordered by date. This index is kept up to date by
+     * {@link Ledger#processAndPutTransaction(Transaction)} and {@link Ledger#unprocessAndRemoveTransaction(Transaction)}.
+     */
+    private final @NotNull IntObjectMap<TransactionDateIndex> entityTransactionIndex = new IntObjectMap<>();
+    /**
+     * Secondary index that maps the date of all Transactions to their ids. This index is kept up to date together with
+     * the {@code entityTransactionIndex}.
+     */
+    private final @NotNull TransactionDateIndex transactionDateIndex = new TransactionDateIndex();
+    /**
+     * Secondary index that maps the normalised name of all AccountingEntities to their keys. See
+     * {@link Ledger#normaliseName(String)}. Names are not unique, so every name maps to a set of keys.
+     */
+    private final @NotNull Map<String, SortedSet<Integer>> accountingEntityNameIndex = new HashMap<>();
+    /**
+     * The Transactions that are not loaded yet, or {@code null} if all Transactions are loaded. All Transactions of the
+     * archive dated on or after {@code loadedFrom} have been loaded, the others are not part of {@code transactions}.
+     */
+    private TransactionArchive transactionArchive;
+    private LocalDate loadedFrom;
+    private int unloadedTransactionCount;
+    /**
+     * The columns of all Transactions, or {@code null} if they have not been built since the Transactions last changed.
+     */
+    private TransactionColumns transactionColumns;
+
+    /**
+     * Creates a new Ledger with empty collections, and sets the {@code next***Id} fields to zero.
+     */
+    public Ledger() {
+        this.transactionStore = new IntObjectMap<>();
+        this.transactions = new ListenableIntMap<>(transactionStore);
+        this.accountingEntityStore = new IntObjectMap<>();
+        this.accountingEntities = new ListenableIntMap<>(accountingEntityStore);
+        this.nextTransactionId = 0;
+        this.nextAccountingEntityId = 0;
+    }
+
+    /**
+     * Creates a new Ledger that is equal to the {@code old} Ledger. The new Ledger has its own collections and its own
+     * copies of the AccountingEntities, so changes to one Ledger are not visible in the other. Transactions are
+     * immutable and are shared.<br />
+     * <br />
+     * {@code old} is validated in a single pass over its collections, which makes this constructor linear time.
+     *
+     * @throws IllegalArgumentException whenever {@code old} is in an invalid state
+     * @see Ledger#equals(Object)
+     * @see Ledger#snapshot()
+     */
+    public Ledger(@NotNull Ledger old) {
+        this(Objects.requireNonNull(old, "Parameter old cannot be null"), true);
+    }
+
+    /**
+     * Creates a new Ledger that is equal to the {@code old} Ledger, optionally skipping the validation of {@code old}.
+     * The validation can only be skipped for Ledgers that are known to be in a legal state, which is the case for
+     * {@code this} in {@link Ledger#snapshot()}.
+     *
+     * @param old the Ledger to copy
+     * @param validate whether {@code old} needs to be validated
+     * @throws IllegalArgumentException whenever {@code validate} is {@code true} and {@code old} is in an invalid state
+     */
+    protected Ledger(@NotNull Ledger old, boolean validate) {
+        if (validate) {
+            // Do not construct a copy if old is in an illegal state.
+            validate(old.accountingEntities, old.transactions);
+        }
+
+        this.accountingEntityStore = new IntObjectMap<>(old.accountingEntityStore.size());
+        for (Map.Entry<Integer, AccountingEntity> entityEntry : old.accountingEntityStore.entrySet()) {
+            accountingEntityStore.put((int) entityEntry.getKey(), entityEntry.getValue().copy());
+        }
+        this.accountingEntities = new ListenableIntMap<>(accountingEntityStore);
+        this.transactionStore = new IntObjectMap<>(old.transactionStore);
+        this.transactions = new ListenableIntMap<>(transactionStore);
+        this.nextTransactionId = old.nextTransactionId;
+        this.nextAccountingEntityId = old.nextAccountingEntityId;
+        for (Transaction transaction : transactions.values()) {
+            indexTransaction(transaction);
+        }
+        // the archive never changes, so the copy loads its own Transactions from the same archive
+        this.transactionArchive = old.transactionArchive;
+        this.loadedFrom = old.loadedFrom;
+        this.unloadedTransactionCount = old.unloadedTransactionCount;
+        indexAccountingEntities();
+    }
+
+    /**
+     * Creates a new Ledger with initial AccountingEntities. The AccountingEntities are copied into a map owned by this
+     * Ledger, use {@link Ledger#addEntityListener(EntryChangeListener)} to observe them.
+     *
+     * @param accountingEntities the initial AccountingEntities
+     */
+    public Ledger(@NotNull Map<Integer, AccountingEntity> accountingEntities) {
+        Objects.requireNonNull(accountingEntities, "Parameter accountingEntities cannot be null");
+
+        for (Map.Entry<Integer, AccountingEntity> entityEntry : accountingEntities.entrySet()) {
+            if (entityEntry.getKey() != entityEntry.getValue().getId()) {
+                throw new IllegalArgumentException("id has to match the key");
+            }
+        }
+
+        this.accountingEntityStore = new IntObjectMap<>(accountingEntities);
+        this.accountingEntities = new ListenableIntMap<>(accountingEntityStore);
+        this.transactionStore = new IntObjectMap<>();
+        this.transactions = new ListenableIntMap<>(transactionStore);
+        this.nextTransactionId = 0;
+        indexAccountingEntities();
+        Set<Integer> keySet = accountingEntities.keySet();
+        int biggestKey = 0;
+        for (int key : keySet) {
+            biggestKey = (biggestKey > key) ? biggestKey : key;
+        }
+        this.nextAccountingEntityId = biggestKey + 1;
+    }
+
+    /**
+     * Creates a new Ledger with initial AccountingEntities, processed- and unprocessed Transactions; sets the
+     * {@code nextTransactionId} and {@code nextAccountingEntityId} accordingly. The AccountingEntities and the
+     * Transactions are copied into maps owned by this Ledger, use {@link Ledger#addEntityListener(EntryChangeListener)}
+     * and {@link Ledger#addTransactionListener(EntryChangeListener)} to observe them.
+     *
+     * @param accountingEntities TreeMap containing at least all the Entities for the processed- and unprocessed Transactions
+     * @param transactions the transactions that already have been processed
+     */
+    public Ledger(@NotNull Map<Integer, AccountingEntity> accountingEntities,
+                  @NotNull Map<Integer, Transaction> transactions) {
+        Objects.requireNonNull(accountingEntities, "Parameter accountingEntities cannot be null");
+        Objects.requireNonNull(transactions, "Parameter transactions cannot be null");
+
+        int nextTransactionId = validate(accountingEntities, transactions);
+
+        this.accountingEntityStore = new IntObjectMap<>(accountingEntities);
+        this.accountingEntities = new ListenableIntMap<>(accountingEntityStore);
+        this.transactionStore = new IntObjectMap<>(transactions);
+        this.transactions = new ListenableIntMap<>(transactionStore);
+        this.nextTransactionId = nextTransactionId;
+        for (Transaction transaction : transactions.values()) {
+            indexTransaction(transaction);
+        }
+        indexAccountingEntities();
+        Set<Integer> keySet = accountingEntities.keySet();
+        int biggestKey = 0;
+        for (int key : keySet) {
+            biggestKey = (biggestKey > key) ? biggestKey : key;
+        }
+        this.nextAccountingEntityId = biggestKey + 1;
+    }
+
+    /**
+     * Creates a new Ledger that takes ownership of {@code accountingEntities} and {@code transactions}. Maps that are
+     * an {@link IntObjectMap} are used without copying them, other maps are copied into one. The maps are validated
+     * and indexed in a single pass each, and no listeners are notified. Balances are taken
+     * as they are, the Transactions are not posted again.
+     *
+     * @param accountingEntities the AccountingEntities mapped by their id
+     * @param transactions the Transactions mapped by their id
+     * @param nextTransactionId the stored {@code nextTransactionId}, raised if it collides with an existing id
+     * @param nextAccountingEntityId the stored {@code nextAccountingEntityId}, raised if it collides with an existing id
+     * @throws IllegalArgumentException when the maps are not a valid Ledger
+     * @see Ledger#load(Map, Map, int, int)
+     */
+    protected Ledger(@NotNull Map<Integer, AccountingEntity> accountingEntities,
+                     @NotNull Map<Integer, Transaction> transactions,
+                     int nextTransactionId,
+                     int nextAccountingEntityId) {
+        Objects.requireNonNull(accountingEntities, "Parameter accountingEntities cannot be null");
+        Objects.requireNonNull(transactions, "Parameter transactions cannot be null");
+
+        this.accountingEntityStore = IntObjectMap.of(accountingEntities);
+        this.accountingEntities = new ListenableIntMap<>(accountingEntityStore);
+        this.transactionStore = IntObjectMap.of(transactions);
+        this.transactions = new ListenableIntMap<>(transactionStore);
+
+        for (Map.Entry<Integer, AccountingEntity> entityEntry : accountingEntityStore.entrySet()) {
+            AccountingEntity entity = entityEntry.getValue();
+            if (entity == null || entityEntry.getKey() != entity.getId()) {
+                throw new IllegalArgumentException("id has to match the key");
+            }
+            indexAccountingEntity(entityEntry.getKey(), entity);
+            nextAccountingEntityId = Math.max(nextAccountingEntityId, entity.getId() + 1);
+        }
+        for (Map.Entry<Integer, Transaction> transactionEntry : transactionStore.entrySet()) {
+            Transaction transaction = transactionEntry.getValue();
+            if (transaction == null || transactionEntry.getKey() != transaction.getId()) {
+                throw new IllegalArgumentException("id has to match the key");
+            }
+            if (!accountingEntityStore.containsKey(transaction.getDebtorId()) ||
+                    !accountingEntityStore.containsKey(transaction.getCreditorId())) {
+                throw new IllegalArgumentException("Transaction " + transaction.getId() + " has missing AccountingEntities");
+            }
+            indexTransaction(transaction);
+            nextTransactionId = Math.max(nextTransactionId, transaction.getId() + 1);
+        }
+        this.nextTransactionId = nextTransactionId;
+        this.nextAccountingEntityId = nextAccountingEntityId;
+    }
+
+    /**
+     * Creates a Ledger from stored state, as done by the readers of Ledger files. The Ledger takes ownership of the
+     * maps, so the caller must not use them afterwards. In contrast to adding every Transaction through
+     * {@link Ledger#addTransaction(Transaction)} the stored balances of the AccountingEntities are used as they are,
+     * the indexes are built in one pass and no listeners are notified. The integrity of the result is verified once at
+     * the end: all Transactions refer to existing AccountingEntities and the id counters are past the highest ids. The
+     * balances and amounts are whole cents, see {@link Money}, so they need no further checks.
+     *
+     * @param accountingEntities the AccountingEntities mapped by their id
+     * @param transactions the Transactions mapped by their id
+     * @param nextTransactionId the stored {@code nextTransactionId}
+     * @param nextAccountingEntityId the stored {@code nextAccountingEntityId}
+     * @return the new Ledger
+     * @throws IllegalArgumentException when the stored state is not a valid Ledger
+     */
+    public static @NotNull Ledger load(@NotNull Map<Integer, AccountingEntity> accountingEntities,
+                                       @NotNull Map<Integer, Transaction> transactions,
+                                       int nextTransactionId,
+                                       int nextAccountingEntityId) {
+        return new Ledger(accountingEntities, transactions, nextTransactionId, nextAccountingEntityId);
+    }
+
+    /**
+     * Validates that all keys are equal to the ids of their values, and that the debtor and creditor of all
+     * {@code transactions} are present in {@code accountingEntities}. Both maps are traversed once.
+     *
+     * @param accountingEntities the AccountingEntities mapped by their id
+     * @param transactions the Transactions mapped by their id
+     * @return one more than the highest Transaction id, or zero if there are no Transactions
+     * @throws IllegalArgumentException when one of the conditions does not hold
+     */
+    private static int validate(@NotNull Map<Integer, AccountingEntity> accountingEntities,
+                                @NotNull Map<Integer, Transaction> transactions) {
+        int nextTransactionId = 0;
+        for (Map.Entry<Integer, Transaction> transactionEntry : transactions.entrySet()) {
+            Transaction transaction = transactionEntry.getValue();
+            // check if debtor and creditor exist
+            if (!accountingEntities.containsKey(transaction.getDebtorId()) ||
+                    !accountingEntities.containsKey(transaction.getCreditorId())) {
+                throw new IllegalArgumentException("Some processed Transactions have missing AccountingEntities");
+            }
+            // check if key and value.getId() are the same
+            if (transactionEntry.getKey() != transaction.getId()) { throw new IllegalArgumentException("id has te match the key"); }
+
+            nextTransactionId = Math.max(nextTransactionId, transaction.getId() + 1);
+        }
+        for (Map.Entry<Integer, AccountingEntity> entityEntry : accountingEntities.entrySet()) {
+            if (entityEntry.getKey() != entityEntry.getValue().getId()) {
+                throw new IllegalArgumentException("id has to match the key");
+            }
+        }
+        return nextTransactionId;
+    }
+
+    /**
+     * Returns the initial capacity for a HashMap that holds {@code size} mappings without rehashing.
+     */
+    protected static int capacityFor(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    /**
+     * Returns an independent copy of this Ledger. This Ledger enforces its own invariants, so in contrast to
+     * {@link Ledger#Ledger(Ledger)} the copy is made without validation: the collections are copied and the indexes
+     * are rebuilt in one pass. Transactions are immutable and are shared with the copy, AccountingEntities are copied.
+     *
+     * @return a copy of this Ledger
+     */
+    public @NotNull Ledger snapshot() {
+        return new Ledger(this, false);
+    }
+
+    /**
+     * Adds {@code transaction} to the list of Transactions.
+     *
+     * @param transaction the Transaction to add
+     * @throws IllegalArgumentException when transaction does not adhere to the contract this class has for Transactions
+     */
+    public void addTransaction(@NotNull Transaction transaction) {
+        Objects.requireNonNull(transaction, "Parameter transaction cannot be null");
+
+        if (!accountingEntityStore.containsKey(transaction.getDebtorId()) || !accountingEntityStore.containsKey(transaction.getCreditorId())) {
+            throw new IllegalArgumentException("Not all AccountingEntities are available in this ledger");
+        }
+        if (containsTransactionById(transaction.getId())) { throw new IllegalArgumentException("Cannot add a transaction with a duplicate key"); }
+
+        processAndPutTransaction(transaction);
+
+        // increase the nextTransactionId if applicable
+        if (transaction.getId() >= nextTransactionId)
+            nextTransactionId = transaction.getId() + 1;
+    }
+
+    /**
+     * Adds all {@code transactions} at once. The batch is validated as a whole before anything is changed: if one of the
+     * Transactions does not adhere to the contract of this class, none of them is added. The balances of the
+     * AccountingEntities are adjusted once per AccountingEntity.<br />
+     * <br />
+     * Note: the EntryChangeListeners of the Transactions are not notified of a bulk change. All
+     * TransactionEventListeners receive a single {@link TransactionEvent} instead, and all
+     * AccountingEntityEventListeners a single {@link AccountingEntityEvent}.
+     *
+     * @param transactions the Transactions to add
+     * @throws IllegalArgumentException when one of the transactions does not adhere to the contract this class has for
+     * Transactions, or when two of them have the same id
+     */
+    public void addTransactions(@NotNull Collection<Transaction> transactions) {
+        Objects.requireNonNull(transactions, "Parameter transactions cannot be null");
+
+        List<Transaction> added = new ArrayList<>(transactions);
+        validateAddedTransactions(added);
+        if (added.isEmpty()) { return; }
+
+        Map<AccountingEntity, long[]> balanceChanges = new IdentityHashMap<>();
+        for (Transaction transaction : added) {
+            AccountingEntity debtor = accountingEntityStore.get(transaction.getDebtorId());
+            AccountingEntity creditor = accountingEntityStore.get(transaction.getCreditorId());
+            balanceChanges.computeIfAbsent(debtor, k -> new long[1])[0] += debtor.debitBalanceChange(transaction.getAmountCents());
+            balanceChanges.computeIfAbsent(creditor, k -> new long[1])[0] += creditor.creditBalanceChange(transaction.getAmountCents());
+
+            indexTransaction(transaction);
+            transactionStore.put(transaction.getId(), transaction);
+            transactionColumns = null;
+
+            // increase the nextTransactionId if applicable
+            if (transaction.getId() >= nextTransactionId)
+                nextTransactionId = transaction.getId() + 1;
+        }
+        balanceChanges.forEach((entity, change) -> entity.applyBalanceChange(change[0]));
+        indexAddedTransactions(added);
+
+        fireAccountingEntityEvent(new AccountingEntityEvent(this, new ArrayList<>(balanceChanges.keySet())));
+        fireTransactionEvent(new TransactionEvent(this, added, List.of()));
+    }
+
+    /**
+     * Validates the Transactions for {@link Ledger#addTransactions(Collection)} without changing anything.
+     *
+     * @param transactions the Transactions that are going to be added
+     * @throws IllegalArgumentException when one of the conditions of {@link Ledger#addTransaction(Transaction)} does not
+     * hold, or when two of the Transactions have the same id
+     */
+    protected void validateAddedTransactions(@NotNull Collection<Transaction> transactions) {
+        Set<Integer> ids = new HashSet<>(capacityFor(transactions.size()));
+        for (Transaction transaction : transactions) {
+            Objects.requireNonNull(transaction, "Parameter transactions cannot contain null");
+
+            if (!accountingEntityStore.containsKey(transaction.getDebtorId()) || !accountingEntityStore.containsKey(transaction.getCreditorId())) {
+                throw new IllegalArgumentException("Not all AccountingEntities are available in this ledger");
+            }
+            if (containsTransactionById(transaction.getId()) || !ids.add(transaction.getId())) {
+                throw new IllegalArgumentException("Cannot add a transaction with a duplicate key");
+            }
+        }
+    }
+
+    /**
+     * Removes all Transactions with an id in {@code ids} at once. If one of the ids has no Transaction, none of the
+     * Transactions is removed. The balances of the AccountingEntities are adjusted once per AccountingEntity.<br />
+     * <br />
+     * Note: the EntryChangeListeners of the Transactions are not notified of a bulk change. All
+     * TransactionEventListeners receive a single {@link TransactionEvent} instead, and all
+     * AccountingEntityEventListeners a single {@link AccountingEntityEvent}.
+     *
+     * @param ids the ids of the Transactions to remove
+     * @return the removed Transactions in the iteration order of {@code ids}
+     * @throws IllegalArgumentException when there is no Transaction for one of the ids, or when an id is repeated
+     */
+    public @NotNull List<Transaction> removeTransactions(@NotNull Collection<Integer> ids) {
+        Objects.requireNonNull(ids, "Parameter ids cannot be null");
+
+        List<Transaction> removed = new ArrayList<>(ids.size());
+        Set<Integer> seen = new HashSet<>(capacityFor(ids.size()));
+        for (Integer id : ids) {
+            Objects.requireNonNull(id, "Parameter ids cannot contain null");
+
+            loadTransaction(id);
+            Transaction transaction = transactionStore.get((int) id);
+            if (transaction == null) { throw new IllegalArgumentException("There is no Transaction with id " + id); }
+            if (!seen.add(id)) { throw new IllegalArgumentException("Cannot remove a Transaction twice"); }
+            removed.add(transaction);
+        }
+        if (removed.isEmpty()) { return removed; }
+
+        Map<AccountingEntity, long[]> balanceChanges = new IdentityHashMap<>();
+        for (Transaction transaction : removed) {
+            AccountingEntity debtor = accountingEntityStore.get(transaction.getDebtorId());
+            AccountingEntity creditor = accountingEntityStore.get(transaction.getCreditorId());
+            // reverse the debiting and crediting
+            balanceChanges.computeIfAbsent(debtor, k -> new long[1])[0] += debtor.creditBalanceChange(transaction.getAmountCents());
+            balanceChanges.computeIfAbsent(creditor, k -> new long[1])[0] += creditor.debitBalanceChange(transaction.getAmountCents());
+
+            unindexTransaction(transaction);
+            transactionStore.remove(transaction.getId());
+            transactionColumns = null;
+        }
+        balanceChanges.forEach((entity, change) -> entity.applyBalanceChange(change[0]));
+        unindexRemovedTransactions(removed);
+
+        fireAccountingEntityEvent(new AccountingEntityEvent(this, new ArrayList<>(balanceChanges.keySet())));
+        fireTransactionEvent(new TransactionEvent(this, List.of(), removed));
+        return removed;
+    }
+
+    /**
+     * Adds {@code listener} to the listeners that are notified of bulk changes to the Transactions.
+     *
+     * @param listener the listener to add
+     * @see Ledger#addTransactions(Collection)
+     * @see Ledger#removeTransactions(Collection)
+     */
+    public void addTransactionEventListener(@NotNull TransactionEventListener listener) {
+        Objects.requireNonNull(listener, "Parameter listener cannot be null");
+        transactionEventListeners.add(listener);
+    }
+
+    /**
+     * Removes {@code listener} from the listeners that are notified of bulk changes to the Transactions.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeTransactionEventListener(TransactionEventListener listener) {
+        transactionEventListeners.remove(listener);
+    }
+
+    private void fireTransactionEvent(@NotNull TransactionEvent event) {
+        // iterate over a copy, so listeners can unregister themselves
+        for (TransactionEventListener listener : new ArrayList<>(transactionEventListeners)) {
+            listener.transactionCollectionChanged(event);
+        }
+    }
+
+    /**
+     * Adds {@code listener} to the listeners that are notified whenever the balances of AccountingEntities change,
+     * once per added or removed Transaction and once per bulk change.
+     *
+     * @param listener the listener to add
+     */
+    public void addAccountingEntityEventListener(@NotNull AccountingEntityEventListener listener) {
+        Objects.requireNonNull(listener, "Parameter listener cannot be null");
+        accountingEntityEventListeners.add(listener);
+    }
+
+    /**
+     * Removes {@code listener} from the listeners that are notified of changed balances.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeAccountingEntityEventListener(AccountingEntityEventListener listener) {
+        accountingEntityEventListeners.remove(listener);
+    }
+
+    private void fireAccountingEntityEvent(@NotNull AccountingEntityEvent event) {
+        // iterate over a copy, so listeners can unregister themselves
+        for (AccountingEntityEventListener listener : new ArrayList<>(accountingEntityEventListeners)) {
+            listener.accountingEntityCollectionChanged(event);
+        }
+    }
+
+    /**
+     * Adds {@code listener} to the listeners that are notified of every single change to the AccountingEntities.
+     *
+     * @param listener the listener to add
+     */
+    public void addEntityListener(@NotNull EntryChangeListener<? super AccountingEntity> listener) {
+        accountingEntities.addListener(listener);
+    }
+
+    /**
+     * Removes the listener from the listeners of the AccountingEntities.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeEntityListener(EntryChangeListener<? super AccountingEntity> listener) {
+        accountingEntities.removeListener(listener);
+    }
+
+    /**
+     * Adds {@code listener} to the listeners that are notified of every single change to the Transactions. Bulk
+     * changes are published to the TransactionEventListeners instead.
+     *
+     * @param listener the listener to add
+     * @see Ledger#addTransactionEventListener(TransactionEventListener)
+     */
+    public void addTransactionListener(@NotNull EntryChangeListener<? super Transaction> listener) {
+        transactions.addListener(listener);
+    }
+
+    /**
+     * Removes the listener from the listeners of the Transactions.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeTransactionListener(EntryChangeListener<? super Transaction> listener) {
+        transactions.removeListener(listener);
+    }
+
+    private Transaction removeTransactionInternal(Transaction transaction) {
+        return unprocessAndRemoveTransaction(transaction);
+    }
+
+    /**
+     * Removes a Transaction, adjusting the affecting balances of accompanying AccountingEntities accordingly.
+     *
+     * @param id the id of the Transaction to remove
+     * @return the Transaction that got removed, or {@code null} if there was no such Transaction
+     */
+    public Transaction removeTransaction(int id) {
+        loadTransaction(id);
+        Transaction transaction = transactionStore.get(id);
+        if (transaction == null) { return null; }
+
+        // Remove the transaction
+        Transaction removed = removeTransactionInternal(transaction);
+        // return the removed Transaction
+        return removed;
+    }
+
+    /**
+     * Processed the Transaction that has id {@code id}. The balances of accompanying AccountingEntities are updated in
+     * place.<br />
+     * <br />
+     * Note: this method does not validate the {@code transactions}.
+     *
+     * @param transaction the Transaction to process
+     * @return the old Transaction if there was one
+     * @throws IllegalArgumentException if there exists no Transaction with that {@code id}
+     */
+    private Transaction processAndPutTransaction(@NotNull Transaction transaction) {
+        Objects.requireNonNull(transaction, "Parameter transaction cannot be null");
+
+        // Adjust the balances of the AccountingEntities
+        AccountingEntity debtor = accountingEntityStore.get(transaction.getDebtorId());
+        AccountingEntity creditor = accountingEntityStore.get(transaction.getCreditorId());
+
+        if (debtor == null || creditor == null) {
+            throw new AssertionError("This class needs to enforce that all AccountingEntities exist for all" +
+                    "added Transactions");
+        }
+
+        // adjust the balances in place, observers are notified through an AccountingEntityEvent
+        debtor.applyDebit(transaction.getAmountCents());
+        creditor.applyCredit(transaction.getAmountCents());
+
+        indexTransaction(transaction);
+        transactionColumns = null;
+        Transaction previous = transactionStore.put(transaction.getId(), transaction);
+        indexAddedTransactions(List.of(transaction));
+
+        // the listeners are notified once all indexes are up to date
+        fireBalancesChanged(debtor, creditor);
+        transactions.fireEntryChanged(transaction.getId(), previous, transaction);
+        return previous;
+    }
+
+    /**
+     * Unprocesses the Transaction that has id {@code id}. The balances of accompanying AccountingEntities are updated in
+     * place.<br />
+     * <br />
+     * Note: this method does not validate the {@code transactions}.
+     *
+     * @param transaction the Transaction to process
+     * @return the old Transaction if there was one
+     * @throws IllegalArgumentException if there exists no Transaction with that {@code id}
+     */
+    private Transaction unprocessAndRemoveTransaction(@NotNull Transaction transaction) {
+        Objects.requireNonNull(transaction, "Parameter transaction cannot be null");
+
+        // Adjust the balances of the AccountingEntities
+        AccountingEntity debtor = accountingEntityStore.get(transaction.getDebtorId());
+        AccountingEntity creditor = accountingEntityStore.get(transaction.getCreditorId());
+
+        if (debtor == null || creditor == null) {
+            throw new AssertionError("This class needs to enforce that all AccountingEntities exist for all" +
+                    "added Transactions");
+        }
+
+        // reverse the debiting and crediting in place
+        debtor.applyCredit(transaction.getAmountCents());
+        creditor.applyDebit(transaction.getAmountCents());
+
+        unindexTransaction(transaction);
+        transactionColumns = null;
+        Transaction removed = transactionStore.remove(transaction.getId());
+        unindexRemovedTransactions(List.of(transaction));
+
+        // the listeners are notified once all indexes are up to date
+        fireBalancesChanged(debtor, creditor);
+        transactions.fireEntryChanged(transaction.getId(), removed, null);
+        return removed;
+    }
+
+    private void fireBalancesChanged(@NotNull AccountingEntity debtor, @NotNull AccountingEntity creditor) {
+        if (accountingEntityEventListeners.isEmpty()) { return; }
+        fireAccountingEntityEvent(new AccountingEntityEvent(this,
+                (debtor == creditor) ? List.of(debtor) : List.of(debtor, creditor)));
+    }
+
+    /**
+     * Registers {@code transaction} with the date index and with the AccountingEntity to Transaction index of its
+     * debtor and its creditor.
+     *
+     * @param transaction the Transaction to index
+     */
+    private void indexTransaction(@NotNull Transaction transaction) {
+        transactionDateIndex.add(transaction);
+        entityIndexOf(transaction.getDebtorId()).add(transaction);
+        entityIndexOf(transaction.getCreditorId()).add(transaction);
+    }
+
+    /**
+     * Returns the TransactionDateIndex of the AccountingEntity with id {@code entityId}, creating it if needed.
+     */
+    private @NotNull TransactionDateIndex entityIndexOf(int entityId) {
+        TransactionDateIndex index = entityTransactionIndex.get(entityId);
+        if (index == null) {
+            index = new TransactionDateIndex();
+            entityTransactionIndex.put(entityId, index);
+        }
+        return index;
+    }
+
+    /**
+     * Removes {@code transaction} from the date index and from the AccountingEntity to Transaction index of its debtor
+     * and its creditor.
+     *
+     * @param transaction the Transaction to remove from the indexes
+     */
+    private void unindexTransaction(@NotNull Transaction transaction) {
+        transactionDateIndex.remove(transaction);
+        unindexTransaction(transaction.getDebtorId(), transaction);
+        unindexTransaction(transaction.getCreditorId(), transaction);
+    }
+
+    private void unindexTransaction(int entityId, @NotNull Transaction transaction) {
+        TransactionDateIndex index = entityTransactionIndex.get(entityId);
+        if (index == null) { return; }
+
+        index.remove(transaction);
+        if (index.isEmpty()) {
+            entityTransactionIndex.remove(entityId);
+        }
+    }
+
+    /**
+     * Returns {@code true} if this key is already contained in the Transaction collection.
+     *
+     * @param id the id to check
+     * @return {@code true} if this key is already contained in the Transaction collection, {@code false} otherwise
+     */
+    public boolean containsTransactionById(int id) {
+        return transactionStore.containsKey(id) || unloadedDateOf(id) != null;
+    }
+
+    /**
+     * Sets the archive with the Transactions of this Ledger that are dated before its horizon and are not loaded yet.
+     * This method is meant for the readers of Ledger files, right after creating the Ledger with the loaded
+     * Transactions. The balances of the AccountingEntities must already include the archived Transactions, and the
+     * readers are responsible for their integrity. The archived Transactions are loaded on demand, see
+     * {@link Ledger#loadTransactionsFrom(LocalDate)}.
+     *
+     * @param archive the archived Transactions
+     * @throws IllegalStateException when this Ledger already has an archive
+     * @throws IllegalArgumentException when a loaded Transaction is dated before the horizon of {@code archive} or has
+     * the id of an archived Transaction
+     */
+    public void setTransactionArchive(@NotNull TransactionArchive archive) {
+        Objects.requireNonNull(archive, "Parameter archive cannot be null");
+        if (transactionArchive != null) { throw new IllegalStateException("This Ledger already has an archive"); }
+        if (archive.size() == 0) { return; }
+
+        for (Transaction transaction : transactionStore.values()) {
+            if (transaction.getDate().isBefore(archive.getHorizon())) {
+                throw new IllegalArgumentException("Transaction " + transaction.getId() + " is dated before the horizon");
+            }
+            if (archive.dateOf(transaction.getId()) != null) {
+                throw new IllegalArgumentException("Transaction " + transaction.getId() + " is also archived");
+            }
+        }
+        transactionArchive = archive;
+        loadedFrom = archive.getHorizon();
+        unloadedTransactionCount = archive.size();
+    }
+
+    /**
+     * Returns the date from which all Transactions are loaded, or {@code null} if all Transactions are loaded.
+     *
+     * @return the date from which all Transactions are loaded or {@code null}
+     */
+    public LocalDate getLoadedFrom() {
+        return loadedFrom;
+    }
+
+    /**
+     * Returns the number of Transactions in this Ledger, including the archived Transactions that are not loaded yet.
+     *
+     * @return the number of Transactions
+     */
+    public int transactionCount() {
+        return transactionStore.size() + ((transactionArchive == null) ? 0 : unloadedTransactionCount);
+    }
+
+    /**
+     * Returns the date of the oldest Transaction in this Ledger, or {@code null} if there are no Transactions. Archived
+     * Transactions are not loaded for this.
+     *
+     * @return the date of the oldest Transaction or {@code null}
+     */
+    public LocalDate firstTransactionDate() {
+        LocalDate first = transactionDateIndex.first();
+        if (transactionArchive == null) { return first; }
+
+        // the archived Transactions before loadedFrom are the unloaded ones, so the oldest of them is not loaded
+        LocalDate archived = transactionArchive.getFirstDate();
+        return (first == null || archived.isBefore(first)) ? archived : first;
+    }
+
+    /**
+     * Returns the date of the newest Transaction in this Ledger, or {@code null} if there are no Transactions. Archived
+     * Transactions are not loaded for this.
+     *
+     * @return the date of the newest Transaction or {@code null}
+     */
+    public LocalDate lastTransactionDate() {
+        LocalDate last = transactionDateIndex.last();
+        if (transactionArchive == null) { return last; }
+
+        LocalDate archived = transactionArchive.lastDateBefore(loadedFrom);
+        return (last == null || (archived != null && archived.isAfter(last))) ? archived : last;
+    }
+
+    /**
+     * Returns the {@link TransactionColumns} of all Transactions in this Ledger, for reports that scan many Transactions.
+     * Archived Transactions are added to the columns straight from the archive, they are not loaded for this. The
+     * columns are built once and reused until a Transaction is added or removed.
+     *
+     * @return the columns of all Transactions
+     */
+    public @NotNull TransactionColumns transactionColumns() {
+        if (transactionColumns == null) {
+            TransactionColumns.Builder builder = new TransactionColumns.Builder(transactionCount());
+            for (Transaction transaction : transactionStore.values()) {
+                builder.add(transaction);
+            }
+            if (transactionArchive != null) {
+                transactionArchive.addTo(builder, loadedFrom);
+            }
+            transactionColumns = builder.build();
+        }
+        return transactionColumns;
+    }
+
+    /**
+     * Returns the archive with the Transactions that are not loaded yet, or {@code null} if all Transactions are
+     * loaded. Only the archived Transactions dated before {@link Ledger#getLoadedFrom()} are not loaded, the others
+     * are part of {@link Ledger#getTransactions()} or have been removed since.
+     *
+     * @return the archive or {@code null}
+     */
+    public TransactionArchive getTransactionArchive() {
+        return transactionArchive;
+    }
+
+    /**
+     * Loads the archived Transactions dated on or after {@code from}. Loaded Transactions are put in
+     * {@link Ledger#getTransactions()} and published as a single {@link TransactionEvent} for which
+     * {@link TransactionEvent#wasLoaded()} is {@code true}. The balances of the AccountingEntities do not change.
+     *
+     * @param from the date from which all Transactions need to be loaded
+     */
+    public void loadTransactionsFrom(@NotNull LocalDate from) {
+        Objects.requireNonNull(from, "Parameter from cannot be null");
+        if (transactionArchive == null || !from.isBefore(loadedFrom)) { return; }
+
+        List<Transaction> loaded = transactionArchive.load(from, loadedFrom);
+        // the columns already hold the archived Transactions, so they stay valid
+        for (Transaction transaction : loaded) {
+            indexTransaction(transaction);
+            transactionStore.put(transaction.getId(), transaction);
+        }
+        unloadedTransactionCount -= loaded.size();
+        if (unloadedTransactionCount <= 0) {
+            transactionArchive = null;
+            loadedFrom = null;
+        } else {
+            loadedFrom = from;
+        }
+        if (loaded.isEmpty()) { return; }
+
+        indexLoadedTransactions(loaded);
+        fireTransactionEvent(TransactionEvent.loaded(this, loaded));
+    }
+
+    /**
+     * Loads all archived Transactions.
+     *
+     * @see Ledger#loadTransactionsFrom(LocalDate)
+     */
+    public void loadAllTransactions() {
+        loadTransactionsFrom(LocalDate.MIN);
+    }
+
+    /**
+     * Loads the archived Transaction with id {@code id}, if it is not loaded yet.
+     *
+     * @param id the id of the Transaction
+     */
+    protected void loadTransaction(int id) {
+        LocalDate date = unloadedDateOf(id);
+        if (date != null) {
+            loadTransactionsFrom(date);
+        }
+    }
+
+    /**
+     * Called after Transactions have been loaded from the archive, before the TransactionEventListeners are notified.
+     * Subclasses override this method to add the loaded Transactions to their own indexes.
+     *
+     * @param loaded the loaded Transactions
+     */
+    protected void indexLoadedTransactions(@NotNull List<Transaction> loaded) { }
+
+    /**
+     * Called after Transactions have been added and the balances have been adjusted, before any listener is notified.
+     * Subclasses override this method to add the Transactions to their own indexes, so listeners see consistent
+     * indexes.
+     *
+     * @param added the added Transactions
+     */
+    protected void indexAddedTransactions(@NotNull List<Transaction> added) { }
+
+    /**
+     * Called after Transactions have been removed and the balances have been adjusted, before any listener is
+     * notified. Subclasses override this method to remove the Transactions from their own indexes.
+     *
+     * @param removed the removed Transactions
+     */
+    protected void unindexRemovedTransactions(@NotNull List<Transaction> removed) { }
+
+    /**
+     * Returns the date of the archived Transaction with id {@code id} if it is not loaded yet, or {@code null}.
+     */
+    private LocalDate unloadedDateOf(int id) {
+        if (transactionArchive == null) { return null; }
+
+        LocalDate date = transactionArchive.dateOf(id);
+        // Transactions on or after loadedFrom are loaded, and may have been removed since
+        return (date != null && date.isBefore(loadedFrom)) ? date : null;
+    }
+
+    /**
+     * Adds an entity to the AccountingEntity collection.
+     *
+     * @param accountingEntity the AccountingEntry to add
+     * @throws IllegalArgumentException when {@code accountingEntity} does not adhere to the contract of this class
+     */
+    public void addAccountingEntity(@NotNull AccountingEntity accountingEntity) {
+        Objects.requireNonNull(accountingEntity, "Parameter accountingEntity cannot be null");
+
+        if (accountingEntityStore.containsKey(accountingEntity.getId())) { throw new IllegalArgumentException("Key already exists"); }
+
+        // if the user supplied an AccountingEntity with id equal to or greater than nextAccountingEntityId, then increment it
+        if (accountingEntity.getId() >= nextAccountingEntityId) {
+            nextAccountingEntityId = accountingEntity.getId() + 1;
+        }
+
+        putAccountingEntity(accountingEntity.getId(), accountingEntity);
+    }
+
+    /**
+     * Updates the accountingEntity with the same id as the provided {@code accountingEntity}.
+     *
+     * @param accountingEntity the value to replace the old AccountingEntity with
+     * @return the previous value of AccountingEntity that is replaced
+     */
+    public AccountingEntity updateAccountingEntity(@NotNull AccountingEntity accountingEntity) {
+        Objects.requireNonNull(accountingEntity, "Parameter accountingEntity cannot be null");
+
+        // make sure that the id already exists
+        if (!accountingEntityStore.containsKey(accountingEntity.getId())) {
+            throw new IllegalArgumentException("There does not exists an AccountingEntity with that id");
+        }
+
+        // update the AccountingEntity and return the previous value
+        AccountingEntity updated = putAccountingEntity(accountingEntity.getId(), accountingEntity);
+        // Return the previous value
+        return updated;
+    }
+
+    /**
+     * Renames the AccountingEntity with id {@code id} in place. The EntryChangeListeners of the AccountingEntities are
+     * notified of the change with the renamed AccountingEntity as both the removed and the added value.
+     *
+     * @param id the id of the AccountingEntity
+     * @param name the new name
+     * @throws IllegalArgumentException when there is no AccountingEntity with that id, or when {@code name} is not a
+     * correct name
+     * @see AccountingEntity#isCorrectName(String)
+     */
+    public void renameAccountingEntity(int id, @NotNull String name) {
+        Objects.requireNonNull(name, "Parameter name cannot be null");
+        if (!AccountingEntity.isCorrectName(name)) { throw new IllegalArgumentException("Illegal name"); }
+
+        AccountingEntity accountingEntity = accountingEntityStore.get(id);
+        if (accountingEntity == null) {
+            throw new IllegalArgumentException("There does not exists an AccountingEntity with that id");
+        }
+        removeFromNameIndex(accountingEntity.getName(), id);
+        accountingEntity.setName(name);
+        addToNameIndex(accountingEntity.getName(), id);
+        accountingEntities.fireEntryChanged(id, accountingEntity, accountingEntity);
+    }
+
+    /**
+     * Puts {@code accountingEntity} in the map of AccountingEntities under {@code key} and keeps the name index up to
+     * date. All modifications of {@code accountingEntities} should go through this method.
+     *
+     * @param key the key to put the AccountingEntity under
+     * @param accountingEntity the AccountingEntity to put
+     * @return the previous AccountingEntity under {@code key}, or {@code null} if there was none
+     */
+    protected AccountingEntity putAccountingEntity(int key, @NotNull AccountingEntity accountingEntity) {
+        AccountingEntity previous = accountingEntities.put(key, accountingEntity);
+        if (previous != accountingEntity) {
+            if (previous != null) {
+                unindexAccountingEntity(key, previous);
+            }
+            indexAccountingEntity(key, accountingEntity);
+        }
+        return previous;
+    }
+
+    /**
+     * Builds the name index for all AccountingEntities. Used by the constructors that receive existing
+     * AccountingEntities.
+     */
+    private void indexAccountingEntities() {
+        for (Map.Entry<Integer, AccountingEntity> entry : accountingEntityStore.entrySet()) {
+            indexAccountingEntity(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Adds {@code accountingEntity} to the name index. Renames go through
+     * {@link Ledger#renameAccountingEntity(int, String)}, which keeps the index up to date.
+     */
+    private void indexAccountingEntity(int key, @NotNull AccountingEntity accountingEntity) {
+        addToNameIndex(accountingEntity.getName(), key);
+    }
+
+    /**
+     * Removes {@code accountingEntity} from the name index.
+     */
+    private void unindexAccountingEntity(int key, @NotNull AccountingEntity accountingEntity) {
+        removeFromNameIndex(accountingEntity.getName(), key);
+    }
+
+    private void addToNameIndex(String name, int key) {
+        if (name == null) { return; }
+        accountingEntityNameIndex.computeIfAbsent(normaliseName(name), k -> new TreeSet<>()).add(key);
+    }
+
+    private void removeFromNameIndex(String name, int key) {
+        if (name == null) { return; }
+        String normalised = normaliseName(name);
+        SortedSet<Integer> keys = accountingEntityNameIndex.get(normalised);
+        if (keys == null) { return; }
+
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            accountingEntityNameIndex.remove(normalised);
+        }
+    }
+
+    /**
+     * Returns the form of {@code name} that is used as key in the name index: stripped of surrounding whitespace and
+     * in lower case.
+     *
+     * @param name the name to normalise
+     * @return the normalised name
+     */
+    static @NotNull String normaliseName(@NotNull String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns a deep copy of {@code accountingEntries}. This method is linear time.
+     * @return new {@link SortedMap}
+     * @deprecated
+     */
+    public @Deprecated TreeMap<Integer, AccountingEntity> copyOfAccountingEntities() {
+        return new TreeMap<>(accountingEntities);
+    }
+
+    /**
+     * Returns an unmodifiable view of the map of AccountingEntities. Use
+     * {@link Ledger#addEntityListener(EntryChangeListener)} to observe it.
+     *
+     * @return unmodifiable map of AccountingEntities
+     */
+    public @NotNull Map<Integer, AccountingEntity> getAccountingEntities() {
+        return Collections.unmodifiableMap(accountingEntities);
+    }
+
+    /**
+     * Returns a deep copy of {@code transactions}. This method is linear time.
+     *
+     * @deprecated
+     */
+    public @Deprecated TreeMap<Integer, Transaction> copyOfTransactions() {
+        loadAllTransactions();
+        return new TreeMap<>(transactions);
+    }
+
+    /**
+     * Returns an unmodifiable view of the map of Transactions. The map only contains the Transactions that are loaded,
+     * call {@link Ledger#loadAllTransactions()} first when all Transactions are needed. Use
+     * {@link Ledger#addTransactionListener(EntryChangeListener)} to observe it.
+     *
+     * @return unmodifiable map of transactions
+     */
+    public @NotNull Map<Integer, Transaction> getTransactions() {
+        return Collections.unmodifiableMap(transactions);
+    }
+
+    /**
+     * Returns if Object {@code o} is equal to this Ledger. This method does not take the Vector of EventListeners into
+     * account. Archived Transactions are not loaded, if one of the Ledgers has an archive the Transactions are compared
+     * through their {@link Ledger#transactionColumns()}.
+     *
+     * @param o the Object to compare to
+     * @return if this and o are equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Ledger ledger = (Ledger) o;
+
+        if (nextTransactionId != ledger.nextTransactionId) return false;
+        if (nextAccountingEntityId != ledger.nextAccountingEntityId) return false;
+        if (transactionCount() != ledger.transactionCount()) return false;
+        if (transactionArchive == null && ledger.transactionArchive == null) {
+            if (!transactions.equals(ledger.transactions)) return false;
+        } else if (!transactionColumns().equals(ledger.transactionColumns())) {
+            return false;
+        }
+        if (accountingEntityStore.size() != ledger.accountingEntityStore.size()) return false;
+        for (AccountingEntity accountingEntity : accountingEntityStore.values()) {
+            AccountingEntity other = ledger.accountingEntityStore.get(accountingEntity.getId());
+            if (other == null || !accountingEntity.hasSameState(other)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code of this Ledger. Only the number of Transactions is part of it, so it is the same whether or
+     * not archived Transactions are loaded.
+     */
+    @Override
+    public int hashCode() {
+        int result = transactionCount();
+        result = 31 * result + accountingEntities.hashCode();
+        result = 31 * result + nextTransactionId;
+        result = 31 * result + nextAccountingEntityId;
+        return result;
+    }
+
+    /**
+     * Returns the id that should be used for the next AccountingEntity.
+     *
+     * @return AccountingEntity id
+     */
+    public int getNextAccountingEntityId() {
+        return nextAccountingEntityId;
+    }
+
+    /**
+     * Returns the id that should be used for the next AccountingEntity and increments the field by 1.
+     *
+     * @return next AccountingEntity id
+     */
+    public int getAndIncrementNextAccountingEntityId() {
+        return nextAccountingEntityId++;
+    }
+
+    /**
+     * Returns the id that should be used for the next Transactions.
+     * Note: use {@link Ledger#getAndIncrementNextTransactionId()} if you need to create multiple Transactions but
+     * do not want to add them immediately.
+     *
+     * @return Transaction id
+     * @see Ledger#getAndIncrementNextTransactionId()
+     */
+    public int getNextTransactionId() {
+        return nextTransactionId;
+    }
+
+    /**
+     * Returns the id that should be used for the next Transaction and increments the local field by 1.
+     *
+     * @return Transaction id
+     */
+    public int getAndIncrementNextTransactionId() {
+        return  nextTransactionId++;
+    }
+
+    /**
+     * Gets the key for this {@code value}. This method is linear in the size of {@code map}, do not use it inside
+     * loops over the same map.
+     */
+    public static <K, V> K getKey(Map<K, V> map, V value) {
+        Objects.requireNonNull(map);
+        Objects.requireNonNull(value);
+
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            if (value.equals(entry.getValue()))
+                return entry.getKey();
+        }
+        return null;
+    }
+
+    /**
+     * Get the id of the AccountingEntity with name {@code name}. Names are compared case-insensitively and without
+     * surrounding whitespace. If multiple AccountingEntities share the name, the lowest id is returned. This is a
+     * constant time lookup in the name index.
+     *
+     * @param name the name of the AccountingEntity
+     * @return the id of the AccountingEntity with name {@code name} or {@code null} if it was nog found
+     */
+    public Integer getAccountingEntityId(@NotNull String name) {
+        Objects.requireNonNull(name);
+
+        SortedSet<Integer> keys = accountingEntityNameIndex.get(normaliseName(name));
+        return (keys == null) ? null : keys.first();
+    }
+
+    /**
+     * Returns the AccountingEntity with id {@code id} or {@code null} if no AccountingEntity with that id is found.
+     *
+     * @param id the id of the AccountingEntity
+     * @return the corresponding AccountingEntity or {@code null}
+     */
+    public AccountingEntity getAccountingEntityById(int id) {
+        return accountingEntityStore.get(id);
+    }
+
+    /**
+     * Returns the loaded Transaction with id {@code id}, or {@code null} if it is not loaded or does not exist. Archived
+     * Transactions are not loaded for this.
+     *
+     * @param id the id of the Transaction
+     * @return the Transaction or {@code null}
+     */
+    protected Transaction loadedTransactionById(int id) {
+        return transactionStore.get(id);
+    }
+
+    /**
+     * Returns an array with all Transactions connected to the AccountingEntity with id {@code entityId}.
+     * Currently this function can return at most 99 Transactions of the same type.
+     *
+     * @param entityId the id of the AccountingEntity
+     * @return TODO change the return type to something scalable and intuitive
+     * @deprecated use {@link Ledger#getAllTransactionsOf(int)}
+     */
+    public @Deprecated Transaction[][] getAllTransactionsFromAccountingEntityAsArray(int entityId) {
+        loadAllTransactions();
+        Transaction[][] list = new Transaction[1][99]; // transactions
+        int i = 0;
+        for (Transaction t : transactions.values()) {
+            if (t.getDebtorId() == entityId || t.getCreditorId() == entityId) {
+                if (i == 99) break;
+
+                list[0][i] = t;
+                i++;
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Returns all Transactions that involve the AccountingEntity with id {@code entityId}, mapped by their id. The
+     * loaded Transactions are looked up through the AccountingEntity to Transaction index, so this method is
+     * proportional to the number of returned Transactions instead of to the size of this Ledger. Archived Transactions
+     * are created from the archive, they are not loaded for this.
+     *
+     * @param entityId the id of the AccountingEntity
+     * @return a new TreeMap with all Transactions of the AccountingEntity
+     */
+    public TreeMap<Integer, Transaction> getAllTransactionsOf(int entityId) {
+        TreeMap<Integer, Transaction> result = new TreeMap<>();
+        if (transactionArchive != null) {
+            for (Transaction transaction : transactionArchive.loadOf(entityId, loadedFrom)) {
+                result.put(transaction.getId(), transaction);
+            }
+        }
+        TransactionDateIndex index = entityTransactionIndex.get(entityId);
+        if (index != null) {
+            for (SortedSet<Integer> ids : index.all()) {
+                for (Integer id : ids) {
+                    result.put(id, transactionStore.get((int) id));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a Set of all Transactions that involve AccountingEntity with id {@code entityId} and which are between
+     * {@code from} date and {@code to} date inclusive.
+     *
+     * @param entityId the id of an AccountingEntity
+     * @param from the start date inclusive
+     * @param to the end date inclusive
+     * @return a set of Transactions
+     * @see Ledger#transactionsOf(int, LocalDate, LocalDate)
+     */
+    public Set<Transaction> getTransactionsOf(
+            int entityId,
+            @NotNull LocalDate from,
+            @NotNull LocalDate to) {
+        return new HashSet<>(transactionsOf(entityId, from, to));
+    }
+
+    /**
+     * Returns all Transactions with a date between {@code from} and {@code to} inclusive, ordered by date and then by
+     * id. The date index is used to seek directly to the requested window.
+     *
+     * @param from the start date inclusive
+     * @param to the end date inclusive
+     * @return a new List of Transactions
+     */
+    public @NotNull List<Transaction> transactionsBetween(@NotNull LocalDate from, @NotNull LocalDate to) {
+        Objects.requireNonNull(from, "Parameter from cannot be null");
+        Objects.requireNonNull(to, "Parameter to cannot be null");
+
+        loadTransactionsFrom(from);
+        return collectTransactions(transactionDateIndex, from, to);
+    }
+
+    /**
+     * Returns all Transactions that involve the AccountingEntity with id {@code entityId} and have a date between
+     * {@code from} and {@code to} inclusive, ordered by date and then by id. Only the Transactions of the
+     * AccountingEntity that lie within the window are visited.
+     *
+     * @param entityId the id of an AccountingEntity
+     * @param from the start date inclusive
+     * @param to the end date inclusive
+     * @return a new List of Transactions
+     */
+    public @NotNull List<Transaction> transactionsOf(int entityId, @NotNull LocalDate from, @NotNull LocalDate to) {
+        Objects.requireNonNull(from, "Parameter from cannot be null");
+        Objects.requireNonNull(to, "Parameter to cannot be null");
+
+        loadTransactionsFrom(from);
+        TransactionDateIndex index = entityTransactionIndex.get(entityId);
+        if (index == null) { return new ArrayList<>(); }
+
+        return collectTransactions(index, from, to);
+    }
+
+    private @NotNull List<Transaction> collectTransactions(@NotNull TransactionDateIndex index,
+                                                           @NotNull LocalDate from,
+                                                           @NotNull LocalDate to) {
+        List<Transaction> result = new ArrayList<>();
+        for (SortedSet<Integer> ids : index.between(from, to)) {
+            for (Integer id : ids) {
+                result.add(transactionStore.get((int) id));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether this Ledger has a AccountingEntity with id matching {@code accountingEntityId}.
+     *
+     * @param accountingEntityId the id to search for
+     * @return {@code true} if this Ledger contains an AccountingEntity with corresponding id, {@code false} otherwise
+     */
+    private boolean containsAccountingEntity(int accountingEntityId) {
+        return accountingEntityStore.containsKey(accountingEntityId);
+    }
+
+    /**
+     * Manually set the field {@code nextAccountingEntityId}. Do not use this method unless you are very sure what you
+     * are doing.
+     *
+     * @param id the new {@code nextAccountingEntityId}
+     */
+    public void setNextAccountingEntityId(int id) {
+        this.nextAccountingEntityId = id;
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.core;
+
+import ch.bolkhuis.kasboek.eventlisteners.EntryChangeListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * ListenableIntMap is a facade over an {@link IntObjectMap} that notifies its {@link EntryChangeListener
+ * EntryChangeListeners} of every put and remove that goes through it. The Ledger classes read from the IntObjectMap
+ * directly and change it through this facade, so the listeners see every single change. Bulk changes write to the
+ * IntObjectMap directly and are published once by the Ledger instead.<br />
+ * <br />
+ * The entries, keys and values can only be changed through {@link ListenableIntMap#put(Integer, Object)},
+ * {@link ListenableIntMap#remove(Object)} and {@link ListenableIntMap#clear()}. A ListenableIntMap is not thread safe.
+ *
+ * @param <V> the type of the values
+ * @author Aron Hoogeveen
+ */
+public final class ListenableIntMap<V> extends AbstractMap<Integer, V> {
+    private final @NotNull IntObjectMap<V> store;
+    private final @NotNull Map<Integer, V> readOnlyStore;
+    private final @NotNull List<EntryChangeListener<? super V>> listeners = new ArrayList<>();
+
+    /**
+     * Creates a ListenableIntMap that changes {@code store}.
+     *
+     * @param store the backing map
+     */
+    public ListenableIntMap(@NotNull IntObjectMap<V> store) {
+        this.store = Objects.requireNonNull(store, "Parameter store cannot be null");
+        this.readOnlyStore = Collections.unmodifiableMap(store);
+    }
+
+    /**
+     * Adds {@code listener} to the listeners that are notified of every change made through this map.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(@NotNull EntryChangeListener<? super V> listener) {
+        Objects.requireNonNull(listener, "Parameter listener cannot be null");
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes {@code listener} from the listeners of this map.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(EntryChangeListener<? super V> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notifies the listeners that the entry with {@code key} changed without going through this map, for example
+     * because its value was changed in place.
+     */
+    void fireEntryChanged(int key, V removed, V added) {
+        // iterate over a copy, so listeners can unregister themselves
+        for (EntryChangeListener<? super V> listener : new ArrayList<>(listeners)) {
+            listener.entryChanged(key, removed, added);
+        }
+    }
+
+    public V put(int key, @NotNull V value) {
+        V previous = store.put(key, value);
+        fireEntryChanged(key, previous, value);
+        return previous;
+    }
+
+    @Override
+    public V put(@NotNull Integer key, @NotNull V value) {
+        return put((int) key, value);
+    }
+
+    public V remove(int key) {
+        V previous = store.remove(key);
+        if (previous != null) {
+            fireEntryChanged(key, previous, null);
+        }
+        return previous;
+    }
+
+    @Override
+    public V remove(Object key) {
+        return (key instanceof Integer) ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public void clear() {
+        for (Integer key : new ArrayList<>(store.keySet())) {
+            remove((int) key);
+        }
+    }
+
+    public V get(int key) {
+        return store.get(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        return store.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return store.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return store.isEmpty();
+    }
+
+    @Override
+    public @NotNull Set<Entry<Integer, V>> entrySet() {
+        return readOnlyStore.entrySet();
+    }
+
+    @Override
+    public @NotNull Collection<V> values() {
+        return readOnlyStore.values();
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * The immutable class Money represents an amount of money as a whole number of cents. In contrast to a double every
+ * amount of cents is exact, so adding up the amounts of many Transactions gives the exact total. Like
+ * {@link Transaction} this class does not save the currency.
+ *
+ * @author Aron Hoogeveen
+ */
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Returns the Money of {@code cents} cents.
+     *
+     * @param cents the amount in cents
+     * @return the Money of {@code cents}
+     */
+    public static @NotNull Money ofCents(long cents) {
+        return (cents == 0) ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Returns {@code amount} rounded to the nearest cent. Used to convert the amounts of files and code that still use
+     * doubles.
+     *
+     * @param amount the amount
+     * @return {@code amount} rounded to the nearest cent
+     * @throws IllegalArgumentException when {@code amount} is not finite or does not fit in a long of cents
+     */
+    public static @NotNull Money of(double amount) {
+        return ofCents(centsOf(amount));
+    }
+
+    /**
+     * Returns {@code amount} rounded to the nearest cent.
+     *
+     * @param amount the amount
+     * @return the number of cents
+     * @throws IllegalArgumentException when {@code amount} is not finite or does not fit in a long of cents
+     * @see Money#of(double)
+     */
+    public static long centsOf(double amount) {
+        if (!Double.isFinite(amount)) { throw new IllegalArgumentException("amount must be finite"); }
+        double cents = amount * 100;
+        if (Math.abs(cents) >= 0x1p63) { throw new IllegalArgumentException("amount is too large"); }
+
+        return Math.round(cents);
+    }
+
+    /**
+     * Parses a decimal amount like {@code "12.34"}, {@code "12,34"} or {@code "-5"}. At most two decimals are allowed.
+     *
+     * @param text the text to parse
+     * @return the parsed Money
+     * @throws NumberFormatException when {@code text} is not a decimal amount with at most two decimals
+     */
+    public static @NotNull Money parse(@NotNull String text) {
+        Objects.requireNonNull(text, "Parameter text cannot be null");
+
+        BigDecimal amount = new BigDecimal(text.strip().replace(',', '.'));
+        try {
+            return ofCents(amount.movePointRight(2).setScale(0, RoundingMode.UNNECESSARY).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Not an amount of whole cents: " + text);
+        }
+    }
+
+    /**
+     * Returns the decimal amount {@code number} rounded to the nearest cent. Unlike {@link Money#parse(String)} more
+     * than two decimals are allowed, so the amounts that older versions wrote as doubles can be read.
+     *
+     * @param number a decimal number, e.g. {@code "0.30000000000000004"}
+     * @return {@code number} rounded to the nearest cent
+     * @throws NumberFormatException when {@code number} is not a decimal number or does not fit in a long of cents
+     */
+    public static @NotNull Money round(@NotNull String number) {
+        Objects.requireNonNull(number, "Parameter number cannot be null");
+
+        try {
+            return ofCents(new BigDecimal(number).movePointRight(2).setScale(0, RoundingMode.HALF_UP)
+                    .longValueExact());
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount is too large: " + number);
+        }
+    }
+
+    /**
+     * Returns the amount in cents.
+     */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * Returns the amount as a double, for display and for code that still works with doubles. The result is not exact
+     * for most amounts of cents.
+     *
+     * @return the amount as a double
+     */
+    public double toDouble() {
+        return cents / 100.0;
+    }
+
+    /**
+     * Returns the amount as an exact BigDecimal with two decimals, for formatting.
+     *
+     * @return the amount as a BigDecimal
+     */
+    public @NotNull BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public @NotNull Money plus(@NotNull Money other) {
+        Objects.requireNonNull(other, "Parameter other cannot be null");
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public @NotNull Money minus(@NotNull Money other) {
+        Objects.requireNonNull(other, "Parameter other cannot be null");
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public @NotNull Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    @Override
+    public int compareTo(@NotNull Money o) {
+        return Long.compare(cents, o.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        return cents == ((Money) o).cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * Returns the amount as a plain decimal number without trailing zeros, e.g. {@code "12.34"}, {@code "12.5"} or
+     * {@code "-5"}. The result can be read back with {@link Money#parse(String)}.
+     */
+    @Override
+    public String toString() {
+        if (cents % 100 == 0) {
+            return Long.toString(cents / 100);
+        }
+        return BigDecimal.valueOf(cents, 2).stripTrailingZeros().toPlainString();
+    }
+}
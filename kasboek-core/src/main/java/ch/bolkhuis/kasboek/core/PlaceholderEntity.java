@@ -33,4 +33,19 @@ public class PlaceholderEntity extends AccountingEntity {
     public PlaceholderEntity(@NotNull String name) {
         super(999, name, AccountType.NON_EXISTENT, 0);
     }
+
+    /**
+     * Constructs a copy of {@code other}.
+     *
+     * @param other the PlaceholderEntity to copy
+     * @see AccountingEntity#AccountingEntity(AccountingEntity)
+     */
+    protected PlaceholderEntity(@NotNull PlaceholderEntity other) {
+        super(other);
+    }
+
+    @Override
+    public @NotNull PlaceholderEntity copy() {
+        return new PlaceholderEntity(this);
+    }
 }
@@ -16,11 +16,10 @@
  */
 package ch.bolkhuis.kasboek.core;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableSet;
 import org.jetbrains.annotations.NotNull;
 
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
@@ -35,7 +34,7 @@ import java.util.Set;
 public class Receipt {
     private final int id;
     private @NotNull final String name;
-    private @NotNull ObservableSet<Integer> transactionIdSet;
+    private final @NotNull Set<Integer> transactionIdSet;
     private final @NotNull LocalDate date;
     private final int payer;
 
@@ -53,7 +52,7 @@ public class Receipt {
 
         this.id = id;
         this.name = name;
-        this.transactionIdSet = FXCollections.observableSet(transactionIdSet);
+        this.transactionIdSet = transactionIdSet;
         this.date = date;
         this.payer = payer;
     }
@@ -66,7 +65,7 @@ public class Receipt {
         return name;
     }
 
-    public @NotNull ObservableSet<Integer> getTransactionIdSet() {
+    public @NotNull Set<Integer> getTransactionIdSet() {
         return transactionIdSet;
     }
 
@@ -88,6 +87,25 @@ public class Receipt {
         return transactionIdSet.add(transactionId);
     }
 
+    /**
+     * Returns {@code true} if the set contained the transaction id.
+     *
+     * @param transactionId the id of the Transaction to unregister from this Receipt
+     * @return {@code true} if the set contained this Transaction
+     */
+    public boolean unregisterTransaction(int transactionId) {
+        return transactionIdSet.remove(transactionId);
+    }
+
+    /**
+     * Returns a copy of this Receipt with its own set of Transaction ids.
+     *
+     * @return copy of this Receipt
+     */
+    public @NotNull Receipt copy() {
+        return new Receipt(id, name, new HashSet<>(transactionIdSet), date, payer);
+    }
+
     @Override
     public String toString() {
         return name + " (" + date + ")";
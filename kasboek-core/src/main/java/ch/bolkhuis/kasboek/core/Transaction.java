@@ -16,13 +16,9 @@
  */
 package ch.bolkhuis.kasboek.core;
 
-import ch.bolkhuis.kasboek.gson.CustomizedGson;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.BufferedReader;
-import java.io.Reader;
 import java.lang.UnsupportedOperationException;
-import java.lang.reflect.Type;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
@@ -34,7 +30,7 @@ import java.util.Objects;
  * It is possible, however not required, to set a unique identifier to an instance of this class that connects a real-
  * life receipt with this transaction ({@code receiptId}).
  * Transaction enforces a short description of at most 100 characters, to ensure a concise description.
- * The amount is a positive number.
+ * The amount is a positive number of whole cents, see {@link Money}.
  *
  * @version 0.2-pre-alpha
  * @author Aron Hoogeveen
@@ -45,7 +41,8 @@ public final class Transaction implements Comparable<Transaction> {
     private final int debtorId;
     private final int creditorId;
     private final Integer receiptId;
-    private final double amount;
+    // the amount in cents
+    private final long amount;
     private @NotNull final String description;
 
     /**
@@ -73,46 +70,57 @@ public final class Transaction implements Comparable<Transaction> {
      * @see Transaction#isCorrectCreditorId(int)
      * @see Transaction#isCorrectDescription(String)
      */
-    public Transaction(int id, int debtorId, int creditorId, double amount, @NotNull LocalDate date, @NotNull String description) {
-        if (!isCorrectId(id)) { throw new IllegalArgumentException("Illegal id."); }
-        if (!isCorrectDebtorId(debtorId)) { throw new IllegalArgumentException("Illegal debtorId."); }
-        if (!isCorrectCreditorId(creditorId)) { throw new IllegalArgumentException("Illegal creditorId."); }
-        if (amount < 0) { throw new IllegalArgumentException("amount should not be negative"); }
-        if (!isCorrectDescription(description)) { throw new IllegalArgumentException("Illegal description."); }
-
-        this.id = id;
-        this.debtorId = debtorId;
-        this.creditorId = creditorId;
-        this.amount = amount;
-        this.receiptId = null;
-        this.date = Objects.requireNonNull(date, "Parameter date cannot be null");
-        this.description = Objects.requireNonNull(description, "Parameter description cannot be null");
+    public Transaction(int id, int debtorId, int creditorId, @NotNull Money amount, @NotNull LocalDate date,
+                       @NotNull String description) {
+        this(id, debtorId, creditorId, amount, null, date, description);
     }
 
     /**
-     * Constructs a new Transaction with an associated receiptId. The
+     * Constructs a new Transaction with an associated receiptId.
      *
-     * @param receiptId the associated receiptId
+     * @param receiptId the associated receiptId, or {@code null} if there is none
      * @throws IllegalArgumentException when of its arguments does not adhere to this class' contract
-     * @see Transaction#Transaction(int, int, int, double, LocalDate, String)
+     * @see Transaction#Transaction(int, int, int, Money, LocalDate, String)
      */
-    public Transaction(int id, int debtorId, int creditorId, double amount, Integer receiptId, @NotNull LocalDate date,
-                       @NotNull String description) {
+    public Transaction(int id, int debtorId, int creditorId, @NotNull Money amount, Integer receiptId,
+                       @NotNull LocalDate date, @NotNull String description) {
+        Objects.requireNonNull(amount, "Parameter amount cannot be null");
         if (!isCorrectId(id)) { throw new IllegalArgumentException("Illegal id."); }
         if (!isCorrectDebtorId(debtorId)) { throw new IllegalArgumentException("Illegal debtorId."); }
         if (!isCorrectCreditorId(creditorId)) { throw new IllegalArgumentException("Illegal creditorId."); }
-        if (amount < 0) { throw new IllegalArgumentException("amount should not be negative"); }
+        if (amount.isNegative()) { throw new IllegalArgumentException("amount should not be negative"); }
         if (!isCorrectDescription(description)) { throw new IllegalArgumentException("Illegal description."); }
 
         this.id = id;
         this.debtorId = debtorId;
         this.creditorId = creditorId;
-        this.amount = amount;
+        this.amount = amount.getCents();
         this.receiptId = receiptId;
         this.date = Objects.requireNonNull(date, "Parameter date cannot be null");
         this.description = Objects.requireNonNull(description, "Parameter description cannot be null");
     }
 
+    /**
+     * Constructs a new Transaction without {@code receiptId}. The {@code amount} is rounded to whole cents.
+     *
+     * @see Transaction#Transaction(int, int, int, Money, LocalDate, String)
+     * @see Money#of(double)
+     */
+    public Transaction(int id, int debtorId, int creditorId, double amount, @NotNull LocalDate date, @NotNull String description) {
+        this(id, debtorId, creditorId, Money.of(amount), null, date, description);
+    }
+
+    /**
+     * Constructs a new Transaction with an associated receiptId. The {@code amount} is rounded to whole cents.
+     *
+     * @see Transaction#Transaction(int, int, int, Money, Integer, LocalDate, String)
+     * @see Money#of(double)
+     */
+    public Transaction(int id, int debtorId, int creditorId, double amount, Integer receiptId, @NotNull LocalDate date,
+                       @NotNull String description) {
+        this(id, debtorId, creditorId, Money.of(amount), receiptId, date, description);
+    }
+
     public int getId() {
         assert id >= 0;
 
@@ -132,10 +140,18 @@ public final class Transaction implements Comparable<Transaction> {
     }
 
     /**
-     * Returns the value of field {@code amount}. This number is never negative.
+     * Returns the value of field {@code amount}. This amount is never negative.
      * @return field {@code amount}
      */
-    public double getAmount() {
+    public @NotNull Money getAmount() {
+        return Money.ofCents(amount);
+    }
+
+    /**
+     * Returns the value of field {@code amount} in cents, without creating a Money.
+     * @return field {@code amount} in cents
+     */
+    public long getAmountCents() {
         return amount;
     }
 
@@ -161,23 +177,21 @@ public final class Transaction implements Comparable<Transaction> {
         if (id != that.id) return false;
         if (debtorId != that.debtorId) return false;
         if (creditorId != that.creditorId) return false;
-        if (Double.compare(that.amount, amount) != 0) return false;
+        if (amount != that.amount) return false;
         if (!date.equals(that.date)) return false;
-        if (!receiptId.equals(that.receiptId)) return false;
+        if (!Objects.equals(receiptId, that.receiptId)) return false;
         return description.equals(that.description);
     }
 
     @Override
     public int hashCode() {
         int result;
-        long temp;
         result = id;
         result = 31 * result + date.hashCode();
         result = 31 * result + debtorId;
         result = 31 * result + creditorId;
         result = 31 * result + (receiptId != null ? receiptId.hashCode() : 0);
-        temp = Double.doubleToLongBits(amount);
-        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + Long.hashCode(amount);
         result = 31 * result + description.hashCode();
         return result;
     }
@@ -190,20 +204,6 @@ public final class Transaction implements Comparable<Transaction> {
         return description;
     }
 
-    /**
-     * @see com.google.gson.Gson#toJson(Object, Type)
-     */
-    public static String toJson(Transaction transaction) {
-        return CustomizedGson.gson.toJson(transaction, Transaction.class);
-    }
-
-    public static Transaction fromJson(@NotNull Reader reader) {
-        Objects.requireNonNull(reader, "Parameter reader cannot be null");
-
-        BufferedReader bufferedReader = new BufferedReader(reader);
-        return CustomizedGson.gson.fromJson(bufferedReader, Transaction.class);
-    }
-
     /**
      * @deprecated contract on ids changed, which made this method obsolete
      */
@@ -234,6 +234,10 @@ public final class Transaction implements Comparable<Transaction> {
         return amount >= 0;
     }
 
+    public static boolean isCorrectAmount(Money amount) {
+        return (amount != null) && (!amount.isNegative());
+    }
+
     /**
      * Returns the String representation of the {@code date} of this Transaction formatted as "dd-MM-uuuu".
      *
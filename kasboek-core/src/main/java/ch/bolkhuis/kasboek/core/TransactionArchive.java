@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A TransactionArchive holds the Transactions of a Ledger that are dated before a horizon and are not loaded yet. The
+ * balances of the AccountingEntities already include these Transactions, so a Ledger only has to load them when a
+ * query reaches before the horizon. See {@link Ledger#setTransactionArchive(TransactionArchive)}.<br />
+ * <br />
+ * A TransactionArchive never changes, so it can be shared by a Ledger and its snapshots.
+ *
+ * @author Aron Hoogeveen
+ */
+public interface TransactionArchive {
+    /**
+     * Returns the date before which all archived Transactions are dated.
+     */
+    @NotNull LocalDate getHorizon();
+
+    /**
+     * Returns the number of archived Transactions.
+     */
+    int size();
+
+    /**
+     * Returns the date of the oldest archived Transaction, or {@code null} if the archive is empty.
+     */
+    LocalDate getFirstDate();
+
+    /**
+     * Returns the date of the archived Transaction with id {@code id}, or {@code null} if there is none.
+     *
+     * @param id the id of the Transaction
+     * @return the date of the Transaction or {@code null}
+     */
+    LocalDate dateOf(int id);
+
+    /**
+     * Creates the archived Transactions with a date from {@code from} inclusive up to {@code to} exclusive.
+     *
+     * @param from the start date inclusive
+     * @param to the end date exclusive
+     * @return a new List of Transactions
+     */
+    @NotNull List<Transaction> load(@NotNull LocalDate from, @NotNull LocalDate to);
+
+    /**
+     * Returns the date of the newest archived Transaction dated before {@code to}, or {@code null} if there is none.
+     *
+     * @param to the end date exclusive
+     * @return the date of the newest Transaction before {@code to} or {@code null}
+     */
+    LocalDate lastDateBefore(@NotNull LocalDate to);
+
+    /**
+     * Creates the archived Transactions dated before {@code to} in which the AccountingEntity with id {@code entityId}
+     * is the debtor or the creditor.
+     *
+     * @param entityId the id of the AccountingEntity
+     * @param to the end date exclusive
+     * @return a new List of Transactions
+     */
+    @NotNull List<Transaction> loadOf(int entityId, @NotNull LocalDate to);
+
+    /**
+     * Adds the archived Transactions dated before {@code to} to {@code builder}, without creating Transactions.
+     *
+     * @param builder a Builder that interns the descriptions
+     * @param to the end date exclusive
+     */
+    void addTo(@NotNull TransactionColumns.Builder builder, @NotNull LocalDate to);
+}
@@ -0,0 +1,498 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * TransactionColumns stores Transactions as parallel columns of primitives instead of as Transaction objects: the ids,
+ * the epoch days, the debtor and creditor ids, the amounts in cents, the receipt ids and an index into a table of distinct
+ * descriptions. The rows are ordered by date and then by id, so a scan over a period reads consecutive array slots.
+ * Reporting scans such as {@link TransactionColumns#balanceChange(AccountingEntity, LocalDate, LocalDate)} never create
+ * a Transaction. A Transaction is only created when it is asked for, see {@link TransactionColumns#transactionAt(int)}.
+ * <br />
+ * <br />
+ * TransactionColumns is immutable. Use {@link Ledger#transactionColumns()} for the columns of a Ledger.
+ *
+ * @author Aron Hoogeveen
+ */
+public final class TransactionColumns {
+    private final int size;
+    private final int[] ids;
+    private final int[] epochDays;
+    private final int[] debtorIds;
+    private final int[] creditorIds;
+    private final long[] amounts;
+    private final int[] receiptIds;
+    private final BitSet hasReceipt;
+    private final int[] descriptions;
+    private final String[] descriptionTable;
+    // the rows ordered by id, for looking up a row by its id
+    private final int[] rowsById;
+
+    private TransactionColumns(@NotNull Builder builder) {
+        this.size = builder.size;
+        this.descriptionTable = builder.descriptionTable();
+
+        // order the positions by id first, and detect duplicate ids while at it
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) builder.ids[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        for (int i = 1; i < size; i++) {
+            if ((keys[i] >> 32) == (keys[i - 1] >> 32)) {
+                throw new IllegalArgumentException("Cannot add a transaction with a duplicate key");
+            }
+        }
+        int[] positionsById = new int[size];
+        for (int rank = 0; rank < size; rank++) {
+            positionsById[rank] = (int) keys[rank];
+        }
+
+        // the rank of the id in the low half orders by date and then by id
+        for (int rank = 0; rank < size; rank++) {
+            keys[rank] = ((long) builder.epochDays[positionsById[rank]] << 32) | rank;
+        }
+        Arrays.sort(keys);
+
+        this.ids = new int[size];
+        this.epochDays = new int[size];
+        this.debtorIds = new int[size];
+        this.creditorIds = new int[size];
+        this.amounts = new long[size];
+        this.receiptIds = new int[size];
+        this.hasReceipt = new BitSet(size);
+        this.descriptions = new int[size];
+        this.rowsById = new int[size];
+        for (int row = 0; row < size; row++) {
+            int rank = (int) keys[row];
+            int position = positionsById[rank];
+            rowsById[rank] = row;
+            ids[row] = builder.ids[position];
+            epochDays[row] = builder.epochDays[position];
+            debtorIds[row] = builder.debtorIds[position];
+            creditorIds[row] = builder.creditorIds[position];
+            amounts[row] = builder.amounts[position];
+            receiptIds[row] = builder.receiptIds[position];
+            hasReceipt.set(row, builder.hasReceipt.get(position));
+            descriptions[row] = builder.descriptions[position];
+        }
+    }
+
+    /**
+     * Returns the columns of {@code transactions}.
+     *
+     * @param transactions the Transactions
+     * @return the columns of {@code transactions}
+     * @throws IllegalArgumentException when two of the Transactions have the same id
+     */
+    public static @NotNull TransactionColumns of(@NotNull Collection<Transaction> transactions) {
+        Objects.requireNonNull(transactions, "Parameter transactions cannot be null");
+
+        Builder builder = new Builder(transactions.size());
+        for (Transaction transaction : transactions) {
+            builder.add(transaction);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of Transactions.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int idAt(int row) {
+        return ids[checkRow(row)];
+    }
+
+    public int epochDayAt(int row) {
+        return epochDays[checkRow(row)];
+    }
+
+    public @NotNull LocalDate dateAt(int row) {
+        return LocalDate.ofEpochDay(epochDays[checkRow(row)]);
+    }
+
+    public int debtorIdAt(int row) {
+        return debtorIds[checkRow(row)];
+    }
+
+    public int creditorIdAt(int row) {
+        return creditorIds[checkRow(row)];
+    }
+
+    public @NotNull Money amountAt(int row) {
+        return Money.ofCents(amounts[checkRow(row)]);
+    }
+
+    public long amountCentsAt(int row) {
+        return amounts[checkRow(row)];
+    }
+
+    /**
+     * Returns the receipt id of the Transaction in {@code row}, or {@code null} if it has none.
+     */
+    public Integer receiptIdAt(int row) {
+        return hasReceipt.get(checkRow(row)) ? receiptIds[row] : null;
+    }
+
+    public @NotNull String descriptionAt(int row) {
+        return descriptionTable[descriptions[checkRow(row)]];
+    }
+
+    /**
+     * Creates the Transaction in {@code row}. Every call creates a new Transaction, so callers that only need some of
+     * the fields should use the column accessors instead.
+     *
+     * @param row the row
+     * @return the Transaction in {@code row}
+     * @throws IndexOutOfBoundsException when there is no such row
+     */
+    public @NotNull Transaction transactionAt(int row) {
+        checkRow(row);
+        return new Transaction(ids[row], debtorIds[row], creditorIds[row], Money.ofCents(amounts[row]),
+                hasReceipt.get(row) ? receiptIds[row] : null, LocalDate.ofEpochDay(epochDays[row]),
+                descriptionTable[descriptions[row]]);
+    }
+
+    /**
+     * Returns the row of the Transaction with id {@code id}, or {@code -1} if there is none.
+     *
+     * @param id the id of the Transaction
+     * @return the row or {@code -1}
+     */
+    public int rowOf(int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = ids[rowsById[middle]];
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return rowsById[middle];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first row dated on or after {@code date}, or {@link TransactionColumns#size()} if there is none.
+     *
+     * @param date the date
+     * @return the first row dated on or after {@code date}
+     */
+    public int firstRowOnOrAfter(@NotNull LocalDate date) {
+        Objects.requireNonNull(date, "Parameter date cannot be null");
+
+        return firstRowOnOrAfter(date.toEpochDay());
+    }
+
+    private int firstRowOnOrAfter(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochDays[middle] < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the date of the oldest Transaction, or {@code null} if there are none.
+     */
+    public LocalDate getFirstDate() {
+        return (size == 0) ? null : LocalDate.ofEpochDay(epochDays[0]);
+    }
+
+    /**
+     * Returns the date of the newest Transaction, or {@code null} if there are none.
+     */
+    public LocalDate getLastDate() {
+        return (size == 0) ? null : LocalDate.ofEpochDay(epochDays[size - 1]);
+    }
+
+    /**
+     * Creates the Transactions dated from {@code from} up to and including {@code to}, in date order.
+     *
+     * @param from the first date
+     * @param to the last date
+     * @return a new List of Transactions
+     */
+    public @NotNull List<Transaction> transactionsBetween(@NotNull LocalDate from, @NotNull LocalDate to) {
+        int start = firstRowOnOrAfter(from);
+        int end = firstRowOnOrAfter(Objects.requireNonNull(to, "Parameter to cannot be null").toEpochDay() + 1);
+
+        List<Transaction> result = new ArrayList<>(Math.max(0, end - start));
+        for (int row = start; row < end; row++) {
+            result.add(transactionAt(row));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total amount debited to the AccountingEntity with id {@code entityId} from {@code from} up to and
+     * including {@code to}.
+     *
+     * @param entityId the id of the AccountingEntity
+     * @param from the first date
+     * @param to the last date
+     * @return the total debited amount
+     */
+    public @NotNull Money debitTotal(int entityId, @NotNull LocalDate from, @NotNull LocalDate to) {
+        return Money.ofCents(total(debtorIds, entityId, from, to));
+    }
+
+    /**
+     * Returns the total amount credited to the AccountingEntity with id {@code entityId} from {@code from} up to and
+     * including {@code to}.
+     *
+     * @param entityId the id of the AccountingEntity
+     * @param from the first date
+     * @param to the last date
+     * @return the total credited amount
+     */
+    public @NotNull Money creditTotal(int entityId, @NotNull LocalDate from, @NotNull LocalDate to) {
+        return Money.ofCents(total(creditorIds, entityId, from, to));
+    }
+
+    /**
+     * Returns the change in balance of {@code accountingEntity} by the Transactions from {@code from} up to and
+     * including {@code to}, as {@link AccountingEntity#debitBalanceChange(long)} and
+     * {@link AccountingEntity#creditBalanceChange(long)} would add it up.
+     *
+     * @param accountingEntity the AccountingEntity
+     * @param from the first date
+     * @param to the last date
+     * @return the change in balance
+     */
+    public @NotNull Money balanceChange(@NotNull AccountingEntity accountingEntity, @NotNull LocalDate from,
+                                        @NotNull LocalDate to) {
+        Objects.requireNonNull(accountingEntity, "Parameter accountingEntity cannot be null");
+
+        int id = accountingEntity.getId();
+        return Money.ofCents(Math.addExact(accountingEntity.debitBalanceChange(total(debtorIds, id, from, to)),
+                accountingEntity.creditBalanceChange(total(creditorIds, id, from, to))));
+    }
+
+    private long total(int[] entityIds, int entityId, @NotNull LocalDate from, @NotNull LocalDate to) {
+        int start = firstRowOnOrAfter(from);
+        int end = firstRowOnOrAfter(Objects.requireNonNull(to, "Parameter to cannot be null").toEpochDay() + 1);
+
+        // whole cents add up exactly and without branches
+        long total = 0;
+        for (int row = start; row < end; row++) {
+            total += (entityIds[row] == entityId) ? amounts[row] : 0;
+        }
+        return total;
+    }
+
+    /**
+     * Returns whether {@code o} holds the same rows. The rows are in a fixed order, so this compares the columns row by
+     * row. Descriptions are compared by their text, not by their index in the description table.
+     *
+     * @param o the Object to compare to
+     * @return if this and o hold the same rows
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TransactionColumns that = (TransactionColumns) o;
+
+        if (size != that.size) return false;
+        if (!Arrays.equals(ids, that.ids)) return false;
+        if (!Arrays.equals(epochDays, that.epochDays)) return false;
+        if (!Arrays.equals(debtorIds, that.debtorIds)) return false;
+        if (!Arrays.equals(creditorIds, that.creditorIds)) return false;
+        if (!Arrays.equals(amounts, that.amounts)) return false;
+        if (!Arrays.equals(receiptIds, that.receiptIds)) return false;
+        if (!hasReceipt.equals(that.hasReceipt)) return false;
+        for (int row = 0; row < size; row++) {
+            if (!descriptionAt(row).equals(that.descriptionAt(row))) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = size;
+        result = 31 * result + Arrays.hashCode(ids);
+        result = 31 * result + Arrays.hashCode(epochDays);
+        result = 31 * result + Arrays.hashCode(amounts);
+        return result;
+    }
+
+    private int checkRow(int row) {
+        return Objects.checkIndex(row, size);
+    }
+
+    /**
+     * Collects the rows of a TransactionColumns in any order. Descriptions are either interned by the Builder, or refer
+     * to a table of descriptions that is given up front.
+     */
+    public static final class Builder {
+        private final List<String> givenTable;
+        private final Map<String, Integer> descriptionIndexes;
+        private final List<String> descriptionList;
+        private int size = 0;
+        private int[] ids;
+        private int[] epochDays;
+        private int[] debtorIds;
+        private int[] creditorIds;
+        private long[] amounts;
+        private int[] receiptIds;
+        private final BitSet hasReceipt = new BitSet();
+        private int[] descriptions;
+
+        /**
+         * Creates a Builder that interns the descriptions of the added Transactions.
+         *
+         * @param expectedSize the expected number of Transactions
+         */
+        public Builder(int expectedSize) {
+            this(null, expectedSize);
+        }
+
+        /**
+         * Creates a Builder of which the descriptions refer to {@code descriptionTable}. The table is not copied until
+         * the columns are built, so it may grow while rows are added.
+         *
+         * @param descriptionTable the table the descriptions refer to
+         */
+        public Builder(@NotNull List<String> descriptionTable) {
+            this(Objects.requireNonNull(descriptionTable, "Parameter descriptionTable cannot be null"), 16);
+        }
+
+        private Builder(List<String> givenTable, int expectedSize) {
+            if (expectedSize < 0) { throw new IllegalArgumentException("expectedSize cannot be negative"); }
+
+            this.givenTable = givenTable;
+            this.descriptionIndexes = (givenTable == null) ? new HashMap<>() : null;
+            this.descriptionList = (givenTable == null) ? new ArrayList<>() : null;
+            int capacity = Math.max(16, expectedSize);
+            ids = new int[capacity];
+            epochDays = new int[capacity];
+            debtorIds = new int[capacity];
+            creditorIds = new int[capacity];
+            amounts = new long[capacity];
+            receiptIds = new int[capacity];
+            descriptions = new int[capacity];
+        }
+
+        /**
+         * Adds {@code transaction}, interning its description. Only for Builders without a given description table.
+         *
+         * @param transaction the Transaction to add
+         * @throws IllegalStateException when this Builder was given a description table
+         */
+        public void add(@NotNull Transaction transaction) {
+            Objects.requireNonNull(transaction, "Parameter transaction cannot be null");
+
+            add(transaction.getId(), (int) transaction.getDate().toEpochDay(), transaction.getDebtorId(),
+                    transaction.getCreditorId(), transaction.getAmountCents(), transaction.getReceiptId(),
+                    transaction.getDescription());
+        }
+
+        /**
+         * Adds a Transaction by its fields, interning {@code description}. {@code amount} is in cents. Only for
+         * Builders without a given description table.
+         *
+         * @throws IllegalStateException when this Builder was given a description table
+         */
+        public void add(int id, int epochDay, int debtorId, int creditorId, long amount, Integer receiptId,
+                        @NotNull String description) {
+            Objects.requireNonNull(description, "Parameter description cannot be null");
+            if (givenTable != null) { throw new IllegalStateException("Descriptions refer to the given table"); }
+
+            Integer index = descriptionIndexes.get(description);
+            if (index == null) {
+                index = descriptionList.size();
+                descriptionIndexes.put(description, index);
+                descriptionList.add(description);
+            }
+            add(id, epochDay, debtorId, creditorId, amount, receiptId, (int) index);
+        }
+
+        /**
+         * Adds a Transaction by its fields. {@code amount} is in cents and {@code description} is an index into the
+         * description table.
+         *
+         * @throws IndexOutOfBoundsException when {@code description} is not in the description table
+         */
+        public void add(int id, int epochDay, int debtorId, int creditorId, long amount, Integer receiptId,
+                        int description) {
+            Objects.checkIndex(description, (givenTable != null) ? givenTable.size() : descriptionList.size());
+
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                debtorIds = Arrays.copyOf(debtorIds, capacity);
+                creditorIds = Arrays.copyOf(creditorIds, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                receiptIds = Arrays.copyOf(receiptIds, capacity);
+                descriptions = Arrays.copyOf(descriptions, capacity);
+            }
+            ids[size] = id;
+            epochDays[size] = epochDay;
+            debtorIds[size] = debtorId;
+            creditorIds[size] = creditorId;
+            amounts[size] = amount;
+            if (receiptId != null) {
+                receiptIds[size] = receiptId;
+                hasReceipt.set(size);
+            }
+            descriptions[size] = description;
+            size++;
+        }
+
+        /**
+         * Returns the number of added Transactions.
+         */
+        public int size() {
+            return size;
+        }
+
+        private String[] descriptionTable() {
+            return ((givenTable != null) ? givenTable : descriptionList).toArray(new String[0]);
+        }
+
+        /**
+         * Returns the TransactionColumns of the added Transactions.
+         *
+         * @return the TransactionColumns
+         * @throws IllegalArgumentException when two of the Transactions have the same id
+         */
+        public @NotNull TransactionColumns build() {
+            return new TransactionColumns(this);
+        }
+    }
+}
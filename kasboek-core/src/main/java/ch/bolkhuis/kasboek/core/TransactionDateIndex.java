@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * TransactionDateIndex maps the epoch day of the date of a Transaction to the ids of all Transactions on that day. The
+ * days are kept in a navigable map, so a range of dates can be visited without looking at Transactions outside of it.
+ * Ids on the same day are ordered by their value.
+ *
+ * @author Aron Hoogeveen
+ */
+final class TransactionDateIndex {
+    private final @NotNull TreeMap<Long, SortedSet<Integer>> days = new TreeMap<>();
+    private int size = 0;
+
+    /**
+     * Adds the id of {@code transaction} under its date.
+     *
+     * @param transaction the Transaction to add
+     */
+    void add(@NotNull Transaction transaction) {
+        if (days.computeIfAbsent(transaction.getDate().toEpochDay(), k -> new TreeSet<>()).add(transaction.getId())) {
+            size++;
+        }
+    }
+
+    /**
+     * Removes the id of {@code transaction} from under its date.
+     *
+     * @param transaction the Transaction to remove
+     */
+    void remove(@NotNull Transaction transaction) {
+        long epochDay = transaction.getDate().toEpochDay();
+        SortedSet<Integer> ids = days.get(epochDay);
+        if (ids == null) { return; }
+
+        if (ids.remove(transaction.getId())) {
+            size--;
+        }
+        if (ids.isEmpty()) {
+            days.remove(epochDay);
+        }
+    }
+
+    /**
+     * Returns the number of ids in this index.
+     */
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a view of the ids per day for all days between {@code from} and {@code to} inclusive, in ascending date
+     * order. An empty view is returned when {@code from} is after {@code to}.
+     *
+     * @param from the start date inclusive
+     * @param to the end date inclusive
+     * @return the sets of ids per day
+     */
+    @NotNull Collection<SortedSet<Integer>> between(@NotNull LocalDate from, @NotNull LocalDate to) {
+        if (from.isAfter(to)) { return Collections.emptyList(); }
+
+        return days.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values();
+    }
+
+    /**
+     * Returns the date of the oldest Transaction in this index, or {@code null} if it is empty.
+     */
+    LocalDate first() {
+        return days.isEmpty() ? null : LocalDate.ofEpochDay(days.firstKey());
+    }
+
+    /**
+     * Returns the date of the newest Transaction in this index, or {@code null} if it is empty.
+     */
+    LocalDate last() {
+        return days.isEmpty() ? null : LocalDate.ofEpochDay(days.lastKey());
+    }
+
+    /**
+     * Returns a view of the ids per day for all days in this index, in ascending date order.
+     *
+     * @return the sets of ids per day
+     */
+    @NotNull Collection<SortedSet<Integer>> all() {
+        return days.values();
+    }
+}
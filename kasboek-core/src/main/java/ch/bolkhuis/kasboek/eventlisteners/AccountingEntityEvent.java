@@ -0,0 +1,36 @@
+package ch.bolkhuis.kasboek.eventlisteners;
+
+import ch.bolkhuis.kasboek.core.AccountingEntity;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.Objects;
+
+/**
+ * An AccountingEntityEvent is published after the balances of AccountingEntities have been changed in place by the
+ * Ledger that holds them. Changes to the AccountingEntities themselves are published through the
+ * {@link EntryChangeListener EntryChangeListeners} of the Ledger.
+ */
+public class AccountingEntityEvent extends EventObject {
+    private final @NotNull Collection<AccountingEntity> changedAccountingEntities;
+
+    /**
+     * Constructs an AccountingEntityEvent for AccountingEntities of which the balance has changed.
+     *
+     * @param source the object on which the Event initially occurred
+     * @param changedAccountingEntities the AccountingEntities of which the balance has changed
+     * @throws IllegalArgumentException if source is null
+     */
+    public AccountingEntityEvent(Object source, @NotNull Collection<AccountingEntity> changedAccountingEntities) {
+        super(source);
+
+        this.changedAccountingEntities = Collections.unmodifiableCollection(Objects.requireNonNull(
+                changedAccountingEntities, "Parameter changedAccountingEntities cannot be null"));
+    }
+
+    public @NotNull Collection<AccountingEntity> getChangedAccountingEntities() {
+        return changedAccountingEntities;
+    }
+}
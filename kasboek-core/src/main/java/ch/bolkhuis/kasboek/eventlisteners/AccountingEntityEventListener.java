@@ -3,8 +3,8 @@ package ch.bolkhuis.kasboek.eventlisteners;
 import java.util.EventListener;
 
 /**
- * AccountingEntityEventListener is the interface that all classes should implement who need to know whenever a Collection of
- * AccountingEntities is updated.
+ * AccountingEntityEventListener is the interface that all classes should implement who need to know whenever the
+ * balances of AccountingEntities are changed.
  *
  * @version 0.2
  * @author Aron Hoogeveen
@@ -0,0 +1,24 @@
+package ch.bolkhuis.kasboek.eventlisteners;
+
+import java.util.EventListener;
+
+/**
+ * EntryChangeListener is the interface that all classes should implement who need to know whenever a single entry of
+ * one of the maps of a Ledger is put or removed. Bulk changes of Transactions are published as a
+ * {@link TransactionEvent} instead.
+ *
+ * @param <V> the type of the values of the map
+ * @author Aron Hoogeveen
+ */
+public interface EntryChangeListener<V> extends EventListener {
+    /**
+     * Called after the entry with {@code key} has changed. For a new entry {@code removed} is {@code null}, for a
+     * removed entry {@code added} is {@code null}. When an entry is replaced both are set, and they can be the same
+     * object if it was changed in place.
+     *
+     * @param key the key of the entry
+     * @param removed the previous value, or {@code null}
+     * @param added the new value, or {@code null}
+     */
+    void entryChanged(int key, V removed, V added);
+}
@@ -0,0 +1,98 @@
+package ch.bolkhuis.kasboek.eventlisteners;
+
+import ch.bolkhuis.kasboek.core.Transaction;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * TransactionEvent describes a change of a collection of Transactions that consists of possibly many added and removed
+ * Transactions. It is used to publish a batch of changes as one event.<br />
+ * <br />
+ * Transactions that a Ledger loads from its TransactionArchive are published as added Transactions with
+ * {@link TransactionEvent#wasLoaded()} set. They were part of the Ledger already, so loading them is not a change of
+ * the Ledger itself.
+ *
+ * @author Aron Hoogeveen
+ */
+public class TransactionEvent extends EventObject {
+    private final @NotNull Collection<Transaction> addedTransactions;
+    private final @NotNull Collection<Transaction> removedTransactions;
+    private final boolean loaded;
+
+    /**
+     * Constructs a prototypical Event.
+     *
+     * @param source the object on which the Event initially occurred
+     * @throws IllegalArgumentException if source is null
+     */
+    public TransactionEvent(Object source) {
+        this(source, List.of(), List.of());
+    }
+
+    /**
+     * Constructs a TransactionEvent for a batch of added and removed Transactions.
+     *
+     * @param source the object on which the Event initially occurred
+     * @param addedTransactions the Transactions that were added
+     * @param removedTransactions the Transactions that were removed
+     * @throws IllegalArgumentException if source is null
+     */
+    public TransactionEvent(Object source,
+                            @NotNull Collection<Transaction> addedTransactions,
+                            @NotNull Collection<Transaction> removedTransactions) {
+        this(source, addedTransactions, removedTransactions, false);
+    }
+
+    private TransactionEvent(Object source,
+                             @NotNull Collection<Transaction> addedTransactions,
+                             @NotNull Collection<Transaction> removedTransactions,
+                             boolean loaded) {
+        super(source);
+
+        this.addedTransactions = Collections.unmodifiableCollection(
+                Objects.requireNonNull(addedTransactions, "Parameter addedTransactions cannot be null"));
+        this.removedTransactions = Collections.unmodifiableCollection(
+                Objects.requireNonNull(removedTransactions, "Parameter removedTransactions cannot be null"));
+        this.loaded = loaded;
+    }
+
+    /**
+     * Constructs a TransactionEvent for Transactions that were loaded from a TransactionArchive.
+     *
+     * @param source the object on which the Event initially occurred
+     * @param loadedTransactions the Transactions that were loaded
+     * @return the TransactionEvent
+     * @throws IllegalArgumentException if source is null
+     */
+    public static @NotNull TransactionEvent loaded(Object source, @NotNull Collection<Transaction> loadedTransactions) {
+        return new TransactionEvent(source, loadedTransactions, List.of(), true);
+    }
+
+    public @NotNull Collection<Transaction> getAddedTransactions() {
+        return addedTransactions;
+    }
+
+    public @NotNull Collection<Transaction> getRemovedTransactions() {
+        return removedTransactions;
+    }
+
+    public boolean wasAdded() {
+        return !addedTransactions.isEmpty();
+    }
+
+    public boolean wasRemoved() {
+        return !removedTransactions.isEmpty();
+    }
+
+    /**
+     * Returns whether the added Transactions were loaded from a TransactionArchive instead of added to the Ledger.
+     */
+    public boolean wasLoaded() {
+        return loaded;
+    }
+}
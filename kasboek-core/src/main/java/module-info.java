@@ -0,0 +1,6 @@
+module ch.bolkhuis.kasboek.core {
+    requires static org.jetbrains.annotations;
+    exports ch.bolkhuis.kasboek.core;
+    exports ch.bolkhuis.kasboek.eventlisteners;
+    exports ch.bolkhuis.kasboek.exceptions;
+}
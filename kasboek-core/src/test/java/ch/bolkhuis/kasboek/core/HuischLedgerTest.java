@@ -0,0 +1,109 @@
+package ch.bolkhuis.kasboek.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Receipt bookkeeping of {@link HuischLedger}.
+ */
+class HuischLedgerTest {
+    private HuischLedger huischLedger;
+
+    private final int INMATE_ID = 0;
+    private final int KITCHEN_ID = 1;
+    private final int RECEIPT_ID = 0;
+
+    @BeforeEach
+    public void initialize() {
+        huischLedger = new HuischLedger();
+        huischLedger.addAccountingEntity(new InmateEntity(INMATE_ID, "Gerrit", 0, 0));
+        huischLedger.addAccountingEntity(new AccountingEntity(KITCHEN_ID, "Keuken", AccountType.EXPENSE, 0));
+        huischLedger.addReceipt(new Receipt(RECEIPT_ID, "Boodschappen", new HashSet<>(), LocalDate.parse("2020-01-01"), INMATE_ID));
+
+        huischLedger.addTransaction(new Transaction(0, KITCHEN_ID, INMATE_ID, 10, RECEIPT_ID, LocalDate.parse("2020-01-01"), "Brood"));
+        huischLedger.addTransaction(new Transaction(1, KITCHEN_ID, INMATE_ID, 5, LocalDate.parse("2020-01-02"), "Koffie"));
+    }
+
+    @Test
+    public void receiptIndexFollowsAddAndRemove() {
+        huischLedger.addTransactions(List.of(
+                new Transaction(2, KITCHEN_ID, INMATE_ID, 3, RECEIPT_ID, LocalDate.parse("2020-01-01"), "Kaas"),
+                new Transaction(3, KITCHEN_ID, INMATE_ID, 2, RECEIPT_ID, LocalDate.parse("2020-01-01"), "Melk")));
+        assertEquals(List.of(0, 2, 3), ids(huischLedger.transactionsOfReceipt(RECEIPT_ID)));
+        assertEquals(Set.of(0, 2, 3), huischLedger.getReceipts().get(RECEIPT_ID).getTransactionIdSet());
+
+        huischLedger.removeTransaction(0);
+        huischLedger.removeTransactions(List.of(3));
+        assertEquals(List.of(2), ids(huischLedger.transactionsOfReceipt(RECEIPT_ID)));
+        assertEquals(Set.of(2), huischLedger.getReceipts().get(RECEIPT_ID).getTransactionIdSet());
+        assertTrue(huischLedger.transactionsOfReceipt(42).isEmpty());
+    }
+
+    @Test
+    public void snapshotKeepsReceiptIndex() {
+        HuischLedger snapshot = huischLedger.snapshot();
+        assertEquals(List.of(0), ids(snapshot.transactionsOfReceipt(RECEIPT_ID)));
+    }
+
+    @Test
+    public void listenersSeeTheReceiptIndex() {
+        List<List<Integer>> seen = new ArrayList<>();
+        huischLedger.addTransactionListener((key, removed, added) ->
+                seen.add(ids(huischLedger.transactionsOfReceipt(RECEIPT_ID))));
+        huischLedger.addTransactionEventListener(event ->
+                seen.add(ids(huischLedger.transactionsOfReceipt(RECEIPT_ID))));
+        huischLedger.addAccountingEntityEventListener(event ->
+                seen.add(new ArrayList<>(huischLedger.getReceipts().get(RECEIPT_ID).getTransactionIdSet())));
+
+        huischLedger.addTransaction(new Transaction(2, KITCHEN_ID, INMATE_ID, 3, RECEIPT_ID, LocalDate.parse("2020-01-01"), "Kaas"));
+        assertEquals(List.of(List.of(0, 2), List.of(0, 2)), seen);
+
+        seen.clear();
+        huischLedger.addTransactions(List.of(
+                new Transaction(3, KITCHEN_ID, INMATE_ID, 2, RECEIPT_ID, LocalDate.parse("2020-01-01"), "Melk")));
+        assertEquals(List.of(List.of(0, 2, 3), List.of(0, 2, 3)), seen);
+
+        seen.clear();
+        huischLedger.removeTransaction(0);
+        huischLedger.removeTransactions(List.of(3));
+        assertEquals(List.of(List.of(2, 3), List.of(2, 3), List.of(2), List.of(2)), seen);
+    }
+    @Test
+    public void invoiceGroupsTheTransactionsOfAReceipt(@TempDir Path directory) throws IOException {
+        huischLedger.addTransaction(new Transaction(2, KITCHEN_ID, INMATE_ID, 3, RECEIPT_ID, LocalDate.parse("2020-01-01"), "Kaas"));
+        huischLedger.addTransaction(new Transaction(3, KITCHEN_ID, INMATE_ID, 7, LocalDate.parse("2020-02-01"), "Bier"));
+        File template = directory.resolve("template.html").toFile();
+        Files.writeString(template.toPath(), "<!-- version:1 -->\n${NAME}\n${INTRO_TEXT}\n${START_BALANCE}\n${END_BALANCE}\n<table>\n${TABLE_DATA}</table>\n");
+        File out = directory.resolve("invoice.html").toFile();
+
+        HuischLedger.generateInmateInvoice(out, template, huischLedger, INMATE_ID,
+                LocalDate.parse("2020-01-01"), LocalDate.parse("2020-01-31"));
+
+        String invoice = Files.readString(out.toPath(), StandardCharsets.UTF_8);
+        assertTrue(invoice.contains("Koffie"));
+        assertTrue(invoice.contains("Boodschappen"));
+        assertTrue(invoice.contains("13,00"));
+        assertFalse(invoice.contains("Brood"));
+        assertFalse(invoice.contains("Kaas"));
+        assertFalse(invoice.contains("Bier"));
+    }
+
+    private static List<Integer> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,82 @@
+package ch.bolkhuis.kasboek.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that {@link IntObjectMap} behaves like a HashMap, also behind a ListenableIntMap.
+ */
+class IntObjectMapTest {
+
+    @Test
+    public void behavesLikeHashMap() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // a small key range, so puts and removes hit existing keys and clusters are long
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        assertNull(map.get("not an Integer"));
+    }
+
+    @Test
+    public void iteratorRemovesEveryMappingOnce() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            map.put(i * 31, Integer.toString(i));
+        }
+
+        Set<Integer> visited = new HashSet<>();
+        for (Iterator<String> iterator = map.values().iterator(); iterator.hasNext(); ) {
+            int value = Integer.parseInt(iterator.next());
+            assertTrue(visited.add(value));
+            if (value % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(10_000, visited.size());
+        assertEquals(5_000, map.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i % 2 != 0, map.containsKey(i * 31));
+        }
+
+        Iterator<String> iterator = map.values().iterator();
+        iterator.next();
+        map.put(-1, "-1");
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    @Test
+    public void backsListenableIntMap() {
+        IntObjectMap<String> store = new IntObjectMap<>();
+        ListenableIntMap<String> listenable = new ListenableIntMap<>(store);
+        List<String> changes = new ArrayList<>();
+        listenable.addListener((key, removed, added) -> changes.add(key + ":" + removed + "->" + added));
+
+        listenable.put(1, "a");
+        listenable.put(1, "b");
+        listenable.remove(1);
+        listenable.remove(1);
+
+        assertEquals(List.of("1:null->a", "1:a->b", "1:b->null"), changes);
+        assertTrue(store.isEmpty());
+        assertThrows(NullPointerException.class, () -> store.put(2, null));
+    }
+}
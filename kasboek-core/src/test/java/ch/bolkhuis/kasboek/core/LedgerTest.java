@@ -0,0 +1,226 @@
+package ch.bolkhuis.kasboek.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the collections and indexes maintained by {@link Ledger}.
+ */
+class LedgerTest {
+    private Ledger ledger;
+
+    private final int INMATE_ID = 0;
+    private final int BANK_ID = 1;
+    private final int KITCHEN_ID = 2;
+
+    @BeforeEach
+    public void initialize() {
+        ledger = new Ledger();
+        ledger.addAccountingEntity(new InmateEntity(INMATE_ID, "Gerrit", 0, 0));
+        ledger.addAccountingEntity(new AccountingEntity(BANK_ID, "ING", AccountType.ASSET, 0));
+        ledger.addAccountingEntity(new AccountingEntity(KITCHEN_ID, "Keuken", AccountType.EXPENSE, 0));
+
+        ledger.addTransaction(new Transaction(0, INMATE_ID, BANK_ID, 25, LocalDate.parse("2020-01-01"), "First"));
+        ledger.addTransaction(new Transaction(1, BANK_ID, INMATE_ID, 10, LocalDate.parse("2020-02-01"), "Second"));
+        ledger.addTransaction(new Transaction(2, KITCHEN_ID, BANK_ID, 5, LocalDate.parse("2020-03-01"), "Third"));
+    }
+
+    @Test
+    public void getAllTransactionsOfUsesIndex() {
+        TreeMap<Integer, Transaction> ofInmate = ledger.getAllTransactionsOf(INMATE_ID);
+        assertEquals(Set.of(0, 1), ofInmate.keySet());
+
+        TreeMap<Integer, Transaction> ofBank = ledger.getAllTransactionsOf(BANK_ID);
+        assertEquals(Set.of(0, 1, 2), ofBank.keySet());
+
+        assertTrue(ledger.getAllTransactionsOf(42).isEmpty());
+    }
+
+    @Test
+    public void removeTransactionUpdatesIndex() {
+        ledger.removeTransaction(1);
+
+        assertEquals(Set.of(0), ledger.getAllTransactionsOf(INMATE_ID).keySet());
+        assertEquals(Set.of(0, 2), ledger.getAllTransactionsOf(BANK_ID).keySet());
+    }
+
+    @Test
+    public void getTransactionsOfFiltersOnDate() {
+        Set<Transaction> result = ledger.getTransactionsOf(
+                BANK_ID,
+                LocalDate.parse("2020-01-15"),
+                LocalDate.parse("2020-03-01"));
+
+        assertEquals(2, result.size());
+        assertTrue(result.contains(ledger.getTransactions().get(1)));
+        assertTrue(result.contains(ledger.getTransactions().get(2)));
+    }
+
+    @Test
+    public void transactionsBetweenSeeksDateWindow() {
+        List<Transaction> result = ledger.transactionsBetween(LocalDate.parse("2020-01-01"), LocalDate.parse("2020-02-01"));
+        assertEquals(2, result.size());
+        assertEquals(0, result.get(0).getId());
+        assertEquals(1, result.get(1).getId());
+
+        assertTrue(ledger.transactionsBetween(LocalDate.parse("2020-03-02"), LocalDate.parse("2021-01-01")).isEmpty());
+        assertTrue(ledger.transactionsBetween(LocalDate.parse("2020-03-01"), LocalDate.parse("2020-01-01")).isEmpty());
+    }
+
+    @Test
+    public void transactionsOfIsOrderedAndUpdatedOnRemove() {
+        List<Transaction> result = ledger.transactionsOf(BANK_ID, LocalDate.MIN, LocalDate.MAX);
+        assertEquals(3, result.size());
+        assertEquals(2, result.get(2).getId());
+
+        ledger.removeTransaction(2);
+        assertEquals(2, ledger.transactionsOf(BANK_ID, LocalDate.MIN, LocalDate.MAX).size());
+        assertTrue(ledger.transactionsOf(KITCHEN_ID, LocalDate.MIN, LocalDate.MAX).isEmpty());
+        assertEquals(2, ledger.transactionsBetween(LocalDate.MIN, LocalDate.MAX).size());
+    }
+
+    @Test
+    public void getAccountingEntityIdIsCaseInsensitive() {
+        assertEquals(INMATE_ID, ledger.getAccountingEntityId("Gerrit"));
+        assertEquals(BANK_ID, ledger.getAccountingEntityId("  ing "));
+        assertNull(ledger.getAccountingEntityId("Klaas"));
+    }
+
+    @Test
+    public void nameIndexFollowsRenames() {
+        // rename in place
+        ledger.renameAccountingEntity(KITCHEN_ID, "Bar");
+        assertEquals(KITCHEN_ID, ledger.getAccountingEntityId("bar"));
+        assertNull(ledger.getAccountingEntityId("Keuken"));
+
+        // rename by replacing the AccountingEntity
+        ledger.updateAccountingEntity(new AccountingEntity(BANK_ID, "Rabobank", AccountType.ASSET, 0));
+        assertEquals(BANK_ID, ledger.getAccountingEntityId("Rabobank"));
+        assertNull(ledger.getAccountingEntityId("ING"));
+    }
+
+    @Test
+    public void copyConstructorCreatesIndependentLedger() {
+        Ledger copy = new Ledger(ledger);
+        assertEquals(ledger, copy);
+
+        copy.removeTransaction(0);
+        assertEquals(3, ledger.getTransactions().size());
+        assertEquals(2, copy.getTransactions().size());
+        assertEquals(Set.of(0, 1), ledger.getAllTransactionsOf(INMATE_ID).keySet());
+        assertEquals(Set.of(1), copy.getAllTransactionsOf(INMATE_ID).keySet());
+    }
+
+    @Test
+    public void snapshotIsNotAffectedByRenames() {
+        Ledger snapshot = ledger.snapshot();
+        assertEquals(ledger, snapshot);
+
+        ledger.renameAccountingEntity(INMATE_ID, "Klaas");
+        assertEquals("Gerrit", snapshot.getAccountingEntityById(INMATE_ID).getName());
+        assertEquals(INMATE_ID, snapshot.getAccountingEntityId("Gerrit"));
+        assertNull(snapshot.getAccountingEntityId("Klaas"));
+    }
+
+    @Test
+    public void postingAdjustsBalancesInPlace() {
+        AccountingEntity inmate = ledger.getAccountingEntityById(INMATE_ID);
+        AccountingEntity bank = ledger.getAccountingEntityById(BANK_ID);
+        AtomicInteger entityChanges = new AtomicInteger();
+        ledger.addEntityListener((key, removed, added) -> entityChanges.incrementAndGet());
+        List<Integer> balanceChanges = new ArrayList<>();
+        ledger.addAccountingEntityEventListener(event ->
+                balanceChanges.add(event.getChangedAccountingEntities().size()));
+
+        ledger.addTransaction(new Transaction(3, BANK_ID, INMATE_ID, 15, LocalDate.parse("2020-04-01"), "Fourth"));
+
+        assertSame(inmate, ledger.getAccountingEntityById(INMATE_ID));
+        assertSame(bank, ledger.getAccountingEntityById(BANK_ID));
+        assertEquals(0, entityChanges.get());
+        assertEquals(List.of(2), balanceChanges);
+        // inmate is a liability: debited 25, credited 10 and 15
+        assertEquals(Money.of(0), inmate.getBalance());
+        // bank is an asset: credited 25 and 5, debited 10 and 15
+        assertEquals(Money.of(-5), bank.getBalance());
+
+        ledger.removeTransaction(3);
+        assertEquals(Money.of(-15), inmate.getBalance());
+        assertEquals(Money.of(-20), bank.getBalance());
+    }
+
+    @Test
+    public void bulkPostingPublishesOneEvent() {
+        AtomicInteger mapChanges = new AtomicInteger();
+        ledger.addTransactionListener((key, removed, added) -> mapChanges.incrementAndGet());
+        List<Integer> eventSizes = new ArrayList<>();
+        ledger.addTransactionEventListener(event ->
+                eventSizes.add(event.getAddedTransactions().size() - event.getRemovedTransactions().size()));
+
+        ledger.addTransactions(List.of(
+                new Transaction(3, BANK_ID, INMATE_ID, 15, LocalDate.parse("2020-04-01"), "Fourth"),
+                new Transaction(4, KITCHEN_ID, BANK_ID, 5, LocalDate.parse("2020-04-02"), "Fifth")));
+        assertEquals(List.of(2), eventSizes);
+        assertEquals(0, mapChanges.get());
+        assertEquals(5, ledger.getNextTransactionId());
+        assertEquals(Money.of(0), ledger.getAccountingEntityById(INMATE_ID).getBalance());
+        assertEquals(Money.of(-10), ledger.getAccountingEntityById(BANK_ID).getBalance());
+        assertEquals(Set.of(2, 4), ledger.getAllTransactionsOf(KITCHEN_ID).keySet());
+
+        List<Transaction> removed = ledger.removeTransactions(List.of(4, 3));
+        assertEquals(List.of(2, -2), eventSizes);
+        assertEquals(4, removed.get(0).getId());
+        assertEquals(Money.of(-15), ledger.getAccountingEntityById(INMATE_ID).getBalance());
+        assertEquals(Money.of(-20), ledger.getAccountingEntityById(BANK_ID).getBalance());
+        assertEquals(Set.of(0, 1, 2), ledger.getTransactions().keySet());
+    }
+
+    @Test
+    public void bulkPostingIsAtomic() {
+        Ledger before = ledger.snapshot();
+
+        // the second Transaction refers to a missing AccountingEntity
+        assertThrows(IllegalArgumentException.class, () -> ledger.addTransactions(List.of(
+                new Transaction(3, BANK_ID, INMATE_ID, 15, LocalDate.parse("2020-04-01"), "Fourth"),
+                new Transaction(4, 42, BANK_ID, 5, LocalDate.parse("2020-04-02"), "Fifth"))));
+        // duplicate ids within the batch
+        assertThrows(IllegalArgumentException.class, () -> ledger.addTransactions(List.of(
+                new Transaction(3, BANK_ID, INMATE_ID, 15, LocalDate.parse("2020-04-01"), "Fourth"),
+                new Transaction(3, KITCHEN_ID, BANK_ID, 5, LocalDate.parse("2020-04-02"), "Fifth"))));
+        // the second id does not exist
+        assertThrows(IllegalArgumentException.class, () -> ledger.removeTransactions(List.of(0, 7)));
+
+        assertEquals(before, ledger);
+        assertEquals(Set.of(0, 1), ledger.getAllTransactionsOf(INMATE_ID).keySet());
+    }
+
+    @Test
+    public void entitiesStayHashableWhileTheLedgerChangesThem() {
+        AccountingEntity bank = ledger.getAccountingEntityById(BANK_ID);
+        Set<AccountingEntity> entities = new HashSet<>(List.of(bank));
+        Ledger before = ledger.snapshot();
+
+        ledger.addTransaction(new Transaction(3, BANK_ID, INMATE_ID, 15, LocalDate.parse("2020-04-01"), "Fourth"));
+        ledger.renameAccountingEntity(BANK_ID, "Rabobank");
+
+        assertTrue(entities.contains(bank));
+        assertEquals(before.getAccountingEntityById(BANK_ID), bank);
+        assertFalse(before.getAccountingEntityById(BANK_ID).hasSameState(bank));
+        assertNotEquals(before, ledger);
+
+        Ledger renamed = ledger.snapshot();
+        ledger.renameAccountingEntity(BANK_ID, "ING");
+        assertNotEquals(renamed, ledger);
+        ledger.renameAccountingEntity(BANK_ID, "Rabobank");
+        assertEquals(renamed, ledger);
+    }
+}
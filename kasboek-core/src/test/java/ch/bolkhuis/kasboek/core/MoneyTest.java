@@ -0,0 +1,43 @@
+package ch.bolkhuis.kasboek.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the conversions of {@link Money} and that balances add up exactly.
+ */
+class MoneyTest {
+
+    @Test
+    public void convertsAmounts() {
+        assertEquals(1234, Money.parse("12.34").getCents());
+        assertEquals(1234, Money.parse(" 12,34 ").getCents());
+        assertEquals(-500, Money.parse("-5").getCents());
+        assertThrows(NumberFormatException.class, () -> Money.parse("1.234"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("twaalf"));
+        assertEquals(30, Money.round("0.30000000000000004").getCents());
+        assertEquals(Money.ofCents(30), Money.of(0.1 + 0.2));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(Double.NaN));
+
+        assertEquals("12.34", Money.ofCents(1234).toString());
+        assertEquals("12.5", Money.ofCents(1250).toString());
+        assertEquals("-5", Money.ofCents(-500).toString());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+    }
+
+    @Test
+    public void balancesAddUpExactly() {
+        Ledger ledger = new Ledger();
+        ledger.addAccountingEntity(new AccountingEntity(0, "Kas", AccountType.ASSET, 0));
+        ledger.addAccountingEntity(new AccountingEntity(1, "Inleg", AccountType.REVENUE, 0));
+        for (int i = 0; i < 10; i++) {
+            ledger.addTransaction(new Transaction(i, 0, 1, Money.parse("0.10"), LocalDate.parse("2020-01-01"), "Inleg"));
+        }
+
+        assertEquals(Money.parse("1.00"), ledger.getAccountingEntityById(0).getBalance());
+        assertEquals(Money.parse("1.00"), ledger.getAccountingEntityById(1).getBalance());
+    }
+}
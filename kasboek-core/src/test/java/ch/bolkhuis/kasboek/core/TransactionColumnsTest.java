@@ -0,0 +1,63 @@
+package ch.bolkhuis.kasboek.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that {@link TransactionColumns} orders its rows by date and sums the amounts of an AccountingEntity.
+ */
+class TransactionColumnsTest {
+
+    @Test
+    public void ordersRowsByDateThenId() {
+        Transaction late = new Transaction(0, 0, 1, 10, LocalDate.parse("2020-03-01"), "Laat");
+        Transaction early = new Transaction(5, 1, 0, 2.5, 3, LocalDate.parse("2020-01-01"), "Vroeg");
+        Transaction sameDay = new Transaction(2, 0, 1, 4, LocalDate.parse("2020-01-01"), "Vroeg");
+
+        TransactionColumns columns = TransactionColumns.of(List.of(late, early, sameDay));
+
+        assertEquals(3, columns.size());
+        assertEquals(2, columns.idAt(0));
+        assertEquals(5, columns.idAt(1));
+        assertEquals(0, columns.idAt(2));
+        assertEquals(early, columns.transactionAt(1));
+        assertEquals(3, columns.receiptIdAt(1));
+        assertNull(columns.receiptIdAt(0));
+        assertEquals(2, columns.rowOf(0));
+        assertEquals(-1, columns.rowOf(1));
+        assertEquals(LocalDate.parse("2020-01-01"), columns.getFirstDate());
+        assertEquals(LocalDate.parse("2020-03-01"), columns.getLastDate());
+        assertEquals(List.of(sameDay, early), columns.transactionsBetween(LocalDate.MIN, LocalDate.parse("2020-02-01")));
+    }
+
+    @Test
+    public void sumsAmountsOfAccountingEntity() {
+        Ledger ledger = new Ledger();
+        AccountingEntity bank = new AccountingEntity(0, "ING", AccountType.ASSET, 0);
+        ledger.addAccountingEntity(bank);
+        ledger.addAccountingEntity(new AccountingEntity(1, "Inleg", AccountType.REVENUE, 0));
+        ledger.addTransaction(new Transaction(0, 0, 1, 100, LocalDate.parse("2020-01-01"), "Inleg"));
+        ledger.addTransaction(new Transaction(1, 1, 0, 30, LocalDate.parse("2020-02-01"), "Terug"));
+
+        TransactionColumns columns = ledger.transactionColumns();
+        assertSame(columns, ledger.transactionColumns());
+        assertEquals(Money.of(100), columns.debitTotal(0, LocalDate.MIN, LocalDate.MAX));
+        assertEquals(Money.of(30), columns.creditTotal(0, LocalDate.MIN, LocalDate.MAX));
+        assertEquals(Money.of(70), columns.balanceChange(bank, LocalDate.MIN, LocalDate.parse("2020-02-01")));
+        assertEquals(Money.of(100), columns.balanceChange(bank, LocalDate.MIN, LocalDate.parse("2020-01-31")));
+
+        ledger.addTransaction(new Transaction(2, 0, 1, 5, LocalDate.parse("2020-03-01"), "Inleg"));
+        assertEquals(3, ledger.transactionColumns().size());
+    }
+
+    @Test
+    public void rejectsDuplicateIds() {
+        Transaction transaction = new Transaction(1, 0, 1, 10, LocalDate.parse("2020-01-01"), "Inleg");
+
+        assertThrows(IllegalArgumentException.class, () -> TransactionColumns.of(List.of(transaction, transaction)));
+    }
+}
@@ -45,7 +45,8 @@ public class App extends Application {
      * ExtensionFilters to be used for saving and opening HuischLedger files.
      */
     public static final Vector<FileChooser.ExtensionFilter> extensionFilters = new Vector<>(List.of(
-            new FileChooser.ExtensionFilter("Huischkasboek Bestanden", "*.hlf"),
+            new FileChooser.ExtensionFilter("Huischkasboek Bestanden", "*.hlf", "*.hlf.gz"),
+            new FileChooser.ExtensionFilter("Gecomprimeerde Huischkasboek Bestanden", "*.hlf.gz"),
             new FileChooser.ExtensionFilter("Alle Bestanden", "*.*")
     ));
 
@@ -0,0 +1,896 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek;
+
+import ch.bolkhuis.kasboek.components.AccountingEntityTreeTableView;
+import ch.bolkhuis.kasboek.components.ReceiptTableView;
+import ch.bolkhuis.kasboek.components.TransactionTableView;
+import ch.bolkhuis.kasboek.core.*;
+import ch.bolkhuis.kasboek.dialog.*;
+import ch.bolkhuis.kasboek.eventlisteners.EntryChangeListener;
+import ch.bolkhuis.kasboek.eventlisteners.TransactionEvent;
+import ch.bolkhuis.kasboek.eventlisteners.TransactionEventListener;
+import ch.bolkhuis.kasboek.fx.FxLedger;
+import ch.bolkhuis.kasboek.io.LedgerFiles;
+import ch.bolkhuis.kasboek.io.LedgerJournal;
+import ch.bolkhuis.kasboek.io.LedgerRecovery;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.prefs.*;
+
+/**
+ * ApplicationSceneRoot is the root for the main Scene of the Application class. The root presents the user with an
+ * overview of a single HuischLedger.
+ *
+ * The HuischLedger is loaded from a File.
+ *
+ * @author Aron Hoogeveen
+ */
+public class ApplicationSceneRoot extends BorderPane {
+    // Preferences keys
+    private static final String PREF_FILE_CHOOSER_DIRECTORY = "FileChooserDirectory";
+    private static final String PREF_AUTOSAVE_INTERVAL = "AutosaveIntervalSeconds";
+    private static final String PREF_AUTOSAVE_CHANGES = "AutosaveChanges";
+    // Preferences default values
+    private static final String PREF_DEFAULT_FILE_CHOOSER_DIRECTORY = System.getProperty("user.home");
+    private static final int PREF_DEFAULT_AUTOSAVE_INTERVAL = 60;
+    private static final int PREF_DEFAULT_AUTOSAVE_CHANGES = 25;
+    private final static String PREF_NODE_NAME = "/ch/bolkhuis/kasboek/ApplicationSceneRoot";
+
+    private final HuischLedger huischLedger;
+    // the HuischLedger as observed by the views
+    private final FxLedger fxLedger;
+    private File huischLedgerFile; // this file can be updated, so no final here
+    // Saving appends to the journal of huischLedgerFile. null when there is no file or the journal could not be opened
+    private LedgerJournal ledgerJournal;
+    // Saves run one at a time on this executor, so the JavaFX Application Thread does not wait for the disk
+    private static final ExecutorService SAVE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-save");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // the running SaveTask, null when no save is running
+    private SaveTask saveTask;
+    // actions waiting for the running SaveTask to succeed
+    private final List<Runnable> afterSave = new ArrayList<>();
+
+    // Autosave writes the unsaved changes to the recovery file every interval, or sooner after a number of changes
+    private LedgerRecovery ledgerRecovery;
+    private Timeline autosaveTimeline;
+    private int autosaveChanges;
+    private boolean autosaveRunning = false;
+    // the number of changes made to huischLedger, and the number of changes contained in the recovery file
+    private long changeCount = 0;
+    private long autosavedChangeCount = 0;
+
+    private final App app;
+
+    // Preferences object for this ApplicationSceneRoot
+    private final Preferences preferences;
+
+    // EntryChangeListeners used for observing unsaved changes
+    private final AccountingEntityChangeListener entityChangeListener = new AccountingEntityChangeListener();
+    private final TransactionChangeListener transactionChangeListener = new TransactionChangeListener();
+    private final ReceiptChangeListener receiptChangeListener = new ReceiptChangeListener();
+    /**
+     * This field MUST NOT be changed other then by calling setUnsavedChanges(boolean)!
+     */
+    private boolean unsavedChanges = false;
+
+    // status bar shown while saving
+    private HBox saveStatusBar;
+    private Label saveStatusLabel;
+    private ProgressBar saveProgressBar;
+
+    /**
+     * Default constructor.
+     */
+    public ApplicationSceneRoot(@NotNull App app, @NotNull HuischLedger huischLedger, File huischLedgerFile) {
+        // a null-valued huischLedgerFile indicates a new HuischLedger which implies that it is not already saved.
+        this(app, huischLedger, huischLedgerFile, huischLedgerFile == null);
+    }
+
+    /**
+     * Constructs an ApplicationSceneRoot for a HuischLedger that may differ from the content of
+     * {@code huischLedgerFile}, such as a HuischLedger restored from a LedgerRecovery.
+     *
+     * @param unsavedChanges whether {@code huischLedger} has changes that are not saved in {@code huischLedgerFile}
+     */
+    public ApplicationSceneRoot(@NotNull App app, @NotNull HuischLedger huischLedger, File huischLedgerFile,
+                                boolean unsavedChanges) {
+        if (app == null) { throw new NullPointerException(); }
+        if (huischLedger == null) { throw new NullPointerException(); }
+
+        this.app = app;
+        this.huischLedger = huischLedger;
+        this.fxLedger = new FxLedger(huischLedger);
+        this.huischLedgerFile = huischLedgerFile;
+
+        preferences = Preferences.userRoot().node(PREF_NODE_NAME);
+
+        // set the onCloseRequest handler for the Application stage
+        app.getPrimaryStage().setOnCloseRequest(new WindowCloseEventHandler());
+
+        setUnsavedChanges(unsavedChanges);
+        huischLedger.addEntityListener(entityChangeListener);
+        huischLedger.addTransactionListener(transactionChangeListener);
+        huischLedger.addTransactionEventListener(transactionChangeListener);
+        huischLedger.addReceiptListener(receiptChangeListener);
+        // the journal can only hold the changes to the content of huischLedgerFile
+        if (huischLedgerFile != null && !unsavedChanges) {
+            openLedgerJournal();
+        }
+        startAutosave();
+
+        initAppearance();
+        createAndSetChildren();
+    }
+
+    /**
+     * Set all settings for this BorderPane that have to do with its appearance.
+     */
+    private void initAppearance() {
+        setMinSize(App.MIN_WIDTH, App.MIN_HEIGHT);
+        setPrefSize(App.INITIAL_WIDTH, App.INITIAL_HEIGHT);
+    }
+
+    /**
+     * Creates and sets the children of this BorderPane. This method is called in all constructors.
+     */
+    private void createAndSetChildren() {
+        createAndSetTopMenuBar(); // setTop()
+        createAndSetCenterTabPane(); // setCenter()
+        createSaveStatusBar(); // setBottom() while saving
+    }
+
+    /**
+     * Creates the status bar that is shown in the bottom of the window while a SaveTask is running.
+     */
+    private void createSaveStatusBar() {
+        saveStatusLabel = new Label();
+        saveProgressBar = new ProgressBar();
+        saveStatusBar = new HBox(8, saveStatusLabel, saveProgressBar);
+        saveStatusBar.setAlignment(Pos.CENTER_LEFT);
+        saveStatusBar.setPadding(new Insets(2, 8, 2, 8));
+    }
+
+    /**
+     * Creates and sets the MenuBar in the top of the window.
+     */
+    private void createAndSetTopMenuBar() {
+        // File menu
+        Menu fileMenu = new Menu("Bestand");
+        MenuItem newFile = new MenuItem("Nieuwe maken");
+//        newFile.setOnAction(new NewFileEventHandler());
+        MenuItem openFile = new MenuItem("Openen");
+//        openFile.setOnAction(new OpenFileEventHandler());
+        MenuItem closeFile = new MenuItem("Sluiten");
+        closeFile.setOnAction(new CloseEventHandler());
+        MenuItem saveFile = new MenuItem("Opslaan");
+        saveFile.setOnAction(new SaveEventHandler());
+        MenuItem saveAsFile = new MenuItem("Opslaan als");
+        saveAsFile.setOnAction(new SaveAsEventHandler());
+        MenuItem preferences = new MenuItem("Instellingen");
+        fileMenu.getItems().addAll(
+                newFile,
+                openFile,
+                closeFile,
+                new SeparatorMenuItem(),
+                saveFile,
+                saveAsFile,
+                new SeparatorMenuItem(),
+                preferences
+        );
+        // Edit menu
+        Menu editMenu = new Menu("Bewerken");
+        MenuItem addAccountingEntity = new MenuItem("Entiteit toevoegen");
+        addAccountingEntity.setOnAction(new AddAccountingEntityEventHandler());
+        MenuItem addInmateEntity = new MenuItem("Huischgenoot toevoegen");
+    addInmateEntity.setOnAction(new AddInmateEntityEventHandler());
+        MenuItem addReceipt = new MenuItem("Bonnetje toevoegen");
+//        addAccountingEntity.setOnAction(new AddAccountingEntityEventHandler());
+        MenuItem addTransaction = new MenuItem("Transactie toevoegen");
+        addTransaction.setOnAction(new AddTransactionEventHandler());
+        editMenu.getItems().addAll(
+                addAccountingEntity,
+                addInmateEntity,
+                addTransaction,
+                addReceipt
+        );
+        // Print menu
+        Menu toolsMenu = new Menu("Gereedschappen");
+        Menu printSubMenu = new Menu("Factuur Printen");
+        MenuItem printInvoicesForAllInmates = new MenuItem("Alle Huischgenoten");
+        MenuItem printInvoicesForSelectedInmates = new MenuItem("Selecteer Huischgenoten");
+        printSubMenu.getItems().addAll(
+                printInvoicesForAllInmates,
+                printInvoicesForSelectedInmates
+        );
+        toolsMenu.getItems().addAll(
+                printSubMenu
+        );
+
+        // Developer menu.
+        Menu developerMenu = new Menu("Developer");
+        MenuItem printSizeOfAccountingEntities = new MenuItem("size of entities");
+        printSizeOfAccountingEntities.setOnAction(event -> {
+            System.out.println("The size of entities is: " + huischLedger.getAccountingEntities().size());
+        });
+        MenuItem printSizeOfTransactions = new MenuItem("size of transactions");
+        printSizeOfTransactions.setOnAction(event -> {
+            System.out.println("The size of transactions is: " + huischLedger.getTransactions().size());
+        });
+        MenuItem printSizeOfReceipts = new MenuItem("size of receipts");
+        printSizeOfReceipts.setOnAction(event -> {
+            System.out.println("The size of receipts is: " + huischLedger.getReceipts().size());
+        });
+        MenuItem showFirstReceipt = new MenuItem("Show first receipt");
+        showFirstReceipt.setOnAction(event -> {
+            ReceiptDialog receiptDialog = new ReceiptDialog(app.getPrimaryStage(), fxLedger, huischLedger.getReceipts().get(0));
+            receiptDialog.showAndWait();
+        });
+        developerMenu.getItems().addAll(
+                printSizeOfAccountingEntities,
+                printSizeOfTransactions,
+                printSizeOfReceipts,
+                showFirstReceipt
+        );
+
+        // Add the File Menus to the MenuBar
+        MenuBar menuBar = new MenuBar();
+        menuBar.getMenus().addAll(
+                fileMenu,
+                editMenu,
+                toolsMenu,
+                developerMenu
+        );
+
+        setTop(menuBar);
+    }
+
+    /**
+     * Creates and sets the tab pane showing the AccountingEntities, Receipts and Transactions.
+     */
+    private void createAndSetCenterTabPane() {
+        // The tabpane with the AccountingEntities, Receipts and Transactions
+        TabPane tabPane = new TabPane();
+        tabPane.setId("main-tab-pane");
+        tabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        Tab entitiesTab = new Tab("Entiteiten");
+        Tab receiptsTab = new Tab("Bonnetjes");
+        Tab transactionsTab = new Tab("Transacties");
+
+        // Entities Tab
+        AccountingEntityTreeTableView entityTreeTableView = new AccountingEntityTreeTableView(
+                this,
+                fxLedger
+        );
+        entitiesTab.setContent(new BorderPane(entityTreeTableView)); // this should make everything full sized
+
+        // Receipts Tab
+        ReceiptTableView receiptTableView = new ReceiptTableView(fxLedger, fxLedger.getReceipts(), app.getPrimaryStage());
+        receiptsTab.setContent(receiptTableView);
+
+        // Transactions Tab
+        TransactionTableView transactionTableView = new TransactionTableView(
+                fxLedger.getTransactions(),
+                fxLedger
+        );
+        huischLedger.addTransactionEventListener(transactionTableView);
+        transactionTableView.loadOlderTransactionsOnScroll(huischLedger, Period.ofMonths(3));
+        transactionsTab.setContent(transactionTableView);
+
+        // Add the tabs and the pane to this BorderPane
+        tabPane.getTabs().addAll(
+                entitiesTab,
+                receiptsTab,
+                transactionsTab
+        );
+        setCenter(tabPane);
+    }
+
+    /**
+     * Shows an EntityDialog in which the user can create a new entity that is then added to the {@code huischLedger}.
+     */
+    public void showAccountingEntityDialog() {
+        AccountingEntityDialog accountingEntityDialog = new AccountingEntityDialog(
+                app.getPrimaryStage(),
+                huischLedger.getAndIncrementNextAccountingEntityId());
+        accountingEntityDialog.showAndWait();
+        // isResultAvailable return false if no AccountingEntity was created
+        if (accountingEntityDialog.isResultAvailable()) {
+            AccountingEntity accountingEntity = accountingEntityDialog.getResult();
+            try {
+                huischLedger.addAccountingEntity(accountingEntity);
+            } catch (Exception e) {
+                System.err.println("Could not add to AccountingEntity returned from the AccountingEntityDialog");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public void showInmateEntityDialog() {
+        InmateEntityDialog inmateEntityDialog = new InmateEntityDialog(
+                app.getPrimaryStage(),
+                huischLedger.getAndIncrementNextAccountingEntityId());
+        inmateEntityDialog.showAndWait();
+        // isResultAvailable return false if no AccountingEntity was created
+        if (inmateEntityDialog.isResultAvailable()) {
+            InmateEntity inmateEntity = inmateEntityDialog.getResult();
+            try {
+                huischLedger.addAccountingEntity(inmateEntity);
+            } catch (Exception e) {
+                System.err.println("Could not add the InmateEntity returned from the InmateEntityDialog");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public void showTransactionDialog() {
+        TransactionDialog transactionDialog = new TransactionDialog(
+                app.getPrimaryStage(),
+                huischLedger.getAccountingEntities(),
+                huischLedger.getReceipts(),
+                huischLedger.getAndIncrementNextTransactionId()
+        );
+        Optional<Transaction> result = transactionDialog.showAndWait();
+
+        if (result.isPresent()) {
+            Transaction transaction = result.get();
+            try {
+                huischLedger.addTransaction(transaction);
+            } catch (Exception e) {
+                System.err.println("Could not add the Transaction returned from the TransactionDialog");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public App getApp() { return app; }
+
+    public HuischLedger getHuischLedger() { return huischLedger; }
+
+    public FxLedger getFxLedger() { return fxLedger; }
+
+    // *****************************************************************************************************************
+    // * Click Event Handlers
+    // *****************************************************************************************************************
+    private class AddAccountingEntityEventHandler implements EventHandler<ActionEvent> {
+
+        /**
+         * Invoked when a specific event of the type for which this handler is
+         * registered happens.
+         *
+         * @param event the event which occurred
+         */
+        @Override
+        public void handle(ActionEvent event) {
+            try {
+                showAccountingEntityDialog();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private class AddInmateEntityEventHandler implements EventHandler<ActionEvent> {
+
+        /**
+         * Invoked when a specific event of the type for which this handler is
+         * registered happens.
+         *
+         * @param event the event which occurred
+         */
+        @Override
+        public void handle(ActionEvent event) {
+            try {
+                showInmateEntityDialog();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private class AddTransactionEventHandler implements EventHandler<ActionEvent> {
+
+        /**
+         * Invoked when a specific event of the type for which this handler is
+         * registered happens.
+         *
+         * @param event the event which occurred
+         */
+        @Override
+        public void handle(ActionEvent event) {
+            try {
+                showTransactionDialog();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Sets the field {@code unsavedChanges}.
+     *
+     * @param newValue the value to set for {@code unsavedChanges}
+     */
+    private void setUnsavedChanges(boolean newValue) {
+        if (newValue == unsavedChanges) { return; }
+        if (newValue) {
+            System.out.println("Observed changes to the HuischLedger. Setting unsavedChanges to true.");
+        } else {
+            System.out.println("Changes are probably saved, because setUnsavedChanges was called with value false.");
+        }
+        unsavedChanges = newValue;
+    }
+
+    /**
+     * Called by the EntryChangeListeners for every change to the HuischLedger. Autosaves once enough changes have been
+     * made since the last autosave.
+     */
+    private void changed() {
+        changeCount++;
+        setUnsavedChanges(true);
+        if (changeCount - autosavedChangeCount >= autosaveChanges) {
+            autosave();
+        }
+    }
+
+    /**
+     * Starts autosaving to the LedgerRecovery of {@code huischLedgerFile}, with the interval and number of changes
+     * from the Preferences. An interval of 0 only autosaves after the number of changes.
+     */
+    private void startAutosave() {
+        ledgerRecovery = LedgerRecovery.of(LedgerRecovery.DEFAULT_DIRECTORY, huischLedgerFile);
+        autosaveChanges = Math.max(1, preferences.getInt(PREF_AUTOSAVE_CHANGES, PREF_DEFAULT_AUTOSAVE_CHANGES));
+
+        int interval = preferences.getInt(PREF_AUTOSAVE_INTERVAL, PREF_DEFAULT_AUTOSAVE_INTERVAL);
+        if (interval > 0) {
+            autosaveTimeline = new Timeline(new KeyFrame(Duration.seconds(interval), event -> autosave()));
+            autosaveTimeline.setCycleCount(Animation.INDEFINITE);
+            autosaveTimeline.play();
+        }
+    }
+
+    /**
+     * Writes the unsaved changes to the LedgerRecovery in the background. With an open LedgerJournal only its
+     * uncommitted changes are taken, which does not copy the HuischLedger. A HuischLedger without a LedgerJournal, such
+     * as one that was never saved, is written as a snapshot. Nothing is written when there are no unsaved changes or
+     * no changes since the last autosave.
+     */
+    private void autosave() {
+        // the next interval or change picks up the changes made while an autosave or save is running. A running save
+        // has taken the changes of the journal, but they are not in the journal file yet.
+        if (autosaveRunning || saveTask != null || !unsavedChanges || changeCount == autosavedChangeCount) { return; }
+
+        LedgerRecovery recovery = ledgerRecovery;
+        LedgerJournal.Changes changes = (ledgerJournal != null) ? ledgerJournal.uncommittedChanges() : null;
+        HuischLedger snapshot = (changes == null) ? huischLedger.snapshot() : null;
+        long count = changeCount;
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws IOException {
+                if (changes != null) {
+                    recovery.write(changes);
+                } else {
+                    recovery.write(snapshot);
+                }
+                return null;
+            }
+        };
+        task.setOnSucceeded(event -> {
+            autosaveRunning = false;
+            // a save may have replaced the LedgerRecovery in the meantime
+            if (recovery == ledgerRecovery) {
+                autosavedChangeCount = count;
+            }
+        });
+        task.setOnFailed(event -> {
+            autosaveRunning = false;
+            System.out.println("Autosaving failed: " + task.getException());
+        });
+
+        autosaveRunning = true;
+        SAVE_EXECUTOR.execute(task);
+    }
+
+    /**
+     * Stops autosaving and deletes the recovery file.
+     */
+    private void stopAutosave() {
+        if (autosaveTimeline != null) {
+            autosaveTimeline.stop();
+        }
+        ledgerRecovery.discard();
+    }
+
+    private class AccountingEntityChangeListener implements EntryChangeListener<AccountingEntity> {
+
+        /**
+         * Called after a single AccountingEntity has been put or removed.
+         */
+        @Override
+        public void entryChanged(int key, AccountingEntity removed, AccountingEntity added) {
+            changed();
+        }
+    }
+
+    private class TransactionChangeListener implements EntryChangeListener<Transaction>, TransactionEventListener {
+
+        /**
+         * Called after a single Transaction has been put or removed.
+         */
+        @Override
+        public void entryChanged(int key, Transaction removed, Transaction added) {
+            changed();
+        }
+
+        /**
+         * Called after a bulk change has been made to the Transactions.
+         *
+         * @param transactionEvent the event describing the change
+         */
+        @Override
+        public void transactionCollectionChanged(TransactionEvent transactionEvent) {
+            // loading archived Transactions does not change the HuischLedger
+            if (!transactionEvent.wasLoaded()) {
+                changed();
+            }
+        }
+    }
+
+    private class ReceiptChangeListener implements EntryChangeListener<Receipt> {
+
+        /**
+         * Called after a single Receipt has been put or removed.
+         */
+        @Override
+        public void entryChanged(int key, Receipt removed, Receipt added) {
+            changed();
+        }
+
+    }
+
+    /**
+     * Save the {@code huischLedger} to {@code huischLedgerFile}. If {@code huischLedgerFile} is {@code null} then
+     * {@link ApplicationSceneRoot#saveAs(Runnable)} is called. While the LedgerJournal is open only the changes since
+     * the last save are written. The save runs in the background, {@code onSaved} is called on the JavaFX Application
+     * Thread once it has succeeded.
+     *
+     * @param onSaved called after the save succeeded
+     * @see ApplicationSceneRoot#saveAs(Runnable)
+     */
+    private void save(@NotNull Runnable onSaved) {
+        // save again also when unsavedChanges is false
+
+        // if there is no savefile set, saveAs()
+        if (huischLedgerFile == null) {
+            saveAs(onSaved);
+            return;
+        }
+        startSave(huischLedgerFile, onSaved);
+    }
+
+    /**
+     * Asks the user to provide file name for the file to save {@code huischLedger} to. Nothing is saved when the user
+     * cancels the FileChooser dialog.
+     *
+     * @param onSaved called after the save succeeded
+     * @see ApplicationSceneRoot#save(Runnable)
+     */
+    private void saveAs(@NotNull Runnable onSaved) {
+        // Present user with FileChooser dialog
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setInitialDirectory(new File(preferences.get(PREF_FILE_CHOOSER_DIRECTORY, PREF_DEFAULT_FILE_CHOOSER_DIRECTORY)));
+        fileChooser.setTitle("Huisch Kasboek - Opslaan als");
+        fileChooser.getExtensionFilters().addAll(App.extensionFilters);
+        File file = fileChooser.showSaveDialog(app.getPrimaryStage());
+
+        if (file != null) {
+            startSave(file, onSaved);
+        }
+    }
+
+    /**
+     * Starts a SaveTask that writes the current state of {@code huischLedger} to {@code file}. The changes for the
+     * LedgerJournal, or a snapshot when the whole HuischLedger is written, are taken right away, so changes made while
+     * the SaveTask runs count as unsaved changes. If another SaveTask is running, this save starts once that one has
+     * succeeded.
+     *
+     * @param file the file to save to
+     * @param onSaved called after the save succeeded
+     */
+    private void startSave(@NotNull File file, @NotNull Runnable onSaved) {
+        if (saveTask != null) {
+            // the running SaveTask may not contain the latest changes, so save again afterwards
+            afterSave.add(() -> startSave(file, onSaved));
+            return;
+        }
+
+        HuischLedger snapshot = null;
+        LedgerJournal.Commit commit = null;
+        if (ledgerJournal != null && file.equals(huischLedgerFile)) {
+            // only the changes since the last save are appended, a snapshot is only taken to compact the journal
+            commit = ledgerJournal.prepareCommit(huischLedger::snapshot);
+        } else {
+            snapshot = huischLedger.snapshot();
+        }
+        // changes from now on are not part of the save
+        setUnsavedChanges(false);
+
+        SaveTask task = new SaveTask(file, snapshot, commit);
+        LedgerJournal.Commit finalCommit = commit;
+        task.setOnSucceeded(event -> {
+            huischLedgerFile = file;
+            RecentLedgerFiles.add(file);
+            if (finalCommit == null) {
+                // changes made during the save are not in the file yet, so the next save needs to write it in full
+                closeLedgerJournal();
+                if (!unsavedChanges) {
+                    openLedgerJournal();
+                }
+            }
+            // the saved file holds the changes of the recovery file, changes made during the save need a new one
+            ledgerRecovery.discard();
+            ledgerRecovery = LedgerRecovery.of(LedgerRecovery.DEFAULT_DIRECTORY, huischLedgerFile);
+            autosavedChangeCount = unsavedChanges ? -1 : changeCount;
+            finishSave();
+            onSaved.run();
+            runAfterSave();
+            autosave();
+        });
+        task.setOnFailed(event -> {
+            if (finalCommit != null) {
+                finalCommit.abandon();
+            }
+            setUnsavedChanges(true);
+            finishSave();
+            // the queued actions expect this save to have succeeded
+            afterSave.clear();
+
+            System.out.println("Saving failed: " + task.getException());
+            String message;
+            if (finalCommit != null && finalCommit.isWritten()) {
+                // the changes are in the journal, the next save tries to compact it again
+                message = "De wijzigingen zijn opgeslagen, maar het kasboek kon niet volledig herschreven worden.";
+            } else if (file.equals(huischLedgerFile)) {
+                message = "Het kasboek kon niet opgeslagen worden";
+            } else {
+                message = "Het kasboek kon niet opgeslagen worden in het geselecteerde bestand.";
+            }
+            ErrorDialog errorDialog = new ErrorDialog(message);
+            errorDialog.showAndWait();
+        });
+
+        saveTask = task;
+        saveStatusLabel.textProperty().bind(task.messageProperty());
+        saveProgressBar.progressProperty().bind(task.progressProperty());
+        setBottom(saveStatusBar);
+        SAVE_EXECUTOR.execute(task);
+    }
+
+    /**
+     * Hides the status of the SaveTask that has just finished.
+     */
+    private void finishSave() {
+        saveTask = null;
+        saveStatusLabel.textProperty().unbind();
+        saveProgressBar.progressProperty().unbind();
+        setBottom(null);
+    }
+
+    /**
+     * Runs {@code runnable} now if no SaveTask is running, otherwise once the running SaveTask has succeeded.
+     */
+    private void afterRunningSave(@NotNull Runnable runnable) {
+        if (saveTask == null) {
+            runnable.run();
+        } else {
+            afterSave.add(runnable);
+        }
+    }
+
+    private void runAfterSave() {
+        // stop as soon as one of the actions starts another SaveTask, the rest waits for that one
+        while (saveTask == null && !afterSave.isEmpty()) {
+            afterSave.remove(0).run();
+        }
+    }
+
+    /**
+     * Opens the LedgerJournal of {@code huischLedgerFile}, so that saving only has to append the changes. If the journal
+     * cannot be opened, saving writes the whole HuischLedger instead.
+     */
+    private void openLedgerJournal() {
+        closeLedgerJournal();
+        try {
+            ledgerJournal = LedgerJournal.open(huischLedgerFile, huischLedger);
+        } catch (IOException ioException) {
+            System.out.println("The journal could not be opened, saving writes the whole HuischLedger: " +
+                    ioException.getMessage());
+        }
+    }
+
+    /**
+     * Closes the LedgerJournal, which drops the changes that have not been saved.
+     */
+    private void closeLedgerJournal() {
+        if (ledgerJournal == null) { return; }
+        try {
+            ledgerJournal.close();
+        } catch (IOException ioException) {
+            System.out.println("The journal could not be closed: " + ioException.getMessage());
+        }
+        ledgerJournal = null;
+    }
+
+    /**
+     * Closes this HuischLedger after asking the user what to do with unsaved changes. {@code onClosed} is called once
+     * the HuischLedger is closed, which is after the running and requested saves have succeeded. It is not called when
+     * the user aborts or a save fails.
+     *
+     * @param onClosed called after the HuischLedger is closed
+     */
+    private void close(@NotNull Runnable onClosed) {
+        Runnable closeNow = () -> {
+            afterSave.clear();
+            stopAutosave();
+            closeLedgerJournal();
+            onClosed.run();
+        };
+
+        if (unsavedChanges) {
+            Dialog<ButtonType> dialog = new Dialog<>();
+            dialog.getDialogPane().getButtonTypes().addAll(
+                    new ButtonType("Opslaan", ButtonBar.ButtonData.YES),
+                    new ButtonType("Sluiten", ButtonBar.ButtonData.NO),
+                    new ButtonType("Afbreken", ButtonBar.ButtonData.CANCEL_CLOSE)
+            );
+            dialog.setTitle("Opongeslagen wijzigingen");
+            dialog.setContentText("Er zijn wijzigingen die niet zijn opgeslagen. Weet je zeker dat je dit kasboek " +
+                    "wil sluiten?");
+            Optional<ButtonType> result = dialog.showAndWait();
+            if (result.isPresent()) {
+                ButtonType res = result.get();
+                if (res.getButtonData().equals(ButtonBar.ButtonData.YES)) {
+                    // closes after saving succeeded, does nothing when the saving is cancelled
+                    save(closeNow);
+                } else if (res.getButtonData().equals(ButtonBar.ButtonData.NO)) {
+                    afterRunningSave(closeNow);
+                }
+            }
+        } else {
+            afterRunningSave(closeNow);
+        }
+    }
+
+    /**
+     * Saves a HuischLedger to a file, either by committing a prepared LedgerJournal.Commit or by writing a snapshot of
+     * the whole HuischLedger. Progress is reported as indeterminate, since writing cannot be measured.
+     */
+    private static class SaveTask extends Task<Void> {
+        private final File file;
+        private final HuischLedger snapshot;
+        private final LedgerJournal.Commit commit;
+
+        /**
+         * Creates a SaveTask that runs {@code commit}, or writes {@code snapshot} if {@code commit} is {@code null}.
+         */
+        SaveTask(@NotNull File file, HuischLedger snapshot, LedgerJournal.Commit commit) {
+            this.file = file;
+            this.snapshot = snapshot;
+            this.commit = commit;
+        }
+
+        @Override
+        protected Void call() throws IOException {
+            updateMessage("Kasboek opslaan...");
+            updateProgress(-1, 1);
+            if (commit != null) {
+                commit.run();
+            } else {
+                LedgerFiles.write(file, snapshot);
+            }
+            return null;
+        }
+    }
+
+    private class WindowCloseEventHandler implements EventHandler<WindowEvent> {
+
+        /**
+         * Invoked when a specific event of the type for which this handler is
+         * registered happens.
+         *
+         * @param event the event which occurred
+         */
+        @Override
+        public void handle(WindowEvent event) {
+            // the window is closed by Platform.exit() once closing is done, which may be after a save
+            event.consume();
+            close(() -> {
+                System.out.println("Calling Platform.exit()");
+                Platform.exit();
+            });
+        }
+    }
+
+    private class SaveEventHandler implements EventHandler<ActionEvent> {
+
+        /**
+         * Invoked when a specific event of the type for which this handler is
+         * registered happens.
+         *
+         * @param event the event which occurred
+         */
+        @Override
+        public void handle(ActionEvent event) {
+            save(() -> {});
+        }
+    }
+
+    private class SaveAsEventHandler implements EventHandler<ActionEvent> {
+
+        /**
+         * Invoked when a specific event of the type for which this handler is
+         * registered happens.
+         *
+         * @param event the event which occurred
+         */
+        @Override
+        public void handle(ActionEvent event) {
+            saveAs(() -> {});
+        }
+    }
+
+    private class CloseEventHandler implements EventHandler<ActionEvent> {
+
+        /**
+         * Invoked when a specific event of the type for which this handler is
+         * registered happens.
+         *
+         * @param event the event which occurred
+         */
+        @Override
+        public void handle(ActionEvent event) {
+            close(app::changeToSplashScene);
+        }
+    }
+
+}
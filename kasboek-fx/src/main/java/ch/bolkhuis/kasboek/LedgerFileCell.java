@@ -16,13 +16,23 @@
  */
 package ch.bolkhuis.kasboek;
 
+import ch.bolkhuis.kasboek.io.LedgerSummary;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
 public class LedgerFileCell extends ListCell<RecentLedgerFile> {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-uuuu");
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-uuuu HH:mm");
+
     /**
      * The updateItem method should not be called by developers, but it is the
      * best method for developers to override to allow for them to customise the
@@ -88,8 +98,26 @@ public class LedgerFileCell extends ListCell<RecentLedgerFile> {
                     name,
                     location
             );
+            LedgerSummary summary = item.getSummary();
+            if (summary != null) {
+                Label details = new Label(summary.getTransactionCount() + " transacties, " +
+                        summary.getReceiptCount() + " bonnen, " + summary.getAccountingEntityCount() + " rekeningen");
+                Label period = new Label(formatPeriod(summary.getFirstDate(), summary.getLastDate()));
+                Label savedAt = new Label("Opgeslagen op " + DATE_TIME_FORMATTER.format(
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(summary.getSavedAt()), ZoneId.systemDefault())));
+                details.setTextFill(Color.GRAY);
+                period.setTextFill(Color.GRAY);
+                savedAt.setTextFill(Color.GRAY);
+                root.getChildren().addAll(details, period, savedAt);
+            }
 
             setGraphic(root);
         }
     }
+
+    private static String formatPeriod(LocalDate firstDate, LocalDate lastDate) {
+        if (firstDate == null || lastDate == null) { return "Geen transacties"; }
+
+        return DATE_FORMATTER.format(firstDate) + " t/m " + DATE_FORMATTER.format(lastDate);
+    }
 }
@@ -16,11 +16,17 @@
  */
 package ch.bolkhuis.kasboek;
 
+import ch.bolkhuis.kasboek.io.LedgerSummary;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.util.Callback;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 public class LedgerFileListView extends ListView<RecentLedgerFile> {
     /**
      * Creates a default ListView which will display contents stacked vertically.
@@ -55,6 +61,43 @@ public class LedgerFileListView extends ListView<RecentLedgerFile> {
         initCellFactory();
     }
 
+    /**
+     * Reads the {@link LedgerSummary} of every item on a background thread, so the ledger files themselves are never
+     * parsed and the FX thread is not blocked by the disk. Items are replaced by items with their summary once all
+     * summaries are read. Items without a (current) summary are kept as they are.
+     */
+    public void readSummaries() {
+        List<RecentLedgerFile> recentLedgerFiles = new ArrayList<>(getItems());
+        Task<List<RecentLedgerFile>> task = new Task<>() {
+            @Override
+            protected List<RecentLedgerFile> call() {
+                List<RecentLedgerFile> read = new ArrayList<>(recentLedgerFiles.size());
+                for (RecentLedgerFile recentLedgerFile : recentLedgerFiles) {
+                    LedgerSummary summary = null;
+                    try {
+                        summary = LedgerSummary.read(recentLedgerFile.getFile());
+                    } catch (IOException ioException) {
+                        System.out.println("The summary of " + recentLedgerFile.getFile() + " could not be read: " +
+                                ioException.getMessage());
+                    }
+                    read.add((summary == null) ? recentLedgerFile :
+                            new RecentLedgerFile(recentLedgerFile.getFile(), summary));
+                }
+                return read;
+            }
+        };
+        task.setOnSucceeded(event -> {
+            // the items may have changed while the summaries were read
+            if (getItems().equals(recentLedgerFiles)) {
+                getItems().setAll(task.getValue());
+            }
+        });
+
+        Thread thread = new Thread(task, "ledger-summaries");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     /**
      * Sets the cell factory for this ListView.
      */
@@ -16,6 +16,7 @@
  */
 package ch.bolkhuis.kasboek;
 
+import ch.bolkhuis.kasboek.io.LedgerSummary;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
@@ -23,6 +24,7 @@ import java.io.File;
 public class RecentLedgerFile {
     private final File file;
     private final String name;
+    private final LedgerSummary summary;
 
     /**
      * Creates a new RecentLedgerFile with the File location and a name.
@@ -35,8 +37,28 @@ public class RecentLedgerFile {
 
         this.file = file;
         this.name = name;
+        this.summary = null;
+    }
+
+    /**
+     * Creates a new RecentLedgerFile with the File location and the LedgerSummary that was read for it.
+     *
+     * @param file the Ledger file location
+     * @param summary the summary of the Ledger
+     */
+    public RecentLedgerFile(File file, @NotNull LedgerSummary summary) {
+        if (summary == null) { throw new NullPointerException(); }
+
+        this.file = file;
+        this.name = summary.getName();
+        this.summary = summary;
     }
 
     public File getFile() { return this.file; }
     public String getName() { return this.name; }
+
+    /**
+     * Returns the LedgerSummary of the file, or {@code null} if it is not known.
+     */
+    public LedgerSummary getSummary() { return this.summary; }
 }
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.prefs.Preferences;
+
+/**
+ * RecentLedgerFiles keeps the list of the most recently opened or saved ledger files in the Preferences, most recent
+ * first.
+ *
+ * @author Aron Hoogeveen
+ */
+public final class RecentLedgerFiles {
+    // Preferences keys and default values
+    private static final String PREF_NODE_NAME = "/ch/bolkhuis/kasboek/RecentLedgerFiles";
+    private static final String PREF_FILE = "RecentLedgerFile";
+    private static final int MAX_FILES = 10;
+
+    private RecentLedgerFiles() { }
+
+    /**
+     * Returns the recent ledger files, most recent first. Files that no longer exist are left out.
+     *
+     * @return the recent ledger files
+     */
+    public static @NotNull List<File> load() {
+        List<File> files = read();
+        files.removeIf(file -> !file.isFile());
+        return files;
+    }
+
+    /**
+     * Puts {@code file} in front of the recent ledger files.
+     *
+     * @param file the opened or saved ledger file
+     */
+    public static void add(@NotNull File file) {
+        if (file == null) { throw new NullPointerException(); }
+
+        File absoluteFile = file.getAbsoluteFile();
+        List<File> files = read();
+        files.remove(absoluteFile);
+        files.add(0, absoluteFile);
+        store(files);
+    }
+
+    /**
+     * Removes {@code file} from the recent ledger files.
+     *
+     * @param file the ledger file to forget
+     */
+    public static void remove(@NotNull File file) {
+        if (file == null) { throw new NullPointerException(); }
+
+        List<File> files = read();
+        if (files.remove(file.getAbsoluteFile())) {
+            store(files);
+        }
+    }
+
+    private static List<File> read() {
+        Preferences preferences = Preferences.userRoot().node(PREF_NODE_NAME);
+        List<File> files = new ArrayList<>(MAX_FILES);
+        for (int i = 0; i < MAX_FILES; i++) {
+            String path = preferences.get(PREF_FILE + i, null);
+            if (path != null) {
+                files.add(new File(path));
+            }
+        }
+        return files;
+    }
+
+    private static void store(List<File> files) {
+        Preferences preferences = Preferences.userRoot().node(PREF_NODE_NAME);
+        for (int i = 0; i < MAX_FILES; i++) {
+            if (i < files.size()) {
+                preferences.put(PREF_FILE + i, files.get(i).getPath());
+            } else {
+                preferences.remove(PREF_FILE + i);
+            }
+        }
+    }
+}
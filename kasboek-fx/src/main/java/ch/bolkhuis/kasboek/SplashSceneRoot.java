@@ -0,0 +1,497 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek;
+
+import ch.bolkhuis.kasboek.core.*;
+import ch.bolkhuis.kasboek.dialog.ErrorDialog;
+import ch.bolkhuis.kasboek.io.LedgerFiles;
+import ch.bolkhuis.kasboek.io.LedgerRecovery;
+import ch.bolkhuis.kasboek.io.LedgerSummary;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
+import org.controlsfx.control.*;
+import org.jetbrains.annotations.NotNull;
+import java.awt.Desktop;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.prefs.Preferences;
+
+public class SplashSceneRoot extends BorderPane {
+    private static final double WIDTH = 840;
+    private static final double HEIGHT = 484;
+    // Preferences keys and default values
+    private static final String PREF_NODE_NAME = "/ch/bolkhuis/kasboek/SplashSceneRoot";
+    private static final String PREF_LOADED_MONTHS = "LoadedTransactionMonths";
+    private static final int PREF_DEFAULT_LOADED_MONTHS = 3;
+
+    private final Image logo;
+    private final App app;
+    // Ledgers are read on this thread, so the window keeps responding while a large Ledger is opened
+    private static final ExecutorService OPEN_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-open");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // the running OpenTask or RecoverTask, null when no Ledger is being opened
+    private Task<HuischLedger> openTask;
+    private HBox creatorNoticeHBox;
+    private HBox openStatusBar;
+    private Label openStatusLabel;
+    private ProgressBar openProgressBar;
+
+    /**
+     * Creates a new Splash Scene Root with the supplied Image as logo.
+     */
+    public SplashSceneRoot(App app, Image logo) {
+        if (app == null) { throw new NullPointerException(); }
+        if (logo == null) { throw new NullPointerException(); }
+
+        this.app = app;
+        this.logo = logo;
+
+        setId("SplashSceneRoot");
+        initAppearance();
+        createAndSetChildren();
+        createOpenStatusBar();
+
+        // ask once the splash screen is showing
+        Platform.runLater(() -> offerRecovery(LedgerRecovery.find(LedgerRecovery.DEFAULT_DIRECTORY).iterator()));
+    }
+
+    /**
+     * Sets all properties for the visual appearance of this SplashSceneRoot.
+     */
+    private void initAppearance() {
+        // Use a fixed size
+        setMinSize(WIDTH, HEIGHT);
+        setPrefSize(WIDTH, HEIGHT);
+        setMaxSize(WIDTH, HEIGHT);
+    }
+
+    /**
+     * Creates and sets all children for this SplashSceneRoot.
+     */
+    private void createAndSetChildren() {
+        // Recent opened Ledgers
+        List<RecentLedgerFile> recentLedgerFiles = loadRecentLedgers();
+
+        // create and set the main menu
+        GridPane centerGrid = new GridPane();
+        centerGrid.setId("centerGrid");
+//        centerGrid.setGridLinesVisible(true); // Use this for debugging the layout of the GridPane
+        centerGrid.setAlignment(Pos.CENTER);
+
+        // imageView for the Huisch logo. Use a BorderPane for centering the ImageView
+        BorderPane imageBorderPane = new BorderPane();
+        ImageView imageView = new ImageView(logo);
+        imageView.setPreserveRatio(true);
+        imageView.setFitWidth(180);
+        imageBorderPane.setCenter(imageView);
+        centerGrid.add(imageBorderPane, 0, 0);
+        // title
+        Label title = new Label("Huisch Kasboek");
+        title.setId("splashTitle");
+        centerGrid.add(title, 0, 1);
+
+        // Add buttons for creating of importing a Ledger or for getting help
+        Button newLedgerButton = new Button("Nieuw Kasboek", new ImageView("plus-sign-16.png"));
+        newLedgerButton.setOnAction(event -> {
+            // FIXME this is a temporary action until the loading is implemented
+            HuischLedger huischLedger = createTemporaryHuischLedger();
+
+            app.changeToApplicationScene(new ApplicationSceneRoot(app, huischLedger, null));
+        });
+        Button importLedgerButton = new Button("Importeer Kasboek", new ImageView("import-16.png"));
+        importLedgerButton.setOnAction(event -> openLedger());
+        Button getHelpButton = new Button("Krijg hulp", new ImageView("question-mark-16.png"));
+        centerGrid.add(newLedgerButton, 0, 2);
+        centerGrid.add(importLedgerButton, 0, 3);
+        centerGrid.add(getHelpButton, 0, 4);
+
+        setCenter(centerGrid);
+
+        // Initial width for the centerGrid
+        centerGrid.setMinSize(WIDTH, HEIGHT);
+        centerGrid.setPrefSize(WIDTH, HEIGHT);
+        centerGrid.setMaxSize(WIDTH, HEIGHT);
+        if (recentLedgerFiles != null) {
+            // Set a list of RecentLedgerFiles on the Left side of this BorderPane
+            LedgerFileListView ledgerFileListView = new LedgerFileListView(FXCollections.observableList(recentLedgerFiles));
+            ledgerFileListView.setFocusTraversable(false); // We only want TAB to be used for the menu in the center
+            ledgerFileListView.setOnMouseClicked(event -> {
+                RecentLedgerFile selected = ledgerFileListView.getSelectionModel().getSelectedItem();
+                if (selected != null) {
+                    openLedger(selected.getFile());
+                }
+            });
+            ledgerFileListView.readSummaries();
+
+            // Set a fixed width of a third of the total width
+            ledgerFileListView.setMinSize(WIDTH / 3.0, HEIGHT);
+            ledgerFileListView.setPrefSize(WIDTH / 3.0, HEIGHT);
+            ledgerFileListView.setMaxSize(WIDTH / 3.0, HEIGHT);
+
+            setLeft(ledgerFileListView);
+
+            // Adjust the centerGrid's width
+            double newWidth = WIDTH / 3.0 * 2;
+            centerGrid.setMinWidth(newWidth);
+            centerGrid.setPrefWidth(newWidth);
+            centerGrid.setMaxWidth(newWidth);
+        }
+
+        // Add a creator notice. Please do not edit this notice
+        HyperlinkLabel creatorNotice = new HyperlinkLabel("Gemaakt door [Aron Hoogeveen]");
+        creatorNotice.setOnMouseClicked(event -> {
+            try {
+                Desktop.getDesktop().browse(new URI("https://github.com/aron-hoogeveen"));
+            } catch (Exception ignored) {
+                System.err.println("Java.AWT.Desktop is not available.");
+            }
+        });
+        creatorNoticeHBox = new HBox(creatorNotice);
+        creatorNoticeHBox.setAlignment(Pos.CENTER);
+
+        setBottom(creatorNoticeHBox);
+    }
+
+    /**
+     * Creates the status bar that replaces the creator notice while an OpenTask is running.
+     */
+    private void createOpenStatusBar() {
+        openStatusLabel = new Label();
+        openProgressBar = new ProgressBar();
+        Button cancelButton = new Button("Annuleren");
+        cancelButton.setOnAction(event -> {
+            if (openTask != null) {
+                openTask.cancel();
+            }
+        });
+        openStatusBar = new HBox(8, openStatusLabel, openProgressBar, cancelButton);
+        openStatusBar.setAlignment(Pos.CENTER_LEFT);
+        openStatusBar.setPadding(new Insets(2, 8, 2, 8));
+    }
+
+    /**
+     * Loads the recent Ledgers from the Preferences and returns the corresponding RecentLedgerFiles. Their summaries
+     * are read later by the {@link LedgerFileListView}. Returns {@code null} if there are no recent Ledgers.
+     *
+     * @return List of RecentLedgerFiles or {@code null}
+     */
+    private List<RecentLedgerFile> loadRecentLedgers() {
+        List<RecentLedgerFile> recentLedgerFiles = new ArrayList<>();
+        for (File file : RecentLedgerFiles.load()) {
+            recentLedgerFiles.add(new RecentLedgerFile(file, LedgerSummary.nameOf(file)));
+        }
+
+        return recentLedgerFiles.isEmpty() ? null : recentLedgerFiles;
+    }
+
+    /**
+     * Asks the user for a HuischLedger file and opens it. Binary and JSON files are both accepted, the format is
+     * detected from the content of the file.
+     */
+    private void openLedger() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Huisch Kasboek - Openen");
+        fileChooser.getExtensionFilters().addAll(App.extensionFilters);
+        File file = fileChooser.showOpenDialog(app.getPrimaryStage());
+        if (file == null) { return; }
+
+        openLedger(file);
+    }
+
+    /**
+     * Opens the HuischLedger in {@code file} and adds {@code file} to the {@link RecentLedgerFiles}. The file is read
+     * by an OpenTask, only the ApplicationSceneRoot is constructed on the JavaFX Application Thread. The splash screen
+     * is disabled until the OpenTask is done, it can be cancelled from the status bar.
+     *
+     * @param file the file to open
+     */
+    private void openLedger(File file) {
+        if (openTask != null) { return; }
+
+        OpenTask task = new OpenTask(file, loadedTransactionsHorizon());
+        task.setOnSucceeded(event -> {
+            finishOpen();
+            RecentLedgerFiles.add(file);
+            app.changeToApplicationScene(new ApplicationSceneRoot(app, task.getValue(), file));
+        });
+        task.setOnCancelled(event -> finishOpen());
+        task.setOnFailed(event -> {
+            finishOpen();
+            System.out.println("Opening failed: " + task.getException());
+            ErrorDialog errorDialog = new ErrorDialog("Het kasboek kon niet geopend worden.");
+            errorDialog.showAndWait();
+        });
+        startOpen(task);
+    }
+
+    /**
+     * Disables the splash screen, shows the progress of {@code task} in the status bar and runs {@code task} on the
+     * OPEN_EXECUTOR.
+     *
+     * @param task the task that reads a HuischLedger
+     */
+    private void startOpen(@NotNull Task<HuischLedger> task) {
+        openTask = task;
+        openStatusLabel.textProperty().bind(task.messageProperty());
+        openProgressBar.progressProperty().bind(task.progressProperty());
+        getCenter().setDisable(true);
+        if (getLeft() != null) {
+            getLeft().setDisable(true);
+        }
+        setBottom(openStatusBar);
+        OPEN_EXECUTOR.execute(task);
+    }
+
+    /**
+     * Restores the splash screen after the OpenTask or RecoverTask is done.
+     */
+    private void finishOpen() {
+        openTask = null;
+        openStatusLabel.textProperty().unbind();
+        openProgressBar.progressProperty().unbind();
+        getCenter().setDisable(false);
+        if (getLeft() != null) {
+            getLeft().setDisable(false);
+        }
+        setBottom(creatorNoticeHBox);
+    }
+
+    /**
+     * Offers to restore the autosaved HuischLedgers that were left behind, most recent first. A restored HuischLedger
+     * is opened with unsaved changes, a HuischLedger that is not restored is deleted. Closing the dialog keeps the
+     * recovery file for the next time. The recovery file is read by a RecoverTask, when that fails the remaining
+     * recovery files are offered.
+     *
+     * @param recoveries the recovery files that have not been offered yet
+     */
+    private void offerRecovery(@NotNull Iterator<LedgerRecovery> recoveries) {
+        while (recoveries.hasNext()) {
+            LedgerRecovery recovery = recoveries.next();
+            String name = (recovery.getLedgerFile() == null) ? "een nieuw kasboek" : recovery.getLedgerFile().getName();
+            String savedAt = DateTimeFormatter.ofPattern("dd-MM-uuuu HH:mm")
+                    .format(LocalDateTime.ofInstant(Instant.ofEpochMilli(recovery.getSavedAt()), ZoneId.systemDefault()));
+
+            Dialog<ButtonType> dialog = new Dialog<>();
+            dialog.getDialogPane().getButtonTypes().addAll(
+                    new ButtonType("Herstellen", ButtonBar.ButtonData.YES),
+                    new ButtonType("Verwijderen", ButtonBar.ButtonData.NO),
+                    new ButtonType("Later", ButtonBar.ButtonData.CANCEL_CLOSE)
+            );
+            dialog.setTitle("Automatisch opgeslagen kasboek");
+            dialog.setContentText("Er zijn niet opgeslagen wijzigingen gevonden van " + name + " (automatisch " +
+                    "opgeslagen op " + savedAt + "). Wil je deze wijzigingen herstellen?");
+            Optional<ButtonType> result = dialog.showAndWait();
+            if (result.isEmpty() || result.get().getButtonData().equals(ButtonBar.ButtonData.CANCEL_CLOSE)) {
+                continue;
+            }
+            if (result.get().getButtonData().equals(ButtonBar.ButtonData.NO)) {
+                recovery.discard();
+                continue;
+            }
+
+            RecoverTask task = new RecoverTask(recovery);
+            task.setOnSucceeded(event -> {
+                finishOpen();
+                if (recovery.getLedgerFile() != null) {
+                    RecentLedgerFiles.add(recovery.getLedgerFile());
+                }
+                // the recovery file is kept until the restored HuischLedger is saved or closed
+                app.changeToApplicationScene(new ApplicationSceneRoot(app, task.getValue(), recovery.getLedgerFile(), true));
+            });
+            task.setOnCancelled(event -> {
+                finishOpen();
+                offerRecovery(recoveries);
+            });
+            task.setOnFailed(event -> {
+                finishOpen();
+                System.out.println("Recovering failed: " + task.getException());
+                ErrorDialog errorDialog = new ErrorDialog("Het automatisch opgeslagen kasboek kon niet hersteld worden.");
+                errorDialog.showAndWait();
+                offerRecovery(recoveries);
+            });
+            startOpen(task);
+            return;
+        }
+    }
+
+    /**
+     * Returns the date from which Transactions are loaded when a HuischLedger is opened. Older Transactions are loaded
+     * once they are needed. The number of months is read from the Preferences, 0 loads all Transactions.
+     *
+     * @return the date from which Transactions are loaded, or {@code null} to load all Transactions
+     */
+    private LocalDate loadedTransactionsHorizon() {
+        int months = Preferences.userRoot().node(PREF_NODE_NAME).getInt(PREF_LOADED_MONTHS, PREF_DEFAULT_LOADED_MONTHS);
+        if (months <= 0) { return null; }
+
+        return LocalDate.now().minusMonths(months).withDayOfMonth(1);
+    }
+
+    /**
+     * Reads a HuischLedger from a file. Progress is reported as the part of the file that is read. Once the whole file
+     * is read the remaining work cannot be measured, so progress is reported as indeterminate. Cancelling interrupts
+     * the reading.
+     */
+    private static class OpenTask extends Task<HuischLedger> {
+        private final File file;
+        private final LocalDate horizon;
+
+        OpenTask(@NotNull File file, LocalDate horizon) {
+            this.file = file;
+            this.horizon = horizon;
+        }
+
+        @Override
+        protected HuischLedger call() throws IOException {
+            long length = file.length();
+            updateMessage("Kasboek openen...");
+            updateProgress(-1, 1);
+            return LedgerFiles.read(file, horizon, bytesRead -> {
+                if (bytesRead < length) {
+                    updateProgress(bytesRead, length);
+                } else {
+                    updateMessage("Kasboek verwerken...");
+                    updateProgress(-1, 1);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads the HuischLedger of a recovery file. Its progress cannot be measured, so progress is reported as
+     * indeterminate.
+     */
+    private static class RecoverTask extends Task<HuischLedger> {
+        private final LedgerRecovery recovery;
+
+        RecoverTask(@NotNull LedgerRecovery recovery) {
+            this.recovery = recovery;
+        }
+
+        @Override
+        protected HuischLedger call() throws IOException {
+            updateMessage("Kasboek herstellen...");
+            updateProgress(-1, 1);
+            return recovery.read();
+        }
+    }
+
+    private HuischLedger createTemporaryHuischLedger() {
+        HuischLedger huischLedger = new HuischLedger();
+        InmateEntity inmate = new InmateEntity(
+                0,
+                "Gerrit",
+                0,
+                0
+        );
+        AccountingEntity bank = new AccountingEntity(
+                1,
+                "ING",
+                AccountType.ASSET,
+                0
+        );
+        huischLedger.addAccountingEntity(inmate);
+        huischLedger.addAccountingEntity(bank);
+
+        Transaction t1 = new Transaction(
+                0,
+                0,
+                1,
+                25,
+                null,
+                LocalDate.parse("2020-01-01"),
+                "Some Transaction"
+        );
+        Transaction t2 = new Transaction(
+                1,
+                1,
+                0,
+                25,
+                null,
+                LocalDate.parse("2020-01-02"),
+                "Another transaction"
+        );
+        // Receipt transactions
+        Set<Integer> set = new HashSet<>();
+        set.add(2);
+        set.add(3);
+        Receipt r1 = new Receipt(
+                0,
+                "Makrorun",
+                set, // FIXME bug, user can use an unmodifiable set as backing set. Ensure modifiable sets are provided!
+                LocalDate.parse("2020-01-15"),
+                0
+        );
+        Transaction r1_t3 = new Transaction(
+                2,
+                1,
+                0,
+                25,
+                0,
+                LocalDate.parse("2020-01-15"),
+                "Trans 1 bij Receipt 1"
+        );
+        Transaction r1_t4 = new Transaction(
+                3,
+                1,
+                0,
+                25,
+                0,
+                LocalDate.parse("2020-01-15"),
+                "Trans 2 bij Receipt 1"
+        );
+
+        // First add receipt, then add transactions
+        huischLedger.addReceipt(r1);
+        huischLedger.addTransaction(t1);
+        huischLedger.addTransaction(t2);
+        huischLedger.addTransaction(r1_t4);
+        huischLedger.addTransaction(r1_t3);
+
+        huischLedger.setNextAccountingEntityId(2);
+
+        return huischLedger;
+    }
+}
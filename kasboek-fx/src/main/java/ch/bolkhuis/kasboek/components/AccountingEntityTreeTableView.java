@@ -4,9 +4,11 @@ import ch.bolkhuis.kasboek.ApplicationSceneRoot;
 import ch.bolkhuis.kasboek.core.AccountType;
 import ch.bolkhuis.kasboek.core.AccountingEntity;
 import ch.bolkhuis.kasboek.core.InmateEntity;
+import ch.bolkhuis.kasboek.core.Money;
 import ch.bolkhuis.kasboek.core.PlaceholderEntity;
 import ch.bolkhuis.kasboek.dialog.AccountingEntityDialog;
 import ch.bolkhuis.kasboek.dialog.InmateEntityDialog;
+import ch.bolkhuis.kasboek.fx.FxLedger;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.*;
 import javafx.collections.MapChangeListener;
@@ -29,6 +31,7 @@ import java.util.Vector;
  */
 public class AccountingEntityTreeTableView extends TreeTableView<AccountingEntity> implements MapChangeListener<Integer, AccountingEntity> {
     private final ApplicationSceneRoot appSceneRoot;
+    private final FxLedger fxLedger;
     // Backing ObservableMap
     private final ObservableMap<Integer, AccountingEntity> m_items;
     // Root TreeItems
@@ -41,15 +44,16 @@ public class AccountingEntityTreeTableView extends TreeTableView<AccountingEntit
     private final TreeItem<AccountingEntity> equitiesRoot = new TreeTableRootItem<>(new PlaceholderEntity("Equities"));
 
     /**
-     * Creates a TreeTableView populated with the AccountingEntities from the ObservableMap {@code items}.
+     * Creates a TreeTableView populated with the AccountingEntities of {@code fxLedger}.
      *
-     * @param m_items the AccountingEntities to put in this TreeTableView
+     * @param fxLedger the FxLedger with the AccountingEntities to put in this TreeTableView
      */
     public AccountingEntityTreeTableView(@NotNull ApplicationSceneRoot appSceneRoot,
-                                         @NotNull ObservableMap<Integer, AccountingEntity> m_items) {
+                                         @NotNull FxLedger fxLedger) {
         if (appSceneRoot == null) { throw new NullPointerException(); }
-        if (m_items == null) { throw new NullPointerException(); }
-        this.m_items = m_items;
+        if (fxLedger == null) { throw new NullPointerException(); }
+        this.fxLedger = fxLedger;
+        this.m_items = fxLedger.getAccountingEntities();
         this.appSceneRoot = appSceneRoot;
 
         setShowRoot(false);
@@ -67,8 +71,11 @@ public class AccountingEntityTreeTableView extends TreeTableView<AccountingEntit
         nameColumn.setCellFactory(param -> new AccountingEntityTreeTableCell());
         TreeTableColumn<AccountingEntity, String> balanceColumn = new TreeTableColumn<>("Balans");
 
+        // The roots are not part of the HuischLedger, so their names never change
         nameColumn.setCellValueFactory((TreeTableColumn.CellDataFeatures<AccountingEntity, String> param) ->
-                param.getValue().getValue().nameProperty()
+                (param.getValue() instanceof TreeTableRootItem)
+                        ? new ReadOnlyStringWrapper(param.getValue().getValue().getName())
+                        : fxLedger.nameProperty(param.getValue().getValue().getId())
         );
         // Only set the balance for TreeItems which are not roots
         balanceColumn.setCellValueFactory(param -> {
@@ -76,9 +83,10 @@ public class AccountingEntityTreeTableView extends TreeTableView<AccountingEntit
                 return null;
             }
             StringProperty stringProperty = new SimpleStringProperty();
-            ReadOnlyDoubleProperty doubleProperty = param.getValue().getValue().balanceProperty();
+            ReadOnlyObjectProperty<Money> balanceProperty = fxLedger.balanceProperty(param.getValue().getValue().getId());
             stringProperty.bind(Bindings.createStringBinding(
-                    () -> NumberFormat.getCurrencyInstance(Locale.GERMANY).format(doubleProperty.get()), doubleProperty));
+                    () -> NumberFormat.getCurrencyInstance(Locale.GERMANY).format(balanceProperty.get().toBigDecimal()),
+                    balanceProperty));
             return stringProperty;
         });
 
@@ -1,11 +1,10 @@
 package ch.bolkhuis.kasboek.components;
 
 import ch.bolkhuis.kasboek.ApplicationSceneRoot;
-import ch.bolkhuis.kasboek.core.AccountingEntity;
-import ch.bolkhuis.kasboek.core.HuischLedger;
 import ch.bolkhuis.kasboek.core.Receipt;
 import ch.bolkhuis.kasboek.dialog.ReceiptDialog;
 import ch.bolkhuis.kasboek.dialog.TransactionDialog;
+import ch.bolkhuis.kasboek.fx.FxLedger;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
@@ -21,8 +20,7 @@ import org.jetbrains.annotations.NotNull;
 
 public class ReceiptTableView extends TableView<Receipt> implements MapChangeListener<Integer, Receipt> {
     private final ObservableMap<Integer, Receipt> m_items;
-    private final ObservableMap<Integer, AccountingEntity> m_entities;
-    private final HuischLedger huischLedger;
+    private final FxLedger fxLedger;
     private final Window owner;
 
     /**
@@ -32,15 +30,12 @@ public class ReceiptTableView extends TableView<Receipt> implements MapChangeLis
      * default state of other properties.
      */
     public ReceiptTableView(
-            @NotNull HuischLedger huischLedger,
-            @NotNull ObservableMap<Integer, AccountingEntity> m_entities,
+            @NotNull FxLedger fxLedger,
             @NotNull Window owner
     ) {
-        if (huischLedger == null) { throw new NullPointerException(); }
-        if (m_entities == null) { throw new NullPointerException(); }
+        if (fxLedger == null) { throw new NullPointerException(); }
         m_items = FXCollections.observableHashMap();
-        this.m_entities = m_entities;
-        this.huischLedger = huischLedger;
+        this.fxLedger = fxLedger;
         this.owner = owner;
 
         setEditable(false); // disable editing in this table. Transactions are edited in a specific dialog presented to the user
@@ -59,17 +54,14 @@ public class ReceiptTableView extends TableView<Receipt> implements MapChangeLis
      * @param m_items initial ObservableMap to be used as backing map
      */
     public ReceiptTableView(
-            @NotNull HuischLedger huischLedger,
+            @NotNull FxLedger fxLedger,
             @NotNull ObservableMap<Integer, Receipt> m_items,
-            @NotNull ObservableMap<Integer, AccountingEntity> m_entities,
             @NotNull Window owner) {
-        if (huischLedger == null) { throw new NullPointerException(); }
+        if (fxLedger == null) { throw new NullPointerException(); }
         if (m_items == null) { throw new NullPointerException(); }
-        if (m_entities == null) { throw new NullPointerException(); }
 
-        this.huischLedger = huischLedger;
+        this.fxLedger = fxLedger;
         this.m_items = m_items;
-        this.m_entities = m_entities;
         this.owner = owner;
 
         setEditable(false); // disable editing in this table. Transactions are edited in a specific dialog presented to the user
@@ -89,7 +81,7 @@ public class ReceiptTableView extends TableView<Receipt> implements MapChangeLis
         TableColumn<Receipt, HBox> actionColumn = new TableColumn<>("Acties");
 
         dateColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(param.getValue().getDate().toString())); // FIXME change to property in Receipt class
-        payerColumn.setCellValueFactory(param -> m_entities.get(param.getValue().getPayer()).nameProperty());
+        payerColumn.setCellValueFactory(param -> fxLedger.nameProperty(param.getValue().getPayer()));
         nameColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(param.getValue().getName()));
         actionColumn.setCellValueFactory(param -> {
             HBox hBox = new HBox();
@@ -97,7 +89,7 @@ public class ReceiptTableView extends TableView<Receipt> implements MapChangeLis
             editButton.setOnAction(event -> {
                 ReceiptDialog receiptDialog = new ReceiptDialog(
                         owner,
-                        huischLedger,
+                        fxLedger,
                         param.getValue()
                 );
                 receiptDialog.showAndWait();
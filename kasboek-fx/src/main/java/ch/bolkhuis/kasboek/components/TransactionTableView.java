@@ -1,17 +1,26 @@
 package ch.bolkhuis.kasboek.components;
 
-import ch.bolkhuis.kasboek.core.AccountingEntity;
+import ch.bolkhuis.kasboek.core.Ledger;
 import ch.bolkhuis.kasboek.core.Receipt;
 import ch.bolkhuis.kasboek.core.Transaction;
+import ch.bolkhuis.kasboek.eventlisteners.TransactionEvent;
+import ch.bolkhuis.kasboek.eventlisteners.TransactionEventListener;
+import ch.bolkhuis.kasboek.fx.FxLedger;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableMap;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import org.jetbrains.annotations.NotNull;
 
 import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.HashSet;
 import java.util.Locale;
 
 /**
@@ -21,9 +30,10 @@ import java.util.Locale;
  * TODO add option to show only transactions from a specific date span
  * @author Aron Hoogeveen
  */
-public class TransactionTableView extends TableView<Transaction> implements MapChangeListener<Integer, Transaction> {
+public class TransactionTableView extends TableView<Transaction> implements MapChangeListener<Integer, Transaction>,
+        TransactionEventListener {
     private final ObservableMap<Integer, Transaction> m_items;
-    private final ObservableMap<Integer, AccountingEntity> m_entities;
+    private final FxLedger fxLedger;
     private final ObservableMap<Integer, Receipt> m_receipts;
 
     private final boolean hideReceiptColumn;
@@ -34,14 +44,12 @@ public class TransactionTableView extends TableView<Transaction> implements MapC
      * <p>Refer to the {@link TableView} class documentation for details on the
      * default state of other properties.
      */
-    public TransactionTableView(@NotNull ObservableMap<Integer, AccountingEntity> m_entities,
-                                @NotNull ObservableMap<Integer, Receipt> m_receipts) {
-        if (m_entities == null) { throw new NullPointerException(); }
-        if (m_receipts == null) { throw new NullPointerException(); }
+    public TransactionTableView(@NotNull FxLedger fxLedger) {
+        if (fxLedger == null) { throw new NullPointerException(); }
 
         m_items = FXCollections.observableHashMap();
-        this.m_entities = m_entities;
-        this.m_receipts = m_receipts;
+        this.fxLedger = fxLedger;
+        this.m_receipts = fxLedger.getReceipts();
         this.hideReceiptColumn = false;
 
         setEditable(false); // disable editing in this table. Transactions are edited in a specific dialog presented to the user
@@ -57,15 +65,13 @@ public class TransactionTableView extends TableView<Transaction> implements MapC
      * <p>Refer to the {@link TableView} class documentation for details on the
      * default state of other properties.
      */
-    public TransactionTableView(@NotNull ObservableMap<Integer, AccountingEntity> m_entities,
-                                @NotNull ObservableMap<Integer, Receipt> m_receipts,
+    public TransactionTableView(@NotNull FxLedger fxLedger,
                                 boolean hideReceiptColumn) {
-        if (m_entities == null) { throw new NullPointerException(); }
-        if (m_receipts == null) { throw new NullPointerException(); }
+        if (fxLedger == null) { throw new NullPointerException(); }
 
         m_items = FXCollections.observableHashMap();
-        this.m_entities = m_entities;
-        this.m_receipts = m_receipts;
+        this.fxLedger = fxLedger;
+        this.m_receipts = fxLedger.getReceipts();
         this.hideReceiptColumn = hideReceiptColumn;
 
         setEditable(false); // disable editing in this table. Transactions are edited in a specific dialog presented to the user
@@ -87,14 +93,12 @@ public class TransactionTableView extends TableView<Transaction> implements MapC
      *              for changes (to automatically show in the TableView).
      */
     public TransactionTableView(@NotNull ObservableMap<Integer, Transaction> m_items,
-                                @NotNull ObservableMap<Integer, AccountingEntity> m_entities,
-                                @NotNull ObservableMap<Integer, Receipt> m_receipts) {
+                                @NotNull FxLedger fxLedger) {
         if (m_items == null) { throw new NullPointerException(); }
-        if (m_entities == null) { throw new NullPointerException(); }
-        if (m_receipts == null) { throw new NullPointerException(); }
+        if (fxLedger == null) { throw new NullPointerException(); }
         this.m_items = m_items;
-        this.m_entities = m_entities;
-        this.m_receipts = m_receipts;
+        this.fxLedger = fxLedger;
+        this.m_receipts = fxLedger.getReceipts();
         this.hideReceiptColumn = false;
 
         setEditable(false); // disable editing in this table. Transactions are edited in a specific dialog presented to the user
@@ -116,15 +120,13 @@ public class TransactionTableView extends TableView<Transaction> implements MapC
      *              for changes (to automatically show in the TableView).
      */
     public TransactionTableView(@NotNull ObservableMap<Integer, Transaction> m_items,
-                                @NotNull ObservableMap<Integer, AccountingEntity> m_entities,
-                                @NotNull ObservableMap<Integer, Receipt> m_receipts,
+                                @NotNull FxLedger fxLedger,
                                 boolean hideReceiptColumn) {
         if (m_items == null) { throw new NullPointerException(); }
-        if (m_entities == null) { throw new NullPointerException(); }
-        if (m_receipts == null) { throw new NullPointerException(); }
+        if (fxLedger == null) { throw new NullPointerException(); }
         this.m_items = m_items;
-        this.m_entities = m_entities;
-        this.m_receipts = m_receipts;
+        this.fxLedger = fxLedger;
+        this.m_receipts = fxLedger.getReceipts();
         this.hideReceiptColumn = hideReceiptColumn;
 
         setEditable(false); // disable editing in this table. Transactions are edited in a specific dialog presented to the user
@@ -158,10 +160,10 @@ public class TransactionTableView extends TableView<Transaction> implements MapC
 
             return new ReadOnlyStringWrapper(value);
         });
-        debtorColumn.setCellValueFactory(param -> m_entities.get(param.getValue().getDebtorId()).nameProperty());
-        creditorColumn.setCellValueFactory(param -> m_entities.get(param.getValue().getCreditorId()).nameProperty());
+        debtorColumn.setCellValueFactory(param -> fxLedger.nameProperty(param.getValue().getDebtorId()));
+        creditorColumn.setCellValueFactory(param -> fxLedger.nameProperty(param.getValue().getCreditorId()));
         amountColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(NumberFormat.getCurrencyInstance(Locale.GERMANY).format(
-                param.getValue().getAmount()
+                param.getValue().getAmount().toBigDecimal()
         )));
         descriptionColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(param.getValue().getDescription()));
 
@@ -185,6 +187,35 @@ public class TransactionTableView extends TableView<Transaction> implements MapC
         }
     }
 
+    /**
+     * Loads the older Transactions of {@code ledger} a {@code page} at a time, whenever this TableView is scrolled to
+     * the end. The loaded Transactions are shown through {@link TransactionTableView#transactionCollectionChanged}, so
+     * this TableView must be a TransactionEventListener of {@code ledger}.
+     *
+     * @param ledger the Ledger of which the Transactions are shown
+     * @param page the period of older Transactions to load at a time
+     * @see Ledger#loadTransactionsFrom(LocalDate)
+     */
+    public void loadOlderTransactionsOnScroll(@NotNull Ledger ledger, @NotNull Period page) {
+        if (ledger == null) { throw new NullPointerException(); }
+        if (page == null) { throw new NullPointerException(); }
+
+        // the ScrollBars are created together with the skin
+        skinProperty().addListener((observable, oldValue, newValue) -> {
+            for (Node node : lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                    ScrollBar scrollBar = (ScrollBar) node;
+                    scrollBar.valueProperty().addListener((valueObservable, oldPosition, newPosition) -> {
+                        LocalDate loadedFrom = ledger.getLoadedFrom();
+                        if (loadedFrom != null && newPosition.doubleValue() >= scrollBar.getMax()) {
+                            ledger.loadTransactionsFrom(loadedFrom.minus(page));
+                        }
+                    });
+                }
+            }
+        });
+    }
+
     /**
      * Initialises the backing {@code items} ObservableList from the values of the backing ObservableMap {@code m_items}.
      * This method is called by all constructors.
@@ -211,4 +242,20 @@ public class TransactionTableView extends TableView<Transaction> implements MapC
             getItems().remove(change.getValueRemoved());
         }
     }
+
+    /**
+     * Called after a bulk change has been made to the Transactions of a Ledger. The backing ObservableList is updated
+     * once for all added and once for all removed Transactions.
+     *
+     * @param transactionEvent the event describing the change
+     */
+    @Override
+    public void transactionCollectionChanged(TransactionEvent transactionEvent) {
+        if (transactionEvent.wasRemoved()) {
+            getItems().removeAll(new HashSet<>(transactionEvent.getRemovedTransactions()));
+        }
+        if (transactionEvent.wasAdded()) {
+            getItems().addAll(transactionEvent.getAddedTransactions());
+        }
+    }
 }
@@ -19,6 +19,7 @@ package ch.bolkhuis.kasboek.dialog;
 import ch.bolkhuis.kasboek.App;
 import ch.bolkhuis.kasboek.core.AccountType;
 import ch.bolkhuis.kasboek.core.AccountingEntity;
+import ch.bolkhuis.kasboek.core.Money;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
@@ -261,11 +262,11 @@ public class AccountingEntityDialog {
             try {
                 if (old == null) {
                     if (fixedAccountType == null)
-                        result = new AccountingEntity(newId, name, accountType, Double.parseDouble(balanceString));
+                        result = new AccountingEntity(newId, name, accountType, Money.parse(balanceString));
                     else
-                        result = new AccountingEntity(newId, name, fixedAccountType, Double.parseDouble(balanceString));
+                        result = new AccountingEntity(newId, name, fixedAccountType, Money.parse(balanceString));
                 } else {
-                    result = new AccountingEntity(old.getId(), name, old.getAccountType(), Double.parseDouble(balanceString));
+                    result = new AccountingEntity(old.getId(), name, old.getAccountType(), Money.parse(balanceString));
                 }
             } catch (Exception e) {
                 result = null;
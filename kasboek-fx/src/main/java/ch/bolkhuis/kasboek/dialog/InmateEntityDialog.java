@@ -19,6 +19,7 @@ package ch.bolkhuis.kasboek.dialog;
 import ch.bolkhuis.kasboek.App;
 import ch.bolkhuis.kasboek.core.AccountingEntity;
 import ch.bolkhuis.kasboek.core.InmateEntity;
+import ch.bolkhuis.kasboek.core.Money;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
@@ -231,9 +232,9 @@ public class InmateEntityDialog {
 
             try {
                 if (old == null) {
-                    result = new InmateEntity(newId, name, Double.parseDouble(previousBalanceString), Double.parseDouble(balanceString));
+                    result = new InmateEntity(newId, name, Money.parse(previousBalanceString), Money.parse(balanceString));
                 } else {
-                    result = new InmateEntity(old.getId(), name, Double.parseDouble(previousBalanceString), Double.parseDouble(balanceString));
+                    result = new InmateEntity(old.getId(), name, Money.parse(previousBalanceString), Money.parse(balanceString));
                 }
             } catch (Exception e) {
                 result = null;
@@ -22,6 +22,9 @@ import ch.bolkhuis.kasboek.core.AccountingEntity;
 import ch.bolkhuis.kasboek.core.HuischLedger;
 import ch.bolkhuis.kasboek.core.Receipt;
 import ch.bolkhuis.kasboek.core.Transaction;
+import ch.bolkhuis.kasboek.eventlisteners.TransactionEvent;
+import ch.bolkhuis.kasboek.eventlisteners.TransactionEventListener;
+import ch.bolkhuis.kasboek.fx.FxLedger;
 import javafx.collections.*;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
@@ -44,7 +47,8 @@ import java.util.Optional;
  *
  * @author Aron Hoogeveen
  */
-public class ReceiptDialog extends AbstractDialog<Receipt> implements SetChangeListener<Integer> {
+public class ReceiptDialog extends AbstractDialog<Receipt> implements MapChangeListener<Integer, Transaction>,
+        TransactionEventListener {
     private final ObservableMap<Integer, Transaction> transactionObservableMap = FXCollections.observableHashMap();
     private final HuischLedger huischLedger;
 
@@ -64,14 +68,15 @@ public class ReceiptDialog extends AbstractDialog<Receipt> implements SetChangeL
      * Creates a new AbstractDialog and initialises its owner and the old T to load.
      *
      * @param owner owner to be used for the stage
-     * @param huischLedger the HuischLedger with which to populate the TransactionTableView
+     * @param fxLedger the FxLedger with which to populate the TransactionTableView
      * @param old   T to be edited
      */
-    public ReceiptDialog(@NotNull Window owner, @NotNull HuischLedger huischLedger, @NotNull Receipt old) {
+    public ReceiptDialog(@NotNull Window owner, @NotNull FxLedger fxLedger, @NotNull Receipt old) {
         super(owner, old);
         if (old == null) { throw new NullPointerException(); }
+        if (fxLedger == null) { throw new NullPointerException(); }
 
-        this.huischLedger = huischLedger;
+        this.huischLedger = fxLedger.getHuischLedger();
 
         // populate the observable map with all transactions that belong to the receipt
         for (Map.Entry<Integer, Transaction> entry : huischLedger.getTransactions().entrySet()) {
@@ -82,13 +87,13 @@ public class ReceiptDialog extends AbstractDialog<Receipt> implements SetChangeL
 
         transactionTableView = new TransactionTableView(
                 transactionObservableMap,
-                huischLedger.getAccountingEntities(),
-                huischLedger.getReceipts(),
+                fxLedger,
                 true // hide the column with value receipt, because we are only viewing transactions of one receipt
         );
 
         // Listen for changes in the accompanied transactions
-        old.getTransactionIdSet().addListener(this);
+        fxLedger.getTransactions().addListener(this);
+        huischLedger.addTransactionEventListener(this);
 
         initAppearance();
         initBehaviour();
@@ -173,35 +178,45 @@ public class ReceiptDialog extends AbstractDialog<Receipt> implements SetChangeL
     }
 
     /**
-     * Called after a change has been made to an ObservableSet.
-     * This method is called on every elementary change (add/remove) once.
-     * This means, complex changes like removeAll(Collection) or clear()
-     * may result in more than one call of onChanged method.
+     * Called after a single Transaction of the HuischLedger has been put or removed. Transactions that belong to the
+     * Receipt are added to or removed from the transactionObservableMap.
      *
      * @param change the change that was made
      */
     @Override
-    public void onChanged(SetChangeListener.Change<? extends Integer> change) {
-        // whenever a Transaction is removed from the receipt, remove it from the transactionObservableMap
-        // whenever a Transaction is added to the receipt, add it to the transactionObservableMap
-        if (change.wasAdded()) {
-            if (change.getElementAdded() == null)
-                return;
-            int index = change.getElementAdded();
-            Transaction transaction = huischLedger.getTransactions().get(index);
-            // do not add null valued transactions
-            if (transaction == null)
-                return;
-            transactionObservableMap.put(index, transaction);
+    public void onChanged(MapChangeListener.Change<? extends Integer, ? extends Transaction> change) {
+        if (change.wasRemoved() && belongsToReceipt(change.getValueRemoved())) {
+            transactionObservableMap.remove(change.getKey());
         }
-        if (change.wasRemoved()) {
-            if (change.getElementRemoved() == null)
-                return;
-            int index = change.getElementRemoved();
-            transactionObservableMap.remove(index); // remove the Transaction with id index
+        if (change.wasAdded() && belongsToReceipt(change.getValueAdded())) {
+            transactionObservableMap.put(change.getKey(), change.getValueAdded());
         }
     }
 
+    /**
+     * Called after a bulk change has been made to the Transactions of the HuischLedger.
+     *
+     * @param transactionEvent the event describing the change
+     */
+    @Override
+    public void transactionCollectionChanged(TransactionEvent transactionEvent) {
+        for (Transaction transaction : transactionEvent.getRemovedTransactions()) {
+            if (belongsToReceipt(transaction)) {
+                transactionObservableMap.remove(transaction.getId());
+            }
+        }
+        for (Transaction transaction : transactionEvent.getAddedTransactions()) {
+            if (belongsToReceipt(transaction)) {
+                transactionObservableMap.put(transaction.getId(), transaction);
+            }
+        }
+    }
+
+    private boolean belongsToReceipt(@NotNull Transaction transaction) {
+        Integer receiptId = transaction.getReceiptId();
+        return receiptId != null && receiptId == old.getId();
+    }
+
     private class AddTransactionEventHandler implements EventHandler<ActionEvent> {
 
         /**
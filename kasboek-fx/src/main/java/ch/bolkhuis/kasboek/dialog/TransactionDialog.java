@@ -18,11 +18,11 @@ package ch.bolkhuis.kasboek.dialog;
 
 import ch.bolkhuis.kasboek.App;
 import ch.bolkhuis.kasboek.core.AccountingEntity;
+import ch.bolkhuis.kasboek.core.Money;
 import ch.bolkhuis.kasboek.core.Receipt;
 import ch.bolkhuis.kasboek.core.Transaction;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.ObservableMap;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
@@ -36,14 +36,15 @@ import org.jetbrains.annotations.NotNull;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class TransactionDialog extends AbstractDialog<Transaction> {
 
     private final int newId;
     private final Integer receiptId;
-    private final ObservableMap<Integer, AccountingEntity> accountingEntityObservableMap;
-    private final ObservableMap<Integer, Receipt> receiptObservableMap;
+    private final Map<Integer, AccountingEntity> accountingEntityMap;
+    private final Map<Integer, Receipt> receiptMap;
 
     private final Label dateLabel = new Label();
     private final DatePicker datePicker = new DatePicker();
@@ -68,14 +69,14 @@ public class TransactionDialog extends AbstractDialog<Transaction> {
      */
     public TransactionDialog(
             @NotNull Window owner,
-            @NotNull ObservableMap<Integer, AccountingEntity> accountingEntities,
-            @NotNull ObservableMap<Integer, Receipt> receipts,
+            @NotNull Map<Integer, AccountingEntity> accountingEntities,
+            @NotNull Map<Integer, Receipt> receipts,
             int id
     ) {
         super(owner);
 
-        this.accountingEntityObservableMap = accountingEntities;
-        this.receiptObservableMap = receipts;
+        this.accountingEntityMap = accountingEntities;
+        this.receiptMap = receipts;
         this.newId = id;
         this.receiptId = null;
 
@@ -85,15 +86,15 @@ public class TransactionDialog extends AbstractDialog<Transaction> {
 
     public TransactionDialog(
             @NotNull Window owner,
-            @NotNull ObservableMap<Integer, AccountingEntity> accountingEntities,
-            @NotNull ObservableMap<Integer, Receipt> receipts,
+            @NotNull Map<Integer, AccountingEntity> accountingEntities,
+            @NotNull Map<Integer, Receipt> receipts,
             int id,
             int receiptId
     ) {
         super (owner);
 
-        this.accountingEntityObservableMap = accountingEntities;
-        this.receiptObservableMap = receipts;
+        this.accountingEntityMap = accountingEntities;
+        this.receiptMap = receipts;
         this.newId = id;
         this.receiptId = receiptId;
 
@@ -109,14 +110,14 @@ public class TransactionDialog extends AbstractDialog<Transaction> {
      */
     public TransactionDialog(
             @NotNull Window owner,
-            @NotNull ObservableMap<Integer, AccountingEntity> accountingEntities,
-            @NotNull ObservableMap<Integer, Receipt> receipts,
+            @NotNull Map<Integer, AccountingEntity> accountingEntities,
+            @NotNull Map<Integer, Receipt> receipts,
             @NotNull Transaction old
     ) {
         super(owner, old);
 
-        this.accountingEntityObservableMap = accountingEntities;
-        this.receiptObservableMap = receipts;
+        this.accountingEntityMap = accountingEntities;
+        this.receiptMap = receipts;
         this.newId = -1; // default id for when the id of old is used
         this.receiptId = null;
 
@@ -148,11 +149,11 @@ public class TransactionDialog extends AbstractDialog<Transaction> {
         descriptionTextField.setPromptText("Beschrijving van deze transactie");
 
         // Set the possible values for the ComboBoxes
-        List<AccountingEntity> accountingEntities = new ArrayList<>(accountingEntityObservableMap.values());
+        List<AccountingEntity> accountingEntities = new ArrayList<>(accountingEntityMap.values());
         ObservableList<AccountingEntity> accountingEntityObservableList = FXCollections.observableList(accountingEntities);
         debtorComboBox.setItems(accountingEntityObservableList);
         creditorComboBox.setItems(accountingEntityObservableList);
-        List<Receipt> receipts = new ArrayList<>(receiptObservableMap.values());
+        List<Receipt> receipts = new ArrayList<>(receiptMap.values());
         ObservableList<Receipt> receiptObservableList = FXCollections.observableList(receipts);
 //        receiptObservableList.add(null); // It is totally valid for a transaction to not be attached to a Receipt
         // TODO add a null item to the BEGIN of the items list so the user can undo a faulty selection
@@ -161,10 +162,10 @@ public class TransactionDialog extends AbstractDialog<Transaction> {
         // Set the initial values if old is not null
         if (old != null) {
             datePicker.setValue(old.getDate());
-            debtorComboBox.getSelectionModel().select(accountingEntityObservableMap.get(old.getDebtorId()));
-            creditorComboBox.getSelectionModel().select(accountingEntityObservableMap.get(old.getCreditorId()));
+            debtorComboBox.getSelectionModel().select(accountingEntityMap.get(old.getDebtorId()));
+            creditorComboBox.getSelectionModel().select(accountingEntityMap.get(old.getCreditorId()));
 //            if (old.getReceiptId() != null) {
-            receiptComboBox.getSelectionModel().select(receiptObservableMap.get(old.getReceiptId()));
+            receiptComboBox.getSelectionModel().select(receiptMap.get(old.getReceiptId()));
 //            }
             amountTextField.setText(String.valueOf(old.getAmount()));
             descriptionTextField.setText(old.getDescription());
@@ -179,7 +180,7 @@ public class TransactionDialog extends AbstractDialog<Transaction> {
             datePicker.setValue(LocalDate.now());
             if (receiptId != null) {
                 // set a mandatory receipt for this new Transaction
-                receiptComboBox.getSelectionModel().select(receiptObservableMap.get(receiptId));
+                receiptComboBox.getSelectionModel().select(receiptMap.get(receiptId));
                 receiptComboBox.setDisable(true);
             }
         }
@@ -237,7 +238,7 @@ public class TransactionDialog extends AbstractDialog<Transaction> {
                 amountTextField.setBorder(errorBorder);
             else {
                 try {
-                    if (!Transaction.isCorrectAmount(Double.parseDouble(newValue)))
+                    if (!Transaction.isCorrectAmount(Money.parse(newValue)))
                         amountTextField.setBorder(errorBorder);
                     else
                         amountTextField.setBorder(correctBorder);
@@ -307,13 +308,13 @@ public class TransactionDialog extends AbstractDialog<Transaction> {
 
             // Validate the inputs
             try {
-                if (Transaction.isCorrectAmount(Double.parseDouble(amountString)) && Transaction.isCorrectDescription(description)) {
+                if (Transaction.isCorrectAmount(Money.parse(amountString)) && Transaction.isCorrectDescription(description)) {
                     if (old == null) {
                         result = Optional.of(new Transaction(
                                 newId,
                                 debtor.getId(), // could cause NullPointerException but it will be caught by the try-catch
                                 creditor.getId(), // same
-                                Double.parseDouble(amountString),
+                                Money.parse(amountString),
                                 receiptId,
                                 date,
                                 description
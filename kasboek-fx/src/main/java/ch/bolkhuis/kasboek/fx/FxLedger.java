@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.fx;
+
+import ch.bolkhuis.kasboek.core.*;
+import ch.bolkhuis.kasboek.eventlisteners.AccountingEntityEvent;
+import ch.bolkhuis.kasboek.eventlisteners.AccountingEntityEventListener;
+import ch.bolkhuis.kasboek.eventlisteners.EntryChangeListener;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.ObservableMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * FxLedger binds a {@link HuischLedger} to JavaFX. The core model has no JavaFX dependencies, so the views observe it
+ * through the ObservableMaps and properties of this class, which follow the listeners of the HuischLedger. The name
+ * and balance properties are only created for the AccountingEntities that are shown, and are dropped again when their
+ * AccountingEntity is removed.<br />
+ * <br />
+ * An FxLedger must be changed on the thread that changes its HuischLedger, which for the views is the JavaFX
+ * Application Thread. Call {@link FxLedger#dispose()} to stop following the HuischLedger.
+ *
+ * @author Aron Hoogeveen
+ */
+public final class FxLedger {
+    private final @NotNull HuischLedger huischLedger;
+    private final @NotNull ObservableLedgerMap<AccountingEntity> accountingEntities;
+    private final @NotNull ObservableLedgerMap<Transaction> transactions;
+    private final @NotNull ObservableLedgerMap<Receipt> receipts;
+    private final @NotNull IntObjectMap<ReadOnlyStringWrapper> names = new IntObjectMap<>();
+    private final @NotNull IntObjectMap<ReadOnlyObjectWrapper<Money>> balances = new IntObjectMap<>();
+
+    private final EntryChangeListener<AccountingEntity> entityListener = this::accountingEntityChanged;
+    private final AccountingEntityEventListener balanceListener = this::balancesChanged;
+
+    /**
+     * Creates an FxLedger that follows {@code huischLedger}.
+     *
+     * @param huischLedger the HuischLedger to bind to JavaFX
+     */
+    public FxLedger(@NotNull HuischLedger huischLedger) {
+        this.huischLedger = Objects.requireNonNull(huischLedger, "Parameter huischLedger cannot be null");
+        this.accountingEntities = new ObservableLedgerMap<>(huischLedger.getAccountingEntities());
+        this.transactions = new ObservableLedgerMap<>(huischLedger.getTransactions());
+        this.receipts = new ObservableLedgerMap<>(huischLedger.getReceipts());
+
+        // the properties are updated before the views hear of the change
+        huischLedger.addEntityListener(entityListener);
+        huischLedger.addAccountingEntityEventListener(balanceListener);
+        huischLedger.addEntityListener(accountingEntities);
+        huischLedger.addTransactionListener(transactions);
+        huischLedger.addReceiptListener(receipts);
+    }
+
+    public @NotNull HuischLedger getHuischLedger() {
+        return huischLedger;
+    }
+
+    /**
+     * Returns a read-only ObservableMap of the AccountingEntities of the HuischLedger.
+     */
+    public @NotNull ObservableMap<Integer, AccountingEntity> getAccountingEntities() {
+        return accountingEntities;
+    }
+
+    /**
+     * Returns a read-only ObservableMap of the loaded Transactions of the HuischLedger. Bulk changes are not passed on
+     * to its listeners, register a TransactionEventListener with the HuischLedger for those.
+     */
+    public @NotNull ObservableMap<Integer, Transaction> getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Returns a read-only ObservableMap of the Receipts of the HuischLedger.
+     */
+    public @NotNull ObservableMap<Integer, Receipt> getReceipts() {
+        return receipts;
+    }
+
+    /**
+     * Returns a property with the name of the AccountingEntity with id {@code id}, which follows renames.
+     *
+     * @param id the id of the AccountingEntity
+     * @return the name property
+     * @throws IllegalArgumentException when there is no AccountingEntity with that id
+     */
+    public @NotNull ReadOnlyStringProperty nameProperty(int id) {
+        ReadOnlyStringWrapper name = names.get(id);
+        if (name == null) {
+            name = new ReadOnlyStringWrapper(accountingEntityOf(id).getName());
+            names.put(id, name);
+        }
+        return name.getReadOnlyProperty();
+    }
+
+    /**
+     * Returns a property with the balance of the AccountingEntity with id {@code id}, which follows all Transactions
+     * that are added or removed.
+     *
+     * @param id the id of the AccountingEntity
+     * @return the balance property
+     * @throws IllegalArgumentException when there is no AccountingEntity with that id
+     */
+    public @NotNull ReadOnlyObjectProperty<Money> balanceProperty(int id) {
+        ReadOnlyObjectWrapper<Money> balance = balances.get(id);
+        if (balance == null) {
+            balance = new ReadOnlyObjectWrapper<>(accountingEntityOf(id).getBalance());
+            balances.put(id, balance);
+        }
+        return balance.getReadOnlyProperty();
+    }
+
+    /**
+     * Stops following the HuischLedger. The ObservableMaps and properties keep their last state.
+     */
+    public void dispose() {
+        huischLedger.removeEntityListener(entityListener);
+        huischLedger.removeAccountingEntityEventListener(balanceListener);
+        huischLedger.removeEntityListener(accountingEntities);
+        huischLedger.removeTransactionListener(transactions);
+        huischLedger.removeReceiptListener(receipts);
+    }
+
+    private @NotNull AccountingEntity accountingEntityOf(int id) {
+        AccountingEntity accountingEntity = huischLedger.getAccountingEntityById(id);
+        if (accountingEntity == null) {
+            throw new IllegalArgumentException("There does not exists an AccountingEntity with that id");
+        }
+        return accountingEntity;
+    }
+
+    private void accountingEntityChanged(int key, AccountingEntity removed, AccountingEntity added) {
+        if (added == null) {
+            names.remove(key);
+            balances.remove(key);
+            return;
+        }
+        ReadOnlyStringWrapper name = names.get(key);
+        if (name != null) {
+            name.set(added.getName());
+        }
+        ReadOnlyObjectWrapper<Money> balance = balances.get(key);
+        if (balance != null) {
+            balance.set(added.getBalance());
+        }
+    }
+
+    private void balancesChanged(@NotNull AccountingEntityEvent event) {
+        for (AccountingEntity accountingEntity : event.getChangedAccountingEntities()) {
+            ReadOnlyObjectWrapper<Money> balance = balances.get(accountingEntity.getId());
+            if (balance != null) {
+                balance.set(accountingEntity.getBalance());
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.fx;
+
+import ch.bolkhuis.kasboek.eventlisteners.EntryChangeListener;
+import javafx.beans.InvalidationListener;
+import javafx.collections.MapChangeListener;
+import javafx.collections.ObservableMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * ObservableLedgerMap is a read-only {@link ObservableMap} view of one of the maps of a Ledger. It is fed by the
+ * {@link EntryChangeListener} it is registered as, and passes every change on to its MapChangeListeners and
+ * InvalidationListeners. Bulk changes of Transactions are not part of these changes, they are published as a
+ * {@link ch.bolkhuis.kasboek.eventlisteners.TransactionEvent} by the Ledger.
+ *
+ * @param <V> the type of the values
+ * @author Aron Hoogeveen
+ */
+final class ObservableLedgerMap<V> extends AbstractMap<Integer, V>
+        implements ObservableMap<Integer, V>, EntryChangeListener<V> {
+    private final @NotNull Map<Integer, V> source;
+    private final @NotNull List<MapChangeListener<? super Integer, ? super V>> changeListeners = new ArrayList<>();
+    private final @NotNull List<InvalidationListener> invalidationListeners = new ArrayList<>();
+
+    /**
+     * Creates a view of {@code source}, which must be an unmodifiable view of a map of a Ledger.
+     *
+     * @param source the map to view
+     */
+    ObservableLedgerMap(@NotNull Map<Integer, V> source) {
+        this.source = Objects.requireNonNull(source, "Parameter source cannot be null");
+    }
+
+    @Override
+    public void entryChanged(int key, V removed, V added) {
+        Change change = new Change(key, removed, added);
+        // iterate over copies, so listeners can unregister themselves
+        for (MapChangeListener<? super Integer, ? super V> listener : new ArrayList<>(changeListeners)) {
+            listener.onChanged(change);
+        }
+        for (InvalidationListener listener : new ArrayList<>(invalidationListeners)) {
+            listener.invalidated(this);
+        }
+    }
+
+    @Override
+    public void addListener(MapChangeListener<? super Integer, ? super V> listener) {
+        Objects.requireNonNull(listener, "Parameter listener cannot be null");
+        changeListeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(MapChangeListener<? super Integer, ? super V> listener) {
+        changeListeners.remove(listener);
+    }
+
+    @Override
+    public void addListener(InvalidationListener listener) {
+        Objects.requireNonNull(listener, "Parameter listener cannot be null");
+        invalidationListeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(InvalidationListener listener) {
+        invalidationListeners.remove(listener);
+    }
+
+    @Override
+    public V get(Object key) {
+        return source.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return source.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return source.size();
+    }
+
+    @Override
+    public @NotNull Set<Entry<Integer, V>> entrySet() {
+        return source.entrySet();
+    }
+
+    @Override
+    public @NotNull Collection<V> values() {
+        return source.values();
+    }
+
+    private final class Change extends MapChangeListener.Change<Integer, V> {
+        private final int key;
+        private final V removed;
+        private final V added;
+
+        private Change(int key, V removed, V added) {
+            super(ObservableLedgerMap.this);
+            this.key = key;
+            this.removed = removed;
+            this.added = added;
+        }
+
+        @Override
+        public boolean wasAdded() {
+            return added != null;
+        }
+
+        @Override
+        public boolean wasRemoved() {
+            return removed != null;
+        }
+
+        @Override
+        public Integer getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValueAdded() {
+            return added;
+        }
+
+        @Override
+        public V getValueRemoved() {
+            return removed;
+        }
+    }
+}
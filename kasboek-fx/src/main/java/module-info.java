@@ -1,11 +1,10 @@
 module ch.bolkhuis.guis {
     requires javafx.controls;
-    requires org.jetbrains.annotations;
+    requires static org.jetbrains.annotations;
     requires org.controlsfx.controls;
     requires java.desktop;
-    requires com.google.gson;
-    requires org.apache.commons.lang3;
+    requires ch.bolkhuis.kasboek.io;
     requires java.prefs;
     exports ch.bolkhuis.kasboek;
-    exports ch.bolkhuis.kasboek.core;
-}
\ No newline at end of file
+    exports ch.bolkhuis.kasboek.fx;
+}
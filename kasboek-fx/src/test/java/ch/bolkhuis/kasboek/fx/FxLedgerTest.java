@@ -0,0 +1,59 @@
+package ch.bolkhuis.kasboek.fx;
+
+import ch.bolkhuis.kasboek.core.*;
+import javafx.collections.MapChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that {@link FxLedger} follows the changes made to its {@link HuischLedger}.
+ */
+class FxLedgerTest {
+    private HuischLedger huischLedger;
+    private FxLedger fxLedger;
+
+    private final int INMATE_ID = 0;
+    private final int BANK_ID = 1;
+
+    @BeforeEach
+    public void initialize() {
+        huischLedger = new HuischLedger();
+        huischLedger.addAccountingEntity(new InmateEntity(INMATE_ID, "Gerrit", 0, 0));
+        huischLedger.addAccountingEntity(new AccountingEntity(BANK_ID, "ING", AccountType.ASSET, 0));
+        fxLedger = new FxLedger(huischLedger);
+    }
+
+    @Test
+    public void propertiesFollowLedger() {
+        assertEquals("Gerrit", fxLedger.nameProperty(INMATE_ID).get());
+        assertEquals(Money.of(0), fxLedger.balanceProperty(BANK_ID).get());
+
+        huischLedger.renameAccountingEntity(INMATE_ID, "Klaas");
+        huischLedger.addTransaction(new Transaction(0, BANK_ID, INMATE_ID, 25, LocalDate.parse("2020-01-01"), "Inleg"));
+
+        assertEquals("Klaas", fxLedger.nameProperty(INMATE_ID).get());
+        assertEquals(Money.of(25), fxLedger.balanceProperty(BANK_ID).get());
+        assertThrows(IllegalArgumentException.class, () -> fxLedger.nameProperty(42));
+    }
+
+    @Test
+    public void observableMapsFollowLedger() {
+        List<String> changes = new ArrayList<>();
+        fxLedger.getTransactions().addListener((MapChangeListener<Integer, Transaction>) change -> changes.add(
+                change.getKey() + ":" + change.wasRemoved() + "," + change.wasAdded()));
+
+        huischLedger.addTransaction(new Transaction(0, BANK_ID, INMATE_ID, 25, LocalDate.parse("2020-01-01"), "Inleg"));
+        huischLedger.removeTransaction(0);
+        fxLedger.dispose();
+        huischLedger.addTransaction(new Transaction(1, BANK_ID, INMATE_ID, 5, LocalDate.parse("2020-01-02"), "Terug"));
+
+        assertEquals(List.of("0:false,true", "0:true,false"), changes);
+        assertThrows(UnsupportedOperationException.class, () -> fxLedger.getTransactions().remove(1));
+    }
+}
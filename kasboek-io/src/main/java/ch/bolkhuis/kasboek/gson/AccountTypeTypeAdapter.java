@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.gson;
+
+import ch.bolkhuis.kasboek.core.AccountType;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes an AccountType as its lower case name, e.g. {@code "asset"}. {@link AccountType#NON_EXISTENT} is written as
+ * {@code "nonexistent"}. Unknown names are read as {@code null}, like Gson does for enums.
+ *
+ * @author Aron Hoogeveen
+ */
+public class AccountTypeTypeAdapter extends TypeAdapter<AccountType> {
+
+    @Override
+    public void write(JsonWriter jsonWriter, AccountType accountType) throws IOException {
+        if (accountType == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.value(nameOf(accountType));
+    }
+
+    @Override
+    public AccountType read(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        switch (jsonReader.nextString()) {
+            case "expense": return AccountType.EXPENSE;
+            case "asset": return AccountType.ASSET;
+            case "dividend": return AccountType.DIVIDEND;
+            case "liability": return AccountType.LIABILITY;
+            case "revenue": return AccountType.REVENUE;
+            case "equity": return AccountType.EQUITY;
+            case "nonexistent": return AccountType.NON_EXISTENT;
+            default: return null;
+        }
+    }
+
+    private static String nameOf(AccountType accountType) {
+        switch (accountType) {
+            case EXPENSE: return "expense";
+            case ASSET: return "asset";
+            case DIVIDEND: return "dividend";
+            case LIABILITY: return "liability";
+            case REVENUE: return "revenue";
+            case EQUITY: return "equity";
+            case NON_EXISTENT: return "nonexistent";
+            default: throw new IllegalArgumentException("Unknown AccountType " + accountType);
+        }
+    }
+}
@@ -18,10 +18,12 @@ package ch.bolkhuis.kasboek.gson;
 
 import ch.bolkhuis.kasboek.core.AccountType;
 import ch.bolkhuis.kasboek.core.AccountingEntity;
+import ch.bolkhuis.kasboek.core.Money;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.util.Objects;
@@ -44,13 +46,53 @@ public class AccountingEntityTypeAdapter extends TypeAdapter<AccountingEntity> {
         }
 
         /**
-         * Returns the ordinal + 1 for use in ORing.
+         * Returns a distinct bit for use in ORing.
          *
          * @return value greater than zero
          */
         private int getValue() {
-            return ordinal() + 1;
+            return 1 << ordinal();
         }
+
+        /**
+         * Returns the FieldNames with {@code name}, or {@code null} if there is none.
+         */
+        private static FieldNames of(String name) {
+            switch (name) {
+                case "id": return ID;
+                case "name": return NAME;
+                case "account_type": return ACCOUNT_TYPE;
+                case "balance": return BALANCE;
+                default: return null;
+            }
+        }
+    }
+
+    private final static int REQUIRED_FIELDS = FieldNames.ID.getValue() | FieldNames.NAME.getValue()
+            | FieldNames.ACCOUNT_TYPE.getValue() | FieldNames.BALANCE.getValue();
+
+    private final TypeAdapter<AccountType> accountTypeAdapter;
+    private final TypeAdapter<Money> moneyAdapter;
+
+    /**
+     * Constructs an AccountingEntityTypeAdapter that uses the AccountType and Money adapters of
+     * {@link CustomizedGson#gson}.
+     */
+    public AccountingEntityTypeAdapter() {
+        this(CustomizedGson.gson.getAdapter(AccountType.class), CustomizedGson.gson.getAdapter(Money.class));
+    }
+
+    /**
+     * Constructs an AccountingEntityTypeAdapter that (de)serializes AccountTypes with {@code accountTypeAdapter} and
+     * balances with {@code moneyAdapter}.
+     *
+     * @param accountTypeAdapter the adapter for the AccountTypes
+     * @param moneyAdapter the adapter for the balances
+     */
+    AccountingEntityTypeAdapter(@NotNull TypeAdapter<AccountType> accountTypeAdapter,
+                                @NotNull TypeAdapter<Money> moneyAdapter) {
+        this.accountTypeAdapter = Objects.requireNonNull(accountTypeAdapter, "Parameter accountTypeAdapter cannot be null");
+        this.moneyAdapter = Objects.requireNonNull(moneyAdapter, "Parameter moneyAdapter cannot be null");
     }
 
     @Override
@@ -63,8 +105,9 @@ public class AccountingEntityTypeAdapter extends TypeAdapter<AccountingEntity> {
         jsonWriter.name(FieldNames.ID.name).value(accountingEntity.getId());
         jsonWriter.name(FieldNames.NAME.name).value(accountingEntity.getName());
         jsonWriter.name(FieldNames.ACCOUNT_TYPE.name);
-        CustomizedGson.gson.getAdapter(AccountType.class).write(jsonWriter, accountingEntity.getAccountType());
-        jsonWriter.name(FieldNames.BALANCE.name).value(accountingEntity.getBalance());
+        accountTypeAdapter.write(jsonWriter, accountingEntity.getAccountType());
+        jsonWriter.name(FieldNames.BALANCE.name);
+        moneyAdapter.write(jsonWriter, accountingEntity.getBalance());
         jsonWriter.endObject();
     }
 
@@ -77,34 +120,33 @@ public class AccountingEntityTypeAdapter extends TypeAdapter<AccountingEntity> {
         int id = 0;
         String name = null;
         AccountType accountType = null;
-        double balance = 0;
-        double endBalance = 0;
+        Money balance = null;
         // fields is used for checking if all fields are available
         int fields = 0;
 
         jsonReader.beginObject();
         while (jsonReader.hasNext()) {
             if (jsonReader.peek() == JsonToken.NAME) {
-                String fieldName = jsonReader.nextName();
-                if (fieldName.equals(FieldNames.ID.name)) {
-                    fields |= FieldNames.ID.getValue();
-                    id = jsonReader.nextInt();
-                }
-                else if (fieldName.equals(FieldNames.NAME.name)) {
-                    fields |= FieldNames.NAME.getValue();
-                    name = jsonReader.nextString();
-                }
-                else if (fieldName.equals(FieldNames.ACCOUNT_TYPE.name)) {
-                    fields |= FieldNames.ACCOUNT_TYPE.getValue();
-                    accountType = CustomizedGson.gson.fromJson(jsonReader, AccountType.class);
-                }
-                else if (fieldName.equals(FieldNames.BALANCE.name)) {
-                    fields |= FieldNames.BALANCE.getValue();
-                    balance = jsonReader.nextDouble();
-                }
-                else {
+                FieldNames fieldName = FieldNames.of(jsonReader.nextName());
+                if (fieldName == null) {
                     // unknown field
                     jsonReader.skipValue();
+                    continue;
+                }
+                fields |= fieldName.getValue();
+                switch (fieldName) {
+                    case ID:
+                        id = jsonReader.nextInt();
+                        break;
+                    case NAME:
+                        name = jsonReader.nextString();
+                        break;
+                    case ACCOUNT_TYPE:
+                        accountType = accountTypeAdapter.read(jsonReader);
+                        break;
+                    case BALANCE:
+                        balance = moneyAdapter.read(jsonReader);
+                        break;
                 }
             }
             else if (jsonReader.peek() == JsonToken.END_OBJECT) {
@@ -116,12 +158,7 @@ public class AccountingEntityTypeAdapter extends TypeAdapter<AccountingEntity> {
         }
         jsonReader.endObject();
 
-        int fieldCheck = 0;
-        for (FieldNames fieldName : FieldNames.values()) {
-            fieldCheck |= fieldName.getValue();
-        }
-
-        if (fields == fieldCheck) {
+        if (fields == REQUIRED_FIELDS && balance != null) {
             return new AccountingEntity(
                     id,
                     Objects.requireNonNull(name, "name should not be null at this point"),
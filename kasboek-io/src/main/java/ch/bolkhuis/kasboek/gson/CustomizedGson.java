@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.gson;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Holds the Gson instances that know how to (de)serialize the classes of this application.<br />
+ * <br />
+ * {@code gson} writes the compact on-disk format: no indentation and dates as ISO-8601 strings. Ledgers written in
+ * this format carry {@code "format_version": 1}. The readers still accept the older pretty printed files without a
+ * format version, in which dates are nested objects.<br />
+ * <br />
+ * The type adapters are created by {@link CustomizedTypeAdapterFactory}, which wires the adapters of nested objects
+ * into their parents once.
+ *
+ * @version v0.2-pre-alpha
+ * @author Aron Hoogeveen
+ */
+public class CustomizedGson {
+    /**
+     * The format version that is written by the Ledger type adapters. Files without a format version are version 0.
+     */
+    public final static int FORMAT_VERSION = 1;
+
+    private final static GsonBuilder builder = new GsonBuilder()
+            .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+            .registerTypeAdapterFactory(new CustomizedTypeAdapterFactory());
+
+    /**
+     * The Gson instance that is used for writing to and reading from disk.
+     */
+    public final static Gson gson = builder.create();
+    /**
+     * Same as {@code gson}, but with indentation. Only meant for debugging, not for writing files.
+     */
+    public final static Gson prettyGson = gson.newBuilder().setPrettyPrinting().create();
+
+    /**
+     * Returns the keys of {@code map} in ascending order. Used by the writers to output the values of a map in the
+     * order of their ids without copying the map into a sorted map.
+     *
+     * @param map the map to get the keys of
+     * @return a new sorted array of the keys
+     */
+    static int[] sortedKeys(Map<Integer, ?> map) {
+        int[] keys = new int[map.size()];
+        int i = 0;
+        for (int key : map.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+}
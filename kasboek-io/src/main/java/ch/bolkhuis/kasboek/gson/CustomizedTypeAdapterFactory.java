@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.gson;
+
+import ch.bolkhuis.kasboek.core.*;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+import java.time.LocalDate;
+
+/**
+ * Creates the type adapters of this package. Each adapter receives the adapters of the objects it contains when it is
+ * created, so nested objects are (de)serialized without looking up their adapter in the Gson instance for every
+ * element. Gson caches the created adapters, so the wiring happens once per Gson instance.
+ *
+ * @author Aron Hoogeveen
+ */
+final class CustomizedTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        TypeAdapter<?> typeAdapter;
+
+        if (rawType == LocalDate.class) {
+            typeAdapter = new LocalDateTypeAdapter();
+        } else if (rawType == Money.class) {
+            typeAdapter = new MoneyTypeAdapter();
+        } else if (rawType == AccountType.class) {
+            typeAdapter = new AccountTypeTypeAdapter();
+        } else if (rawType == Transaction.class) {
+            typeAdapter = new TransactionTypeAdapter(gson.getAdapter(LocalDate.class), gson.getAdapter(Money.class));
+        } else if (rawType == AccountingEntity.class) {
+            typeAdapter = new AccountingEntityTypeAdapter(gson.getAdapter(AccountType.class),
+                    gson.getAdapter(Money.class));
+        } else if (rawType == InmateEntity.class) {
+            typeAdapter = new InmateEntityTypeAdapter(gson.getAdapter(Money.class));
+        } else if (rawType == Receipt.class) {
+            typeAdapter = new ReceiptTypeAdapter(gson.getAdapter(LocalDate.class));
+        } else if (rawType == Ledger.class) {
+            typeAdapter = new LedgerTypeAdapter(
+                    gson.getAdapter(Transaction.class),
+                    gson.getAdapter(AccountingEntity.class),
+                    gson.getAdapter(InmateEntity.class));
+        } else if (rawType == HuischLedger.class) {
+            typeAdapter = new HuischLedgerTypeAdapter(
+                    gson.getAdapter(Transaction.class),
+                    gson.getAdapter(Receipt.class),
+                    gson.getAdapter(AccountingEntity.class),
+                    gson.getAdapter(InmateEntity.class));
+        } else {
+            return null;
+        }
+        return (TypeAdapter<T>) typeAdapter;
+    }
+}
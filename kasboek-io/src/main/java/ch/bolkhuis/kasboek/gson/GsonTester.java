@@ -21,9 +21,9 @@ import ch.bolkhuis.kasboek.core.AccountingEntity;
 import ch.bolkhuis.kasboek.core.InmateEntity;
 import ch.bolkhuis.kasboek.core.Ledger;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonWriter;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 
 public class GsonTester {
     private static Ledger ledger = new Ledger();
@@ -55,10 +55,14 @@ public class GsonTester {
         // try to write this to a file
         try {
             File file = new File("out/GsonTester_ledger.json");
-            Ledger.toFile(file, ledger);
+            try (JsonWriter writer = CustomizedGson.gson.newJsonWriter(new BufferedWriter(new FileWriter(file)))) {
+                CustomizedGson.gson.toJson(ledger, Ledger.class, writer);
+            }
 
             // Try to construct it again
-            ledger = Ledger.fromFile(file);
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                ledger = CustomizedGson.gson.fromJson(reader, Ledger.class);
+            }
         } catch (IOException ioException) {
             System.out.println("A general IOException occurred");
             return;
@@ -67,6 +71,6 @@ public class GsonTester {
             return;
         }
 
-        System.out.println(Ledger.toJson(ledger));
+        System.out.println(CustomizedGson.prettyGson.toJson(ledger, Ledger.class));
     }
 }
@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.gson;
+
+import ch.bolkhuis.kasboek.core.HuischLedger;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Converts a HuischLedger from and to the JSON format (format versions 0 and 1) using {@link CustomizedGson#gson}.
+ * Kept out of HuischLedger, so the core module does not depend on Gson.
+ *
+ * @author Aron Hoogeveen
+ */
+public final class HuischLedgerJson {
+    private final static int BUFFER_SIZE = 1 << 16;
+
+    private HuischLedgerJson() { }
+
+    /**
+     * Returns a JSON string that is parsable by {@link HuischLedgerJson#fromJson(Reader)}.
+     *
+     * @param ledger the HuischLedger to convert to JSON
+     * @return a JSON string representing {@code ledger}
+     */
+    public static String toJson(HuischLedger ledger) {
+        return CustomizedGson.gson.toJson(ledger, HuischLedger.class);
+    }
+
+    /**
+     * Returns a new HuischLedger from a {@code reader} supplying a JSON String as generated by
+     * {@link HuischLedgerJson#toJson(HuischLedger)}.
+     *
+     * @param reader the reader providing the JSON String
+     * @return a HuischLedger as represented by the JSON String
+     * @throws com.google.gson.JsonSyntaxException see GSON docs
+     * @throws com.google.gson.JsonIOException see GSON docs
+     */
+    public static HuischLedger fromJson(@NotNull Reader reader) {
+        Objects.requireNonNull(reader, "Parameter reader cannot be null");
+
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        return CustomizedGson.gson.fromJson(bufferedReader, HuischLedger.class);
+    }
+
+    /**
+     * Writes {@code ledger} to the provided {@code file}. The JSON is compressed with gzip if the name of {@code file}
+     * ends with {@code .gz}.
+     *
+     * @param file the file to write to
+     * @param ledger the ledger that needs to be saved
+     * @throws IOException when some IO exception occurs
+     */
+    public static void toFile(@NotNull File file, HuischLedger ledger) throws IOException {
+        Objects.requireNonNull(file, "Parameter file cannot be null");
+
+        OutputStream out = new FileOutputStream(file);
+        if (file.getName().endsWith(".gz")) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        // Stream the JSON straight into the file instead of building the whole String first
+        try (JsonWriter writer = CustomizedGson.gson.newJsonWriter(new BufferedWriter(new OutputStreamWriter(out)))) {
+            CustomizedGson.gson.toJson(ledger, HuischLedger.class, writer);
+        }
+    }
+
+    /**
+     * Creates a new HuischLedger from a file as written by {@link HuischLedgerJson#toFile(File, HuischLedger)}. Compressed files
+     * are recognized by the gzip magic bytes.
+     *
+     * @param file the file to read from
+     * @return new HuischLedger as represented by the content of {@code file}
+     * @throws IOException when some IO exception occurs
+     */
+    public static HuischLedger fromFile(@NotNull File file) throws IOException {
+        Objects.requireNonNull(file, "Parameter file cannot be null");
+
+        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)) {
+            in.mark(2);
+            boolean compressed = (in.read() == 0x1f) && (in.read() == 0x8b);
+            in.reset();
+
+            InputStream content = compressed ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(content))) {
+                return CustomizedGson.gson.fromJson(reader, HuischLedger.class);
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.gson;
+
+import ch.bolkhuis.kasboek.core.*;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * @version v0.2-pre-alpha
+ * @author Aron Hoogeveen
+ */
+public class HuischLedgerTypeAdapter extends TypeAdapter<HuischLedger> {
+    private enum FieldNames {
+        TRANSACTIONS("transactions"),
+        RECEIPTS("receipts"),
+        ACCOUNTING_ENTITIES("accounting_entities");
+
+        final String name;
+
+        FieldNames(String name) {
+            this.name = name;
+        }
+
+        public int getValue() {
+            return 1 << ordinal();
+        }
+    }
+
+    private final static String FORMAT_VERSION = "format_version";
+    // The id counters are optional, they are derived from the ids when absent
+    private final static String NEXT_TRANSACTION_ID = "next_transaction_id";
+    private final static String NEXT_ACCOUNTING_ENTITY_ID = "next_accounting_entity_id";
+    private final static String NEXT_RECEIPT_ID = "next_receipt_id";
+
+    private final TypeAdapter<Transaction> transactionAdapter;
+    private final TypeAdapter<Receipt> receiptAdapter;
+    private final TypeAdapter<AccountingEntity> accountingEntityAdapter;
+    private final TypeAdapter<InmateEntity> inmateEntityAdapter;
+
+    /**
+     * Constructs a HuischLedgerTypeAdapter that uses the adapters of {@link CustomizedGson#gson} for the objects in the
+     * HuischLedger.
+     */
+    public HuischLedgerTypeAdapter() {
+        this(CustomizedGson.gson.getAdapter(Transaction.class),
+                CustomizedGson.gson.getAdapter(Receipt.class),
+                CustomizedGson.gson.getAdapter(AccountingEntity.class),
+                CustomizedGson.gson.getAdapter(InmateEntity.class));
+    }
+
+    /**
+     * Constructs a HuischLedgerTypeAdapter that (de)serializes the objects in the HuischLedger with the given adapters.
+     */
+    HuischLedgerTypeAdapter(@NotNull TypeAdapter<Transaction> transactionAdapter,
+                            @NotNull TypeAdapter<Receipt> receiptAdapter,
+                            @NotNull TypeAdapter<AccountingEntity> accountingEntityAdapter,
+                            @NotNull TypeAdapter<InmateEntity> inmateEntityAdapter) {
+        this.transactionAdapter = Objects.requireNonNull(transactionAdapter, "Parameter transactionAdapter cannot be null");
+        this.receiptAdapter = Objects.requireNonNull(receiptAdapter, "Parameter receiptAdapter cannot be null");
+        this.accountingEntityAdapter = Objects.requireNonNull(accountingEntityAdapter,
+                "Parameter accountingEntityAdapter cannot be null");
+        this.inmateEntityAdapter = Objects.requireNonNull(inmateEntityAdapter, "Parameter inmateEntityAdapter cannot be null");
+    }
+
+    @Override
+    public void write(JsonWriter jsonWriter, HuischLedger huischLedger) throws IOException {
+        if (huischLedger == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+
+        jsonWriter.beginObject();
+        jsonWriter.name(FORMAT_VERSION);
+        jsonWriter.value(CustomizedGson.FORMAT_VERSION);
+        jsonWriter.name(NEXT_TRANSACTION_ID);
+        jsonWriter.value(huischLedger.getNextTransactionId());
+        jsonWriter.name(NEXT_ACCOUNTING_ENTITY_ID);
+        jsonWriter.value(huischLedger.getNextAccountingEntityId());
+        jsonWriter.name(NEXT_RECEIPT_ID);
+        jsonWriter.value(huischLedger.getNextReceiptId());
+        jsonWriter.name(FieldNames.TRANSACTIONS.name);
+        jsonWriter.beginArray();
+        // Write in the order of the ids without copying the maps, only the keys are sorted
+        huischLedger.loadAllTransactions();
+        Map<Integer, Transaction> transactions = huischLedger.getTransactions();
+        for (int id : CustomizedGson.sortedKeys(transactions)) {
+            transactionAdapter.write(jsonWriter, transactions.get(id));
+        }
+        jsonWriter.endArray();
+        jsonWriter.name(FieldNames.RECEIPTS.name);
+        jsonWriter.beginArray();
+        Map<Integer, Receipt> receipts = huischLedger.getReceipts();
+        for (int id : CustomizedGson.sortedKeys(receipts)) {
+            receiptAdapter.write(jsonWriter, receipts.get(id));
+        }
+        jsonWriter.endArray();
+        jsonWriter.name(FieldNames.ACCOUNTING_ENTITIES.name);
+        jsonWriter.beginArray();
+        Map<Integer, AccountingEntity> entries = huischLedger.getAccountingEntities();
+        for (int id : CustomizedGson.sortedKeys(entries)) {
+            AccountingEntity a = entries.get(id);
+            // Safe the type in order to be able to correctly deserialize
+            if (a instanceof InmateEntity) {
+                jsonWriter.beginObject();
+                jsonWriter.name("type");
+                jsonWriter.value(InmateEntity.class.getCanonicalName());
+                jsonWriter.name("object");
+                inmateEntityAdapter.write(jsonWriter, (InmateEntity)a);
+                jsonWriter.endObject();
+            } else {
+                jsonWriter.beginObject();
+                jsonWriter.name("type");
+                jsonWriter.value(AccountingEntity.class.getCanonicalName());
+                jsonWriter.name("object");
+                accountingEntityAdapter.write(jsonWriter, a);
+                jsonWriter.endObject();
+            }
+        }
+        jsonWriter.endArray();
+        jsonWriter.endObject();
+    }
+
+    @Override
+    public HuischLedger read(JsonReader jsonReader) throws IOException {
+        return read(jsonReader, null);
+    }
+
+    /**
+     * Reads a HuischLedger of which the Transactions have already been parsed into {@code parsedTransactions}, for
+     * example by {@link ParallelHuischLedgerReader}. Transactions that are still present in the {@code transactions}
+     * array are added to {@code parsedTransactions}.
+     *
+     * @param jsonReader the reader to read from
+     * @param parsedTransactions the Transactions mapped by their id, or {@code null} to parse all Transactions here
+     * @return the HuischLedger
+     * @throws IOException when the JSON is not a valid HuischLedger
+     */
+    HuischLedger read(JsonReader jsonReader, Map<Integer, Transaction> parsedTransactions) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+
+        // The maps are handed over to the Ledger as they are, so no sorted maps are needed
+        Map<Integer, Transaction> transactions = (parsedTransactions == null) ? new IntObjectMap<>() : parsedTransactions;
+        Map<Integer, Receipt> receipts = new IntObjectMap<>();
+        Map<Integer, AccountingEntity> accountingEntities = new IntObjectMap<>();
+        int nextTransactionId = 0;
+        int nextAccountingEntityId = 0;
+        int nextReceiptId = 0;
+
+        jsonReader.beginObject();
+        int fields = 0;
+        while (jsonReader.hasNext()) {
+            if (jsonReader.peek() == JsonToken.NAME) {
+                String fieldName = jsonReader.nextName();
+                if (fieldName.equals(FORMAT_VERSION)) {
+                    // files without a format version are version 0, which is read the same way
+                    int formatVersion = jsonReader.nextInt();
+                    if (formatVersion > CustomizedGson.FORMAT_VERSION) {
+                        throw new IOException("Unsupported format version " + formatVersion);
+                    }
+                }
+                else if (fieldName.equals(NEXT_TRANSACTION_ID)) {
+                    nextTransactionId = jsonReader.nextInt();
+                }
+                else if (fieldName.equals(NEXT_ACCOUNTING_ENTITY_ID)) {
+                    nextAccountingEntityId = jsonReader.nextInt();
+                }
+                else if (fieldName.equals(NEXT_RECEIPT_ID)) {
+                    nextReceiptId = jsonReader.nextInt();
+                }
+                else if (fieldName.equals(FieldNames.TRANSACTIONS.name)) {
+                    fields |= FieldNames.TRANSACTIONS.getValue();
+                    jsonReader.beginArray();
+                    while (jsonReader.peek() != JsonToken.END_ARRAY) {
+                        Transaction transaction = transactionAdapter.read(jsonReader);
+                        if (transactions.put(Objects.requireNonNull(transaction).getId(), transaction) != null) {
+                            throw new IOException("Transactions with the same id are not allowed");
+                        }
+                    }
+                    jsonReader.endArray();
+                }
+                else if (fieldName.equals(FieldNames.RECEIPTS.name)) {
+                    fields |= FieldNames.RECEIPTS.getValue();
+                    jsonReader.beginArray();
+                    while (jsonReader.peek() != JsonToken.END_ARRAY) {
+                        Receipt receipt = receiptAdapter.read(jsonReader);
+                        if (receipts.put(Objects.requireNonNull(receipt).getId(), receipt) != null) {
+                            throw new IOException("Receipts with the same id are not allowed");
+                        }
+                    }
+                    jsonReader.endArray();
+                }
+                else if (fieldName.equals(FieldNames.ACCOUNTING_ENTITIES.name)) {
+                    fields |= FieldNames.ACCOUNTING_ENTITIES.getValue();
+                    jsonReader.beginArray();
+                    while (jsonReader.peek() != JsonToken.END_ARRAY) {
+                        jsonReader.beginObject();
+                        if (!jsonReader.nextName().equals("type")) {
+                            throw new IOException("missing required field 'type' for AccountingEntity");
+                        }
+                        String canonicalName = jsonReader.nextString();
+                        AccountingEntity entity;
+                        if (canonicalName.equals(AccountingEntity.class.getCanonicalName())) {
+                            if (!jsonReader.nextName().equals("object")) {
+                                throw new IOException("missing required field 'object' for AccountingEntity");
+                            }
+                            entity = accountingEntityAdapter.read(jsonReader);
+                        }
+                        else if (canonicalName.equals(InmateEntity.class.getCanonicalName())) {
+                            if (!jsonReader.nextName().equals("object")) {
+                                throw new IOException("missing required field 'object' for AccountingEntity");
+                            }
+                            entity = inmateEntityAdapter.read(jsonReader);
+                        }
+                        else {
+                            throw new IOException("type '" + canonicalName + "' not recognized");
+                        }
+
+                        // Do not allow overwriting of AccountingEntities
+                        if (accountingEntities.put(Objects.requireNonNull(entity, "parsed entity cannot be null").getId(), entity) != null) {
+                            throw new IOException("AccountingEntities with the same id are not allowed");
+                        }
+                        jsonReader.endObject();
+                    }
+                    jsonReader.endArray();
+                }
+                else {
+                    // unrecognized JsonToken
+                    jsonReader.skipValue();
+                }
+            }
+            else if (jsonReader.peek() == JsonToken.END_OBJECT) {
+                break;
+            }
+            else {
+                throw new IOException("Did not expect token " + jsonReader.peek());
+            }
+        }
+        jsonReader.endObject();
+
+        int fieldCheck = 0;
+        for (FieldNames fieldName : FieldNames.values()) {
+            fieldCheck |= fieldName.getValue();
+        }
+
+        if (fieldCheck == fields) {
+            try {
+                return HuischLedger.load(accountingEntities, transactions, receipts, nextTransactionId,
+                        nextAccountingEntityId, nextReceiptId);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid HuischLedger: " + e.getMessage(), e);
+            }
+        }
+        throw new IOException("Not all required fields are available");
+    }
+}
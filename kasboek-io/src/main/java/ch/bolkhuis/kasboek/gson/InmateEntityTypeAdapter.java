@@ -16,13 +16,13 @@
  */
 package ch.bolkhuis.kasboek.gson;
 
-import ch.bolkhuis.kasboek.core.AccountType;
 import ch.bolkhuis.kasboek.core.InmateEntity;
-import ch.bolkhuis.kasboek.gson.CustomizedGson;
+import ch.bolkhuis.kasboek.core.Money;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.util.Objects;
@@ -45,13 +45,47 @@ public class InmateEntityTypeAdapter extends TypeAdapter<InmateEntity> {
         }
 
         /**
-         * Returns the ordinal + 1 for use in ORing.
+         * Returns a distinct bit for use in ORing.
          *
          * @return value greater than zero
          */
         private int getValue() {
-            return ordinal() + 1;
+            return 1 << ordinal();
         }
+
+        /**
+         * Returns the FieldNames with {@code name}, or {@code null} if there is none.
+         */
+        private static FieldNames of(String name) {
+            switch (name) {
+                case "id": return ID;
+                case "name": return NAME;
+                case "previous_balance": return PREVIOUS_BALANCE;
+                case "balance": return BALANCE;
+                default: return null;
+            }
+        }
+    }
+
+    private final static int REQUIRED_FIELDS = FieldNames.ID.getValue() | FieldNames.NAME.getValue()
+            | FieldNames.PREVIOUS_BALANCE.getValue() | FieldNames.BALANCE.getValue();
+
+    private final TypeAdapter<Money> moneyAdapter;
+
+    /**
+     * Constructs an InmateEntityTypeAdapter that uses the Money adapter of {@link CustomizedGson#gson}.
+     */
+    public InmateEntityTypeAdapter() {
+        this(CustomizedGson.gson.getAdapter(Money.class));
+    }
+
+    /**
+     * Constructs an InmateEntityTypeAdapter that (de)serializes balances with {@code moneyAdapter}.
+     *
+     * @param moneyAdapter the adapter for the balances
+     */
+    InmateEntityTypeAdapter(@NotNull TypeAdapter<Money> moneyAdapter) {
+        this.moneyAdapter = Objects.requireNonNull(moneyAdapter, "Parameter moneyAdapter cannot be null");
     }
 
     @Override
@@ -63,8 +97,10 @@ public class InmateEntityTypeAdapter extends TypeAdapter<InmateEntity> {
         jsonWriter.beginObject();
         jsonWriter.name(FieldNames.ID.name).value(inmateEntity.getId());
         jsonWriter.name(FieldNames.NAME.name).value(inmateEntity.getName());
-        jsonWriter.name(FieldNames.PREVIOUS_BALANCE.name).value(inmateEntity.getPreviousBalance());
-        jsonWriter.name(FieldNames.BALANCE.name).value(inmateEntity.getBalance());
+        jsonWriter.name(FieldNames.PREVIOUS_BALANCE.name);
+        moneyAdapter.write(jsonWriter, inmateEntity.getPreviousBalance());
+        jsonWriter.name(FieldNames.BALANCE.name);
+        moneyAdapter.write(jsonWriter, inmateEntity.getBalance());
         jsonWriter.endObject();
     }
 
@@ -76,35 +112,34 @@ public class InmateEntityTypeAdapter extends TypeAdapter<InmateEntity> {
         }
         int id = 0;
         String name = null;
-        AccountType accountType = null;
-        double previousBalance = 0;
-        double balance = 0;
+        Money previousBalance = null;
+        Money balance = null;
         // fields is used for checking if all fields are available
         int fields = 0;
 
         jsonReader.beginObject();
         while (jsonReader.hasNext()) {
             if (jsonReader.peek() == JsonToken.NAME) {
-                String fieldName = jsonReader.nextName();
-                if (fieldName.equals(FieldNames.ID.name)) {
-                    fields |= FieldNames.ID.getValue();
-                    id = jsonReader.nextInt();
-                }
-                else if (fieldName.equals(FieldNames.NAME.name)) {
-                    fields |= FieldNames.NAME.getValue();
-                    name = jsonReader.nextString();
-                }
-                else if (fieldName.equals(FieldNames.PREVIOUS_BALANCE.name)) {
-                    fields |= FieldNames.PREVIOUS_BALANCE.getValue();
-                    previousBalance = jsonReader.nextDouble();
-                }
-                else if (fieldName.equals(FieldNames.BALANCE.name)) {
-                    fields |= FieldNames.BALANCE.getValue();
-                    balance = jsonReader.nextDouble();
-                }
-                else {
+                FieldNames fieldName = FieldNames.of(jsonReader.nextName());
+                if (fieldName == null) {
                     // unknown field
                     jsonReader.skipValue();
+                    continue;
+                }
+                fields |= fieldName.getValue();
+                switch (fieldName) {
+                    case ID:
+                        id = jsonReader.nextInt();
+                        break;
+                    case NAME:
+                        name = jsonReader.nextString();
+                        break;
+                    case PREVIOUS_BALANCE:
+                        previousBalance = moneyAdapter.read(jsonReader);
+                        break;
+                    case BALANCE:
+                        balance = moneyAdapter.read(jsonReader);
+                        break;
                 }
             }
             else if (jsonReader.peek() == JsonToken.END_OBJECT) {
@@ -116,12 +151,7 @@ public class InmateEntityTypeAdapter extends TypeAdapter<InmateEntity> {
         }
         jsonReader.endObject();
 
-        int fieldCheck = 0;
-        for (FieldNames fieldName : FieldNames.values()) {
-            fieldCheck |= fieldName.getValue();
-        }
-
-        if (fields == fieldCheck) {
+        if (fields == REQUIRED_FIELDS && previousBalance != null && balance != null) {
             return new InmateEntity(
                     id,
                     Objects.requireNonNull(name, "name should not be null at this point"),
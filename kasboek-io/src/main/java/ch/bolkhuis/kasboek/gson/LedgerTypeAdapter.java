@@ -18,18 +18,18 @@ package ch.bolkhuis.kasboek.gson;
 
 import ch.bolkhuis.kasboek.core.AccountingEntity;
 import ch.bolkhuis.kasboek.core.InmateEntity;
+import ch.bolkhuis.kasboek.core.IntObjectMap;
 import ch.bolkhuis.kasboek.core.Ledger;
 import ch.bolkhuis.kasboek.core.Transaction;
-import ch.bolkhuis.kasboek.gson.CustomizedGson;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Objects;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 /**
  * @version v0.2-pre-alpha
@@ -47,10 +47,40 @@ public class LedgerTypeAdapter extends TypeAdapter<Ledger> {
         }
 
         public int getValue() {
-            return ordinal() + 1;
+            return 1 << ordinal();
         }
     }
 
+    private final static String FORMAT_VERSION = "format_version";
+    // The id counters are optional, they are derived from the ids when absent
+    private final static String NEXT_TRANSACTION_ID = "next_transaction_id";
+    private final static String NEXT_ACCOUNTING_ENTITY_ID = "next_accounting_entity_id";
+
+    private final TypeAdapter<Transaction> transactionAdapter;
+    private final TypeAdapter<AccountingEntity> accountingEntityAdapter;
+    private final TypeAdapter<InmateEntity> inmateEntityAdapter;
+
+    /**
+     * Constructs a LedgerTypeAdapter that uses the adapters of {@link CustomizedGson#gson} for the objects in the Ledger.
+     */
+    public LedgerTypeAdapter() {
+        this(CustomizedGson.gson.getAdapter(Transaction.class),
+                CustomizedGson.gson.getAdapter(AccountingEntity.class),
+                CustomizedGson.gson.getAdapter(InmateEntity.class));
+    }
+
+    /**
+     * Constructs a LedgerTypeAdapter that (de)serializes the objects in the Ledger with the given adapters.
+     */
+    LedgerTypeAdapter(@NotNull TypeAdapter<Transaction> transactionAdapter,
+                      @NotNull TypeAdapter<AccountingEntity> accountingEntityAdapter,
+                      @NotNull TypeAdapter<InmateEntity> inmateEntityAdapter) {
+        this.transactionAdapter = Objects.requireNonNull(transactionAdapter, "Parameter transactionAdapter cannot be null");
+        this.accountingEntityAdapter = Objects.requireNonNull(accountingEntityAdapter,
+                "Parameter accountingEntityAdapter cannot be null");
+        this.inmateEntityAdapter = Objects.requireNonNull(inmateEntityAdapter, "Parameter inmateEntityAdapter cannot be null");
+    }
+
     @Override
     public void write(JsonWriter jsonWriter, Ledger ledger) throws IOException {
         if (ledger == null) {
@@ -59,36 +89,41 @@ public class LedgerTypeAdapter extends TypeAdapter<Ledger> {
         }
 
         jsonWriter.beginObject();
+        jsonWriter.name(FORMAT_VERSION);
+        jsonWriter.value(CustomizedGson.FORMAT_VERSION);
+        jsonWriter.name(NEXT_TRANSACTION_ID);
+        jsonWriter.value(ledger.getNextTransactionId());
+        jsonWriter.name(NEXT_ACCOUNTING_ENTITY_ID);
+        jsonWriter.value(ledger.getNextAccountingEntityId());
         jsonWriter.name(FieldNames.TRANSACTIONS.name);
         jsonWriter.beginArray();
-        SortedMap<Integer, Transaction> transactionSortedMap = ledger.copyOfTransactions();
-        if (transactionSortedMap.size() > 0) {
-            for (Transaction t : transactionSortedMap.values()) {
-                CustomizedGson.gson.getAdapter(Transaction.class).write(jsonWriter, t);
-            }
+        // Write in the order of the ids without copying the maps, only the keys are sorted
+        ledger.loadAllTransactions();
+        Map<Integer, Transaction> transactions = ledger.getTransactions();
+        for (int id : CustomizedGson.sortedKeys(transactions)) {
+            transactionAdapter.write(jsonWriter, transactions.get(id));
         }
         jsonWriter.endArray();
         jsonWriter.name(FieldNames.ACCOUNTING_ENTITIES.name);
         jsonWriter.beginArray();
-        SortedMap<Integer, AccountingEntity> entries = ledger.copyOfAccountingEntities();
-        if (entries.size() > 0) {
-            for (AccountingEntity a : entries.values()) {
-                // Safe the type in order to be able to correctly deserialize
-                if (a instanceof InmateEntity) {
-                    jsonWriter.beginObject();
-                    jsonWriter.name("type");
-                    jsonWriter.value(InmateEntity.class.getCanonicalName());
-                    jsonWriter.name("object");
-                    CustomizedGson.gson.getAdapter(InmateEntity.class).write(jsonWriter, (InmateEntity)a);
-                    jsonWriter.endObject();
-                } else {
-                    jsonWriter.beginObject();
-                    jsonWriter.name("type");
-                    jsonWriter.value(AccountingEntity.class.getCanonicalName());
-                    jsonWriter.name("object");
-                    CustomizedGson.gson.getAdapter(AccountingEntity.class).write(jsonWriter, a);
-                    jsonWriter.endObject();
-                }
+        Map<Integer, AccountingEntity> entries = ledger.getAccountingEntities();
+        for (int id : CustomizedGson.sortedKeys(entries)) {
+            AccountingEntity a = entries.get(id);
+            // Safe the type in order to be able to correctly deserialize
+            if (a instanceof InmateEntity) {
+                jsonWriter.beginObject();
+                jsonWriter.name("type");
+                jsonWriter.value(InmateEntity.class.getCanonicalName());
+                jsonWriter.name("object");
+                inmateEntityAdapter.write(jsonWriter, (InmateEntity)a);
+                jsonWriter.endObject();
+            } else {
+                jsonWriter.beginObject();
+                jsonWriter.name("type");
+                jsonWriter.value(AccountingEntity.class.getCanonicalName());
+                jsonWriter.name("object");
+                accountingEntityAdapter.write(jsonWriter, a);
+                jsonWriter.endObject();
             }
         }
         jsonWriter.endArray();
@@ -102,19 +137,35 @@ public class LedgerTypeAdapter extends TypeAdapter<Ledger> {
             return null;
         }
 
-        TreeMap<Integer, Transaction> transactions = new TreeMap<>();
-        TreeMap<Integer, AccountingEntity> accountingEntities = new TreeMap<>();
+        // The maps are handed over to the Ledger as they are, so no sorted maps are needed
+        Map<Integer, Transaction> transactions = new IntObjectMap<>();
+        Map<Integer, AccountingEntity> accountingEntities = new IntObjectMap<>();
+        int nextTransactionId = 0;
+        int nextAccountingEntityId = 0;
 
         jsonReader.beginObject();
         int fields = 0;
         while (jsonReader.hasNext()) {
             if (jsonReader.peek() == JsonToken.NAME) {
                 String fieldName = jsonReader.nextName();
-                if (fieldName.equals(FieldNames.TRANSACTIONS.name)) {
+                if (fieldName.equals(FORMAT_VERSION)) {
+                    // files without a format version are version 0, which is read the same way
+                    int formatVersion = jsonReader.nextInt();
+                    if (formatVersion > CustomizedGson.FORMAT_VERSION) {
+                        throw new IOException("Unsupported format version " + formatVersion);
+                    }
+                }
+                else if (fieldName.equals(NEXT_TRANSACTION_ID)) {
+                    nextTransactionId = jsonReader.nextInt();
+                }
+                else if (fieldName.equals(NEXT_ACCOUNTING_ENTITY_ID)) {
+                    nextAccountingEntityId = jsonReader.nextInt();
+                }
+                else if (fieldName.equals(FieldNames.TRANSACTIONS.name)) {
                     fields |= FieldNames.TRANSACTIONS.getValue();
                     jsonReader.beginArray();
                     while (jsonReader.peek() != JsonToken.END_ARRAY) {
-                        Transaction transaction = CustomizedGson.gson.fromJson(jsonReader, Transaction.class);
+                        Transaction transaction = transactionAdapter.read(jsonReader);
                         if (transactions.put(Objects.requireNonNull(transaction).getId(), transaction) != null) {
                             throw new IOException("Transactions with the same id are not allowed");
                         }
@@ -135,13 +186,13 @@ public class LedgerTypeAdapter extends TypeAdapter<Ledger> {
                             if (!jsonReader.nextName().equals("object")) {
                                 throw new IOException("missing required field 'object' for AccountingEntity");
                             }
-                            entity = CustomizedGson.gson.fromJson(jsonReader, AccountingEntity.class);
+                            entity = accountingEntityAdapter.read(jsonReader);
                         }
                         else if (canonicalName.equals(InmateEntity.class.getCanonicalName())) {
                             if (!jsonReader.nextName().equals("object")) {
                                 throw new IOException("missing required field 'object' for AccountingEntity");
                             }
-                            entity = CustomizedGson.gson.fromJson(jsonReader, InmateEntity.class);
+                            entity = inmateEntityAdapter.read(jsonReader);
                         }
                         else {
                             throw new IOException("type '" + canonicalName + "' not recognized");
@@ -175,8 +226,11 @@ public class LedgerTypeAdapter extends TypeAdapter<Ledger> {
         }
 
         if (fieldCheck == fields) {
-            throw new IOException("LedgerTypeAdapter is not completely implemented");
-//            return new Ledger(accountingEntities, transactions);
+            try {
+                return Ledger.load(accountingEntities, transactions, nextTransactionId, nextAccountingEntityId);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid Ledger: " + e.getMessage(), e);
+            }
         }
         throw new IOException("Not all required fields are available");
     }
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.gson;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Writes a LocalDate as an ISO-8601 string, e.g. {@code "2020-01-31"}. Reading also accepts the layouts of format
+ * version 0: {@code {"date": "2020-01-31"}} and {@code {"year": 2020, "month": 1, "day": 31}}.
+ *
+ * @version v0.2-pre-alpha
+ * @author Aron Hoogeveen
+ */
+public class LocalDateTypeAdapter extends TypeAdapter<LocalDate> {
+    private enum FieldNames {
+        DATE("date"),
+        YEAR("year"),
+        MONTH("month"),
+        DAY("day");
+
+        private final String name;
+
+        FieldNames(String name) {
+            this.name = name;
+        }
+
+        public int getValue() {
+            return 1 << ordinal();
+        }
+
+        /**
+         * Returns the FieldNames with {@code name}, or {@code null} if there is none.
+         */
+        static FieldNames of(String name) {
+            switch (name) {
+                case "date": return DATE;
+                case "year": return YEAR;
+                case "month": return MONTH;
+                case "day": return DAY;
+                default: return null;
+            }
+        }
+    }
+
+    @Override
+    public void write(JsonWriter jsonWriter, LocalDate localDate) throws IOException {
+        if (localDate == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.value(localDate.toString());
+    }
+
+    @Override
+    public LocalDate read(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        if (jsonReader.peek() == JsonToken.STRING) {
+            return parse(jsonReader.nextString());
+        }
+
+        // format version 0 wraps the date in an object
+        String date = null;
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int fields = 0;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            if (jsonReader.peek() == JsonToken.NAME) {
+                FieldNames fieldName = FieldNames.of(jsonReader.nextName());
+                if (fieldName == null) {
+                    // unrecognized NAME
+                    jsonReader.skipValue();
+                    continue;
+                }
+                fields |= fieldName.getValue();
+                switch (fieldName) {
+                    case DATE:
+                        date = jsonReader.nextString();
+                        break;
+                    case YEAR:
+                        year = jsonReader.nextInt();
+                        break;
+                    case MONTH:
+                        month = jsonReader.nextInt();
+                        break;
+                    case DAY:
+                        day = jsonReader.nextInt();
+                        break;
+                }
+            }
+            else if (jsonReader.peek() == JsonToken.END_OBJECT) {
+                break;
+            }
+            else {
+                throw new IOException("Did not expect token " + jsonReader.peek());
+            }
+        }
+        jsonReader.endObject();
+
+        if ((fields & FieldNames.DATE.getValue()) != 0) {
+            return parse(date);
+        }
+        int dateFields = FieldNames.YEAR.getValue() | FieldNames.MONTH.getValue() | FieldNames.DAY.getValue();
+        if ((fields & dateFields) == dateFields) {
+            try {
+                return LocalDate.of(year, month, day);
+            } catch (DateTimeException e) {
+                throw new IOException("Invalid date", e);
+            }
+        }
+        throw new IOException("Not all required fields are available");
+    }
+
+    private static LocalDate parse(String date) throws IOException {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new IOException("Invalid date '" + date + "'", e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.gson;
+
+import ch.bolkhuis.kasboek.core.Money;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a Money as a plain decimal number without trailing zeros, e.g. {@code 12.5} instead of {@code 12.50}. Reading
+ * rounds to the nearest cent, so the double amounts written by older versions, e.g. {@code 0.30000000000000004}, are
+ * read as the amount that was meant.
+ *
+ * @author Aron Hoogeveen
+ */
+public class MoneyTypeAdapter extends TypeAdapter<Money> {
+
+    @Override
+    public void write(JsonWriter jsonWriter, Money money) throws IOException {
+        if (money == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.jsonValue(money.toString());
+    }
+
+    @Override
+    public Money read(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        if (jsonReader.peek() != JsonToken.NUMBER) {
+            throw new IOException("Did not expect token " + jsonReader.peek());
+        }
+        String number = jsonReader.nextString();
+        try {
+            return Money.round(number);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid amount '" + number + "'", e);
+        }
+    }
+}
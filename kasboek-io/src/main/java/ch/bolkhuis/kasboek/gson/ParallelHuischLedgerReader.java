@@ -0,0 +1,222 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.gson;
+
+import ch.bolkhuis.kasboek.core.HuischLedger;
+import ch.bolkhuis.kasboek.core.IntObjectMap;
+import ch.bolkhuis.kasboek.core.Transaction;
+import com.google.gson.stream.JsonReader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ParallelHuischLedgerReader reads a HuischLedger from UTF-8 encoded JSON that is completely in memory. The
+ * Transactions make up almost all of a ledger file, so the byte range of the {@code transactions} array is split at
+ * the boundaries of its top-level objects and the chunks are parsed in parallel on the common {@link ForkJoinPool}
+ * by a {@link TransactionTokenizer}. The parsed chunks are merged into one map keyed by id, after which the rest of
+ * the file is read by the {@link HuischLedgerTypeAdapter} as usual.<br />
+ * <br />
+ * Ledgers with few Transactions are parsed as a single chunk on the calling thread.
+ *
+ * @author Aron Hoogeveen
+ */
+public final class ParallelHuischLedgerReader {
+    /**
+     * The minimum amount of bytes in a chunk. Smaller chunks are not worth a task.
+     */
+    private final static int MIN_CHUNK_SIZE = 1 << 16;
+    /**
+     * The amount of chunks per thread of the pool, so threads that finish early can take over work.
+     */
+    private final static int CHUNKS_PER_THREAD = 4;
+
+    private ParallelHuischLedgerReader() { }
+
+    /**
+     * Reads a HuischLedger from {@code json}.
+     *
+     * @param json the UTF-8 encoded JSON
+     * @return the HuischLedger, or {@code null} if {@code json} contains {@code null}
+     * @throws IOException when {@code json} is not a valid HuischLedger
+     */
+    public static HuischLedger read(byte @NotNull [] json) throws IOException {
+        Objects.requireNonNull(json, "Parameter json cannot be null");
+
+        int start = hasByteOrderMark(json) ? 3 : 0;
+        TransactionTokenizer tokenizer = new TransactionTokenizer(json, start, json.length);
+        if (tokenizer.atEnd() || tokenizer.peek() != '{') {
+            // not an object, let the type adapter report on it
+            return readRemainder(json, start, json.length, json.length, null);
+        }
+
+        // Find the transactions array and the chunk boundaries within it
+        int arrayStart = -1;
+        List<Integer> boundaries = null;
+        tokenizer.expect('{');
+        if (!tokenizer.consume('}')) {
+            do {
+                tokenizer.readName();
+                if (tokenizer.nameIs("transactions") && tokenizer.peek() == '[') {
+                    arrayStart = tokenizer.position();
+                    boundaries = splitArray(tokenizer, json.length - start);
+                } else {
+                    tokenizer.skipValue();
+                }
+            } while (tokenizer.consume(','));
+            tokenizer.expect('}');
+        }
+        if (boundaries == null) {
+            return readRemainder(json, start, json.length, json.length, null);
+        }
+
+        Map<Integer, Transaction> transactions = parse(json, boundaries);
+        // the closing bracket of the array is the last boundary
+        int arrayEnd = boundaries.get(boundaries.size() - 1);
+        return readRemainder(json, start, arrayStart + 1, arrayEnd, transactions);
+    }
+
+    /**
+     * Skips the array at the position of {@code tokenizer} and returns the positions at which its chunks start,
+     * followed by the position of the closing bracket. Chunks always start at the start of an element.
+     */
+    private static List<Integer> splitArray(@NotNull TransactionTokenizer tokenizer, int fileSize) throws IOException {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, fileSize / (ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD));
+
+        List<Integer> boundaries = new ArrayList<>();
+        tokenizer.expect('[');
+        int lastBoundary = tokenizer.position();
+        boundaries.add(lastBoundary);
+        if (tokenizer.peek() != ']') {
+            do {
+                int elementStart = tokenizer.position();
+                if (elementStart - lastBoundary >= chunkSize) {
+                    boundaries.add(elementStart);
+                    lastBoundary = elementStart;
+                }
+                tokenizer.skipValue();
+            } while (tokenizer.consume(','));
+        }
+        if (tokenizer.peek() != ']') { throw new IOException("Expected ']' at byte " + tokenizer.position()); }
+        boundaries.add(tokenizer.position());
+        tokenizer.expect(']');
+        return boundaries;
+    }
+
+    /**
+     * Parses the chunks between {@code boundaries} and merges them into one map.
+     */
+    private static Map<Integer, Transaction> parse(byte @NotNull [] json, @NotNull List<Integer> boundaries)
+            throws IOException {
+        int chunkCount = boundaries.size() - 1;
+        List<ChunkTask> tasks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            tasks.add(new ChunkTask(json, boundaries.get(i), boundaries.get(i + 1)));
+        }
+
+        if (chunkCount == 1) {
+            tasks.get(0).invoke();
+        } else {
+            for (ChunkTask task : tasks) {
+                task.fork();
+            }
+        }
+
+        int size = 0;
+        for (ChunkTask task : tasks) {
+            task.join();
+            if (task.exception != null) { throw task.exception; }
+            size += task.getRawResult().size();
+        }
+
+        IntObjectMap<Transaction> transactions = new IntObjectMap<>(size);
+        for (ChunkTask task : tasks) {
+            for (Transaction transaction : task.getRawResult()) {
+                if (transactions.put(transaction.getId(), transaction) != null) {
+                    throw new IOException("Duplicate Transaction id " + transaction.getId());
+                }
+            }
+        }
+        return transactions;
+    }
+
+    /**
+     * Reads the parts of {@code json} around the transactions array with the {@link HuischLedgerTypeAdapter}. The bytes
+     * in {@code [cutStart, cutEnd)} are left out.
+     */
+    private static HuischLedger readRemainder(byte @NotNull [] json, int start, int cutStart, int cutEnd,
+                                              Map<Integer, Transaction> transactions) throws IOException {
+        SequenceInputStream in = new SequenceInputStream(
+                new ByteArrayInputStream(json, start, cutStart - start),
+                new ByteArrayInputStream(json, cutEnd, json.length - cutEnd));
+        JsonReader jsonReader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        // Gson#fromJson reads leniently as well
+        jsonReader.setLenient(true);
+        try {
+            return new HuischLedgerTypeAdapter().read(jsonReader, transactions);
+        } catch (IllegalStateException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static boolean hasByteOrderMark(byte @NotNull [] json) {
+        return json.length >= 3 && json[0] == (byte) 0xEF && json[1] == (byte) 0xBB && json[2] == (byte) 0xBF;
+    }
+
+    /**
+     * Parses the Transactions in one chunk of the transactions array. IOExceptions are kept so they can be rethrown
+     * on the calling thread.
+     */
+    private static final class ChunkTask extends RecursiveTask<List<Transaction>> {
+        private final byte[] json;
+        private final int from;
+        private final int to;
+        private IOException exception;
+
+        ChunkTask(byte @NotNull [] json, int from, int to) {
+            this.json = json;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Transaction> compute() {
+            List<Transaction> transactions = new ArrayList<>();
+            TransactionTokenizer tokenizer = new TransactionTokenizer(json, from, to);
+            try {
+                while (!tokenizer.atEnd()) {
+                    if (!tokenizer.consume(',')) {
+                        transactions.add(tokenizer.nextTransaction());
+                    }
+                }
+            } catch (IOException e) {
+                exception = e;
+            }
+            return transactions;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.time.LocalDate;
@@ -43,9 +44,45 @@ public class ReceiptTypeAdapter extends TypeAdapter<Receipt> {
         }
 
         public int getValue() {
-            return ordinal() + 1;
+            return 1 << ordinal();
         }
+
+        /**
+         * Returns the FieldNames with {@code name}, or {@code null} if there is none.
+         */
+        static FieldNames of(String name) {
+            switch (name) {
+                case "id": return ID;
+                case "name": return NAME;
+                case "transaction_id_set": return TRANSACTIONS_ID_SET;
+                case "date": return DATE;
+                case "payer": return PAYER;
+                default: return null;
+            }
+        }
+    }
+
+    private final static int REQUIRED_FIELDS = FieldNames.ID.getValue() | FieldNames.NAME.getValue()
+            | FieldNames.TRANSACTIONS_ID_SET.getValue() | FieldNames.DATE.getValue() | FieldNames.PAYER.getValue();
+
+    private final TypeAdapter<LocalDate> localDateAdapter;
+
+    /**
+     * Constructs a ReceiptTypeAdapter that uses the LocalDate adapter of {@link CustomizedGson#gson}.
+     */
+    public ReceiptTypeAdapter() {
+        this(CustomizedGson.gson.getAdapter(LocalDate.class));
     }
+
+    /**
+     * Constructs a ReceiptTypeAdapter that (de)serializes dates with {@code localDateAdapter}.
+     *
+     * @param localDateAdapter the adapter for the dates
+     */
+    ReceiptTypeAdapter(@NotNull TypeAdapter<LocalDate> localDateAdapter) {
+        this.localDateAdapter = Objects.requireNonNull(localDateAdapter, "Parameter localDateAdapter cannot be null");
+    }
+
     @Override
     public void write(JsonWriter jsonWriter, Receipt receipt) throws IOException {
         if (receipt == null) {
@@ -60,15 +97,12 @@ public class ReceiptTypeAdapter extends TypeAdapter<Receipt> {
         jsonWriter.value(receipt.getName());
         jsonWriter.name(FieldNames.TRANSACTIONS_ID_SET.name);
         jsonWriter.beginArray();
-        Set<Integer> transactionIdSet = receipt.getTransactionIdSet();
-        if (transactionIdSet.size() > 0) {
-            for (Integer i : transactionIdSet) {
-                CustomizedGson.gson.getAdapter(Integer.class).write(jsonWriter, i);
-            }
+        for (int i : receipt.getTransactionIdSet()) {
+            jsonWriter.value(i);
         }
         jsonWriter.endArray();
         jsonWriter.name(FieldNames.DATE.name);
-        CustomizedGson.gson.getAdapter(LocalDate.class).write(jsonWriter, receipt.getDate());
+        localDateAdapter.write(jsonWriter, receipt.getDate());
         jsonWriter.name(FieldNames.PAYER.name);
         jsonWriter.value(receipt.getPayer());
         jsonWriter.endObject();
@@ -91,44 +125,38 @@ public class ReceiptTypeAdapter extends TypeAdapter<Receipt> {
         int fields = 0;
         while (jsonReader.hasNext()) {
             if (jsonReader.peek() == JsonToken.NAME) {
-                String fieldName = jsonReader.nextName();
-                if (fieldName.equals(FieldNames.ID.name)) {
-                    fields |= FieldNames.ID.getValue();
-                    id = jsonReader.nextInt();
-                }
-                else if (fieldName.equals(FieldNames.NAME.name)) {
-                    fields |= FieldNames.NAME.getValue();
-                    name = jsonReader.nextString();
-                }
-                else if (fieldName.equals(FieldNames.TRANSACTIONS_ID_SET.name)) {
-                    fields |= FieldNames.TRANSACTIONS_ID_SET.getValue();
-                    jsonReader.beginArray();
-                    while(jsonReader.peek() != JsonToken.END_ARRAY) {
-                        transactionIdSet.add(CustomizedGson.gson.getAdapter(Integer.class).read(jsonReader));
-                    }
-                    jsonReader.endArray();
-                }
-                else if (fieldName.equals(FieldNames.DATE.name)) {
-                    fields |= FieldNames.DATE.getValue();
-                    date = CustomizedGson.gson.getAdapter(LocalDate.class).read(jsonReader);
-                }
-                else if (fieldName.equals(FieldNames.PAYER.name)) {
-                    fields |= FieldNames.PAYER.getValue();
-                    payer = jsonReader.nextInt();
-                }
-                else {
+                FieldNames fieldName = FieldNames.of(jsonReader.nextName());
+                if (fieldName == null) {
                     jsonReader.skipValue();
+                    continue;
+                }
+                fields |= fieldName.getValue();
+                switch (fieldName) {
+                    case ID:
+                        id = jsonReader.nextInt();
+                        break;
+                    case NAME:
+                        name = jsonReader.nextString();
+                        break;
+                    case TRANSACTIONS_ID_SET:
+                        jsonReader.beginArray();
+                        while (jsonReader.peek() != JsonToken.END_ARRAY) {
+                            transactionIdSet.add(jsonReader.nextInt());
+                        }
+                        jsonReader.endArray();
+                        break;
+                    case DATE:
+                        date = localDateAdapter.read(jsonReader);
+                        break;
+                    case PAYER:
+                        payer = jsonReader.nextInt();
+                        break;
                 }
             }
         }
         jsonReader.endObject();
 
-        int fieldCheck = 0;
-        for (FieldNames fieldName : FieldNames.values()) {
-            fieldCheck |= fieldName.getValue();
-        }
-
-        if (fieldCheck == fields) {
+        if (fields == REQUIRED_FIELDS) {
             return new Receipt(
                     id,
                     Objects.requireNonNull(name),
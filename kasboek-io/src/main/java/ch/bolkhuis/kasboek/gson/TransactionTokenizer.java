@@ -0,0 +1,587 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.gson;
+
+import ch.bolkhuis.kasboek.core.Money;
+import ch.bolkhuis.kasboek.core.Transaction;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * TransactionTokenizer reads Transactions directly from a range of UTF-8 encoded JSON bytes, without going through a
+ * Reader and Gson's JsonReader. Field names are matched against the raw bytes, numbers are parsed in place and only
+ * the descriptions are turned into Strings, so parsing a Transaction allocates little more than the Transaction
+ * itself. It accepts the same layouts as {@link TransactionTypeAdapter}, including the dates of format version 0.<br />
+ * <br />
+ * The tokenizer also offers the structural operations that are needed to find the boundaries of values without
+ * parsing them.
+ *
+ * @author Aron Hoogeveen
+ * @see ParallelHuischLedgerReader
+ */
+final class TransactionTokenizer {
+    // Field codes, also used as bits for the required field check
+    private final static int UNKNOWN = 0;
+    private final static int ID = 1;
+    private final static int DATE = 1 << 1;
+    private final static int DEBTOR_ID = 1 << 2;
+    private final static int CREDITOR_ID = 1 << 3;
+    private final static int AMOUNT = 1 << 4;
+    private final static int DESCRIPTION = 1 << 5;
+    private final static int RECEIPT_ID = 1 << 6;
+    private final static int YEAR = 1 << 7;
+    private final static int MONTH = 1 << 8;
+    private final static int DAY = 1 << 9;
+    private final static int REQUIRED = ID | DATE | DEBTOR_ID | CREDITOR_ID | AMOUNT | DESCRIPTION;
+
+    private final static double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final byte[] json;
+    private final int end;
+    private int position;
+    // The range of the last field name, see readName()
+    private int nameStart;
+    private int nameLength;
+
+    TransactionTokenizer(byte @NotNull [] json, int from, int to) {
+        this.json = json;
+        this.position = from;
+        this.end = to;
+    }
+
+    int position() {
+        return position;
+    }
+
+    /**
+     * Skips whitespace and returns whether the end of the range has been reached.
+     */
+    boolean atEnd() {
+        skipWhitespace();
+        return position >= end;
+    }
+
+    /**
+     * Skips whitespace and returns the next byte without consuming it.
+     *
+     * @throws IOException at the end of the range
+     */
+    byte peek() throws IOException {
+        skipWhitespace();
+        if (position >= end) { throw error("Unexpected end of input"); }
+        return json[position];
+    }
+
+    /**
+     * Skips whitespace and consumes {@code c}.
+     *
+     * @throws IOException if the next byte is not {@code c}
+     */
+    void expect(char c) throws IOException {
+        if (peek() != c) { throw error("Expected '" + c + "'"); }
+        position++;
+    }
+
+    /**
+     * Consumes {@code c} if it is the next byte after whitespace.
+     *
+     * @return whether {@code c} was consumed
+     */
+    boolean consume(char c) throws IOException {
+        if (peek() == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads a field name and the colon behind it. The name can be compared with {@link TransactionTokenizer#nameIs}.
+     */
+    void readName() throws IOException {
+        if (peek() != '"') { throw error("Expected a field name"); }
+        int stringEnd = skipString();
+        nameStart = position + 1;
+        nameLength = stringEnd - nameStart - 1;
+        position = stringEnd;
+        expect(':');
+    }
+
+    /**
+     * Returns whether the last name read by {@link TransactionTokenizer#readName()} equals {@code name}. Escaped names
+     * never match.
+     */
+    boolean nameIs(@NotNull String name) {
+        if (name.length() != nameLength) { return false; }
+        for (int i = 0; i < nameLength; i++) {
+            if (json[nameStart + i] != name.charAt(i)) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Skips over the next value, whatever it is. Nested arrays and objects are skipped by counting brackets, taking
+     * strings into account.
+     */
+    void skipValue() throws IOException {
+        byte b = peek();
+        if (b == '"') {
+            position = skipString();
+        } else if (b == '{' || b == '[') {
+            int depth = 0;
+            while (position < end) {
+                b = json[position];
+                if (b == '"') {
+                    position = skipString();
+                    continue;
+                }
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        position++;
+                        return;
+                    }
+                }
+                position++;
+            }
+            throw error("Unterminated value");
+        } else {
+            // literal or number
+            int start = position;
+            while (position < end && !isDelimiter(json[position])) {
+                position++;
+            }
+            if (position == start) { throw error("Unexpected character"); }
+        }
+    }
+
+    /**
+     * Reads the next Transaction object.
+     */
+    @NotNull Transaction nextTransaction() throws IOException {
+        int objectStart = position;
+        int id = 0;
+        LocalDate date = null;
+        int debtorId = 0;
+        int creditorId = 0;
+        Integer receiptId = null;
+        Money amount = null;
+        String description = null;
+        int fields = 0;
+
+        expect('{');
+        if (!consume('}')) {
+            do {
+                readName();
+                int field = field();
+                fields |= field;
+                switch (field) {
+                    case ID:
+                        id = nextInt();
+                        break;
+                    case DATE:
+                        date = nextDate();
+                        break;
+                    case DEBTOR_ID:
+                        debtorId = nextInt();
+                        break;
+                    case CREDITOR_ID:
+                        creditorId = nextInt();
+                        break;
+                    case AMOUNT:
+                        amount = nextMoney();
+                        break;
+                    case DESCRIPTION:
+                        description = nextString();
+                        break;
+                    case RECEIPT_ID:
+                        receiptId = nextNullOrInt();
+                        break;
+                    default:
+                        skipValue();
+                }
+            } while (consume(','));
+            expect('}');
+        }
+
+        if ((fields & REQUIRED) != REQUIRED || date == null || amount == null || description == null) {
+            position = objectStart;
+            throw error("Not all required fields are available");
+        }
+        try {
+            return new Transaction(id, debtorId, creditorId, amount, receiptId, date, description);
+        } catch (IllegalArgumentException e) {
+            position = objectStart;
+            throw error("Invalid Transaction: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Maps the last field name onto its field code.
+     */
+    private int field() {
+        switch (nameLength) {
+            case 2:
+                return nameIs("id") ? ID : UNKNOWN;
+            case 3:
+                return nameIs("day") ? DAY : UNKNOWN;
+            case 4:
+                if (nameIs("date")) { return DATE; }
+                return nameIs("year") ? YEAR : UNKNOWN;
+            case 5:
+                return nameIs("month") ? MONTH : UNKNOWN;
+            case 6:
+                return nameIs("amount") ? AMOUNT : UNKNOWN;
+            case 9:
+                return nameIs("debtor_id") ? DEBTOR_ID : UNKNOWN;
+            case 10:
+                return nameIs("receipt_id") ? RECEIPT_ID : UNKNOWN;
+            case 11:
+                if (nameIs("creditor_id")) { return CREDITOR_ID; }
+                return nameIs("description") ? DESCRIPTION : UNKNOWN;
+            default:
+                return UNKNOWN;
+        }
+    }
+
+    private Integer nextNullOrInt() throws IOException {
+        if (peek() == 'n') {
+            expectLiteral("null");
+            return null;
+        }
+        return nextInt();
+    }
+
+    private int nextInt() throws IOException {
+        int start = numberStart();
+        boolean negative = json[position] == '-';
+        if (negative) { position++; }
+
+        long value = 0;
+        int digits = 0;
+        while (position < end && json[position] >= '0' && json[position] <= '9') {
+            value = value * 10 + (json[position++] - '0');
+            if (++digits > 10) { break; }
+        }
+        if (digits > 0 && digits <= 10 && (position >= end || isDelimiter(json[position]))) {
+            value = negative ? -value : value;
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return (int) value;
+            }
+        }
+
+        // not a plain integer, e.g. "1.0", parse it as a double like JsonReader#nextInt does
+        position = start;
+        double d = nextDouble();
+        int i = (int) d;
+        if (i != d) {
+            position = start;
+            throw error("Expected an int");
+        }
+        return i;
+    }
+
+    private double nextDouble() throws IOException {
+        int start = numberStart();
+        while (position < end && !isDelimiter(json[position])) {
+            position++;
+        }
+
+        // Fast path for decimals with at most 15 significant digits and a small exponent: both the mantissa and the
+        // power of ten are exact doubles, so one multiplication or division rounds correctly.
+        int i = start;
+        boolean negative = json[i] == '-';
+        if (negative) { i++; }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        boolean fast = i < position;
+        for (; i < position && fast; i++) {
+            byte b = json[i];
+            if (b >= '0' && b <= '9') {
+                if (mantissa != 0 || b != '0') { digits++; }
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) { exponent--; }
+                fast = digits <= 15;
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                // exponents and anything unexpected take the slow path
+                fast = false;
+            }
+        }
+        if (fast && exponent >= -22) {
+            double value = (exponent == 0) ? mantissa : mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+
+        try {
+            return Double.parseDouble(new String(json, start, position - start, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            position = start;
+            throw error("Expected a number");
+        }
+    }
+
+    /**
+     * Reads an amount like {@link MoneyTypeAdapter} does, rounded to the nearest cent.
+     */
+    private Money nextMoney() throws IOException {
+        if (peek() == 'n') {
+            expectLiteral("null");
+            return null;
+        }
+        int start = numberStart();
+        while (position < end && !isDelimiter(json[position])) {
+            position++;
+        }
+
+        // Fast path for plain decimals with at most two decimals, which is how amounts are written
+        int i = start;
+        boolean negative = json[i] == '-';
+        if (negative) { i++; }
+        long cents = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < position; i++) {
+            byte b = json[i];
+            if (b >= '0' && b <= '9' && digits < 16 && decimals < 2) {
+                cents = cents * 10 + (b - '0');
+                digits++;
+                if (decimals >= 0) { decimals++; }
+            } else if (b == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == position && digits > 0 && decimals != 0) {
+            for (int d = Math.max(decimals, 0); d < 2; d++) {
+                cents *= 10;
+            }
+            return Money.ofCents(negative ? -cents : cents);
+        }
+
+        try {
+            return Money.round(new String(json, start, position - start, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            position = start;
+            throw error("Expected a number");
+        }
+    }
+
+    private int numberStart() throws IOException {
+        byte b = peek();
+        if (b != '-' && (b < '0' || b > '9')) { throw error("Expected a number"); }
+        return position;
+    }
+
+    private @NotNull String nextString() throws IOException {
+        if (peek() != '"') { throw error("Expected a string"); }
+        int start = position + 1;
+        int i = start;
+        while (i < end && json[i] != '"' && json[i] != '\\') {
+            i++;
+        }
+        if (i < end && json[i] == '"') {
+            // no escapes, decode in one go
+            position = i + 1;
+            return new String(json, start, i - start, StandardCharsets.UTF_8);
+        }
+
+        StringBuilder builder = new StringBuilder(i - start + 16);
+        int runStart = start;
+        while (i < end) {
+            byte b = json[i];
+            if (b == '"') {
+                builder.append(new String(json, runStart, i - runStart, StandardCharsets.UTF_8));
+                position = i + 1;
+                return builder.toString();
+            }
+            if (b != '\\') {
+                i++;
+                continue;
+            }
+
+            builder.append(new String(json, runStart, i - runStart, StandardCharsets.UTF_8));
+            if (i + 1 >= end) { break; }
+            byte escaped = json[i + 1];
+            i += 2;
+            switch (escaped) {
+                case '"': builder.append('"'); break;
+                case '\\': builder.append('\\'); break;
+                case '/': builder.append('/'); break;
+                case '\'': builder.append('\''); break;
+                case 'b': builder.append('\b'); break;
+                case 'f': builder.append('\f'); break;
+                case 'n': builder.append('\n'); break;
+                case 'r': builder.append('\r'); break;
+                case 't': builder.append('\t'); break;
+                case 'u':
+                    if (i + 4 > end) { break; }
+                    int c = 0;
+                    for (int j = 0; j < 4; j++) {
+                        int digit = Character.digit(json[i + j], 16);
+                        if (digit < 0) {
+                            position = i;
+                            throw error("Invalid unicode escape");
+                        }
+                        c = (c << 4) | digit;
+                    }
+                    builder.append((char) c);
+                    i += 4;
+                    break;
+                default:
+                    position = i - 2;
+                    throw error("Invalid escape sequence");
+            }
+            runStart = i;
+        }
+        position = start - 1;
+        throw error("Unterminated string");
+    }
+
+    /**
+     * Reads a date in any of the layouts that are accepted by {@link LocalDateTypeAdapter}.
+     */
+    private @NotNull LocalDate nextDate() throws IOException {
+        if (peek() == '"') {
+            int start = position + 1;
+            // fast path for yyyy-mm-dd
+            if (start + 10 < end && json[start + 10] == '"' && json[start + 4] == '-' && json[start + 7] == '-') {
+                int year = digits(start, 4);
+                int month = digits(start + 5, 2);
+                int day = digits(start + 8, 2);
+                if (year >= 0 && month >= 0 && day >= 0) {
+                    position = start + 11;
+                    return date(year, month, day);
+                }
+            }
+            String date = nextString();
+            try {
+                return LocalDate.parse(date);
+            } catch (DateTimeException e) {
+                throw error("Invalid date '" + date + "'");
+            }
+        }
+
+        // format version 0 wraps the date in an object
+        LocalDate date = null;
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int fields = 0;
+        expect('{');
+        if (!consume('}')) {
+            do {
+                readName();
+                int field = field();
+                fields |= field;
+                switch (field) {
+                    case DATE:
+                        if (peek() != '"') { throw error("Expected a string"); }
+                        date = nextDate();
+                        break;
+                    case YEAR:
+                        year = nextInt();
+                        break;
+                    case MONTH:
+                        month = nextInt();
+                        break;
+                    case DAY:
+                        day = nextInt();
+                        break;
+                    default:
+                        skipValue();
+                }
+            } while (consume(','));
+            expect('}');
+        }
+        if (date != null) { return date; }
+        if ((fields & (YEAR | MONTH | DAY)) == (YEAR | MONTH | DAY)) { return date(year, month, day); }
+        throw error("Not all required fields are available");
+    }
+
+    private LocalDate date(int year, int month, int day) throws IOException {
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            throw error("Invalid date");
+        }
+    }
+
+    /**
+     * Returns the value of {@code count} decimal digits at {@code start}, or -1 if one of them is not a digit.
+     */
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            byte b = json[i];
+            if (b < '0' || b > '9') { return -1; }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private void expectLiteral(@NotNull String literal) throws IOException {
+        skipWhitespace();
+        if (position + literal.length() > end) { throw error("Expected " + literal); }
+        for (int i = 0; i < literal.length(); i++) {
+            if (json[position + i] != literal.charAt(i)) { throw error("Expected " + literal); }
+        }
+        position += literal.length();
+    }
+
+    /**
+     * Returns the position just behind the string that starts at {@code position}.
+     */
+    private int skipString() throws IOException {
+        int i = position + 1;
+        while (i < end) {
+            byte b = json[i];
+            if (b == '"') { return i + 1; }
+            i += (b == '\\') ? 2 : 1;
+        }
+        throw error("Unterminated string");
+    }
+
+    private void skipWhitespace() {
+        while (position < end) {
+            byte b = json[position];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') { return; }
+            position++;
+        }
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ':';
+    }
+
+    private @NotNull IOException error(@NotNull String message) {
+        return new IOException(message + " at byte " + position);
+    }
+}
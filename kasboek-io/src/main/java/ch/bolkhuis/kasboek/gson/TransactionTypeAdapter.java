@@ -16,15 +16,17 @@
  */
 package ch.bolkhuis.kasboek.gson;
 
+import ch.bolkhuis.kasboek.core.Money;
 import ch.bolkhuis.kasboek.core.Transaction;
-import ch.bolkhuis.kasboek.gson.CustomizedGson;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Objects;
 
 /**
  * @version v0.2-pre-alpha
@@ -47,17 +49,56 @@ public class TransactionTypeAdapter extends TypeAdapter<Transaction> {
         }
 
         /**
-         * Returns the ordinal + 1 for use in ORing.
+         * Returns a distinct bit for use in ORing.
          *
          * @return value greater than zero
          */
         private int getValue() {
-            return ordinal() + 1;
+            return 1 << ordinal();
         }
 
-//        public String getName() {
-//            return name;
-//        }
+        /**
+         * Returns the FieldNames with {@code name}, or {@code null} if there is none.
+         */
+        private static FieldNames of(String name) {
+            switch (name) {
+                case "id": return ID;
+                case "date": return DATE;
+                case "debtor_id": return DEBTOR_ID;
+                case "creditor_id": return CREDITOR_ID;
+                case "receipt_id": return RECEIPT_ID;
+                case "amount": return AMOUNT;
+                case "description": return DESCRIPTION;
+                default: return null;
+            }
+        }
+    }
+
+    // All fields but the receiptId are required
+    private final static int REQUIRED_FIELDS = FieldNames.ID.getValue() | FieldNames.DATE.getValue()
+            | FieldNames.DEBTOR_ID.getValue() | FieldNames.CREDITOR_ID.getValue() | FieldNames.AMOUNT.getValue()
+            | FieldNames.DESCRIPTION.getValue();
+
+    private final TypeAdapter<LocalDate> localDateAdapter;
+    private final TypeAdapter<Money> moneyAdapter;
+
+    /**
+     * Constructs a TransactionTypeAdapter that uses the LocalDate and Money adapters of {@link CustomizedGson#gson}.
+     */
+    public TransactionTypeAdapter() {
+        this(CustomizedGson.gson.getAdapter(LocalDate.class), CustomizedGson.gson.getAdapter(Money.class));
+    }
+
+    /**
+     * Constructs a TransactionTypeAdapter that (de)serializes dates with {@code localDateAdapter} and amounts with
+     * {@code moneyAdapter}.
+     *
+     * @param localDateAdapter the adapter for the dates
+     * @param moneyAdapter the adapter for the amounts
+     */
+    TransactionTypeAdapter(@NotNull TypeAdapter<LocalDate> localDateAdapter, @NotNull TypeAdapter<Money> moneyAdapter) {
+        this.localDateAdapter = Objects.requireNonNull(localDateAdapter, "Parameter localDateAdapter cannot be null");
+        this.moneyAdapter = Objects.requireNonNull(moneyAdapter, "Parameter moneyAdapter cannot be null");
     }
 
     @Override
@@ -70,13 +111,13 @@ public class TransactionTypeAdapter extends TypeAdapter<Transaction> {
         jsonWriter.name(FieldNames.ID.name);
         jsonWriter.value(transaction.getId());
         jsonWriter.name(FieldNames.DATE.name);
-        CustomizedGson.gson.getAdapter(LocalDate.class).write(jsonWriter, transaction.getDate());
+        localDateAdapter.write(jsonWriter, transaction.getDate());
         jsonWriter.name(FieldNames.DEBTOR_ID.name);
         jsonWriter.value(transaction.getDebtorId());
         jsonWriter.name(FieldNames.CREDITOR_ID.name);
         jsonWriter.value(transaction.getCreditorId());
         jsonWriter.name(FieldNames.AMOUNT.name);
-        jsonWriter.value(transaction.getAmount());
+        moneyAdapter.write(jsonWriter, transaction.getAmount());
         jsonWriter.name(FieldNames.RECEIPT_ID.name);
         if (transaction.getReceiptId() == null)
             jsonWriter.nullValue();
@@ -93,54 +134,50 @@ public class TransactionTypeAdapter extends TypeAdapter<Transaction> {
             jsonReader.nextNull();
             return null;
         }
-        Transaction transaction;
         int id = 0;
         LocalDate date = null;
         int debtorId = 0;
         int creditorId = 0;
         Integer receiptId = null; // could be absent, so defaults to null
-        double amount = 0;
+        Money amount = null;
         String description = null;
 
         jsonReader.beginObject();
         int fields = 0;
         while (jsonReader.hasNext()) {
             if (jsonReader.peek() == JsonToken.NAME) {
-                String fieldName = jsonReader.nextName();
-                if (fieldName.equals(FieldNames.ID.name)) {
-                    fields |= FieldNames.ID.getValue();
-                    id = jsonReader.nextInt();
-                }
-                else if (fieldName.equals(FieldNames.DATE.name)) {
-                    fields |= FieldNames.DATE.getValue();
-                    date = CustomizedGson.gson.getAdapter(LocalDate.class).read(jsonReader);
-                }
-                else if (fieldName.equals(FieldNames.DEBTOR_ID.name)) {
-                    fields |= FieldNames.DEBTOR_ID.getValue();
-                    debtorId = jsonReader.nextInt();
-                }
-                else if (fieldName.equals(FieldNames.CREDITOR_ID.name)) {
-                    fields |= FieldNames.CREDITOR_ID.getValue();
-                    creditorId = jsonReader.nextInt();
-                }
-                else if (fieldName.equals(FieldNames.AMOUNT.name)) {
-                    fields |= FieldNames.AMOUNT.getValue();
-                    amount = jsonReader.nextDouble();
-                }
-                else if (fieldName.equals(FieldNames.DESCRIPTION.name)) {
-                    fields |= FieldNames.DESCRIPTION.getValue();
-                    description = jsonReader.nextString();
-                }
-                else if (fieldName.equals(FieldNames.RECEIPT_ID.name)) {
-                    fields |= FieldNames.RECEIPT_ID.getValue();
-                    if (jsonReader.peek() == JsonToken.NULL) {
-                        jsonReader.nextNull();
-                    }
-                    else
-                        receiptId = jsonReader.nextInt();
-                }
-                else {
+                FieldNames fieldName = FieldNames.of(jsonReader.nextName());
+                if (fieldName == null) {
                     jsonReader.skipValue();
+                    continue;
+                }
+                fields |= fieldName.getValue();
+                switch (fieldName) {
+                    case ID:
+                        id = jsonReader.nextInt();
+                        break;
+                    case DATE:
+                        date = localDateAdapter.read(jsonReader);
+                        break;
+                    case DEBTOR_ID:
+                        debtorId = jsonReader.nextInt();
+                        break;
+                    case CREDITOR_ID:
+                        creditorId = jsonReader.nextInt();
+                        break;
+                    case AMOUNT:
+                        amount = moneyAdapter.read(jsonReader);
+                        break;
+                    case DESCRIPTION:
+                        description = jsonReader.nextString();
+                        break;
+                    case RECEIPT_ID:
+                        if (jsonReader.peek() == JsonToken.NULL) {
+                            jsonReader.nextNull();
+                        }
+                        else
+                            receiptId = jsonReader.nextInt();
+                        break;
                 }
             }
             else if (jsonReader.peek() == JsonToken.END_OBJECT) {
@@ -154,15 +191,8 @@ public class TransactionTypeAdapter extends TypeAdapter<Transaction> {
         }
         jsonReader.endObject();
 
-        // It is ok if no receiptId is read, so a little hack on the next line
-        fields |= FieldNames.RECEIPT_ID.getValue();
-
         // only construct if all fields are available
-        int fieldCheck = 0;
-        for (FieldNames fieldName : FieldNames.values()) {
-            fieldCheck |= fieldName.getValue();
-        }
-        if (fields == fieldCheck) {
+        if ((fields & REQUIRED_FIELDS) == REQUIRED_FIELDS && date != null && amount != null && description != null) {
             // construct Transaction
             return (receiptId == null) ? new Transaction(id, debtorId, creditorId, amount, date, description) :
                     new Transaction(id, debtorId, creditorId, amount, receiptId, date, description);
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.io;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * ColumnReader reads the values of one block of a binary ledger file as written by {@link ColumnWriter}. The whole
+ * block is read into memory first, after which the values are decoded without any further IO.
+ *
+ * @author Aron Hoogeveen
+ * @see ColumnWriter
+ */
+final class ColumnReader {
+    /**
+     * Upper bound for the length of a single block, to fail fast on corrupt files instead of allocating huge arrays.
+     */
+    private final static int MAX_BLOCK_SIZE = 1 << 30;
+
+    private final byte[] buffer;
+    private int position = 0;
+
+    ColumnReader(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Reads the length of the next block from {@code in}, followed by the block itself.
+     *
+     * @param in the input to read from
+     * @return a ColumnReader for the block
+     * @throws IOException when some IO exception occurs or the length is invalid
+     */
+    static ColumnReader readFrom(DataInput in) throws IOException {
+        long length = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (shift > 28) { throw new IOException("Malformed block length"); }
+            int b = in.readUnsignedByte();
+            length |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) { break; }
+        }
+        if (length > MAX_BLOCK_SIZE) { throw new IOException("Block of " + length + " bytes is too large"); }
+
+        byte[] buffer = new byte[(int) length];
+        in.readFully(buffer);
+        return new ColumnReader(buffer);
+    }
+
+    int readByte() throws IOException {
+        if (position >= buffer.length) { throw new IOException("Unexpected end of block"); }
+        return buffer[position++] & 0xFF;
+    }
+
+    long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) { return value; }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    int readVarInt() throws IOException {
+        long value = readVarLong();
+        if ((value >>> 32) != 0) { throw new IOException("Variable length integer out of range"); }
+        return (int) value;
+    }
+
+    /**
+     * Reads an unsigned variable length integer that is used as a count or an index, which cannot be negative.
+     */
+    int readCount() throws IOException {
+        int value = readVarInt();
+        if (value < 0) { throw new IOException("Negative count"); }
+        return value;
+    }
+
+    int readSignedVarInt() throws IOException {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readSignedVarLong() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    double readDouble() throws IOException {
+        if (position + 8 > buffer.length) { throw new IOException("Unexpected end of block"); }
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (buffer[position++] & 0xFF);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    byte[] readBytes(int length) throws IOException {
+        if (length < 0 || position + length > buffer.length) { throw new IOException("Unexpected end of block"); }
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    /**
+     * Reads a block nested in this block, as written by {@link ColumnWriter#writeBlock(ColumnWriter)}.
+     *
+     * @return a ColumnReader for the nested block
+     * @throws IOException when the nested block does not fit in this block
+     */
+    ColumnReader readBlock() throws IOException {
+        return new ColumnReader(readBytes(readCount()));
+    }
+
+    /**
+     * Returns the number of bytes of this block that have not been read yet.
+     */
+    int remaining() {
+        return buffer.length - position;
+    }
+
+    /**
+     * Makes sure that all bytes of this block have been read.
+     *
+     * @throws IOException if there are bytes left
+     */
+    void expectEnd() throws IOException {
+        if (position != buffer.length) {
+            throw new IOException((buffer.length - position) + " unexpected bytes at the end of a block");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.Transaction;
+import ch.bolkhuis.kasboek.core.TransactionArchive;
+import ch.bolkhuis.kasboek.core.TransactionColumns;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ColumnTransactionArchive keeps archived Transactions in {@link TransactionColumns} instead of as Transaction
+ * objects. Descriptions refer to the string table of the file they were read from. A Transaction is only created when
+ * it is loaded, see {@link TransactionArchive#load(LocalDate, LocalDate)}.
+ *
+ * @author Aron Hoogeveen
+ */
+final class ColumnTransactionArchive implements TransactionArchive {
+    private final LocalDate horizon;
+    private final TransactionColumns columns;
+
+    private ColumnTransactionArchive(@NotNull LocalDate horizon, @NotNull TransactionColumns columns) {
+        this.horizon = horizon;
+        this.columns = columns;
+    }
+
+    @Override
+    public @NotNull LocalDate getHorizon() {
+        return horizon;
+    }
+
+    @Override
+    public int size() {
+        return columns.size();
+    }
+
+    @Override
+    public LocalDate getFirstDate() {
+        return columns.getFirstDate();
+    }
+
+    @Override
+    public LocalDate dateOf(int id) {
+        int row = columns.rowOf(id);
+        return (row < 0) ? null : columns.dateAt(row);
+    }
+
+    @Override
+    public @NotNull List<Transaction> load(@NotNull LocalDate from, @NotNull LocalDate to) {
+        int start = columns.firstRowOnOrAfter(from);
+        int end = columns.firstRowOnOrAfter(to);
+
+        List<Transaction> transactions = new ArrayList<>(Math.max(0, end - start));
+        for (int row = start; row < end; row++) {
+            transactions.add(columns.transactionAt(row));
+        }
+        return transactions;
+    }
+
+    @Override
+    public LocalDate lastDateBefore(@NotNull LocalDate to) {
+        int end = columns.firstRowOnOrAfter(to);
+        return (end == 0) ? null : columns.dateAt(end - 1);
+    }
+
+    @Override
+    public @NotNull List<Transaction> loadOf(int entityId, @NotNull LocalDate to) {
+        int end = columns.firstRowOnOrAfter(to);
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int row = 0; row < end; row++) {
+            if (columns.debtorIdAt(row) == entityId || columns.creditorIdAt(row) == entityId) {
+                transactions.add(columns.transactionAt(row));
+            }
+        }
+        return transactions;
+    }
+
+    @Override
+    public void addTo(@NotNull TransactionColumns.Builder builder, @NotNull LocalDate to) {
+        int end = columns.firstRowOnOrAfter(to);
+        for (int row = 0; row < end; row++) {
+            builder.add(columns.idAt(row), columns.epochDayAt(row), columns.debtorIdAt(row), columns.creditorIdAt(row),
+                    columns.amountCentsAt(row), columns.receiptIdAt(row), columns.descriptionAt(row));
+        }
+    }
+
+    /**
+     * Returns the columns of the archived Transactions. Only the rows dated before the date from which a Ledger has
+     * loaded its Transactions are still unloaded.
+     */
+    @NotNull TransactionColumns columns() {
+        return columns;
+    }
+
+    /**
+     * Collects the archived Transactions of a file. Transactions must be added in ascending id order. The string table
+     * of the file may still grow while Transactions are added.
+     */
+    static final class Builder {
+        private final LocalDate horizon;
+        private final TransactionColumns.Builder columns;
+        private int maxId = -1;
+
+        Builder(@NotNull LocalDate horizon, @NotNull List<String> strings) {
+            this.horizon = horizon;
+            this.columns = new TransactionColumns.Builder(strings);
+        }
+
+        /**
+         * Returns whether a Transaction dated {@code epochDay} belongs in the archive.
+         */
+        boolean archives(long epochDay) {
+            return epochDay < horizon.toEpochDay();
+        }
+
+        void add(int id, int epochDay, int debtorId, int creditorId, long amount, Integer receiptId,
+                 int description) {
+            if (columns.size() > 0 && id <= maxId) {
+                throw new IllegalArgumentException("Transactions must be added in ascending id order");
+            }
+            columns.add(id, epochDay, debtorId, creditorId, amount, receiptId, description);
+            maxId = id;
+        }
+
+        int size() {
+            return columns.size();
+        }
+
+        int maxId() {
+            return maxId;
+        }
+
+        @NotNull ColumnTransactionArchive build() {
+            return new ColumnTransactionArchive(horizon, columns.build());
+        }
+    }
+}
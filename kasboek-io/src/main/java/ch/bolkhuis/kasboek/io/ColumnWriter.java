@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * ColumnWriter collects the values of one block of a binary ledger file in memory, so the block can be written with
+ * its length in front of it. Integers are written as variable length integers: seven bits per byte, least significant
+ * group first, with the high bit set on all but the last byte. Signed integers are zigzag encoded first, so small
+ * negative numbers stay small.
+ *
+ * @author Aron Hoogeveen
+ * @see ColumnReader
+ */
+final class ColumnWriter {
+    private byte[] buffer;
+    private int size = 0;
+
+    ColumnWriter(int initialCapacity) {
+        buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Writes {@code value} as an unsigned variable length integer.
+     */
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Writes {@code value} as an unsigned variable length integer. Negative values take five bytes, use
+     * {@link ColumnWriter#writeSignedVarInt(int)} for values that can be negative.
+     */
+    void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes {@code value} zigzag encoded as a variable length integer.
+     */
+    void writeSignedVarInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes {@code value} zigzag encoded as a variable length integer.
+     */
+    void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes {@code value} as eight bytes, most significant byte first.
+     */
+    void writeDouble(double value) {
+        long bits = Double.doubleToLongBits(value);
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (bits >>> shift);
+        }
+    }
+
+    void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    /**
+     * Writes the content of {@code other} without its length.
+     */
+    void write(ColumnWriter other) {
+        ensureCapacity(other.size);
+        System.arraycopy(other.buffer, 0, buffer, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Writes the length of {@code block} followed by its content, as a block nested in this one. See
+     * {@link ColumnReader#readBlock()}.
+     */
+    void writeBlock(ColumnWriter block) {
+        writeVarInt(block.size);
+        write(block);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Empties this ColumnWriter so it can be reused for the next block. The buffer is kept.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Writes the length of this block followed by its content to {@code out}.
+     *
+     * @param out the output to write to
+     * @throws IOException when some IO exception occurs
+     */
+    void writeTo(DataOutput out) throws IOException {
+        ColumnWriter length = new ColumnWriter(5);
+        length.writeVarInt(size);
+        out.write(length.buffer, 0, length.size);
+        out.write(buffer, 0, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
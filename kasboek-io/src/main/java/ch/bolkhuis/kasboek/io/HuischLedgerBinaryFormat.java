@@ -0,0 +1,681 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * HuischLedgerBinaryFormat reads and writes HuischLedgers in the binary ledger format, which is format version 4. In
+ * contrast to the JSON formats (version 0 and 1) the binary format stores the Transactions column by column, so every
+ * column consists of similar small numbers that are written as variable length integers.<br />
+ * <br />
+ * A file consists of:
+ * <ol>
+ *     <li>the magic bytes {@code 0x89 'H' 'L' 'F'}, which can never start a JSON file;</li>
+ *     <li>one byte with the format version;</li>
+ *     <li>a header block with the number of AccountingEntities, Transactions and Receipts and the next ids;</li>
+ *     <li>a block with the AccountingEntities;</li>
+ *     <li>blocks of at most {@value CHUNK_ROWS} Transactions in ascending id order. Such a chunk holds the number of
+ *     Transactions followed by one nested block per column: ids (delta encoded), dates (delta encoded epoch days),
+ *     debtor ids, creditor ids, amounts, receipt ids and descriptions. The deltas continue from the previous
+ *     chunk;</li>
+ *     <li>a block with the Receipts;</li>
+ *     <li>a CRC32 of everything after the magic bytes, as four bytes.</li>
+ * </ol>
+ * Every block starts with its length in bytes. Names and descriptions are referred to by their index in a string table.
+ * The blocks with AccountingEntities, Transactions and Receipts start with a nested block with the strings they add to
+ * the table, so every block can be written as soon as it is complete and a file is written without holding it in
+ * memory. Balances are stored as a signed number of cents. Amounts are stored as the number of cents shifted left by
+ * one bit.<br />
+ * <br />
+ * Older versions are still read. Versions 2 and 3 have a single string table block before the AccountingEntities and a
+ * single block per Transaction column. Version 2 stores balances as doubles, those are rounded to whole cents when they
+ * are read. Amounts of older versions may still set the lowest bit, followed by the eight bytes of a double amount.
+ *
+ * @author Aron Hoogeveen
+ */
+public final class HuischLedgerBinaryFormat {
+    /**
+     * The first bytes of every file in this format.
+     */
+    private final static byte[] MAGIC = { (byte) 0x89, 'H', 'L', 'F' };
+    /**
+     * The format version of the binary format. The JSON formats are version 0 and 1.
+     */
+    public final static int FORMAT_VERSION = 4;
+    /**
+     * The oldest format version that can still be read.
+     */
+    private final static int OLDEST_FORMAT_VERSION = 2;
+
+    /**
+     * The number of Transactions per chunk, which bounds the memory that is used for writing a file.
+     */
+    private final static int CHUNK_ROWS = 1 << 12;
+
+    private final static int ACCOUNTING_ENTITY = 0;
+    private final static int INMATE_ENTITY = 1;
+
+    private HuischLedgerBinaryFormat() { }
+
+    /**
+     * Returns whether {@code head} starts with the magic bytes of this format.
+     *
+     * @param head the first bytes of a file
+     * @param length the number of valid bytes in {@code head}
+     * @return {@code true} if the bytes belong to a file in this format
+     */
+    public static boolean hasMagic(byte @NotNull [] head, int length) {
+        if (length < MAGIC.length) { return false; }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (head[i] != MAGIC[i]) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of bytes that is needed by {@link HuischLedgerBinaryFormat#hasMagic(byte[], int)}.
+     */
+    public static int magicLength() {
+        return MAGIC.length;
+    }
+
+    /**
+     * Writes {@code huischLedger} to {@code out}. The stream is not closed. Every block is written as soon as it is
+     * complete, so at most one chunk of Transactions is held in memory. Archived Transactions that are not loaded are
+     * written straight from their archive, they are not loaded for this.
+     *
+     * @param out the stream to write to
+     * @param huischLedger the HuischLedger to write
+     * @throws IOException when some IO exception occurs
+     */
+    public static void write(@NotNull OutputStream out, @NotNull HuischLedger huischLedger) throws IOException {
+        Objects.requireNonNull(out, "Parameter out cannot be null");
+        Objects.requireNonNull(huischLedger, "Parameter huischLedger cannot be null");
+
+        Map<Integer, AccountingEntity> entities = huischLedger.getAccountingEntities();
+        Map<Integer, Transaction> transactions = huischLedger.getTransactions();
+        Map<Integer, Receipt> receipts = huischLedger.getReceipts();
+        StringTable strings = new StringTable();
+
+        ColumnWriter header = new ColumnWriter(32);
+        header.writeVarInt(entities.size());
+        header.writeVarInt(huischLedger.transactionCount());
+        header.writeVarInt(receipts.size());
+        header.writeSignedVarInt(huischLedger.getNextTransactionId());
+        header.writeSignedVarInt(huischLedger.getNextAccountingEntityId());
+        header.writeSignedVarInt(huischLedger.getNextReceiptId());
+
+        CRC32 crc = new CRC32();
+        out.write(MAGIC);
+        DataOutputStream data = new DataOutputStream(new CheckedOutputStream(out, crc));
+        data.writeByte(FORMAT_VERSION);
+        header.writeTo(data);
+
+        ColumnWriter entityRows = new ColumnWriter(entities.size() * 12);
+        for (int id : sortedKeys(entities)) {
+            AccountingEntity entity = entities.get(id);
+            boolean inmate = entity instanceof InmateEntity;
+            entityRows.writeByte(inmate ? INMATE_ENTITY : ACCOUNTING_ENTITY);
+            entityRows.writeSignedVarInt(entity.getId());
+            entityRows.writeVarInt(strings.indexOf(entity.getName()));
+            entityRows.writeByte(entity.getAccountType().ordinal());
+            entityRows.writeSignedVarLong(entity.getBalance().getCents());
+            if (inmate) {
+                entityRows.writeSignedVarLong(((InmateEntity) entity).getPreviousBalance().getCents());
+            }
+        }
+        strings.writeBlock(entityRows, data);
+
+        // the loaded Transactions and the unloaded rows of the archive are merged in ascending id order
+        TransactionColumns archived = archivedColumns(huischLedger);
+        int archivedEnd = (archived == null) ? 0 : archived.firstRowOnOrAfter(huischLedger.getLoadedFrom());
+        int[] archivedRows = rowsById(archived, archivedEnd);
+        int[] loadedIds = sortedKeys(transactions);
+        TransactionChunks chunks = new TransactionChunks(data, strings);
+        int nextArchived = 0;
+        for (int id : loadedIds) {
+            while (nextArchived < archivedRows.length && archived.idAt(archivedRows[nextArchived]) < id) {
+                chunks.add(archived, archivedRows[nextArchived++]);
+            }
+            chunks.add(transactions.get(id));
+        }
+        while (nextArchived < archivedRows.length) {
+            chunks.add(archived, archivedRows[nextArchived++]);
+        }
+        chunks.finish();
+
+        ColumnWriter receiptRows = new ColumnWriter(receipts.size() * 16);
+        for (int id : sortedKeys(receipts)) {
+            Receipt receipt = receipts.get(id);
+            receiptRows.writeSignedVarInt(receipt.getId());
+            receiptRows.writeVarInt(strings.indexOf(receipt.getName()));
+            receiptRows.writeSignedVarLong(receipt.getDate().toEpochDay());
+            receiptRows.writeSignedVarInt(receipt.getPayer());
+            int[] transactionIds = receipt.getTransactionIdSet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            receiptRows.writeVarInt(transactionIds.length);
+            int previousTransactionId = 0;
+            for (int transactionId : transactionIds) {
+                receiptRows.writeVarLong((long) transactionId - previousTransactionId);
+                previousTransactionId = transactionId;
+            }
+        }
+        strings.writeBlock(receiptRows, data);
+
+        data.flush();
+        new DataOutputStream(out).writeInt((int) crc.getValue());
+        out.flush();
+    }
+
+    /**
+     * Reads a HuischLedger from {@code in} as written by
+     * {@link HuischLedgerBinaryFormat#write(OutputStream, HuischLedger)}. The stream is not closed.
+     *
+     * @param in the stream to read from
+     * @return the HuischLedger
+     * @throws IOException when some IO exception occurs, or when the content is not a valid HuischLedger
+     */
+    public static @NotNull HuischLedger read(@NotNull InputStream in) throws IOException {
+        return read(in, null);
+    }
+
+    /**
+     * Reads a HuischLedger from {@code in} like {@link HuischLedgerBinaryFormat#read(InputStream)}, but only creates the
+     * Transactions dated on or after {@code horizon}. The older Transactions are validated and kept in a compact
+     * {@link TransactionArchive}, from which the HuischLedger loads them when they are needed.
+     *
+     * @param in the stream to read from
+     * @param horizon the date before which Transactions are archived, or {@code null} to load all Transactions
+     * @return the HuischLedger
+     * @throws IOException when some IO exception occurs, or when the content is not a valid HuischLedger
+     */
+    public static @NotNull HuischLedger read(@NotNull InputStream in, LocalDate horizon) throws IOException {
+        Objects.requireNonNull(in, "Parameter in cannot be null");
+
+        byte[] magic = new byte[MAGIC.length];
+        new DataInputStream(in).readFully(magic);
+        if (!hasMagic(magic, magic.length)) { throw new IOException("Not a binary ledger file"); }
+
+        CRC32 crc = new CRC32();
+        DataInputStream data = new DataInputStream(new CheckedInputStream(in, crc));
+        int formatVersion = data.readUnsignedByte();
+        if (formatVersion < OLDEST_FORMAT_VERSION || formatVersion > FORMAT_VERSION) {
+            throw new IOException("Unsupported format version " + formatVersion);
+        }
+
+        ColumnReader header = ColumnReader.readFrom(data);
+        int entityCount = header.readCount();
+        int transactionCount = header.readCount();
+        int receiptCount = header.readCount();
+        int nextTransactionId = header.readSignedVarInt();
+        int nextAccountingEntityId = header.readSignedVarInt();
+        int nextReceiptId = header.readSignedVarInt();
+
+        List<String> strings = new ArrayList<>();
+        if (formatVersion < 4) {
+            StringTable.readInto(ColumnReader.readFrom(data), strings);
+        }
+
+        AccountType[] accountTypes = AccountType.values();
+        Map<Integer, AccountingEntity> entities = new IntObjectMap<>(entityCount);
+        ColumnReader entityBlock = readBlock(data, formatVersion, strings);
+        for (int i = 0; i < entityCount; i++) {
+            int type = entityBlock.readByte();
+            int id = entityBlock.readSignedVarInt();
+            String name = string(strings, entityBlock.readCount());
+            int accountType = entityBlock.readByte();
+            if (accountType >= accountTypes.length) { throw new IOException("Unknown account type " + accountType); }
+            Money balance = readBalance(entityBlock, formatVersion);
+
+            AccountingEntity entity;
+            try {
+                if (type == INMATE_ENTITY) {
+                    entity = new InmateEntity(id, name, readBalance(entityBlock, formatVersion), balance);
+                } else if (type == ACCOUNTING_ENTITY) {
+                    entity = new AccountingEntity(id, name, accountTypes[accountType], balance);
+                } else {
+                    throw new IOException("Unknown AccountingEntity type " + type);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid AccountingEntity " + id, e);
+            }
+            if (entities.put(id, entity) != null) {
+                throw new IOException("AccountingEntities with the same id are not allowed");
+            }
+        }
+        entityBlock.expectEnd();
+
+        ColumnTransactionArchive.Builder archive = (horizon == null) ? null
+                : new ColumnTransactionArchive.Builder(horizon, strings);
+        Set<Integer> archivedReceiptIds = new HashSet<>();
+        Map<Integer, Transaction> transactions = new IntObjectMap<>(transactionCount);
+        // versions before 4 have a single chunk with all Transactions
+        TransactionChunk chunk = (formatVersion < 4) ? TransactionChunk.readColumns(data, transactionCount) : null;
+        int chunkRemaining = (chunk == null) ? 0 : chunk.rows;
+        long id = 0;
+        long epochDay = 0;
+        for (int i = 0; i < transactionCount; i++) {
+            if (chunkRemaining == 0) {
+                if (chunk != null) {
+                    chunk.expectEnd();
+                }
+                chunk = TransactionChunk.read(readBlock(data, formatVersion, strings), transactionCount - i);
+                chunkRemaining = chunk.rows;
+            }
+            chunkRemaining--;
+
+            long idDelta = chunk.ids.readVarLong();
+            id += idDelta;
+            epochDay += chunk.dates.readSignedVarLong();
+            int debtorId = chunk.debtors.readSignedVarInt();
+            int creditorId = chunk.creditors.readSignedVarInt();
+            long amount = readAmount(chunk.amounts);
+            long receiptId = chunk.receiptIds.readVarLong();
+            int descriptionIndex = chunk.descriptions.readCount();
+            String description = string(strings, descriptionIndex);
+            if (id > Integer.MAX_VALUE) {
+                throw new IOException("Transaction id out of range");
+            }
+            if (i > 0 && idDelta == 0) {
+                throw new IOException("Transactions with the same id are not allowed");
+            }
+
+            if (archive != null && archive.archives(epochDay)) {
+                // validate what the constructor of Transaction and HuischLedger#load would, without creating it
+                if (epochDay < Integer.MIN_VALUE || epochDay > Integer.MAX_VALUE) {
+                    throw new IOException("Invalid Transaction " + id + ": date out of range");
+                }
+                if (!Transaction.isCorrectDescription(description)) {
+                    throw new IOException("Invalid Transaction " + id);
+                }
+                if (!entities.containsKey(debtorId) || !entities.containsKey(creditorId)) {
+                    throw new IOException("Transaction " + id + " has missing AccountingEntities");
+                }
+                Integer archivedReceiptId = (receiptId == 0) ? null : (int) (receiptId - 1);
+                if (archivedReceiptId != null) {
+                    archivedReceiptIds.add(archivedReceiptId);
+                }
+                archive.add((int) id, (int) epochDay, debtorId, creditorId, amount, archivedReceiptId,
+                        descriptionIndex);
+                continue;
+            }
+
+            Transaction transaction;
+            try {
+                transaction = new Transaction((int) id, debtorId, creditorId, Money.ofCents(amount),
+                        (receiptId == 0) ? null : (int) (receiptId - 1), LocalDate.ofEpochDay(epochDay), description);
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid Transaction " + id, e);
+            }
+            if (transactions.put(transaction.getId(), transaction) != null) {
+                throw new IOException("Transactions with the same id are not allowed");
+            }
+        }
+        if (chunk != null) {
+            chunk.expectEnd();
+        }
+
+        Map<Integer, Receipt> receipts = new IntObjectMap<>(receiptCount);
+        ColumnReader receiptBlock = readBlock(data, formatVersion, strings);
+        for (int i = 0; i < receiptCount; i++) {
+            int receiptId = receiptBlock.readSignedVarInt();
+            String name = string(strings, receiptBlock.readCount());
+            long receiptEpochDay = receiptBlock.readSignedVarLong();
+            int payer = receiptBlock.readSignedVarInt();
+            int count = receiptBlock.readCount();
+            Set<Integer> transactionIds = new HashSet<>(capacityFor(count));
+            long transactionId = 0;
+            for (int j = 0; j < count; j++) {
+                transactionId += receiptBlock.readVarLong();
+                if (transactionId > Integer.MAX_VALUE) { throw new IOException("Transaction id out of range"); }
+                transactionIds.add((int) transactionId);
+            }
+
+            Receipt receipt;
+            try {
+                receipt = new Receipt(receiptId, name, transactionIds, LocalDate.ofEpochDay(receiptEpochDay), payer);
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid Receipt " + receiptId, e);
+            }
+            if (receipts.put(receiptId, receipt) != null) {
+                throw new IOException("Receipts with the same id are not allowed");
+            }
+        }
+        receiptBlock.expectEnd();
+        for (int archivedReceiptId : archivedReceiptIds) {
+            if (!receipts.containsKey(archivedReceiptId)) {
+                throw new IOException("An archived Transaction has a non-existent receiptId " + archivedReceiptId);
+            }
+        }
+
+        int expectedChecksum = (int) crc.getValue();
+        if (new DataInputStream(in).readInt() != expectedChecksum) {
+            throw new IOException("Checksum mismatch, the file is corrupt");
+        }
+
+        try {
+            if (archive == null) {
+                return HuischLedger.load(entities, transactions, receipts, nextTransactionId, nextAccountingEntityId,
+                        nextReceiptId);
+            }
+            HuischLedger huischLedger = HuischLedger.load(entities, transactions, receipts,
+                    Math.max(nextTransactionId, archive.maxId() + 1), nextAccountingEntityId, nextReceiptId);
+            huischLedger.setTransactionArchive(archive.build());
+            return huischLedger;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("The file does not contain a valid HuischLedger", e);
+        }
+    }
+
+    /**
+     * Reads a balance. Version 2 stored balances as doubles, those are rounded to the nearest cent.
+     */
+    private static @NotNull Money readBalance(@NotNull ColumnReader entityBlock, int formatVersion) throws IOException {
+        if (formatVersion >= 3) {
+            return Money.ofCents(entityBlock.readSignedVarLong());
+        }
+        double balance = entityBlock.readDouble();
+        try {
+            return Money.of(balance);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid balance " + balance, e);
+        }
+    }
+
+    /**
+     * Reads an amount in cents. Older versions flagged amounts that were not a whole number of cents with the lowest bit
+     * and stored the double after it, those are rounded to the nearest cent.
+     */
+    private static long readAmount(@NotNull ColumnReader amounts) throws IOException {
+        long value = amounts.readVarLong();
+        if ((value & 1) == 0) {
+            return value >>> 1;
+        }
+        double amount = amounts.readDouble();
+        if (!Transaction.isCorrectAmount(amount) || !Double.isFinite(amount)) {
+            throw new IOException("Invalid amount " + amount);
+        }
+        return Money.centsOf(amount);
+    }
+
+    private static @NotNull String string(@NotNull List<String> strings, int index) throws IOException {
+        if (index >= strings.size()) { throw new IOException("String index " + index + " out of range"); }
+        return strings.get(index);
+    }
+
+    /**
+     * Reads the next block with AccountingEntities, Transactions or Receipts. From version 4 on such a block starts
+     * with the strings it adds to the string table, those are added to {@code strings}.
+     */
+    private static @NotNull ColumnReader readBlock(@NotNull DataInput data, int formatVersion,
+                                                   @NotNull List<String> strings) throws IOException {
+        ColumnReader block = ColumnReader.readFrom(data);
+        if (formatVersion >= 4) {
+            StringTable.readInto(block.readBlock(), strings);
+        }
+        return block;
+    }
+
+    /**
+     * Returns the columns of the archive of {@code huischLedger}, or {@code null} if it has no archive. The columns of
+     * a ColumnTransactionArchive are used as they are, other archives are copied into columns.
+     */
+    private static TransactionColumns archivedColumns(@NotNull HuischLedger huischLedger) {
+        TransactionArchive archive = huischLedger.getTransactionArchive();
+        if (archive == null) { return null; }
+        if (archive instanceof ColumnTransactionArchive) { return ((ColumnTransactionArchive) archive).columns(); }
+
+        TransactionColumns.Builder builder = new TransactionColumns.Builder(archive.size());
+        archive.addTo(builder, huischLedger.getLoadedFrom());
+        return builder.build();
+    }
+
+    /**
+     * Returns the rows before {@code end} of {@code columns}, ordered by the id in the row.
+     */
+    private static int[] rowsById(TransactionColumns columns, int end) {
+        long[] keys = new long[end];
+        for (int row = 0; row < end; row++) {
+            keys[row] = ((long) columns.idAt(row) << 32) | row;
+        }
+        Arrays.sort(keys);
+        int[] rows = new int[end];
+        for (int i = 0; i < end; i++) {
+            rows[i] = (int) keys[i];
+        }
+        return rows;
+    }
+
+    private static int[] sortedKeys(@NotNull Map<Integer, ?> map) {
+        int[] keys = new int[map.size()];
+        int i = 0;
+        for (int key : map.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static int capacityFor(int size) {
+        // the sizes come from the file, do not trust them for more than a modest preallocation
+        return (int) (Math.min(size, 1 << 20) / 0.75f) + 1;
+    }
+
+    /**
+     * TransactionChunks writes Transactions, in ascending id order, in chunks of {@value CHUNK_ROWS} Transactions with
+     * one nested block per field. A chunk is written as soon as it is full.
+     */
+    private static final class TransactionChunks {
+        private final DataOutput out;
+        private final StringTable strings;
+        private final ColumnWriter ids = new ColumnWriter(CHUNK_ROWS * 2);
+        private final ColumnWriter dates = new ColumnWriter(CHUNK_ROWS * 2);
+        private final ColumnWriter debtors = new ColumnWriter(CHUNK_ROWS * 2);
+        private final ColumnWriter creditors = new ColumnWriter(CHUNK_ROWS * 2);
+        private final ColumnWriter amounts = new ColumnWriter(CHUNK_ROWS * 3);
+        private final ColumnWriter receiptIds = new ColumnWriter(CHUNK_ROWS);
+        private final ColumnWriter descriptions = new ColumnWriter(CHUNK_ROWS * 2);
+        private final ColumnWriter chunk = new ColumnWriter(CHUNK_ROWS * 16);
+        private int rows = 0;
+        private int previousId = 0;
+        private long previousEpochDay = 0;
+
+        TransactionChunks(@NotNull DataOutput out, @NotNull StringTable strings) {
+            this.out = out;
+            this.strings = strings;
+        }
+
+        void add(@NotNull Transaction transaction) throws IOException {
+            add(transaction.getId(), transaction.getDate().toEpochDay(), transaction.getDebtorId(),
+                    transaction.getCreditorId(), transaction.getAmountCents(), transaction.getReceiptId(),
+                    transaction.getDescription());
+        }
+
+        void add(@NotNull TransactionColumns columns, int row) throws IOException {
+            add(columns.idAt(row), columns.epochDayAt(row), columns.debtorIdAt(row), columns.creditorIdAt(row),
+                    columns.amountCentsAt(row), columns.receiptIdAt(row), columns.descriptionAt(row));
+        }
+
+        private void add(int id, long epochDay, int debtorId, int creditorId, long amount, Integer receiptId,
+                         @NotNull String description) throws IOException {
+            ids.writeVarLong((long) id - previousId);
+            previousId = id;
+            dates.writeSignedVarLong(epochDay - previousEpochDay);
+            previousEpochDay = epochDay;
+            debtors.writeSignedVarInt(debtorId);
+            creditors.writeSignedVarInt(creditorId);
+            amounts.writeVarLong(amount << 1);
+            // zero means no Receipt
+            receiptIds.writeVarLong((receiptId == null) ? 0 : (receiptId & 0xFFFFFFFFL) + 1);
+            descriptions.writeVarInt(strings.indexOf(description));
+
+            if (++rows == CHUNK_ROWS) {
+                writeChunk();
+            }
+        }
+
+        /**
+         * Writes the last chunk, if it holds any Transactions.
+         */
+        void finish() throws IOException {
+            if (rows > 0) {
+                writeChunk();
+            }
+        }
+
+        private void writeChunk() throws IOException {
+            chunk.clear();
+            chunk.writeVarInt(rows);
+            for (ColumnWriter column : new ColumnWriter[] { ids, dates, debtors, creditors, amounts, receiptIds, descriptions }) {
+                chunk.writeBlock(column);
+                column.clear();
+            }
+            strings.writeBlock(chunk, out);
+            rows = 0;
+        }
+    }
+
+    /**
+     * TransactionChunk reads the columns of a chunk of Transactions.
+     */
+    private static final class TransactionChunk {
+        private final int rows;
+        private final ColumnReader block;
+        private final ColumnReader ids;
+        private final ColumnReader dates;
+        private final ColumnReader debtors;
+        private final ColumnReader creditors;
+        private final ColumnReader amounts;
+        private final ColumnReader receiptIds;
+        private final ColumnReader descriptions;
+
+        private TransactionChunk(int rows, ColumnReader block, @NotNull ColumnReader[] columns) {
+            this.rows = rows;
+            this.block = block;
+            this.ids = columns[0];
+            this.dates = columns[1];
+            this.debtors = columns[2];
+            this.creditors = columns[3];
+            this.amounts = columns[4];
+            this.receiptIds = columns[5];
+            this.descriptions = columns[6];
+        }
+
+        /**
+         * Reads the chunk of a version 4 file from {@code block}, of which the strings have already been read.
+         *
+         * @param block the block with the chunk
+         * @param remaining the number of Transactions that have not been read yet
+         */
+        static @NotNull TransactionChunk read(@NotNull ColumnReader block, int remaining) throws IOException {
+            int rows = block.readCount();
+            if (rows == 0 || rows > remaining) { throw new IOException("Malformed chunk of " + rows + " Transactions"); }
+
+            ColumnReader[] columns = new ColumnReader[7];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = block.readBlock();
+            }
+            return new TransactionChunk(rows, block, columns);
+        }
+
+        /**
+         * Reads the seven column blocks of a file before version 4, which hold all {@code rows} Transactions.
+         */
+        static @NotNull TransactionChunk readColumns(@NotNull DataInput data, int rows) throws IOException {
+            ColumnReader[] columns = new ColumnReader[7];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = ColumnReader.readFrom(data);
+            }
+            return new TransactionChunk(rows, null, columns);
+        }
+
+        void expectEnd() throws IOException {
+            ids.expectEnd();
+            dates.expectEnd();
+            debtors.expectEnd();
+            creditors.expectEnd();
+            amounts.expectEnd();
+            receiptIds.expectEnd();
+            descriptions.expectEnd();
+            if (block != null) {
+                block.expectEnd();
+            }
+        }
+    }
+
+    /**
+     * StringTable assigns an index to every distinct String in the order of first use. The Strings that were added
+     * since the last block was written are written in front of the next block.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private int written = 0;
+
+        int indexOf(@NotNull String string) {
+            Integer index = indexes.get(string);
+            if (index == null) {
+                index = strings.size();
+                indexes.put(string, index);
+                strings.add(string);
+            }
+            return index;
+        }
+
+        /**
+         * Writes {@code rows} to {@code out} as one block, preceded by a nested block with the Strings that have not
+         * been written yet.
+         */
+        void writeBlock(@NotNull ColumnWriter rows, @NotNull DataOutput out) throws IOException {
+            ColumnWriter added = new ColumnWriter((strings.size() - written) * 16);
+            added.writeVarInt(strings.size() - written);
+            for (String string : strings.subList(written, strings.size())) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                added.writeVarInt(bytes.length);
+                added.writeBytes(bytes);
+            }
+            written = strings.size();
+
+            ColumnWriter block = new ColumnWriter(added.size() + rows.size() + 5);
+            block.writeBlock(added);
+            block.write(rows);
+            block.writeTo(out);
+        }
+
+        /**
+         * Reads the Strings in {@code column} and adds them to {@code strings}.
+         */
+        static void readInto(@NotNull ColumnReader column, @NotNull List<String> strings) throws IOException {
+            int count = column.readCount();
+            // every String takes at least one byte for its length
+            if (count > column.remaining()) { throw new IOException("Malformed string table"); }
+            for (int i = 0; i < count; i++) {
+                strings.add(new String(column.readBytes(column.readCount()), StandardCharsets.UTF_8));
+            }
+            column.expectEnd();
+        }
+    }
+}
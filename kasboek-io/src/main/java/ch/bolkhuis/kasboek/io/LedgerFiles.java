@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.HuischLedger;
+import ch.bolkhuis.kasboek.gson.HuischLedgerJson;
+import ch.bolkhuis.kasboek.gson.ParallelHuischLedgerReader;
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * LedgerFiles opens and saves HuischLedger files. The format of a file is detected from its first bytes, so binary
+ * (format versions 2 to 4) and JSON (format versions 0 and 1) files can be opened through the same method. Both can be
+ * compressed with gzip, which is detected from the first bytes as well. Saving always uses the binary format, which is
+ * compressed for files ending with {@value COMPRESSED_EXTENSION}. Compressed files are streamed through
+ * {@link GZIPInputStream} and {@link GZIPOutputStream}. JSON files are parsed with the
+ * {@link ParallelHuischLedgerReader} when possible, which needs the whole file in memory. JSON files larger than
+ * {@value MAX_PARALLEL_JSON_SIZE} bytes are parsed from the stream instead.
+ *
+ * @author Aron Hoogeveen
+ */
+public final class LedgerFiles {
+    private final static int BUFFER_SIZE = 1 << 16;
+    private final static byte[] GZIP_MAGIC = { 0x1f, (byte) 0x8b };
+    /**
+     * The largest JSON content in bytes that is read into memory to be parsed by the {@link ParallelHuischLedgerReader}.
+     */
+    private final static int MAX_PARALLEL_JSON_SIZE = 1 << 25;
+    /**
+     * The extension of compressed ledger files, after the usual {@code .hlf}.
+     */
+    public final static String COMPRESSED_EXTENSION = ".gz";
+
+    private LedgerFiles() { }
+
+    /**
+     * Returns whether {@code file} starts with the magic bytes of the binary format.
+     *
+     * @param file the file to check
+     * @return {@code true} if {@code file} is a binary ledger file
+     * @throws IOException when some IO exception occurs
+     */
+    public static boolean isBinary(@NotNull File file) throws IOException {
+        Objects.requireNonNull(file, "Parameter file cannot be null");
+
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] head = new byte[HuischLedgerBinaryFormat.magicLength()];
+            int length = in.readNBytes(head, 0, head.length);
+            return HuischLedgerBinaryFormat.hasMagic(head, length);
+        }
+    }
+
+    /**
+     * Reads a HuischLedger from {@code file}, in whichever format it was written. The changes in the
+     * {@link LedgerJournal} of {@code file} are applied on top of it.
+     *
+     * @param file the file to read from
+     * @return the HuischLedger in {@code file}
+     * @throws IOException when some IO exception occurs or the content of {@code file} is not a valid HuischLedger
+     */
+    public static @NotNull HuischLedger read(@NotNull File file) throws IOException {
+        return read(file, null);
+    }
+
+    /**
+     * Reads a HuischLedger from {@code file} like {@link LedgerFiles#read(File)}, but leaves the Transactions dated
+     * before {@code horizon} in a {@link ch.bolkhuis.kasboek.core.TransactionArchive} until they are needed. Only
+     * binary files are read this way. JSON files are always read in full, and are binary after the next save.
+     *
+     * @param file the file to read from
+     * @param horizon the date before which Transactions are loaded on demand, or {@code null} to load all Transactions
+     * @return the HuischLedger in {@code file}
+     * @throws IOException when some IO exception occurs or the content of {@code file} is not a valid HuischLedger
+     * @see HuischLedgerBinaryFormat#read(InputStream, LocalDate)
+     */
+    public static @NotNull HuischLedger read(@NotNull File file, LocalDate horizon) throws IOException {
+        return read(file, horizon, bytesRead -> { });
+    }
+
+    /**
+     * Reads a HuischLedger from {@code file} like {@link LedgerFiles#read(File, LocalDate)}, and reports the number of
+     * bytes of {@code file} read so far to {@code bytesRead}. Reading stops with an {@link InterruptedIOException}
+     * when the reading thread is interrupted, so a read on a background thread can be cancelled.
+     *
+     * @param file the file to read from
+     * @param horizon the date before which Transactions are loaded on demand, or {@code null} to load all Transactions
+     * @param bytesRead receives the number of bytes read so far, on the reading thread
+     * @return the HuischLedger in {@code file}
+     * @throws IOException when some IO exception occurs or the content of {@code file} is not a valid HuischLedger
+     */
+    public static @NotNull HuischLedger read(@NotNull File file, LocalDate horizon, @NotNull LongConsumer bytesRead)
+            throws IOException {
+        Objects.requireNonNull(file, "Parameter file cannot be null");
+        Objects.requireNonNull(bytesRead, "Parameter bytesRead cannot be null");
+
+        try (BufferedInputStream in = new BufferedInputStream(
+                new ProgressInputStream(new FileInputStream(file), bytesRead), BUFFER_SIZE)) {
+            byte[] head = new byte[GZIP_MAGIC.length];
+            in.mark(head.length);
+            int length = in.readNBytes(head, 0, head.length);
+            in.reset();
+
+            HuischLedger huischLedger;
+            if (length == head.length && Arrays.equals(head, GZIP_MAGIC)) {
+                // the compressed content is detected again, it is either binary or JSON
+                huischLedger = readContent(new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE),
+                        horizon);
+            } else {
+                huischLedger = readContent(in, horizon);
+            }
+            LedgerJournal.replay(file, huischLedger);
+            return huischLedger;
+        }
+    }
+
+    /**
+     * Reads the uncompressed content of a ledger file from {@code in}, in whichever format it was written.
+     */
+    private static @NotNull HuischLedger readContent(@NotNull BufferedInputStream in, LocalDate horizon)
+            throws IOException {
+        byte[] head = new byte[HuischLedgerBinaryFormat.magicLength()];
+        in.mark(head.length);
+        int length = in.readNBytes(head, 0, head.length);
+        in.reset();
+
+        if (HuischLedgerBinaryFormat.hasMagic(head, length)) {
+            return HuischLedgerBinaryFormat.read(in, horizon);
+        }
+        try {
+            // JSON files are written in the default charset, the parallel reader only understands UTF-8
+            HuischLedger huischLedger = UTF_8.equals(Charset.defaultCharset())
+                    ? readUtf8Json(in)
+                    : HuischLedgerJson.fromJson(new InputStreamReader(in));
+            if (huischLedger == null) { throw new IOException("The file does not contain a HuischLedger"); }
+            return huischLedger;
+        } catch (JsonParseException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads UTF-8 JSON content from {@code in}. Content of at most {@value MAX_PARALLEL_JSON_SIZE} bytes is parsed by
+     * the {@link ParallelHuischLedgerReader}, larger content is parsed from the stream so it is never held in memory
+     * as a whole.
+     */
+    private static HuischLedger readUtf8Json(@NotNull InputStream in) throws IOException {
+        byte[] head = in.readNBytes(MAX_PARALLEL_JSON_SIZE + 1);
+        if (head.length <= MAX_PARALLEL_JSON_SIZE) {
+            return ParallelHuischLedgerReader.read(head);
+        }
+        return HuischLedgerJson.fromJson(new InputStreamReader(
+                new SequenceInputStream(new ByteArrayInputStream(head), in), UTF_8));
+    }
+
+    /**
+     * Returns whether a ledger is written to {@code file} compressed, which is the case when its name ends with
+     * {@value COMPRESSED_EXTENSION}.
+     *
+     * @param file the file to check
+     * @return {@code true} if {@code file} is written compressed
+     */
+    public static boolean isCompressed(@NotNull File file) {
+        Objects.requireNonNull(file, "Parameter file cannot be null");
+
+        return file.getName().endsWith(COMPRESSED_EXTENSION);
+    }
+
+    /**
+     * Writes {@code huischLedger} to {@code file} in the binary format, compressed with gzip if
+     * {@link LedgerFiles#isCompressed(File)}. The content is written to a temporary file
+     * next to {@code file} first, which then replaces {@code file}. So {@code file} is never left half written. The
+     * {@link LedgerJournal} of {@code file} is deleted afterwards and the {@link LedgerSummary} is rewritten.
+     *
+     * @param file the file to write to
+     * @param huischLedger the HuischLedger to write
+     * @throws IOException when some IO exception occurs
+     */
+    public static void write(@NotNull File file, @NotNull HuischLedger huischLedger) throws IOException {
+        Objects.requireNonNull(file, "Parameter file cannot be null");
+        Objects.requireNonNull(huischLedger, "Parameter huischLedger cannot be null");
+
+        Path target = file.toPath().toAbsolutePath();
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(isCompressed(file)
+                ? new GZIPOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE)
+                : Files.newOutputStream(temporary), BUFFER_SIZE)) {
+            HuischLedgerBinaryFormat.write(out, huischLedger);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        try {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        // the journal contained the changes since the previous content of file, which are now part of file itself
+        Files.deleteIfExists(LedgerJournal.fileOf(file).toPath());
+        LedgerSummary.write(file, huischLedger);
+    }
+}
@@ -0,0 +1,642 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.*;
+import ch.bolkhuis.kasboek.eventlisteners.EntryChangeListener;
+import ch.bolkhuis.kasboek.eventlisteners.TransactionEvent;
+import ch.bolkhuis.kasboek.eventlisteners.TransactionEventListener;
+import ch.bolkhuis.kasboek.gson.CustomizedGson;
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * LedgerJournal is an append-only file next to a ledger file that holds the changes made to the HuischLedger since the
+ * ledger file was last written in full. Saving then only has to append the changes, instead of rewriting the whole
+ * ledger.<br />
+ * <br />
+ * While a LedgerJournal is open it observes the AccountingEntities, Transactions and Receipts of its HuischLedger
+ * through their EntryChangeListeners (and TransactionEventListeners for bulk changes), and keeps every add and remove as
+ * a small record in memory. {@link LedgerJournal#commit()} appends these records to the journal file. Changes that are
+ * not committed are lost when the LedgerJournal is closed, just like unsaved changes. {@link LedgerFiles#read(File)}
+ * replays the journal on top of the ledger file, and once the journal grows past the compaction threshold
+ * {@link LedgerJournal#commit()} writes the ledger file in full and starts an empty journal.<br />
+ * <br />
+ * A journal file consists of:
+ * <ol>
+ *     <li>the magic bytes {@code 0x89 'H' 'L' 'J'} and one byte with the journal version;</li>
+ *     <li>the length and last modified time of the ledger file the journal belongs to, as two longs. A journal that
+ *     does not match its ledger file, for example because the ledger file was written in full afterwards, is
+ *     ignored;</li>
+ *     <li>records of one byte for the kind, an int with the length of the payload, the payload and a CRC32 of the kind
+ *     and payload. The payload of an add is the JSON of the added object, the payload of a remove is the id as an
+ *     int. Only Transactions can be removed, adding an existing AccountingEntity replaces it. Replaying stops at the
+ *     first incomplete or damaged record, and fails on a record that does not fit the HuischLedger.</li>
+ * </ol>
+ *
+ * @author Aron Hoogeveen
+ */
+public final class LedgerJournal implements Closeable {
+    /**
+     * The size in bytes of the journal after which it is folded into the ledger file on commit.
+     */
+    public final static long DEFAULT_COMPACTION_THRESHOLD = 1 << 20;
+
+    private final static byte[] MAGIC = { (byte) 0x89, 'H', 'L', 'J' };
+    private final static int VERSION = 1;
+    private final static int HEADER_LENGTH = MAGIC.length + 1 + 2 * Long.BYTES;
+    private final static String SUFFIX = ".journal";
+
+    // Record kinds. AccountingEntities and Receipts cannot be removed from a HuischLedger, so kinds 3 and 7 are not
+    // used. An add of an existing AccountingEntity replaces it.
+    private final static byte ADD_ACCOUNTING_ENTITY = 1;
+    private final static byte ADD_INMATE_ENTITY = 2;
+    private final static byte ADD_TRANSACTION = 4;
+    private final static byte REMOVE_TRANSACTION = 5;
+    private final static byte ADD_RECEIPT = 6;
+
+    private final File ledgerFile;
+    private final HuischLedger huischLedger;
+    private final long compactionThreshold;
+    // guards channel and size, since a Commit may run on another thread than the one that closes the journal
+    private final Object lock = new Object();
+    private FileChannel channel;
+    // the size in bytes of the journal file
+    private long size;
+    // Records that have not been committed yet, already in their on-disk form
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    private final EntityListener entityListener = new EntityListener();
+    private final TransactionListener transactionListener = new TransactionListener();
+    private final ReceiptListener receiptListener = new ReceiptListener();
+
+    private LedgerJournal(@NotNull File ledgerFile, @NotNull HuischLedger huischLedger, long compactionThreshold) {
+        this.ledgerFile = ledgerFile;
+        this.huischLedger = huischLedger;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Opens the journal of {@code ledgerFile} with the default compaction threshold.
+     *
+     * @see LedgerJournal#open(File, HuischLedger, long)
+     */
+    public static @NotNull LedgerJournal open(@NotNull File ledgerFile, @NotNull HuischLedger huischLedger)
+            throws IOException {
+        return open(ledgerFile, huischLedger, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Opens the journal of {@code ledgerFile} and starts recording the changes to {@code huischLedger}, which must have
+     * been read from {@code ledgerFile} by {@link LedgerFiles#read(File)}. A journal that belongs to the current
+     * content of {@code ledgerFile} is appended to, otherwise a new journal is started.
+     *
+     * @param ledgerFile the ledger file
+     * @param huischLedger the HuischLedger that was read from {@code ledgerFile}
+     * @param compactionThreshold the size of the journal in bytes after which it is folded into {@code ledgerFile}
+     * @return the opened LedgerJournal
+     * @throws IOException when the journal cannot be opened
+     */
+    public static @NotNull LedgerJournal open(@NotNull File ledgerFile, @NotNull HuischLedger huischLedger,
+                                              long compactionThreshold) throws IOException {
+        Objects.requireNonNull(ledgerFile, "Parameter ledgerFile cannot be null");
+        Objects.requireNonNull(huischLedger, "Parameter huischLedger cannot be null");
+        if (compactionThreshold < 0) { throw new IllegalArgumentException("compactionThreshold cannot be negative"); }
+
+        LedgerJournal journal = new LedgerJournal(ledgerFile, huischLedger, compactionThreshold);
+        synchronized (journal.lock) {
+            journal.openChannel();
+        }
+        huischLedger.addEntityListener(journal.entityListener);
+        huischLedger.addTransactionListener(journal.transactionListener);
+        huischLedger.addTransactionEventListener(journal.transactionListener);
+        huischLedger.addReceiptListener(journal.receiptListener);
+        return journal;
+    }
+
+    /**
+     * Returns the journal file that belongs to {@code ledgerFile}.
+     *
+     * @param ledgerFile the ledger file
+     * @return the journal file next to {@code ledgerFile}
+     */
+    public static @NotNull File fileOf(@NotNull File ledgerFile) {
+        Objects.requireNonNull(ledgerFile, "Parameter ledgerFile cannot be null");
+        return new File(ledgerFile.getPath() + SUFFIX);
+    }
+
+    /**
+     * Applies the journal of {@code ledgerFile} to {@code huischLedger}, which has just been read from
+     * {@code ledgerFile}. Nothing happens if there is no journal or if it belongs to other content of
+     * {@code ledgerFile}.
+     *
+     * @param ledgerFile the ledger file
+     * @param huischLedger the HuischLedger read from {@code ledgerFile}
+     * @return the number of records that were applied
+     * @throws IOException when the journal cannot be read or contains changes that do not fit {@code huischLedger}
+     */
+    static int replay(@NotNull File ledgerFile, @NotNull HuischLedger huischLedger) throws IOException {
+        File journalFile = fileOf(ledgerFile);
+        if (!journalFile.isFile()) { return 0; }
+
+        byte[] journal = Files.readAllBytes(journalFile.toPath());
+        if (!matchesLedgerFile(journal, ledgerFile)) { return 0; }
+
+        return applyRecords(ByteBuffer.wrap(journal, HEADER_LENGTH, journal.length - HEADER_LENGTH), huischLedger);
+    }
+
+    /**
+     * Applies the records in {@code buffer} to {@code huischLedger}, up to the first incomplete or damaged record.
+     *
+     * @return the number of records that were applied
+     */
+    private static int applyRecords(@NotNull ByteBuffer buffer, @NotNull HuischLedger huischLedger)
+            throws IOException {
+        int applied = 0;
+        Record record;
+        while ((record = nextRecord(buffer)) != null) {
+            try {
+                apply(huischLedger, record.kind, record.payload);
+            } catch (IllegalArgumentException | JsonParseException e) {
+                throw new IOException("Invalid journal record: " + e.getMessage(), e);
+            }
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Returns whether there are changes that have not been committed.
+     */
+    public boolean hasPendingChanges() {
+        return pending.size() > 0;
+    }
+
+    /**
+     * Returns the changes that have not been committed, together with the state of the ledger file and the journal
+     * they apply to. Only the recorded changes are copied, not the HuischLedger, so this is cheap enough for every
+     * autosave. This method must be called on the thread that changes the HuischLedger.
+     *
+     * @return the uncommitted Changes
+     * @see LedgerRecovery#write(Changes)
+     */
+    public @NotNull Changes uncommittedChanges() {
+        synchronized (lock) {
+            if (channel == null) { throw new IllegalStateException("The journal is closed"); }
+
+            return new Changes(ledgerFile, header(ledgerFile), size, pending.toByteArray());
+        }
+    }
+
+    /**
+     * Appends the changes since the last commit to the journal file and forces them to disk. Once the journal is
+     * larger than the compaction threshold, the HuischLedger is written to the ledger file in full and an empty
+     * journal is started instead.
+     *
+     * @throws IOException when the changes cannot be written
+     */
+    public void commit() throws IOException {
+        prepareCommit(() -> huischLedger).run();
+    }
+
+    /**
+     * Takes the changes since the last commit so they can be committed by {@link Commit#run()} on another thread,
+     * while new changes to the HuischLedger are recorded for the next commit. This method must be called on the thread
+     * that changes the HuischLedger.<br />
+     * <br />
+     * The commit is built from the recorded changes only. {@code snapshot} is only asked for a copy of the HuischLedger
+     * when the journal will grow past the compaction threshold, since only then the ledger file is written in full.
+     *
+     * @param snapshot supplies a copy of the HuischLedger including the taken changes
+     * @return the Commit
+     */
+    public @NotNull Commit prepareCommit(@NotNull Supplier<HuischLedger> snapshot) {
+        Objects.requireNonNull(snapshot, "Parameter snapshot cannot be null");
+        byte[] records = pending.toByteArray();
+        boolean compacts;
+        synchronized (lock) {
+            if (channel == null) { throw new IllegalStateException("The journal is closed"); }
+            compacts = size + records.length > compactionThreshold;
+        }
+
+        HuischLedger compacted = compacts
+                ? Objects.requireNonNull(snapshot.get(), "The snapshot cannot be null")
+                : null;
+        Commit commit = new Commit(records, compacted, LedgerSummary.of(ledgerFile, huischLedger));
+        pending.reset();
+        return commit;
+    }
+
+    /**
+     * Writes the HuischLedger to the ledger file in full and starts an empty journal. Uncommitted changes are part of
+     * the written ledger file, so they count as committed afterwards.
+     *
+     * @throws IOException when the ledger file or the journal cannot be written
+     */
+    public void compact() throws IOException {
+        synchronized (lock) {
+            if (channel == null) { throw new IllegalStateException("The journal is closed"); }
+
+            compact(huischLedger);
+        }
+        pending.reset();
+    }
+
+    /**
+     * Writes {@code ledger} to the ledger file and starts an empty journal. Must be called while holding the lock.
+     */
+    private void compact(@NotNull HuischLedger ledger) throws IOException {
+        // LedgerFiles.write deletes the journal file, so a crash in between leaves no journal instead of a stale one
+        channel.close();
+        channel = null;
+        try {
+            LedgerFiles.write(ledgerFile, ledger);
+        } finally {
+            // after a failed write this reopens the old journal, which still belongs to the ledger file
+            openChannel();
+        }
+    }
+
+    /**
+     * Stops recording changes and closes the journal file. Changes that have not been committed are dropped. A Commit
+     * that is running on another thread is finished first, a Commit that runs afterwards fails.
+     */
+    @Override
+    public void close() throws IOException {
+        huischLedger.removeEntityListener(entityListener);
+        huischLedger.removeTransactionListener(transactionListener);
+        huischLedger.removeTransactionEventListener(transactionListener);
+        huischLedger.removeReceiptListener(receiptListener);
+        pending.reset();
+        synchronized (lock) {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Opens the journal file for appending. Must be called while holding the lock. A journal that does not belong to the ledger file is replaced by an empty
+     * one and a damaged tail, left by a write that did not complete, is cut off.
+     */
+    private void openChannel() throws IOException {
+        File journalFile = fileOf(ledgerFile);
+        channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            byte[] journal = new byte[(int) Math.min(channel.size(), Integer.MAX_VALUE)];
+            channel.read(ByteBuffer.wrap(journal), 0);
+
+            if (matchesLedgerFile(journal, ledgerFile)) {
+                ByteBuffer buffer = ByteBuffer.wrap(journal, HEADER_LENGTH, journal.length - HEADER_LENGTH);
+                while (nextRecord(buffer) != null) {
+                    // skip to the end of the last complete record
+                }
+                channel.truncate(buffer.position());
+            } else {
+                channel.truncate(0);
+                channel.write(ByteBuffer.wrap(header(ledgerFile)), 0);
+                channel.force(false);
+            }
+            size = channel.size();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            channel = null;
+            throw e;
+        }
+    }
+
+    private static byte @NotNull [] header(@NotNull File ledgerFile) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.put(MAGIC);
+        header.put((byte) VERSION);
+        header.putLong(ledgerFile.length());
+        header.putLong(ledgerFile.lastModified());
+        return header.array();
+    }
+
+    private static boolean matchesLedgerFile(byte @NotNull [] journal, @NotNull File ledgerFile) {
+        if (journal.length < HEADER_LENGTH) { return false; }
+        byte[] expected = header(ledgerFile);
+        for (int i = 0; i < HEADER_LENGTH; i++) {
+            if (journal[i] != expected[i]) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the next record in {@code buffer} and moves past it, or returns {@code null} and leaves {@code buffer} at
+     * the start of the record if it is incomplete or damaged.
+     */
+    private static Record nextRecord(@NotNull ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < 1 + Integer.BYTES * 2) { return null; }
+
+        byte kind = buffer.get();
+        int length = buffer.getInt();
+        if (length < 0 || buffer.remaining() < length + Integer.BYTES) {
+            buffer.position(start);
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        if (buffer.getInt() != checksum(kind, payload)) {
+            buffer.position(start);
+            return null;
+        }
+        return new Record(kind, payload);
+    }
+
+    private static int checksum(byte kind, byte @NotNull [] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(kind);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void apply(@NotNull HuischLedger huischLedger, byte kind, byte @NotNull [] payload)
+            throws IOException {
+        switch (kind) {
+            case ADD_ACCOUNTING_ENTITY:
+                putAccountingEntity(huischLedger, fromJson(payload, AccountingEntity.class));
+                break;
+            case ADD_INMATE_ENTITY:
+                putAccountingEntity(huischLedger, fromJson(payload, InmateEntity.class));
+                break;
+            case ADD_TRANSACTION:
+                huischLedger.addTransaction(fromJson(payload, Transaction.class));
+                break;
+            case REMOVE_TRANSACTION:
+                huischLedger.removeTransaction(id(payload));
+                break;
+            case ADD_RECEIPT:
+                huischLedger.addReceipt(fromJson(payload, Receipt.class));
+                break;
+            default:
+                throw new IOException("Unknown journal record kind " + kind);
+        }
+    }
+
+    private static void putAccountingEntity(@NotNull HuischLedger huischLedger, @NotNull AccountingEntity entity) {
+        if (huischLedger.getAccountingEntities().containsKey(entity.getId())) {
+            huischLedger.updateAccountingEntity(entity);
+        } else {
+            huischLedger.addAccountingEntity(entity);
+        }
+    }
+
+    private static <T> @NotNull T fromJson(byte @NotNull [] payload, @NotNull Class<T> type) throws IOException {
+        T value = CustomizedGson.gson.fromJson(new String(payload, StandardCharsets.UTF_8), type);
+        if (value == null) { throw new IOException("Empty journal record"); }
+        return value;
+    }
+
+    private static int id(byte @NotNull [] payload) throws IOException {
+        if (payload.length != Integer.BYTES) { throw new IOException("Invalid journal record"); }
+        return ByteBuffer.wrap(payload).getInt();
+    }
+
+    private void record(byte kind, byte @NotNull [] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES * 2 + payload.length);
+        buffer.put(kind);
+        buffer.putInt(payload.length);
+        buffer.put(payload);
+        buffer.putInt(checksum(kind, payload));
+        pending.writeBytes(buffer.array());
+    }
+
+    private void recordAdd(byte kind, @NotNull Object value, @NotNull Class<?> type) {
+        record(kind, CustomizedGson.gson.toJson(value, type).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void recordRemove(byte kind, int id) {
+        record(kind, ByteBuffer.allocate(Integer.BYTES).putInt(id).array());
+    }
+
+    /**
+     * The changes taken by {@link LedgerJournal#prepareCommit(Supplier)}, which still have to be written.
+     */
+    public final class Commit {
+        private final byte[] records;
+        // the copy of the HuischLedger to compact into, or null if the journal is not compacted by this commit
+        private final HuischLedger snapshot;
+        private final LedgerSummary summary;
+        // set by run(), which may be on another thread than abandon()
+        private volatile boolean written = false;
+
+        private Commit(byte @NotNull [] records, HuischLedger snapshot, @NotNull LedgerSummary summary) {
+            this.records = records;
+            this.snapshot = snapshot;
+            this.summary = summary;
+        }
+
+        /**
+         * Appends the changes to the journal file and forces them to disk. Afterwards the journal is compacted if it
+         * has grown past the compaction threshold. The {@link LedgerSummary} of the ledger file is rewritten from the
+         * counts taken with the changes.<br />
+         * <br />
+         * A failed compaction does not undo the commit: the journal is kept as it is and the exception is thrown after
+         * the summary is written, with {@link Commit#isWritten()} returning {@code true}. The next commit tries to
+         * compact the journal again.<br />
+         * <br />
+         * This may run on another thread than the one that changes the HuischLedger. The LedgerJournal cannot be
+         * closed or compacted while this runs.
+         *
+         * @throws IOException when the changes cannot be written, or when the journal cannot be compacted
+         * @throws IllegalStateException when the LedgerJournal is closed
+         */
+        public void run() throws IOException {
+            IOException compactionFailure = null;
+            synchronized (lock) {
+                if (channel == null) { throw new IllegalStateException("The journal is closed"); }
+
+                if (records.length > 0) {
+                    channel.write(ByteBuffer.wrap(records), size);
+                    channel.force(false);
+                    size += records.length;
+                }
+                written = true;
+
+                if (snapshot != null) {
+                    try {
+                        // rewrites the LedgerSummary as well
+                        compact(snapshot);
+                        return;
+                    } catch (IOException ioException) {
+                        compactionFailure = ioException;
+                    }
+                }
+            }
+            summary.writeTo(ledgerFile);
+            if (compactionFailure != null) {
+                throw new IOException("The journal could not be compacted: " + compactionFailure.getMessage(),
+                        compactionFailure);
+            }
+        }
+
+        /**
+         * Returns whether the changes have been written to the journal file. This is the case after {@link Commit#run()}
+         * returned, and when only the compaction afterwards failed.
+         */
+        public boolean isWritten() {
+            return written;
+        }
+
+        /**
+         * Gives the changes back to the LedgerJournal after {@link Commit#run()} failed, so they are part of the next
+         * commit. Must be called on the thread that changes the HuischLedger.
+         */
+        public void abandon() {
+            if (written) { return; }
+
+            byte[] newer = pending.toByteArray();
+            pending.reset();
+            pending.writeBytes(records);
+            pending.writeBytes(newer);
+        }
+    }
+
+    /**
+     * The changes that were not committed to a LedgerJournal at some point, with the header of the journal and its
+     * size at that point. The changes can only be restored on top of a ledger file and journal that are still in that
+     * state.
+     */
+    public static final class Changes {
+        private final File ledgerFile;
+        private final byte[] header;
+        private final long journalSize;
+        private final byte[] records;
+
+        private Changes(@NotNull File ledgerFile, byte @NotNull [] header, long journalSize, byte @NotNull [] records) {
+            this.ledgerFile = ledgerFile;
+            this.header = header;
+            this.journalSize = journalSize;
+            this.records = records;
+        }
+
+        /**
+         * Returns the ledger file the changes apply to.
+         */
+        public @NotNull File getLedgerFile() {
+            return ledgerFile;
+        }
+
+        void writeTo(@NotNull DataOutput out) throws IOException {
+            out.write(header);
+            out.writeLong(journalSize);
+            out.writeInt(records.length);
+            out.write(records);
+        }
+
+        /**
+         * Reads the Changes written by {@link Changes#writeTo(DataOutput)} and applies them to the HuischLedger read
+         * from {@code ledgerFile}.
+         *
+         * @throws IOException when the ledger file or its journal changed since the Changes were taken, or when the
+         * changes cannot be read or applied
+         */
+        static @NotNull HuischLedger restore(@NotNull File ledgerFile, @NotNull DataInput in) throws IOException {
+            byte[] header = new byte[HEADER_LENGTH];
+            in.readFully(header);
+            long journalSize = in.readLong();
+            int length = in.readInt();
+            if (length < 0) { throw new IOException("Damaged changes"); }
+            byte[] records = new byte[length];
+            in.readFully(records);
+
+            if (!Arrays.equals(header, header(ledgerFile)) || fileOf(ledgerFile).length() != journalSize) {
+                throw new IOException("The ledger file has changed since the changes were recorded");
+            }
+            HuischLedger huischLedger = LedgerFiles.read(ledgerFile);
+            ByteBuffer buffer = ByteBuffer.wrap(records);
+            applyRecords(buffer, huischLedger);
+            if (buffer.hasRemaining()) { throw new IOException("Damaged changes"); }
+            return huischLedger;
+        }
+    }
+
+    private static final class Record {
+        private final byte kind;
+        private final byte[] payload;
+
+        private Record(byte kind, byte @NotNull [] payload) {
+            this.kind = kind;
+            this.payload = payload;
+        }
+    }
+
+    private class EntityListener implements EntryChangeListener<AccountingEntity> {
+        @Override
+        public void entryChanged(int key, AccountingEntity removed, AccountingEntity added) {
+            // AccountingEntities are only added and replaced
+            if (added instanceof InmateEntity) {
+                recordAdd(ADD_INMATE_ENTITY, added, InmateEntity.class);
+            } else if (added != null) {
+                recordAdd(ADD_ACCOUNTING_ENTITY, added, AccountingEntity.class);
+            }
+        }
+    }
+
+    private class TransactionListener implements EntryChangeListener<Transaction>, TransactionEventListener {
+        @Override
+        public void entryChanged(int key, Transaction removed, Transaction added) {
+            if (removed != null) {
+                recordRemove(REMOVE_TRANSACTION, key);
+            }
+            if (added != null) {
+                recordAdd(ADD_TRANSACTION, added, Transaction.class);
+            }
+        }
+
+        @Override
+        public void transactionCollectionChanged(TransactionEvent transactionEvent) {
+            // loaded Transactions are already in the ledger file
+            if (transactionEvent.wasLoaded()) { return; }
+
+            for (Transaction transaction : transactionEvent.getRemovedTransactions()) {
+                recordRemove(REMOVE_TRANSACTION, transaction.getId());
+            }
+            for (Transaction transaction : transactionEvent.getAddedTransactions()) {
+                recordAdd(ADD_TRANSACTION, transaction, Transaction.class);
+            }
+        }
+    }
+
+    private class ReceiptListener implements EntryChangeListener<Receipt> {
+        @Override
+        public void entryChanged(int key, Receipt removed, Receipt added) {
+            // Receipts are only added
+            if (added != null) {
+                recordAdd(ADD_RECEIPT, added, Receipt.class);
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.HuischLedger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * LedgerRecovery is a side file that holds the autosaved state of a HuischLedger, so the changes that were not saved
+ * can be restored after a crash. For a HuischLedger with an open {@link LedgerJournal} only the uncommitted changes
+ * are written, which are restored on top of the ledger file and its journal. Otherwise a snapshot of the whole
+ * HuischLedger is written. The recovery files of all ledgers are kept in one directory, so they can be found on
+ * the next startup with {@link LedgerRecovery#find(File)}. A recovery file is discarded once its changes are saved or
+ * deliberately dropped.<br />
+ * <br />
+ * A recovery file consists of:
+ * <ol>
+ *     <li>the magic bytes {@code 0x89 'H' 'L' 'R'} and one byte with the recovery version;</li>
+ *     <li>the time of the snapshot in milliseconds since the epoch, as a long;</li>
+ *     <li>a boolean that tells whether the HuischLedger has a ledger file, followed by its absolute path as modified
+ *     UTF-8 if it has;</li>
+ *     <li>one byte that tells what follows: either the HuischLedger in the binary format of
+ *     {@link HuischLedgerBinaryFormat}, or the {@link LedgerJournal.Changes} since the ledger file was saved. Version 1
+ *     files always hold the HuischLedger and have no such byte.</li>
+ * </ol>
+ *
+ * @author Aron Hoogeveen
+ */
+public final class LedgerRecovery {
+    /**
+     * The directory in the home directory of the user that holds the recovery files.
+     */
+    public final static File DEFAULT_DIRECTORY = new File(System.getProperty("user.home"),
+            ".huischkasboek" + File.separator + "recovery");
+
+    private final static byte[] MAGIC = { (byte) 0x89, 'H', 'L', 'R' };
+    private final static int VERSION = 2;
+    // What follows the header
+    private final static int SNAPSHOT = 0;
+    private final static int CHANGES = 1;
+    private final static String SUFFIX = ".hlr";
+    private final static int BUFFER_SIZE = 1 << 16;
+
+    private final File recoveryFile;
+    private final File ledgerFile;
+    private final long savedAt;
+    private final int version;
+    // set once the recovery file is discarded, after which snapshots that are still being written are dropped
+    private boolean discarded = false;
+
+    private LedgerRecovery(@NotNull File recoveryFile, File ledgerFile, long savedAt, int version) {
+        this.recoveryFile = recoveryFile;
+        this.ledgerFile = ledgerFile;
+        this.savedAt = savedAt;
+        this.version = version;
+    }
+
+    /**
+     * Returns the LedgerRecovery for the HuischLedger saved in {@code ledgerFile}. Nothing is written until
+     * {@link LedgerRecovery#write(HuischLedger)} or {@link LedgerRecovery#write(LedgerJournal.Changes)} is called.
+     *
+     * @param directory the directory that holds the recovery files
+     * @param ledgerFile the ledger file of the HuischLedger, or {@code null} for a HuischLedger that was never saved
+     * @return the LedgerRecovery
+     */
+    public static @NotNull LedgerRecovery of(@NotNull File directory, File ledgerFile) {
+        Objects.requireNonNull(directory, "Parameter directory cannot be null");
+
+        String name;
+        if (ledgerFile == null) {
+            name = "nieuw";
+        } else {
+            ledgerFile = ledgerFile.getAbsoluteFile();
+            name = ledgerFile.getName() + "-" + Integer.toHexString(ledgerFile.getPath().hashCode());
+        }
+        return new LedgerRecovery(new File(directory, name + SUFFIX), ledgerFile, 0, VERSION);
+    }
+
+    /**
+     * Returns the LedgerRecoveries in {@code directory}, most recent first. Only the start of every recovery file is
+     * read. Files that are not recovery files are skipped.
+     *
+     * @param directory the directory that holds the recovery files
+     * @return the LedgerRecoveries in {@code directory}
+     */
+    public static @NotNull List<LedgerRecovery> find(@NotNull File directory) {
+        Objects.requireNonNull(directory, "Parameter directory cannot be null");
+
+        List<LedgerRecovery> recoveries = new ArrayList<>();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null) { return recoveries; }
+
+        for (File file : files) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                recoveries.add(readHeader(in, file));
+            } catch (IOException ioException) {
+                System.out.println("Skipping recovery file " + file + ": " + ioException.getMessage());
+            }
+        }
+        recoveries.sort((a, b) -> Long.compare(b.savedAt, a.savedAt));
+        return recoveries;
+    }
+
+    private static @NotNull LedgerRecovery readHeader(@NotNull DataInputStream in, @NotNull File recoveryFile)
+            throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) { throw new IOException("Not a recovery file"); }
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > VERSION) { throw new IOException("Unsupported recovery version " + version); }
+
+        long savedAt = in.readLong();
+        File ledgerFile = in.readBoolean() ? new File(in.readUTF()) : null;
+        return new LedgerRecovery(recoveryFile, ledgerFile, savedAt, version);
+    }
+
+    /**
+     * Writes {@code snapshot} to the recovery file, replacing what was written before. Nothing is written once the
+     * LedgerRecovery is discarded. This method may be called from any thread, but not concurrently with itself.
+     *
+     * @param snapshot a HuischLedger that is not changed while it is written
+     * @throws IOException when the snapshot cannot be written
+     */
+    public void write(@NotNull HuischLedger snapshot) throws IOException {
+        Objects.requireNonNull(snapshot, "Parameter snapshot cannot be null");
+
+        write(SNAPSHOT, out -> HuischLedgerBinaryFormat.write(out, snapshot));
+    }
+
+    /**
+     * Writes {@code changes} to the recovery file, replacing what was written before. Only the changes are written,
+     * they are restored on top of the ledger file and its journal, which must then still be in the state the changes
+     * were taken in. Nothing is written once the LedgerRecovery is discarded. This method may be called from any
+     * thread, but not concurrently with itself.
+     *
+     * @param changes the changes that were not committed to the journal of the ledger file
+     * @throws IOException when the changes cannot be written
+     * @throws IllegalArgumentException when {@code changes} belong to another ledger file
+     */
+    public void write(@NotNull LedgerJournal.Changes changes) throws IOException {
+        Objects.requireNonNull(changes, "Parameter changes cannot be null");
+        if (!changes.getLedgerFile().getAbsoluteFile().equals(ledgerFile)) {
+            throw new IllegalArgumentException("The changes belong to another ledger file");
+        }
+
+        write(CHANGES, changes::writeTo);
+    }
+
+    /**
+     * Writes the header, {@code kind} and {@code content} to a temporary file first, so a crash while writing leaves
+     * the previous recovery file intact.
+     */
+    private void write(int kind, @NotNull Content content) throws IOException {
+        Path target = recoveryFile.toPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeBoolean(ledgerFile != null);
+            if (ledgerFile != null) {
+                out.writeUTF(ledgerFile.getPath());
+            }
+            out.writeByte(kind);
+            content.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        synchronized (this) {
+            if (discarded) {
+                Files.deleteIfExists(temporary);
+                return;
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Reads the HuischLedger from the recovery file. Recorded changes are applied to the HuischLedger read from the
+     * ledger file.
+     *
+     * @return the recovered HuischLedger
+     * @throws IOException when the recovery file cannot be read or is damaged, or when the ledger file has changed
+     * since the changes were recorded
+     */
+    public @NotNull HuischLedger read() throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(recoveryFile), BUFFER_SIZE))) {
+            LedgerRecovery header = readHeader(in, recoveryFile);
+            int kind = (header.version == 1) ? SNAPSHOT : in.readUnsignedByte();
+            switch (kind) {
+                case SNAPSHOT:
+                    return HuischLedgerBinaryFormat.read(in);
+                case CHANGES:
+                    if (header.ledgerFile == null) { throw new IOException("Changes without a ledger file"); }
+                    return LedgerJournal.Changes.restore(header.ledgerFile, in);
+                default:
+                    throw new IOException("Unknown recovery content " + kind);
+            }
+        }
+    }
+
+    /**
+     * Deletes the recovery file. Snapshots that are still being written are dropped as well.
+     */
+    public synchronized void discard() {
+        discarded = true;
+        try {
+            Files.deleteIfExists(recoveryFile.toPath());
+        } catch (IOException ioException) {
+            System.out.println("The recovery file could not be deleted: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Returns the ledger file of the recovered HuischLedger, or {@code null} if it was never saved.
+     */
+    public File getLedgerFile() {
+        return ledgerFile;
+    }
+
+    /**
+     * Returns the time of the snapshot in milliseconds since the epoch, or 0 if nothing was read yet.
+     */
+    public long getSavedAt() {
+        return savedAt;
+    }
+
+    public @NotNull File getRecoveryFile() {
+        return recoveryFile;
+    }
+
+    private interface Content {
+        void writeTo(@NotNull DataOutputStream out) throws IOException;
+    }
+}
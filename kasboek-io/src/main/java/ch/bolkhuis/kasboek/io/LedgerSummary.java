@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2020 Aron Hoogeveen
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.HuischLedger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * LedgerSummary is a small sidecar file next to a ledger file with the name, the counts, the date range and the time
+ * of the last save of the HuischLedger. It allows listing ledger files without parsing them. The summary is rewritten
+ * on every full write by {@link LedgerFiles#write(File, HuischLedger)} and on every commit of the
+ * {@link LedgerJournal}. A summary that is older than its ledger file, for example because the ledger file was copied
+ * over, is ignored.<br />
+ * <br />
+ * A summary file consists of the magic bytes {@code 0x89 'H' 'L' 'S'}, one byte with the summary version, the name as
+ * modified UTF-8, the number of AccountingEntities, Transactions and Receipts as ints, the epoch days of the first and
+ * last Transaction as longs ({@link Long#MIN_VALUE} without Transactions) and the time of the save in milliseconds
+ * since the epoch as a long.
+ *
+ * @author Aron Hoogeveen
+ */
+public final class LedgerSummary {
+    private final static byte[] MAGIC = { (byte) 0x89, 'H', 'L', 'S' };
+    private final static int VERSION = 1;
+    private final static String SUFFIX = ".summary";
+    private final static long NO_DATE = Long.MIN_VALUE;
+
+    private final String name;
+    private final int accountingEntityCount;
+    private final int transactionCount;
+    private final int receiptCount;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final long savedAt;
+
+    private LedgerSummary(@NotNull String name, int accountingEntityCount, int transactionCount, int receiptCount,
+                          LocalDate firstDate, LocalDate lastDate, long savedAt) {
+        this.name = name;
+        this.accountingEntityCount = accountingEntityCount;
+        this.transactionCount = transactionCount;
+        this.receiptCount = receiptCount;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.savedAt = savedAt;
+    }
+
+    /**
+     * Returns the summary file that belongs to {@code ledgerFile}.
+     *
+     * @param ledgerFile the ledger file
+     * @return the summary file next to {@code ledgerFile}
+     */
+    public static @NotNull File fileOf(@NotNull File ledgerFile) {
+        Objects.requireNonNull(ledgerFile, "Parameter ledgerFile cannot be null");
+        return new File(ledgerFile.getPath() + SUFFIX);
+    }
+
+    /**
+     * Returns the name of the HuischLedger in {@code ledgerFile}, which is the name of the file without extension and
+     * without {@value LedgerFiles#COMPRESSED_EXTENSION}.
+     *
+     * @param ledgerFile the ledger file
+     * @return the name of the HuischLedger
+     */
+    public static @NotNull String nameOf(@NotNull File ledgerFile) {
+        String name = ledgerFile.getName();
+        if (LedgerFiles.isCompressed(ledgerFile)) {
+            name = name.substring(0, name.length() - LedgerFiles.COMPRESSED_EXTENSION.length());
+        }
+        int dot = name.lastIndexOf('.');
+        return (dot > 0) ? name.substring(0, dot) : name;
+    }
+
+    /**
+     * Writes the summary of {@code huischLedger} next to {@code ledgerFile}. A summary is not essential, so a failure
+     * is reported and otherwise ignored.
+     *
+     * @param ledgerFile the ledger file that {@code huischLedger} was saved to
+     * @param huischLedger the saved HuischLedger
+     */
+    static void write(@NotNull File ledgerFile, @NotNull HuischLedger huischLedger) {
+        of(ledgerFile, huischLedger).writeTo(ledgerFile);
+    }
+
+    /**
+     * Returns the summary of {@code huischLedger} as it is now, to be written once it has been saved to
+     * {@code ledgerFile}. Only the counts and the first and last date of the HuischLedger are used, so this is cheap
+     * enough to call on the thread that changes the HuischLedger.
+     *
+     * @param ledgerFile the ledger file that {@code huischLedger} is saved to
+     * @param huischLedger the HuischLedger
+     * @return the LedgerSummary
+     */
+    static @NotNull LedgerSummary of(@NotNull File ledgerFile, @NotNull HuischLedger huischLedger) {
+        return new LedgerSummary(nameOf(ledgerFile), huischLedger.getAccountingEntities().size(),
+                huischLedger.transactionCount(), huischLedger.getReceipts().size(),
+                huischLedger.firstTransactionDate(), huischLedger.lastTransactionDate(), System.currentTimeMillis());
+    }
+
+    /**
+     * Writes this summary next to {@code ledgerFile}. A summary is not essential, so a failure is reported and
+     * otherwise ignored.
+     *
+     * @param ledgerFile the ledger file this summary belongs to
+     */
+    void writeTo(@NotNull File ledgerFile) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(name);
+            out.writeInt(accountingEntityCount);
+            out.writeInt(transactionCount);
+            out.writeInt(receiptCount);
+            out.writeLong((firstDate == null) ? NO_DATE : firstDate.toEpochDay());
+            out.writeLong((lastDate == null) ? NO_DATE : lastDate.toEpochDay());
+            out.writeLong(savedAt);
+            out.flush();
+
+            Files.write(fileOf(ledgerFile).toPath(), bytes.toByteArray());
+        } catch (IOException ioException) {
+            System.out.println("The summary of " + ledgerFile + " could not be written: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Reads the summary of {@code ledgerFile}. Returns {@code null} if there is no summary, or if it is older than
+     * {@code ledgerFile}.
+     *
+     * @param ledgerFile the ledger file
+     * @return the LedgerSummary or {@code null}
+     * @throws IOException when the summary cannot be read or is damaged
+     */
+    public static LedgerSummary read(@NotNull File ledgerFile) throws IOException {
+        Objects.requireNonNull(ledgerFile, "Parameter ledgerFile cannot be null");
+
+        File summaryFile = fileOf(ledgerFile);
+        if (!summaryFile.isFile() || summaryFile.lastModified() < ledgerFile.lastModified()) { return null; }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(summaryFile.toPath())))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) { throw new IOException("Not a summary file"); }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) { throw new IOException("Unsupported summary version " + version); }
+
+            String name = in.readUTF();
+            int accountingEntityCount = in.readInt();
+            int transactionCount = in.readInt();
+            int receiptCount = in.readInt();
+            long firstDay = in.readLong();
+            long lastDay = in.readLong();
+            long savedAt = in.readLong();
+            return new LedgerSummary(name, accountingEntityCount, transactionCount, receiptCount,
+                    (firstDay == NO_DATE) ? null : LocalDate.ofEpochDay(firstDay),
+                    (lastDay == NO_DATE) ? null : LocalDate.ofEpochDay(lastDay), savedAt);
+        } catch (EOFException | DateTimeException e) {
+            throw new IOException("Damaged summary file", e);
+        }
+    }
+
+    public @NotNull String getName() {
+        return name;
+    }
+
+    public int getAccountingEntityCount() {
+        return accountingEntityCount;
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public int getReceiptCount() {
+        return receiptCount;
+    }
+
+    /**
+     * Returns the date of the oldest Transaction, or {@code null} if there are no Transactions.
+     */
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    /**
+     * Returns the date of the newest Transaction, or {@code null} if there are no Transactions.
+     */
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    /**
+     * Returns the time of the save in milliseconds since the epoch.
+     */
+    public long getSavedAt() {
+        return savedAt;
+    }
+}
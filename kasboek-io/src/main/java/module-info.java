@@ -0,0 +1,7 @@
+module ch.bolkhuis.kasboek.io {
+    requires static org.jetbrains.annotations;
+    requires transitive ch.bolkhuis.kasboek.core;
+    requires com.google.gson;
+    exports ch.bolkhuis.kasboek.gson;
+    exports ch.bolkhuis.kasboek.io;
+}
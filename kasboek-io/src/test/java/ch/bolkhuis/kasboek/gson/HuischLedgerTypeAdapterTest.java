@@ -0,0 +1,98 @@
+package ch.bolkhuis.kasboek.gson;
+
+import ch.bolkhuis.kasboek.core.*;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reading and writing HuischLedgers as JSON.
+ */
+class HuischLedgerTypeAdapterTest {
+
+    @Test
+    public void roundTripKeepsBalancesAndCounters() {
+        HuischLedger huischLedger = new HuischLedger();
+        huischLedger.addAccountingEntity(new InmateEntity(0, "Gerrit", 0, 0));
+        huischLedger.addAccountingEntity(new AccountingEntity(1, "ING", AccountType.ASSET, 100));
+        huischLedger.addReceipt(new Receipt(0, "Makrorun", new HashSet<>(), LocalDate.parse("2020-01-15"), 0));
+        huischLedger.addTransaction(new Transaction(0, 0, 1, 25, LocalDate.parse("2020-01-01"), "Inleg"));
+        huischLedger.addTransaction(new Transaction(1, 1, 0, 10, 0, LocalDate.parse("2020-01-15"), "Brood"));
+        huischLedger.addTransaction(new Transaction(2, 1, 0, 5, LocalDate.parse("2020-01-16"), "Kaas"));
+        huischLedger.removeTransaction(2);
+        huischLedger.getAndIncrementNextReceiptId();
+
+        HuischLedger read = HuischLedgerJson.fromJson(new StringReader(HuischLedgerJson.toJson(huischLedger)));
+
+        assertEquals(huischLedger, read);
+        assertEquals(3, read.getNextTransactionId());
+        assertEquals(2, read.getNextReceiptId());
+        assertEquals(Money.of(85), read.getAccountingEntityById(1).getBalance());
+        assertEquals(1, read.transactionsOfReceipt(0).size());
+        assertEquals(0, read.getAccountingEntityId("gerrit"));
+    }
+
+    @Test
+    public void readsFormatVersionZero() {
+        String json = "{\n" +
+                "  \"transactions\": [\n" +
+                "    {\"id\": 4, \"date\": {\"year\": 2020, \"month\": 1, \"day\": 1}, \"debtor_id\": 0," +
+                " \"creditor_id\": 1, \"amount\": 25.0, \"description\": \"Inleg\"}\n" +
+                "  ],\n" +
+                "  \"receipts\": [],\n" +
+                "  \"accounting_entities\": [\n" +
+                "    {\"type\": \"ch.bolkhuis.kasboek.core.InmateEntity\", \"object\": {\"id\": 0, \"name\": \"Gerrit\"," +
+                " \"previous_balance\": 0.0, \"balance\": -25.0}},\n" +
+                "    {\"type\": \"ch.bolkhuis.kasboek.core.AccountingEntity\", \"object\": {\"id\": 1, \"name\": \"ING\"," +
+                " \"account_type\": \"asset\", \"balance\": 25.0}}\n" +
+                "  ]\n" +
+                "}";
+
+        HuischLedger read = HuischLedgerJson.fromJson(new StringReader(json));
+
+        assertEquals(5, read.getNextTransactionId());
+        assertEquals(2, read.getNextAccountingEntityId());
+        assertEquals(Money.of(-25), read.getAccountingEntityById(0).getBalance());
+    }
+
+    @Test
+    public void rejectsMissingAccountingEntities() {
+        String json = "{\"transactions\": [{\"id\": 0, \"date\": \"2020-01-01\", \"debtor_id\": 0, \"creditor_id\": 7," +
+                " \"amount\": 25.0, \"description\": \"Inleg\"}], \"receipts\": [], \"accounting_entities\": []}";
+
+        assertThrows(JsonParseException.class, () -> HuischLedgerJson.fromJson(new StringReader(json)));
+    }
+
+    @Test
+    public void transactionsNeedEveryRequiredField() {
+        // unknown fields are skipped, the receipt_id is optional
+        Transaction transaction = CustomizedGson.gson.fromJson(new StringReader("{\"id\": 3, \"date\": \"2020-01-01\"," +
+                " \"debtor_id\": 0, \"creditor_id\": 1, \"amount\": 2.5, \"note\": [1, 2], \"description\": \"Kaas\"}"), Transaction.class);
+        assertEquals(new Transaction(3, 0, 1, 2.5, LocalDate.parse("2020-01-01"), "Kaas"), transaction);
+
+        // no creditor_id
+        assertThrows(JsonParseException.class, () -> CustomizedGson.gson.fromJson(new StringReader("{\"id\": 3," +
+                " \"date\": \"2020-01-01\", \"debtor_id\": 0, \"amount\": 2.5, \"receipt_id\": 4," +
+                " \"description\": \"Kaas\"}"), Transaction.class));
+    }
+
+    @Test
+    public void toJsonOnEmptyObject() {
+        assertDoesNotThrow(() -> CustomizedGson.gson.toJson(null, Transaction.class));
+    }
+
+    @Test
+    public void accountTypesKeepTheirNames() {
+        for (AccountType accountType : AccountType.values()) {
+            assertEquals(accountType, CustomizedGson.gson.fromJson(
+                    CustomizedGson.gson.toJson(accountType, AccountType.class), AccountType.class));
+        }
+        assertEquals("\"nonexistent\"", CustomizedGson.gson.toJson(AccountType.NON_EXISTENT, AccountType.class));
+        assertEquals("\"asset\"", CustomizedGson.gson.toJson(AccountType.ASSET, AccountType.class));
+    }
+}
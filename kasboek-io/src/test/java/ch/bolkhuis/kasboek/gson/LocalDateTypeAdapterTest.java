@@ -0,0 +1,39 @@
+package ch.bolkhuis.kasboek.gson;
+
+import ch.bolkhuis.kasboek.core.Transaction;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the compact and the legacy date layouts.
+ */
+class LocalDateTypeAdapterTest {
+    private final LocalDate date = LocalDate.parse("2020-01-31");
+
+    @Test
+    public void writesIsoString() {
+        assertEquals("\"2020-01-31\"", CustomizedGson.gson.toJson(date, LocalDate.class));
+    }
+
+    @Test
+    public void readsAllLayouts() {
+        assertEquals(date, CustomizedGson.gson.fromJson("\"2020-01-31\"", LocalDate.class));
+        assertEquals(date, CustomizedGson.gson.fromJson("{\"date\": \"2020-01-31\"}", LocalDate.class));
+        assertEquals(date, CustomizedGson.gson.fromJson("{\"year\": 2020, \"month\": 1, \"day\": 31}", LocalDate.class));
+        assertThrows(JsonParseException.class, () -> CustomizedGson.gson.fromJson("{\"year\": 2020}", LocalDate.class));
+    }
+
+    @Test
+    public void transactionRoundTripIsCompact() {
+        Transaction transaction = new Transaction(3, 1, 2, 12.5, date, "Brood");
+        String json = CustomizedGson.gson.toJson(transaction, Transaction.class);
+
+        assertFalse(json.contains("\n"));
+        assertTrue(json.contains("\"date\":\"2020-01-31\""));
+        assertEquals(transaction, CustomizedGson.gson.fromJson(json, Transaction.class));
+    }
+}
@@ -0,0 +1,90 @@
+package ch.bolkhuis.kasboek.gson;
+
+import ch.bolkhuis.kasboek.core.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that {@link ParallelHuischLedgerReader} reads the same HuischLedger as {@link HuischLedgerTypeAdapter}.
+ */
+class ParallelHuischLedgerReaderTest {
+
+    @Test
+    public void readsSameLedgerAsTypeAdapter() throws IOException {
+        HuischLedger huischLedger = new HuischLedger();
+        huischLedger.addAccountingEntity(new InmateEntity(0, "Gerrit", 0, 0));
+        huischLedger.addAccountingEntity(new AccountingEntity(1, "ING", AccountType.ASSET, 100));
+        huischLedger.addAccountingEntity(new AccountingEntity(2, "Keuken", AccountType.EXPENSE, 0));
+        huischLedger.addReceipt(new Receipt(0, "Makrorun", new HashSet<>(), LocalDate.parse("2020-01-15"), 0));
+
+        // enough Transactions to be split into several chunks
+        String[] descriptions = { "Brood", "Kaas \"jong\"", "Koffie & thee", "Café <bar>", "Back\\slash\ttab" };
+        double[] amounts = { 12.34, 0.1 + 0.2, 1e-7, 123456789.5, 0 };
+        Random random = new Random(42);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            transactions.add(new Transaction(i, random.nextInt(3), random.nextInt(3), amounts[i % amounts.length],
+                    (i % 3 == 0) ? 0 : null, LocalDate.parse("2020-01-01").plusDays(i % 400),
+                    descriptions[i % descriptions.length]));
+        }
+        huischLedger.addTransactions(transactions);
+
+        String json = HuischLedgerJson.toJson(huischLedger);
+        HuischLedger read = ParallelHuischLedgerReader.read(json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(HuischLedgerJson.fromJson(new StringReader(json)), read);
+        assertEquals(huischLedger, read);
+        assertEquals(huischLedger.getNextTransactionId(), read.getNextTransactionId());
+        assertEquals(6667, read.transactionsOfReceipt(0).size());
+    }
+
+    @Test
+    public void readsFormatVersionZero() throws IOException {
+        String json = "{\n" +
+                "  \"transactions\": [\n" +
+                "    {\"id\": 4, \"date\": {\"year\": 2020, \"month\": 1, \"day\": 1}, \"debtor_id\": 0," +
+                " \"creditor_id\": 1, \"amount\": 25.0, \"description\": \"Inleg\"},\n" +
+                "    {\"id\": 5, \"date\": {\"date\": \"2020-01-02\"}, \"debtor_id\": 1," +
+                " \"creditor_id\": 0, \"amount\": 5, \"receipt_id\": null, \"description\": \"Terug\"}\n" +
+                "  ],\n" +
+                "  \"receipts\": [],\n" +
+                "  \"accounting_entities\": [\n" +
+                "    {\"type\": \"ch.bolkhuis.kasboek.core.InmateEntity\", \"object\": {\"id\": 0, \"name\": \"Gerrit\"," +
+                " \"previous_balance\": 0.0, \"balance\": -20.0}},\n" +
+                "    {\"type\": \"ch.bolkhuis.kasboek.core.AccountingEntity\", \"object\": {\"id\": 1, \"name\": \"ING\"," +
+                " \"account_type\": \"asset\", \"balance\": 20.0}}\n" +
+                "  ]\n" +
+                "}";
+
+        HuischLedger read = ParallelHuischLedgerReader.read(json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(HuischLedgerJson.fromJson(new StringReader(json)), read);
+        assertEquals(LocalDate.parse("2020-01-02"), read.getTransactions().get(5).getDate());
+        assertEquals(6, read.getNextTransactionId());
+    }
+
+    @Test
+    public void rejectsInvalidTransactions() {
+        String missingField = "{\"transactions\": [{\"id\": 0, \"date\": \"2020-01-01\", \"debtor_id\": 0," +
+                " \"amount\": 25.0, \"description\": \"Inleg\"}], \"receipts\": [], \"accounting_entities\": []}";
+        String duplicateId = "{\"transactions\": [" +
+                "{\"id\": 0, \"date\": \"2020-01-01\", \"debtor_id\": 0, \"creditor_id\": 0, \"amount\": 1, \"description\": \"A\"}," +
+                "{\"id\": 0, \"date\": \"2020-01-01\", \"debtor_id\": 0, \"creditor_id\": 0, \"amount\": 1, \"description\": \"B\"}" +
+                "], \"receipts\": [], \"accounting_entities\": []}";
+
+        assertThrows(IOException.class,
+                () -> ParallelHuischLedgerReader.read(missingField.getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IOException.class,
+                () -> ParallelHuischLedgerReader.read(duplicateId.getBytes(StandardCharsets.UTF_8)));
+    }
+}
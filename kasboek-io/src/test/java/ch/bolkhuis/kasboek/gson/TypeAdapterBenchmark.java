@@ -0,0 +1,121 @@
+package ch.bolkhuis.kasboek.gson;
+
+import ch.bolkhuis.kasboek.core.Transaction;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares (de)serializing Transactions by looking up the adapter in {@link CustomizedGson#gson} for every element,
+ * as the Ledger adapters used to do, with calling the adapter that {@link CustomizedTypeAdapterFactory} wired in
+ * once. This is not a unit test, run it by hand with
+ * {@code java -cp <test classpath> ch.bolkhuis.kasboek.gson.TypeAdapterBenchmark [transactions]}.
+ */
+public class TypeAdapterBenchmark {
+    private final static int WARM_UP_ROUNDS = 10;
+    private final static int MEASURED_ROUNDS = 20;
+
+    public static void main(String[] args) throws IOException {
+        int transactionCount = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+        List<Transaction> transactions = generate(transactionCount);
+        TypeAdapter<Transaction> adapter = CustomizedGson.gson.getAdapter(Transaction.class);
+
+        StringWriter stringWriter = new StringWriter();
+        try (JsonWriter jsonWriter = CustomizedGson.gson.newJsonWriter(stringWriter)) {
+            writeWired(jsonWriter, adapter, transactions);
+        }
+        String json = stringWriter.toString();
+        System.out.printf("%d transactions, %d KiB of JSON%n", transactionCount, json.length() / 1024);
+
+        long[][] times = new long[4][MEASURED_ROUNDS];
+        for (int round = -WARM_UP_ROUNDS; round < MEASURED_ROUNDS; round++) {
+            long[] marks = new long[5];
+            marks[0] = System.nanoTime();
+            writeLookup(CustomizedGson.gson.newJsonWriter(Writer.nullWriter()), transactions);
+            marks[1] = System.nanoTime();
+            writeWired(CustomizedGson.gson.newJsonWriter(Writer.nullWriter()), adapter, transactions);
+            marks[2] = System.nanoTime();
+            int lookupCount = readLookup(new JsonReader(new StringReader(json)));
+            marks[3] = System.nanoTime();
+            int wiredCount = readWired(new JsonReader(new StringReader(json)), adapter);
+            marks[4] = System.nanoTime();
+
+            if (lookupCount != transactionCount || wiredCount != transactionCount) {
+                throw new AssertionError("Lost Transactions");
+            }
+            if (round >= 0) {
+                for (int i = 0; i < 4; i++) {
+                    times[i][round] = marks[i + 1] - marks[i];
+                }
+            }
+        }
+
+        String[] names = { "write, lookup per element", "write, wired adapter", "read, lookup per element",
+                "read, wired adapter" };
+        for (int i = 0; i < 4; i++) {
+            Arrays.sort(times[i]);
+            System.out.printf("%-26s best %4d ms, median %4d ms%n", names[i], times[i][0] / 1_000_000,
+                    times[i][MEASURED_ROUNDS / 2] / 1_000_000);
+        }
+    }
+
+    private static void writeLookup(JsonWriter jsonWriter, List<Transaction> transactions) throws IOException {
+        jsonWriter.beginArray();
+        for (Transaction transaction : transactions) {
+            CustomizedGson.gson.toJson(transaction, Transaction.class, jsonWriter);
+        }
+        jsonWriter.endArray();
+    }
+
+    private static void writeWired(JsonWriter jsonWriter, TypeAdapter<Transaction> adapter,
+                                   List<Transaction> transactions) throws IOException {
+        jsonWriter.beginArray();
+        for (Transaction transaction : transactions) {
+            adapter.write(jsonWriter, transaction);
+        }
+        jsonWriter.endArray();
+    }
+
+    private static int readLookup(JsonReader jsonReader) throws IOException {
+        int count = 0;
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            CustomizedGson.gson.fromJson(jsonReader, Transaction.class);
+            count++;
+        }
+        jsonReader.endArray();
+        return count;
+    }
+
+    private static int readWired(JsonReader jsonReader, TypeAdapter<Transaction> adapter) throws IOException {
+        int count = 0;
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            adapter.read(jsonReader);
+            count++;
+        }
+        jsonReader.endArray();
+        return count;
+    }
+
+    private static List<Transaction> generate(int transactionCount) {
+        Random random = new Random(42);
+        List<Transaction> transactions = new ArrayList<>(transactionCount);
+        for (int i = 0; i < transactionCount; i++) {
+            transactions.add(new Transaction(i, random.nextInt(4), random.nextInt(4), random.nextInt(10_000) / 100.0,
+                    (i % 2 == 0) ? random.nextInt(100) : null, LocalDate.parse("2020-01-01").plusDays(i % 1000),
+                    "Boodschappen " + i));
+        }
+        return transactions;
+    }
+}
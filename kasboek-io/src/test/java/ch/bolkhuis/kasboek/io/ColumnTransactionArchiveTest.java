@@ -0,0 +1,135 @@
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.*;
+import ch.bolkhuis.kasboek.eventlisteners.TransactionEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reading a binary ledger file with a horizon, which leaves the older Transactions in a
+ * {@link ColumnTransactionArchive} until they are needed.
+ */
+class ColumnTransactionArchiveTest {
+    private static final LocalDate HORIZON = LocalDate.parse("2020-06-01");
+
+    @TempDir
+    Path directory;
+
+    private File file;
+    private HuischLedger huischLedger;
+
+    @BeforeEach
+    public void initialize() throws IOException {
+        huischLedger = new HuischLedger();
+        huischLedger.addAccountingEntity(new InmateEntity(0, "Gerrit", 0, 0));
+        huischLedger.addAccountingEntity(new AccountingEntity(1, "ING", AccountType.ASSET, 100));
+        huischLedger.addAccountingEntity(new AccountingEntity(2, "Keuken", AccountType.EXPENSE, 0));
+        huischLedger.addReceipt(new Receipt(0, "Makrorun", new HashSet<>(), LocalDate.parse("2020-01-15"), 0));
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 365; i++) {
+            transactions.add(new Transaction(i, i % 3, (i + 1) % 3, 1 + i / 100.0, (i % 10 == 0) ? 0 : null,
+                    LocalDate.parse("2020-01-01").plusDays(i), "Transactie " + i));
+        }
+        huischLedger.addTransactions(transactions);
+
+        file = directory.resolve("kasboek.hlf").toFile();
+        LedgerFiles.write(file, huischLedger);
+    }
+
+    @Test
+    public void loadsOlderTransactionsOnDemand() throws IOException {
+        HuischLedger read = LedgerFiles.read(file, HORIZON);
+        List<TransactionEvent> events = new ArrayList<>();
+        read.addTransactionEventListener(events::add);
+
+        assertEquals(HORIZON, read.getLoadedFrom());
+        assertEquals(213, read.getTransactions().size());
+        assertEquals(huischLedger.getAccountingEntityById(1).getBalance(), read.getAccountingEntityById(1).getBalance());
+        assertTrue(read.containsTransactionById(0));
+
+        // a query before the horizon loads the Transactions it reaches
+        List<Transaction> may = read.transactionsBetween(LocalDate.parse("2020-05-01"), LocalDate.parse("2020-05-31"));
+        assertEquals(31, may.size());
+        assertEquals(LocalDate.parse("2020-05-01"), read.getLoadedFrom());
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).wasLoaded());
+        assertEquals(31, events.get(0).getAddedTransactions().size());
+
+        // the Transactions of a Receipt are loaded through the Receipt
+        assertEquals(huischLedger.transactionsOfReceipt(0), read.transactionsOfReceipt(0));
+        assertNull(read.getLoadedFrom());
+        assertEquals(huischLedger, read);
+    }
+
+    @Test
+    public void changesReachArchivedTransactions() throws IOException {
+        HuischLedger read = LedgerFiles.read(file, HORIZON);
+
+        assertThrows(IllegalArgumentException.class, () -> read.addTransaction(
+                new Transaction(3, 0, 1, 5, LocalDate.parse("2020-01-02"), "Dubbel")));
+        assertEquals(huischLedger.removeTransaction(3), read.removeTransaction(3));
+        assertEquals(huischLedger.getAccountingEntityById(0).getBalance(), read.getAccountingEntityById(0).getBalance());
+        assertFalse(read.containsTransactionById(3));
+
+        // writing a snapshot includes the Transactions that were never loaded
+        File copy = directory.resolve("kopie.hlf").toFile();
+        LedgerFiles.write(copy, read.snapshot());
+        assertEquals(huischLedger, LedgerFiles.read(copy));
+    }
+
+    @Test
+    public void invoicesGroupArchivedReceiptTransactions() throws IOException {
+        HuischLedger read = LedgerFiles.read(file, HORIZON);
+        File template = directory.resolve("template.html").toFile();
+        Files.writeString(template.toPath(), "<!-- version:1 -->\n${NAME}\n${INTRO_TEXT}\n${START_BALANCE}\n${END_BALANCE}\n<table>\n${TABLE_DATA}</table>\n");
+        File expected = directory.resolve("expected.html").toFile();
+        File invoice = directory.resolve("invoice.html").toFile();
+
+        HuischLedger.generateInmateInvoice(expected, template, huischLedger, 0,
+                LocalDate.parse("2020-01-01"), LocalDate.parse("2020-03-31"));
+        HuischLedger.generateInmateInvoice(invoice, template, read, 0,
+                LocalDate.parse("2020-01-01"), LocalDate.parse("2020-03-31"));
+
+        String text = Files.readString(invoice.toPath());
+        assertEquals(Files.readString(expected.toPath()), text);
+        assertTrue(text.contains("Makrorun"));
+        // the first Transaction belongs to the Receipt, so it is not shown on its own
+        assertFalse(text.contains("Transactie 0\n"));
+        assertEquals(HORIZON, read.getLoadedFrom());
+    }
+
+    @Test
+    public void queriesDoNotLoadArchivedTransactions() throws IOException {
+        HuischLedger read = LedgerFiles.read(file, LocalDate.parse("2021-01-01"));
+        List<TransactionEvent> events = new ArrayList<>();
+        read.addTransactionEventListener(events::add);
+
+        assertTrue(read.getTransactions().isEmpty());
+        assertEquals(huischLedger.lastTransactionDate(), read.lastTransactionDate());
+        assertEquals(huischLedger.firstTransactionDate(), read.firstTransactionDate());
+        assertEquals(huischLedger.transactionColumns(), read.transactionColumns());
+        assertEquals(huischLedger.getAllTransactionsOf(2), read.getAllTransactionsOf(2));
+        assertEquals(huischLedger, read);
+        assertEquals(huischLedger.hashCode(), read.hashCode());
+
+        File copy = directory.resolve("kopie.hlf").toFile();
+        LedgerFiles.write(copy, read);
+        assertEquals(huischLedger, LedgerFiles.read(copy));
+
+        assertTrue(read.getTransactions().isEmpty());
+        assertEquals(LocalDate.parse("2021-01-01"), read.getLoadedFrom());
+        assertTrue(events.isEmpty());
+    }
+}
@@ -0,0 +1,128 @@
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reading and writing the binary ledger format.
+ */
+class HuischLedgerBinaryFormatTest {
+    private HuischLedger huischLedger;
+
+    @BeforeEach
+    public void initialize() {
+        huischLedger = new HuischLedger();
+        huischLedger.addAccountingEntity(new InmateEntity(0, "Gerrit", 12.5, 0));
+        huischLedger.addAccountingEntity(new AccountingEntity(1, "ING", AccountType.ASSET, 100));
+        huischLedger.addAccountingEntity(new AccountingEntity(2, "Keuken", AccountType.EXPENSE, 0));
+        huischLedger.addReceipt(new Receipt(0, "Makrorun", new HashSet<>(), LocalDate.parse("2020-01-15"), 0));
+
+        huischLedger.addTransaction(new Transaction(0, 0, 1, 25, LocalDate.parse("2020-01-01"), "Inleg"));
+        huischLedger.addTransaction(new Transaction(1, 2, 0, 3.33, 0, LocalDate.parse("2020-01-15"), "Brood"));
+        huischLedger.addTransaction(new Transaction(5, 2, 0, 1.0 / 3, 0, LocalDate.parse("2019-12-31"), "Brood"));
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        HuischLedger read = HuischLedgerBinaryFormat.read(new ByteArrayInputStream(write(huischLedger)));
+
+        assertEquals(huischLedger, read);
+        assertEquals(huischLedger.getReceipts().get(0).getTransactionIdSet(), read.getReceipts().get(0).getTransactionIdSet());
+        assertEquals(Money.of(12.5), ((InmateEntity) read.getAccountingEntityById(0)).getPreviousBalance());
+        assertEquals(1, read.getNextReceiptId());
+        assertEquals(2, read.transactionsOfReceipt(0).size());
+    }
+
+    @Test
+    public void roundTripOverSeveralChunks() throws IOException {
+        // new descriptions keep being added to the string table in every chunk
+        for (int id = 6; id < 10_000; id++) {
+            huischLedger.addTransaction(new Transaction(id, 2, 0, id / 100.0,
+                    LocalDate.parse("2020-01-01").plusDays(id % 500), "Boodschappen " + (id / 1000)));
+        }
+
+        HuischLedger read = HuischLedgerBinaryFormat.read(new ByteArrayInputStream(write(huischLedger)));
+
+        assertEquals(huischLedger, read);
+        assertEquals(huischLedger.getTransactions().get(9_999), read.getTransactions().get(9_999));
+        assertEquals("Boodschappen 9", read.getTransactions().get(9_999).getDescription());
+    }
+
+    @Test
+    public void detectsMagicAndCorruption() throws IOException {
+        byte[] bytes = write(huischLedger);
+        assertTrue(HuischLedgerBinaryFormat.hasMagic(bytes, bytes.length));
+        assertFalse(HuischLedgerBinaryFormat.hasMagic("{\"transactions\"".getBytes(), 15));
+
+        bytes[bytes.length / 2] ^= 0x10;
+        assertThrows(IOException.class, () -> HuischLedgerBinaryFormat.read(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void readsVersionTwoBalances() throws IOException {
+        ColumnWriter header = new ColumnWriter(8);
+        header.writeVarInt(2);
+        header.writeVarInt(0);
+        header.writeVarInt(0);
+        header.writeSignedVarInt(0);
+        header.writeSignedVarInt(2);
+        header.writeSignedVarInt(0);
+        ColumnWriter strings = new ColumnWriter(16);
+        strings.writeVarInt(2);
+        for (String string : new String[] { "Gerrit", "ING" }) {
+            strings.writeVarInt(string.length());
+            strings.writeBytes(string.getBytes(StandardCharsets.UTF_8));
+        }
+        ColumnWriter entities = new ColumnWriter(32);
+        entities.writeByte(1);
+        entities.writeSignedVarInt(0);
+        entities.writeVarInt(0);
+        entities.writeByte(AccountType.LIABILITY.ordinal());
+        entities.writeDouble(-0.1 - 0.2);
+        entities.writeDouble(12.5);
+        entities.writeByte(0);
+        entities.writeSignedVarInt(1);
+        entities.writeVarInt(1);
+        entities.writeByte(AccountType.ASSET.ordinal());
+        entities.writeDouble(100.005);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] { (byte) 0x89, 'H', 'L', 'F' });
+        CRC32 crc = new CRC32();
+        DataOutputStream data = new DataOutputStream(new CheckedOutputStream(out, crc));
+        data.writeByte(2);
+        header.writeTo(data);
+        strings.writeTo(data);
+        entities.writeTo(data);
+        // seven empty Transaction columns and no Receipts
+        for (int i = 0; i < 8; i++) {
+            new ColumnWriter(0).writeTo(data);
+        }
+        data.flush();
+        new DataOutputStream(out).writeInt((int) crc.getValue());
+
+        HuischLedger read = HuischLedgerBinaryFormat.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(Money.ofCents(-30), read.getAccountingEntityById(0).getBalance());
+        assertEquals(Money.ofCents(1250), ((InmateEntity) read.getAccountingEntityById(0)).getPreviousBalance());
+        assertEquals(Money.ofCents(10001), read.getAccountingEntityById(1).getBalance());
+    }
+
+    private static byte[] write(HuischLedger huischLedger) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HuischLedgerBinaryFormat.write(out, huischLedger);
+        return out.toByteArray();
+    }
+}
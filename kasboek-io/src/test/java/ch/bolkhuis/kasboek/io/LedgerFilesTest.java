@@ -0,0 +1,68 @@
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.*;
+import ch.bolkhuis.kasboek.gson.HuischLedgerJson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for opening and saving compressed ledger files through {@link LedgerFiles}.
+ */
+class LedgerFilesTest {
+    @TempDir
+    Path directory;
+
+    private HuischLedger createHuischLedger() {
+        HuischLedger huischLedger = new HuischLedger();
+        huischLedger.addAccountingEntity(new InmateEntity(0, "Gerrit", 0, 0));
+        huischLedger.addAccountingEntity(new AccountingEntity(1, "ING", AccountType.ASSET, 100));
+        huischLedger.addReceipt(new Receipt(0, "Makrorun", new HashSet<>(), LocalDate.parse("2020-01-15"), 0));
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            transactions.add(new Transaction(i, i % 2, (i + 1) % 2, 1.5, (i % 10 == 0) ? 0 : null,
+                    LocalDate.parse("2020-01-01").plusDays(i % 100), "Transactie " + (i % 7)));
+        }
+        huischLedger.addTransactions(transactions);
+        return huischLedger;
+    }
+
+    @Test
+    public void compressesFilesEndingWithGz() throws IOException {
+        HuischLedger huischLedger = createHuischLedger();
+        File plain = directory.resolve("kasboek.hlf").toFile();
+        File compressed = directory.resolve("kasboek.hlf.gz").toFile();
+        LedgerFiles.write(plain, huischLedger);
+        LedgerFiles.write(compressed, huischLedger);
+
+        byte[] head = Files.readAllBytes(compressed.toPath());
+        assertEquals(0x1f, head[0] & 0xFF);
+        assertEquals(0x8b, head[1] & 0xFF);
+        assertTrue(compressed.length() < plain.length());
+        assertEquals(huischLedger, LedgerFiles.read(compressed));
+        assertEquals("kasboek", LedgerSummary.read(compressed).getName());
+    }
+
+    @Test
+    public void detectsCompressionByContent() throws IOException {
+        HuischLedger huischLedger = createHuischLedger();
+        File json = directory.resolve("kasboek.json.gz").toFile();
+        HuischLedgerJson.toFile(json, huischLedger);
+        // the name does not decide how a file is read
+        File renamed = directory.resolve("kasboek.hlf").toFile();
+        Files.move(json.toPath(), renamed.toPath());
+
+        assertEquals(huischLedger, HuischLedgerJson.fromFile(renamed));
+        assertEquals(huischLedger, LedgerFiles.read(renamed));
+    }
+}
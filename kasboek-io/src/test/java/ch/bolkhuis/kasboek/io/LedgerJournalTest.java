@@ -0,0 +1,274 @@
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for saving changes through a {@link LedgerJournal} and replaying them with {@link LedgerFiles#read(File)}.
+ */
+class LedgerJournalTest {
+    // the magic bytes, the version and the length and last modified time of the ledger file
+    private static final int HEADER_LENGTH = 4 + 1 + 2 * Long.BYTES;
+
+    @TempDir
+    Path directory;
+
+    private File file;
+    private HuischLedger huischLedger;
+
+    @BeforeEach
+    public void initialize() throws IOException {
+        huischLedger = new HuischLedger();
+        huischLedger.addAccountingEntity(new InmateEntity(0, "Gerrit", 0, 0));
+        huischLedger.addAccountingEntity(new AccountingEntity(1, "ING", AccountType.ASSET, 100));
+        huischLedger.addTransaction(new Transaction(0, 0, 1, 25, LocalDate.parse("2020-01-01"), "Inleg"));
+
+        file = directory.resolve("kasboek.hlf").toFile();
+        LedgerFiles.write(file, huischLedger);
+        huischLedger = LedgerFiles.read(file);
+    }
+
+    @Test
+    public void replaysCommittedChanges() throws IOException {
+        long snapshotLength = file.length();
+        try (LedgerJournal journal = LedgerJournal.open(file, huischLedger)) {
+            huischLedger.addAccountingEntity(new AccountingEntity(2, "Keuken", AccountType.EXPENSE, 0));
+            huischLedger.addReceipt(new Receipt(0, "Makrorun", new HashSet<>(), LocalDate.parse("2020-01-15"), 0));
+            huischLedger.addTransaction(new Transaction(1, 2, 0, 10, 0, LocalDate.parse("2020-01-15"), "Brood"));
+            huischLedger.addTransactions(List.of(
+                    new Transaction(2, 2, 1, 5, LocalDate.parse("2020-01-16"), "Kaas"),
+                    new Transaction(3, 1, 0, 7, LocalDate.parse("2020-01-17"), "Terug")));
+            huischLedger.removeTransaction(0);
+            huischLedger.updateAccountingEntity(new AccountingEntity(1, "Rabobank", AccountType.ASSET, 50));
+            assertTrue(journal.hasPendingChanges());
+
+            journal.commit();
+            assertFalse(journal.hasPendingChanges());
+
+            // changes after the last commit are not saved
+            huischLedger.removeTransaction(3);
+        }
+        assertEquals(snapshotLength, file.length());
+
+        HuischLedger read = LedgerFiles.read(file);
+        huischLedger.addTransaction(new Transaction(3, 1, 0, 7, LocalDate.parse("2020-01-17"), "Terug"));
+        assertEquals(huischLedger, read);
+        assertEquals(1, read.transactionsOfReceipt(0).size());
+        assertEquals(1, read.getNextReceiptId());
+        assertEquals("Rabobank", read.getAccountingEntityById(1).getName());
+    }
+
+    @Test
+    public void replaysEveryRecordKind() throws IOException {
+        try (LedgerJournal journal = LedgerJournal.open(file, huischLedger)) {
+            huischLedger.addAccountingEntity(new AccountingEntity(2, "Keuken", AccountType.EXPENSE, 0));
+            huischLedger.addAccountingEntity(new InmateEntity(3, "Henk", 0, 0));
+            huischLedger.renameAccountingEntity(0, "Gerard");
+            huischLedger.addReceipt(new Receipt(0, "Makrorun", new HashSet<>(), LocalDate.parse("2020-01-15"), 3));
+            huischLedger.addTransaction(new Transaction(1, 2, 3, 10, 0, LocalDate.parse("2020-01-15"), "Brood"));
+            huischLedger.removeTransaction(0);
+            journal.commit();
+        }
+
+        HuischLedger read = LedgerFiles.read(file);
+        assertEquals(huischLedger, read);
+        assertTrue(read.getAccountingEntityById(3) instanceof InmateEntity);
+        assertEquals("Gerard", read.getAccountingEntityById(0).getName());
+        assertTrue(read.getAccountingEntityById(0) instanceof InmateEntity);
+        assertEquals(1, read.transactionsOfReceipt(0).size());
+        assertFalse(read.containsTransactionById(0));
+    }
+
+    @Test
+    public void rejectsRecordsThatDoNotFit() throws IOException {
+        try (LedgerJournal journal = LedgerJournal.open(file, huischLedger)) {
+            huischLedger.addReceipt(new Receipt(0, "Makrorun", new HashSet<>(), LocalDate.parse("2020-01-15"), 0));
+            journal.commit();
+        }
+        File journalFile = LedgerJournal.fileOf(file);
+        byte[] committed = Files.readAllBytes(journalFile.toPath());
+
+        // a second add of the same Receipt, the journal only holds its header and the record of the first add
+        Files.write(journalFile.toPath(), Arrays.copyOfRange(committed, HEADER_LENGTH, committed.length),
+                StandardOpenOption.APPEND);
+        assertThrows(IOException.class, () -> LedgerFiles.read(file));
+
+        // the removal of an AccountingEntity, which is not a record kind
+        Files.write(journalFile.toPath(), committed);
+        Files.write(journalFile.toPath(), record((byte) 3, ByteBuffer.allocate(Integer.BYTES).putInt(1).array()),
+                StandardOpenOption.APPEND);
+        assertThrows(IOException.class, () -> LedgerFiles.read(file));
+    }
+
+    @Test
+    public void reportsFailedCompaction() throws IOException {
+        Path blocked = directory.resolve(file.getName() + ".tmp");
+        try (LedgerJournal journal = LedgerJournal.open(file, huischLedger, 0)) {
+            huischLedger.addTransaction(new Transaction(1, 1, 0, 10, LocalDate.parse("2020-01-15"), "Terug"));
+            // the ledger file cannot be written while its temporary file is a directory
+            Files.createDirectory(blocked);
+            LedgerJournal.Commit commit = journal.prepareCommit(huischLedger::snapshot);
+            assertThrows(IOException.class, commit::run);
+            assertTrue(commit.isWritten());
+            assertTrue(LedgerFiles.read(file).containsTransactionById(1));
+
+            // the next commit compacts the journal after all
+            Files.deleteIfExists(blocked);
+            huischLedger.addTransaction(new Transaction(2, 1, 0, 5, LocalDate.parse("2020-01-16"), "Nog eens"));
+            journal.commit();
+            assertTrue(LedgerJournal.fileOf(file).length() < 32);
+        }
+        assertEquals(huischLedger, LedgerFiles.read(file));
+    }
+
+    @Test
+    public void compactsPastThreshold() throws IOException {
+        try (LedgerJournal journal = LedgerJournal.open(file, huischLedger, 0)) {
+            huischLedger.addTransaction(new Transaction(1, 1, 0, 10, LocalDate.parse("2020-01-15"), "Terug"));
+            journal.commit();
+
+            // the journal was folded into the ledger file, so a fresh journal only has its header
+            assertTrue(LedgerJournal.fileOf(file).length() < 32);
+            assertEquals(huischLedger, LedgerFiles.read(file));
+
+            huischLedger.removeTransaction(1);
+            journal.commit();
+        }
+        assertEquals(huischLedger, LedgerFiles.read(file));
+    }
+
+    @Test
+    public void snapshotsOnlyToCompact() throws IOException {
+        try (LedgerJournal journal = LedgerJournal.open(file, huischLedger)) {
+            huischLedger.addTransaction(new Transaction(1, 1, 0, 10, LocalDate.parse("2020-01-15"), "Terug"));
+            journal.prepareCommit(() -> fail("The journal is not compacted")).run();
+        }
+        LedgerSummary summary = LedgerSummary.read(file);
+        assertNotNull(summary);
+        assertEquals(2, summary.getTransactionCount());
+        assertEquals(LocalDate.parse("2020-01-15"), summary.getLastDate());
+
+        List<HuischLedger> snapshots = new ArrayList<>();
+        try (LedgerJournal journal = LedgerJournal.open(file, huischLedger, 0)) {
+            huischLedger.removeTransaction(1);
+            journal.prepareCommit(() -> {
+                snapshots.add(huischLedger.snapshot());
+                return snapshots.get(0);
+            }).run();
+        }
+        assertEquals(1, snapshots.size());
+        assertEquals(huischLedger, LedgerFiles.read(file));
+    }
+
+    @Test
+    public void commitsRaceWithClose() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (int id = 1; id <= 50; id++) {
+                // a threshold of zero makes every commit compact the journal as well
+                LedgerJournal journal = LedgerJournal.open(file, huischLedger, (id % 2 == 0) ? 0 : 1 << 20);
+                huischLedger.addTransaction(new Transaction(id, 1, 0, 10, LocalDate.parse("2020-01-15"), "Terug"));
+                LedgerJournal.Commit commit = journal.prepareCommit(huischLedger::snapshot);
+
+                Future<?> running = executor.submit(() -> {
+                    commit.run();
+                    return null;
+                });
+                journal.close();
+                boolean committed = true;
+                try {
+                    running.get();
+                } catch (ExecutionException e) {
+                    // the commit may only fail because the journal was closed before it ran
+                    assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+                    committed = false;
+                }
+
+                HuischLedger read = LedgerFiles.read(file);
+                assertEquals(committed, read.containsTransactionById(id));
+                if (committed) {
+                    assertEquals(huischLedger, read);
+                }
+                // go on with what was saved, as reopening the file would
+                huischLedger = read;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void abandonedCommitsPrecedeNewerChanges() throws IOException {
+        try (LedgerJournal journal = LedgerJournal.open(file, huischLedger)) {
+            huischLedger.addTransaction(new Transaction(1, 1, 0, 10, LocalDate.parse("2020-01-15"), "Terug"));
+            LedgerJournal.Commit failed = journal.prepareCommit(huischLedger::snapshot);
+            assertFalse(journal.hasPendingChanges());
+
+            // a change made while the commit runs, after which the commit fails
+            huischLedger.removeTransaction(1);
+            failed.abandon();
+
+            journal.prepareCommit(huischLedger::snapshot).run();
+        }
+        assertEquals(huischLedger, LedgerFiles.read(file));
+        assertFalse(LedgerFiles.read(file).containsTransactionById(1));
+    }
+
+    @Test
+    public void ignoresDamagedTailAndStaleJournals() throws IOException {
+        try (LedgerJournal journal = LedgerJournal.open(file, huischLedger)) {
+            huischLedger.addTransaction(new Transaction(1, 1, 0, 10, LocalDate.parse("2020-01-15"), "Terug"));
+            journal.commit();
+            huischLedger.addTransaction(new Transaction(2, 1, 0, 5, LocalDate.parse("2020-01-16"), "Nog eens"));
+            journal.commit();
+        }
+
+        // cut the last record in half, as a crash during a commit would
+        File journalFile = LedgerJournal.fileOf(file);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(journalFile, "rw")) {
+            randomAccessFile.setLength(randomAccessFile.length() - 10);
+        }
+        HuischLedger read = LedgerFiles.read(file);
+        assertTrue(read.containsTransactionById(1));
+        assertFalse(read.containsTransactionById(2));
+
+        // writing the ledger file in full leaves no journal behind
+        LedgerFiles.write(file, read);
+        assertFalse(journalFile.exists());
+        assertEquals(read, LedgerFiles.read(file));
+    }
+
+    private static byte[] record(byte kind, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(kind);
+        crc.update(payload);
+        return ByteBuffer.allocate(1 + Integer.BYTES * 2 + payload.length)
+                .put(kind)
+                .putInt(payload.length)
+                .put(payload)
+                .putInt((int) crc.getValue())
+                .array();
+    }
+}
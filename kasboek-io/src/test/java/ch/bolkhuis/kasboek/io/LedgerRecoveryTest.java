@@ -0,0 +1,102 @@
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for writing, finding and restoring a {@link LedgerRecovery}.
+ */
+class LedgerRecoveryTest {
+    @TempDir
+    Path directory;
+
+    private HuischLedger createHuischLedger() {
+        HuischLedger huischLedger = new HuischLedger();
+        huischLedger.addAccountingEntity(new InmateEntity(0, "Gerrit", 0, 0));
+        huischLedger.addAccountingEntity(new AccountingEntity(1, "ING", AccountType.ASSET, 100));
+        huischLedger.addTransaction(new Transaction(0, 0, 1, 25, LocalDate.parse("2020-01-01"), "Inleg"));
+        return huischLedger;
+    }
+
+    @Test
+    public void restoresWrittenSnapshot() throws IOException {
+        File ledgerFile = directory.resolve("kasboek.hlf").toFile();
+        HuischLedger huischLedger = createHuischLedger();
+        LedgerRecovery.of(directory.toFile(), ledgerFile).write(huischLedger);
+        LedgerRecovery.of(directory.toFile(), null).write(new HuischLedger());
+        Files.writeString(directory.resolve("damaged.hlr"), "not a recovery file");
+
+        List<LedgerRecovery> recoveries = LedgerRecovery.find(directory.toFile());
+        assertEquals(2, recoveries.size());
+        LedgerRecovery recovery = recoveries.stream()
+                .filter(r -> r.getLedgerFile() != null)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(ledgerFile.getAbsoluteFile(), recovery.getLedgerFile());
+        assertTrue(recovery.getSavedAt() > 0);
+        assertEquals(huischLedger, recovery.read());
+    }
+
+    @Test
+    public void restoresJournalChanges() throws IOException {
+        File ledgerFile = directory.resolve("kasboek.hlf").toFile();
+        LedgerFiles.write(ledgerFile, createHuischLedger());
+        HuischLedger huischLedger = LedgerFiles.read(ledgerFile);
+        LedgerRecovery recovery = LedgerRecovery.of(directory.toFile(), ledgerFile);
+
+        try (LedgerJournal journal = LedgerJournal.open(ledgerFile, huischLedger)) {
+            huischLedger.addTransaction(new Transaction(1, 1, 0, 10, LocalDate.parse("2020-01-15"), "Terug"));
+            journal.commit();
+            // only the changes after the last commit are in the recovery file
+            huischLedger.addAccountingEntity(new AccountingEntity(2, "Keuken", AccountType.EXPENSE, 0));
+            huischLedger.addTransaction(new Transaction(2, 2, 0, 5, LocalDate.parse("2020-01-16"), "Brood"));
+            huischLedger.removeTransaction(0);
+            recovery.write(journal.uncommittedChanges());
+        }
+
+        LedgerRecovery found = LedgerRecovery.find(directory.toFile()).get(0);
+        assertEquals(huischLedger, found.read());
+    }
+
+    @Test
+    public void rejectsChangesToAnotherLedgerFile() throws IOException {
+        File ledgerFile = directory.resolve("kasboek.hlf").toFile();
+        LedgerFiles.write(ledgerFile, createHuischLedger());
+        HuischLedger huischLedger = LedgerFiles.read(ledgerFile);
+        LedgerRecovery recovery = LedgerRecovery.of(directory.toFile(), ledgerFile);
+
+        try (LedgerJournal journal = LedgerJournal.open(ledgerFile, huischLedger)) {
+            huischLedger.addTransaction(new Transaction(1, 1, 0, 10, LocalDate.parse("2020-01-15"), "Terug"));
+            recovery.write(journal.uncommittedChanges());
+            assertThrows(IllegalArgumentException.class, () -> LedgerRecovery.of(directory.toFile(),
+                    directory.resolve("ander.hlf").toFile()).write(journal.uncommittedChanges()));
+
+            // the changes were committed after the recovery file was written, so they would be applied twice
+            journal.commit();
+        }
+        assertThrows(IOException.class, recovery::read);
+    }
+
+    @Test
+    public void discardDropsLaterSnapshots() throws IOException {
+        LedgerRecovery recovery = LedgerRecovery.of(directory.toFile(), null);
+        recovery.write(createHuischLedger());
+        assertTrue(recovery.getRecoveryFile().exists());
+
+        recovery.discard();
+        assertFalse(recovery.getRecoveryFile().exists());
+        // a snapshot that was still being written when the recovery was discarded
+        recovery.write(createHuischLedger());
+        assertTrue(LedgerRecovery.find(directory.toFile()).isEmpty());
+    }
+}
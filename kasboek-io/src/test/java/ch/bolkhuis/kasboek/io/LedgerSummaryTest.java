@@ -0,0 +1,82 @@
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link LedgerSummary} that is written next to a ledger file.
+ */
+class LedgerSummaryTest {
+    @TempDir
+    Path directory;
+
+    private HuischLedger createHuischLedger() {
+        HuischLedger huischLedger = new HuischLedger();
+        huischLedger.addAccountingEntity(new InmateEntity(0, "Gerrit", 0, 0));
+        huischLedger.addAccountingEntity(new AccountingEntity(1, "ING", AccountType.ASSET, 100));
+        huischLedger.addTransaction(new Transaction(0, 0, 1, 25, LocalDate.parse("2020-01-01"), "Inleg"));
+        huischLedger.addTransaction(new Transaction(1, 1, 0, 5, LocalDate.parse("2020-03-15"), "Terug"));
+        return huischLedger;
+    }
+
+    @Test
+    public void summarizesWrittenLedger() throws IOException {
+        File ledgerFile = directory.resolve("kasboek.hlf").toFile();
+        LedgerFiles.write(ledgerFile, createHuischLedger());
+
+        LedgerSummary summary = LedgerSummary.read(ledgerFile);
+        assertNotNull(summary);
+        assertEquals("kasboek", summary.getName());
+        assertEquals(2, summary.getAccountingEntityCount());
+        assertEquals(2, summary.getTransactionCount());
+        assertEquals(0, summary.getReceiptCount());
+        assertEquals(LocalDate.parse("2020-01-01"), summary.getFirstDate());
+        assertEquals(LocalDate.parse("2020-03-15"), summary.getLastDate());
+        assertTrue(summary.getSavedAt() > 0);
+    }
+
+    @Test
+    public void countsArchivedTransactions() throws IOException {
+        File ledgerFile = directory.resolve("kasboek.hlf").toFile();
+        LedgerFiles.write(ledgerFile, createHuischLedger());
+
+        HuischLedger read = LedgerFiles.read(ledgerFile, LocalDate.parse("2020-02-01"));
+        assertEquals(1, read.getTransactions().size());
+        assertEquals(2, read.transactionCount());
+        assertEquals(LocalDate.parse("2020-01-01"), read.firstTransactionDate());
+        assertEquals(LocalDate.parse("2020-03-15"), read.lastTransactionDate());
+        assertEquals(1, read.getTransactions().size());
+    }
+
+    @Test
+    public void ignoresMissingAndStaleSummaries() throws IOException {
+        File ledgerFile = directory.resolve("kasboek.hlf").toFile();
+        LedgerFiles.write(ledgerFile, createHuischLedger());
+        File summaryFile = LedgerSummary.fileOf(ledgerFile);
+
+        // the ledger file was replaced after the summary was written
+        assertTrue(ledgerFile.setLastModified(summaryFile.lastModified() + 10_000));
+        assertNull(LedgerSummary.read(ledgerFile));
+
+        Files.delete(summaryFile.toPath());
+        assertNull(LedgerSummary.read(ledgerFile));
+    }
+
+    @Test
+    public void rejectsDamagedSummaries() throws IOException {
+        File ledgerFile = directory.resolve("kasboek.hlf").toFile();
+        LedgerFiles.write(ledgerFile, createHuischLedger());
+        Files.writeString(LedgerSummary.fileOf(ledgerFile).toPath(), "not a summary");
+
+        assertThrows(IOException.class, () -> LedgerSummary.read(ledgerFile));
+    }
+}
@@ -0,0 +1,63 @@
+package ch.bolkhuis.kasboek.io;
+
+import ch.bolkhuis.kasboek.core.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests reporting progress and cancelling through {@link LedgerFiles#read(File, LocalDate, java.util.function.LongConsumer)}.
+ */
+class ProgressInputStreamTest {
+    @TempDir
+    Path directory;
+
+    private File writeHuischLedger() throws IOException {
+        HuischLedger huischLedger = new HuischLedger();
+        huischLedger.addAccountingEntity(new InmateEntity(0, "Gerrit", 0, 0));
+        huischLedger.addAccountingEntity(new AccountingEntity(1, "ING", AccountType.ASSET, 100));
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            transactions.add(new Transaction(i, i % 2, (i + 1) % 2, 1, LocalDate.parse("2020-01-01").plusDays(i % 400),
+                    "Transactie " + i));
+        }
+        huischLedger.addTransactions(transactions);
+
+        File file = directory.resolve("kasboek.hlf").toFile();
+        LedgerFiles.write(file, huischLedger);
+        return file;
+    }
+
+    @Test
+    public void reportsBytesRead() throws IOException {
+        File file = writeHuischLedger();
+        List<Long> progress = new ArrayList<>();
+
+        HuischLedger read = LedgerFiles.read(file, null, progress::add);
+
+        assertEquals(10_000, read.getTransactions().size());
+        assertFalse(progress.isEmpty());
+        assertEquals(file.length(), progress.get(progress.size() - 1));
+    }
+
+    @Test
+    public void stopsWhenInterrupted() throws IOException {
+        File file = writeHuischLedger();
+
+        try {
+            Thread.currentThread().interrupt();
+            assertThrows(InterruptedIOException.class, () -> LedgerFiles.read(file, null, bytesRead -> { }));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}